@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Weasis Team.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ *******************************************************************************/
+package org.weasis.image.jni;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of direct buffers shared by the native codecs.
+ *
+ * Direct buffers are slow to allocate and their native memory is only freed when the garbage collector processes them.
+ * The buffers are grouped by size classes (powers of two) and must be given back with {@link #release(ByteBuffer)}
+ * when the native decoding or encoding is completed. Buffers which have not been acquired from the pool are ignored
+ * by {@link #release(ByteBuffer)}.
+ *
+ * The maximum memory kept by the pool can be set with the system property "weasis.jni.buffer.pool.size" (in MB).
+ */
+public final class DirectBufferPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectBufferPool.class);
+
+    private static final int MIN_CLASS = 16; // 64 KB
+    private static final int MAX_CLASS = 28; // 256 MB
+
+    private static final long MAX_POOLED_BYTES =
+        Long.getLong("weasis.jni.buffer.pool.size", 128L) * 1024L * 1024L; //$NON-NLS-1$
+
+    private static final DirectBufferPool INSTANCE = new DirectBufferPool(MAX_POOLED_BYTES);
+
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedDeque<ByteBuffer>[] pools = new ConcurrentLinkedDeque[MAX_CLASS + 1];
+    private final Set<ByteBuffer> inFlight = Collections.newSetFromMap(new IdentityHashMap<ByteBuffer, Boolean>());
+    private final long maxPooledBytes;
+
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong bytesInFlight = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    DirectBufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        for (int i = MIN_CLASS; i <= MAX_CLASS; i++) {
+            pools[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    public static DirectBufferPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param size
+     *            the required number of bytes
+     * @return a direct buffer in native order with position = 0 and limit = size. The capacity can be larger.
+     */
+    public ByteBuffer acquire(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative buffer size: " + size); //$NON-NLS-1$
+        }
+        int sizeClass = getSizeClass(size);
+        ByteBuffer buffer = null;
+        if (sizeClass <= MAX_CLASS) {
+            buffer = pools[sizeClass].pollFirst();
+        }
+        if (buffer == null) {
+            misses.incrementAndGet();
+            buffer = ByteBuffer.allocateDirect(sizeClass <= MAX_CLASS ? 1 << sizeClass : size);
+        } else {
+            hits.incrementAndGet();
+            pooledBytes.addAndGet(-buffer.capacity());
+        }
+        buffer.clear();
+        buffer.limit(size);
+        buffer.order(ByteOrder.nativeOrder());
+
+        synchronized (inFlight) {
+            inFlight.add(buffer);
+        }
+        bytesInFlight.addAndGet(buffer.capacity());
+        return buffer;
+    }
+
+    /**
+     * Gives back a buffer acquired from the pool. The buffer and all its views must not be used anymore.
+     *
+     * @param buffer
+     *            the buffer (can be null or not coming from the pool)
+     * @return true if the buffer came from the pool
+     */
+    public boolean release(ByteBuffer buffer) {
+        if (buffer == null) {
+            return false;
+        }
+        synchronized (inFlight) {
+            if (!inFlight.remove(buffer)) {
+                return false;
+            }
+        }
+        int capacity = buffer.capacity();
+        bytesInFlight.addAndGet(-capacity);
+
+        int sizeClass = getSizeClass(capacity);
+        if (sizeClass <= MAX_CLASS && (1 << sizeClass) == capacity) {
+            if (pooledBytes.addAndGet(capacity) <= maxPooledBytes) {
+                // LIFO to reuse the buffers which are likely to be still in the CPU cache or in physical memory
+                pools[sizeClass].offerFirst(buffer);
+            } else {
+                pooledBytes.addAndGet(-capacity);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the idle buffers, their native memory will be freed by the garbage collector.
+     */
+    public void clear() {
+        for (int i = MIN_CLASS; i <= MAX_CLASS; i++) {
+            ByteBuffer b;
+            while ((b = pools[i].pollFirst()) != null) {
+                pooledBytes.addAndGet(-b.capacity());
+            }
+        }
+    }
+
+    public long getBytesInFlight() {
+        return bytesInFlight.get();
+    }
+
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public void logStatistics() {
+        LOGGER.debug("Direct buffer pool: {} bytes in flight, {} bytes pooled, hit rate {}%", getBytesInFlight(), //$NON-NLS-1$
+            getPooledBytes(), Math.round(getHitRate() * 100.0));
+    }
+
+    private static int getSizeClass(int size) {
+        if (size <= 1 << MIN_CLASS) {
+            return MIN_CLASS;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+}
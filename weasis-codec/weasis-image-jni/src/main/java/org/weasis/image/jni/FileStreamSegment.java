@@ -89,8 +89,8 @@ class FileStreamSegment extends StreamSegment {
             for (int i = startSeg + 1; i <= endSeg; i++) {
                 length += segLength[i];
             }
-            ByteBuffer buffer = ByteBuffer.allocateDirect(length);
-            buffer.order(ByteOrder.nativeOrder());
+            // Must be given back with DirectBufferPool.release() when the decoding is completed
+            ByteBuffer buffer = DirectBufferPool.getInstance().acquire(length);
             for (int i = startSeg; i <= endSeg; i++) {
                 buffer.put(file.getChannel().map(FileChannel.MapMode.READ_ONLY, segPosition[i], segLength[i]));
             }
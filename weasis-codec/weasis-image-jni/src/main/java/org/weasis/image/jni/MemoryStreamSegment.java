@@ -4,7 +4,6 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 import javax.imageio.stream.MemoryCacheImageInputStream;
 
@@ -23,9 +22,10 @@ class MemoryStreamSegment extends StreamSegment {
 
     @Override
     public ByteBuffer getDirectByteBuffer(int segment) throws IOException {
-        ByteBuffer buffer = ByteBuffer.allocateDirect(segLength[segment]);
-        buffer.order(ByteOrder.nativeOrder());
+        // Must be given back with DirectBufferPool.release() when the decoding is completed
+        ByteBuffer buffer = DirectBufferPool.getInstance().acquire(segLength[segment]);
         buffer.put(inputStream);
+        buffer.rewind();
         return buffer;
     }
 
@@ -31,6 +31,8 @@ public abstract class NativeImage {
 
     protected Buffer inputBuffer;
     protected Buffer outputBuffer;
+    // Buffer coming from DirectBufferPool, outputBuffer can be a view of it
+    private ByteBuffer directOutputBuffer;
 
     public NativeImage() {
     }
@@ -103,10 +105,33 @@ public abstract class NativeImage {
         return buffer;
     }
 
+    /**
+     * Gets a direct output buffer from the pool, it is given back by {@link #releaseDirectOutputBuffer()}.
+     *
+     * @param size
+     *            the number of bytes
+     * @return the output buffer in native order
+     */
     public ByteBuffer allocateDirectByteBuffer(int size) {
-        // For large buffer, It is slower due to the way of the JVM allocates this kind of memory (fragmented).
-        outputBuffer = ByteBuffer.allocateDirect(size);
-        return (ByteBuffer) outputBuffer;
+        releaseDirectOutputBuffer();
+        // Allocating a direct buffer is slow and its memory is only freed by the GC, so the buffers are reused.
+        directOutputBuffer = DirectBufferPool.getInstance().acquire(size);
+        outputBuffer = directOutputBuffer;
+        return directOutputBuffer;
+    }
+
+    /**
+     * Gives back to the pool the buffer allocated by {@link #allocateDirectByteBuffer(int)}. The output buffer must be
+     * copied before.
+     */
+    public void releaseDirectOutputBuffer() {
+        if (directOutputBuffer != null) {
+            if (outputBuffer == directOutputBuffer || (outputBuffer != null && outputBuffer.isDirect())) {
+                outputBuffer = null;
+            }
+            DirectBufferPool.getInstance().release(directOutputBuffer);
+            directOutputBuffer = null;
+        }
     }
 
     public static void writeByteBuffer(ImageOutputStream ouputStream, ByteBuffer outBuf, int bytesWritten)
@@ -445,11 +445,8 @@ public abstract class NativeImageReader extends ImageReader {
                     if (buf.hasArray()) {
                         byteData = (byte[]) buf.array();
                     } else {
-                        ByteBuffer byteBuffer = (ByteBuffer) buf;
                         byteData = new byte[limit];
-                        for (int i = 0; i < byteData.length; i++) {
-                            byteData[i] = byteBuffer.get();
-                        }
+                        ((ByteBuffer) buf).get(byteData);
                     }
                     db = new DataBufferByte(byteData, byteData.length - dataOffset, dataOffset);
                     // } else {
@@ -472,11 +469,8 @@ public abstract class NativeImageReader extends ImageReader {
                         shortData = (short[]) buf.array();
 
                     } else {
-                        ShortBuffer byteBuffer = (ShortBuffer) buf;
                         shortData = new short[limit];
-                        for (int i = 0; i < shortData.length; i++) {
-                            shortData[i] = byteBuffer.get();
-                        }
+                        ((ShortBuffer) buf).get(shortData);
                     }
                     // By default short buffer is unsigned, must be explicitly set before to be signed short.
                     // If not, RectifyUShortToShortDataDescriptor will fix this issue
@@ -487,6 +481,8 @@ public abstract class NativeImageReader extends ImageReader {
                     }
                 }
                 img.outputBuffer = null;
+                // The data has been copied, the native buffer can be reused by the next decoding
+                img.releaseDirectOutputBuffer();
             }
         }
         return db;
@@ -519,6 +515,9 @@ public abstract class NativeImageReader extends ImageReader {
 
         long stop = System.currentTimeMillis();
         LOGGER.debug("Building BufferedImage time: {} ms", stop - start); //$NON-NLS-1$
+        if (LOGGER.isDebugEnabled()) {
+            DirectBufferPool.getInstance().logStatistics();
+        }
         return new BufferedImage(type.getColorModel(), raster, false, null);
     }
 
@@ -551,6 +550,9 @@ public abstract class NativeImageReader extends ImageReader {
     protected void resetLocal() {
         highMark = Long.MIN_VALUE;
         imageStartPosition.clear();
+        for (NativeImage img : nativeImages.values()) {
+            img.releaseDirectOutputBuffer();
+        }
         nativeImages.clear();
         imageTypes.clear();
         numImages = -1;
@@ -23,6 +23,7 @@ import javax.imageio.stream.ImageOutputStream;
 
 import org.bytedeco.javacpp.SizeTPointer;
 import org.weasis.image.jni.StreamSegment;
+import org.weasis.image.jni.DirectBufferPool;
 import org.weasis.image.jni.ImageParameters;
 import org.weasis.image.jni.NativeCodec;
 import org.weasis.image.jni.NativeImage;
@@ -43,8 +44,9 @@ public class CharlsCodec implements NativeCodec {
         if (seg != null) {
             org.weasis.jpeg.cpp.libijg.JlsParameters p = new org.weasis.jpeg.cpp.libijg.JlsParameters();
             ByteStreamInfo input = null;
+            ByteBuffer buffer = null;
             try {
-                ByteBuffer buffer = seg.getDirectByteBuffer(0);
+                buffer = seg.getDirectByteBuffer(0);
                 SizeTPointer size = new SizeTPointer(1);
                 size.put(buffer.limit());
                 input = libijg.FromByteArray(buffer, size);
@@ -59,6 +61,7 @@ public class CharlsCodec implements NativeCodec {
                 if (input != null) {
                     input.deallocate();
                 }
+                DirectBufferPool.getInstance().release(buffer);
             }
         }
         return ret == 0 ? null : libijg.getErrorMessage(ret);
@@ -72,9 +75,10 @@ public class CharlsCodec implements NativeCodec {
         if (seg != null) {
             org.weasis.jpeg.cpp.libijg.JlsParameters p = new org.weasis.jpeg.cpp.libijg.JlsParameters();
             ByteStreamInfo input = null;
+            ByteBuffer buffer = null;
             try {
                 // When multiple fragments segments, aggregate them in the byteBuffer.
-                ByteBuffer buffer = seg.getDirectByteBuffer(0, seg.getSegLength().length - 1);
+                buffer = seg.getDirectByteBuffer(0, seg.getSegLength().length - 1);
                 SizeTPointer size = new SizeTPointer(1);
                 size.put(buffer.limit());
                 input = libijg.FromByteArray(buffer, size);
@@ -100,7 +104,7 @@ public class CharlsCodec implements NativeCodec {
                 p.colorTransform(0); // default (RGB)
 
                 // Build outputStream here and transform to an array
-                ByteBuffer outBuf = ByteBuffer.allocateDirect(p.bytesperline() * p.height());
+                ByteBuffer outBuf = nImage.allocateDirectByteBuffer(p.bytesperline() * p.height());
                 outBuf.order(ByteOrder.nativeOrder()); // Not test with big endian system
                 SizeTPointer size2 = new SizeTPointer(1);
                 size2.put(outBuf.limit());
@@ -121,6 +125,10 @@ public class CharlsCodec implements NativeCodec {
                 if (input != null) {
                     input.deallocate();
                 }
+                DirectBufferPool.getInstance().release(buffer);
+                if (ret != libijg.OK) {
+                    nImage.releaseDirectOutputBuffer();
+                }
             }
         }
         return ret == 0 ? null : libijg.getErrorMessage(ret);
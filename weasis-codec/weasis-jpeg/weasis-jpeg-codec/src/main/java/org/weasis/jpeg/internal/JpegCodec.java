@@ -26,6 +26,7 @@ import org.bytedeco.javacpp.IntPointer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.image.jni.StreamSegment;
+import org.weasis.image.jni.DirectBufferPool;
 import org.weasis.image.jni.ImageParameters;
 import org.weasis.image.jni.NativeCodec;
 import org.weasis.image.jni.NativeImage;
@@ -50,8 +51,9 @@ public class JpegCodec implements NativeCodec {
         StreamSegment seg = nImage.getStreamSegment();
         if (seg != null) {
             DecoderIJG decomp = new DJDecompressIJG8Bit();
+            ByteBuffer buffer = null;
             try {
-                ByteBuffer buffer = seg.getDirectByteBuffer(0);
+                buffer = seg.getDirectByteBuffer(0);
                 decomp.init(false);
                 RETURN_MSG val = decomp.readHeader(buffer, buffer.limit(), false);
                 if (val != null && val.code() == libijg.OK) {
@@ -66,6 +68,7 @@ public class JpegCodec implements NativeCodec {
             } finally {
                 // Do not close inChannel (comes from image input stream)
                 decomp.deallocate();
+                DirectBufferPool.getInstance().release(buffer);
             }
         }
         return msg;
@@ -84,9 +87,10 @@ public class JpegCodec implements NativeCodec {
             }
             DecoderIJG decomp = bps > 12 ? new DJDecompressIJG16Bit()
                 : bps > 8 ? new DJDecompressIJG12Bit() : new DJDecompressIJG8Bit();
+            ByteBuffer buffer = null;
             try {
                 int segmentFragment = 0;
-                ByteBuffer buffer = seg.getDirectByteBuffer(segmentFragment);
+                buffer = seg.getDirectByteBuffer(segmentFragment);
                 boolean signed = params.isSignedData();
                 // Force to convert YBR to RGB even when jpeg header has an RGB input color model. Not supported for
                 // signed data.
@@ -98,7 +102,7 @@ public class JpegCodec implements NativeCodec {
                     setParameters(nImage.getImageParameters(), decomp);
                     LOGGER.debug("Input color space {}", decomp.getJpeg_DecompressStruct().jpeg_color_space());
                     // Build outputStream here and transform to an array
-                    ByteBuffer outBuf = ByteBuffer.allocateDirect(params.getBytesPerLine() * params.getHeight());
+                    ByteBuffer outBuf = nImage.allocateDirectByteBuffer(params.getBytesPerLine() * params.getHeight());
                     outBuf.order(ByteOrder.LITTLE_ENDIAN);
 
                     int result = libijg.EJ_Suspension;
@@ -107,6 +111,7 @@ public class JpegCodec implements NativeCodec {
                         result = val.code();
                         if (result == libijg.EJ_Suspension) {
                             segmentFragment++;
+                            DirectBufferPool.getInstance().release(buffer);
                             buffer = seg.getDirectByteBuffer(segmentFragment);
                         }
                     }
@@ -124,6 +129,10 @@ public class JpegCodec implements NativeCodec {
             } finally {
                 decomp.deallocate();
                 // Do not close inChannel (comes from image input stream)
+                DirectBufferPool.getInstance().release(buffer);
+                if (msg != null || nImage.getOutputBuffer() == null) {
+                    nImage.releaseDirectOutputBuffer();
+                }
             }
         }
         return msg;
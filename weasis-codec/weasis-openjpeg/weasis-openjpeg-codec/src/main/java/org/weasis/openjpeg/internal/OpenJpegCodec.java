@@ -26,6 +26,7 @@ import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.SizeTPointer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.weasis.image.jni.DirectBufferPool;
 import org.weasis.image.jni.ImageParameters;
 import org.weasis.image.jni.NativeCodec;
 import org.weasis.image.jni.NativeImage;
@@ -67,8 +68,9 @@ public class OpenJpegCodec implements NativeCodec {
             Pointer l_stream = null;
             Pointer codec = null;
             openjpeg.opj_image image = null;
+            ByteBuffer buffer = null;
             try {
-                ByteBuffer buffer = seg.getDirectByteBuffer(0);
+                buffer = seg.getDirectByteBuffer(0);
 
                 SourceData j2kFile = new SourceData();
                 j2kFile.data(buffer);
@@ -122,6 +124,7 @@ public class OpenJpegCodec implements NativeCodec {
                     image.deallocate();
                 }
                 // Do not close inChannel (comes from image input stream)
+                DirectBufferPool.getInstance().release(buffer);
             }
         }
         return msg;
@@ -135,9 +138,10 @@ public class OpenJpegCodec implements NativeCodec {
             Pointer l_stream = null;
             Pointer codec = null;
             openjpeg.opj_image image = null;
+            ByteBuffer buffer = null;
             try {
                 // When multiple fragments segments, aggregate them in the byteBuffer.
-                ByteBuffer buffer = seg.getDirectByteBuffer(0, seg.getSegLength().length - 1);
+                buffer = seg.getDirectByteBuffer(0, seg.getSegLength().length - 1);
                 // TODO apply signed at DICOM level?
                 // boolean signed = params.isSignedData();
 
@@ -271,6 +275,8 @@ public class OpenJpegCodec implements NativeCodec {
                 j2kFile.deallocate();
                 l_stream.deallocate();
                 l_stream = null;
+                DirectBufferPool.getInstance().release(buffer);
+                buffer = null;
 
                 int bands = image.numcomps();
                 if (bands > 0) {
@@ -372,6 +378,7 @@ public class OpenJpegCodec implements NativeCodec {
                     image.deallocate();
                 }
                 // Do not close inChannel (comes from image input stream)
+                DirectBufferPool.getInstance().release(buffer);
             }
         }
         return msg;
@@ -18,6 +18,8 @@ import org.weasis.core.api.gui.util.JMVUtils;
 public abstract class AbstractOp implements ImageOpNode {
 
     protected HashMap<String, Object> params;
+    // Incremented when a parameter which is not an input or an output image is modified
+    private long paramVersion;
 
     public AbstractOp() {
         params = new HashMap<>();
@@ -28,15 +30,27 @@ public abstract class AbstractOp implements ImageOpNode {
         clearIOCache();
     }
 
+    /**
+     * @return the version of the parameters, used to know whether the operation must be executed again
+     */
+    public long getParamVersion() {
+        return paramVersion;
+    }
+
+    private static boolean isIOParam(String key) {
+        return key.startsWith("op.input") || key.startsWith("op.output"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
     @Override
     public void clearParams() {
         params.clear();
+        paramVersion++;
     }
 
     @Override
     public void clearIOCache() {
         for (String key : params.keySet()) {
-            if (key.startsWith("op.input") || key.startsWith("op.output")) { //$NON-NLS-1$ //$NON-NLS-2$
+            if (isIOParam(key)) {
                 params.put(key, null);
             }
         }
@@ -54,6 +68,10 @@ public abstract class AbstractOp implements ImageOpNode {
     public void setParam(String key, Object value) {
         if (key != null) {
             params.put(key, value);
+            if (!isIOParam(key)) {
+                // The value can be the same mutable object modified by the caller, so always considered as a change
+                paramVersion++;
+            }
         }
     }
 
@@ -61,13 +79,17 @@ public abstract class AbstractOp implements ImageOpNode {
     public void setAllParameters(Map<String, Object> map) {
         if (map != null) {
             params.putAll(map);
+            paramVersion++;
         }
     }
 
     @Override
     public void removeParam(String key) {
-        if (key != null) {
+        if (key != null && params.containsKey(key)) {
             params.remove(key);
+            if (!isIOParam(key)) {
+                paramVersion++;
+            }
         }
     }
 
@@ -78,7 +100,10 @@ public abstract class AbstractOp implements ImageOpNode {
 
     @Override
     public void setEnabled(boolean enabled) {
-        params.put(Param.ENABLE, enabled);
+        if (enabled != isEnabled()) {
+            params.put(Param.ENABLE, enabled);
+            paramVersion++;
+        }
     }
 
     @Override
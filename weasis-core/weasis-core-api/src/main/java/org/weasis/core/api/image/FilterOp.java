@@ -34,6 +34,8 @@ public class FilterOp extends AbstractOp {
 
     public FilterOp() {
         setName(OP_NAME);
+        // The convolution is computed once, not at each change of the next operations (e.g. window/level)
+        setParam(Param.MATERIALIZE, true);
     }
 
     public FilterOp(FilterOp op) {
@@ -24,6 +24,12 @@ public interface ImageOpNode extends Copyable<ImageOpNode> {
         public static final String INPUT_IMG = "op.input.img"; //$NON-NLS-1$
         public static final String OUTPUT_IMG = "op.output.img"; //$NON-NLS-1$
 
+        /**
+         * When true, the output image is kept in memory once computed (for expensive operations which are not
+         * re-executed at each display change).
+         */
+        public static final String MATERIALIZE = "op.materialize"; //$NON-NLS-1$
+
         private Param() {
         }
     }
@@ -13,13 +13,17 @@ package org.weasis.core.api.image;
 import java.awt.image.RenderedImage;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Optional;
 
+import javax.media.jai.TiledImage;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.Messages;
+import org.weasis.core.api.gui.util.JMVUtils;
 import org.weasis.core.api.image.ImageOpNode.Param;
 
 public class SimpleOpManager implements OpManager {
@@ -31,10 +35,26 @@ public class SimpleOpManager implements OpManager {
         BEFORE, AFTER
     }
 
+    /**
+     * State of a node when it has been executed for the last time
+     */
+    private static final class NodeState {
+        private long paramVersion = -1L;
+        private Object input;
+        private Object output;
+    }
+
     private final HashMap<String, ImageOpNode> nodes;
     private final List<ImageOpNode> operations;
+    private final IdentityHashMap<ImageOpNode, NodeState> states = new IdentityHashMap<>();
     private String name;
 
+    // Instrumentation of the incremental evaluation
+    private int lastExecutedNodes;
+    private int lastFirstDirtyNode = -1;
+    private long executedNodes;
+    private long skippedNodes;
+
     public SimpleOpManager() {
         this(IMAGE_OP_NAME);
     }
@@ -111,6 +131,7 @@ public class SimpleOpManager implements OpManager {
 
     public void removeImageOperationAction(ImageOpNode action) {
         if (action != null) {
+            states.remove(action);
             boolean remove = operations.remove(action);
             if (nodes.remove(action.getName()) == null && remove) {
                 for (Entry<String, ImageOpNode> entry : nodes.entrySet()) {
@@ -128,6 +149,7 @@ public class SimpleOpManager implements OpManager {
         clearNodeParams();
         operations.clear();
         nodes.clear();
+        states.clear();
     }
 
     @Override
@@ -208,18 +230,44 @@ public class SimpleOpManager implements OpManager {
         }
     }
 
+    /**
+     * Executes the operations from the first one which is dirty. A node is dirty when its parameters have been
+     * modified, when its input image is not the one of its last execution or when its output has been cleared. The
+     * other nodes keep their previous output.
+     */
     @Override
     public RenderedImage process() {
         RenderedImage source = getFirstNodeInputImage();
+        int executed = 0;
+        int firstDirty = -1;
+        StringBuilder timings = LOGGER.isDebugEnabled() ? new StringBuilder() : null;
         if (source != null) {
             for (int i = 0; i < operations.size(); i++) {
                 ImageOpNode op = operations.get(i);
+                if (i > 0) {
+                    op.setParam(Param.INPUT_IMG, operations.get(i - 1).getParam(Param.OUTPUT_IMG));
+                }
+                NodeState state = states.computeIfAbsent(op, k -> new NodeState());
+                long version = op instanceof AbstractOp ? ((AbstractOp) op).getParamVersion() : -1L;
+                Object input = op.getParam(Param.INPUT_IMG);
+                Object output = op.getParam(Param.OUTPUT_IMG);
+                if (version >= 0 && version == state.paramVersion && input == state.input && output != null
+                    && output == state.output) {
+                    skippedNodes++;
+                    continue;
+                }
+
+                if (firstDirty < 0) {
+                    firstDirty = i;
+                }
+                executed++;
+                executedNodes++;
+                boolean failed = false;
+                long start = System.nanoTime();
                 try {
-                    if (i > 0) {
-                        op.setParam(Param.INPUT_IMG, operations.get(i - 1).getParam(Param.OUTPUT_IMG));
-                    }
                     if (op.isEnabled()) {
                         op.process();
+                        materialize(op);
                     } else {
                         // Skip this operation
                         op.setParam(Param.OUTPUT_IMG, op.getParam(Param.INPUT_IMG));
@@ -227,14 +275,71 @@ public class SimpleOpManager implements OpManager {
                 } catch (Exception e) {
                     LOGGER.error("Image {} failed: {}", op.getParam(Param.NAME), e); //$NON-NLS-1$
                     op.setParam(Param.OUTPUT_IMG, op.getParam(Param.INPUT_IMG));
+                    failed = true;
+                }
+                if (timings != null) {
+                    timings.append(timings.length() == 0 ? "" : ", ").append(op.getName()).append(' ') //$NON-NLS-1$ //$NON-NLS-2$
+                        .append(String.format("%.2f", (System.nanoTime() - start) / 1e6)); //$NON-NLS-1$
                 }
+                // Version read before processing: a parameter modified during the execution makes the node dirty
+                state.paramVersion = failed ? -1L : version;
+                state.input = input;
+                state.output = op.getParam(Param.OUTPUT_IMG);
             }
         } else {
             clearNodeIOCache();
+            states.clear();
+        }
+        lastExecutedNodes = executed;
+        lastFirstDirtyNode = firstDirty;
+        if (timings != null && executed > 0) {
+            // Time in ms of process() for each node, the JAI operations are computed when their tiles are requested
+            LOGGER.debug("{}: {} operation(s) executed from index {} ({} skipped in total): {}", name, executed, //$NON-NLS-1$
+                firstDirty, skippedNodes, timings);
         }
         return getLastNodeOutputImage();
     }
 
+    private static void materialize(ImageOpNode op) {
+        if (JMVUtils.getNULLtoFalse(op.getParam(Param.MATERIALIZE))) {
+            Object output = op.getParam(Param.OUTPUT_IMG);
+            if (output instanceof RenderedImage && output != op.getParam(Param.INPUT_IMG)
+                && !(output instanceof TiledImage)) {
+                RenderedImage img = (RenderedImage) output;
+                // The tiles are computed once when requested and then kept
+                op.setParam(Param.OUTPUT_IMG, new TiledImage(img, img.getTileWidth(), img.getTileHeight()));
+            }
+        }
+    }
+
+    /**
+     * @return the number of operations executed by the last call of process()
+     */
+    public int getLastExecutedNodes() {
+        return lastExecutedNodes;
+    }
+
+    /**
+     * @return the index of the first operation executed by the last call of process(), or -1 if nothing was dirty
+     */
+    public int getLastFirstDirtyNode() {
+        return lastFirstDirtyNode;
+    }
+
+    /**
+     * @return the total number of executed operations
+     */
+    public long getExecutedNodes() {
+        return executedNodes;
+    }
+
+    /**
+     * @return the total number of operations skipped because their output was still valid
+     */
+    public long getSkippedNodes() {
+        return skippedNodes;
+    }
+
     @Override
     public Object getParamValue(String opName, String param) {
         if (opName != null && param != null) {
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.core.api.image.util;
+
+import java.awt.Point;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.media.jai.TileCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link TileCache} which can be used by several rendering threads without a global lock (unlike the default
+ * SunTileCache which synchronizes all the methods).
+ *
+ * <ul>
+ * <li>The tiles of an image are stored in their own map and a new tile only locks the tiles of the same image.</li>
+ * <li>Reading a tile is lock-free.</li>
+ * <li>The images are weakly referenced, the tiles of a garbage collected image are released.</li>
+ * <li>The eviction is cost-aware (GreedyDual-Size): a large tile which is not often used is removed before a small
+ * one. When the tile cache metric is a positive number, it is used as the cost for computing the tile again.</li>
+ * </ul>
+ *
+ * When the memory used is above the capacity, the tiles are removed until the memory is below the capacity multiplied
+ * by the memory threshold. Only one thread does the eviction, the other threads are not blocked.
+ */
+public class ConcurrentTileCache implements TileCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentTileCache.class);
+
+    public static final long DEFAULT_MEMORY_CAPACITY = 64 * 1024L * 1024L;
+    public static final float DEFAULT_MEMORY_THRESHOLD = 0.75F;
+
+    private final Map<OwnerKey, ImageTiles> images = new ConcurrentHashMap<>();
+    private final ReferenceQueue<RenderedImage> collectedOwners = new ReferenceQueue<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AtomicLong memoryUsed = new AtomicLong();
+    private final AtomicLong tileCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private volatile long memoryCapacity;
+    private volatile float memoryThreshold;
+    private volatile Comparator tileComparator;
+    // Inflation value of the GreedyDual-Size policy, only modified by the eviction
+    private volatile double inflation;
+
+    public ConcurrentTileCache() {
+        this(DEFAULT_MEMORY_CAPACITY);
+    }
+
+    public ConcurrentTileCache(long memoryCapacity) {
+        if (memoryCapacity < 0) {
+            throw new IllegalArgumentException("Memory capacity cannot be negative"); //$NON-NLS-1$
+        }
+        this.memoryCapacity = memoryCapacity;
+        this.memoryThreshold = DEFAULT_MEMORY_THRESHOLD;
+    }
+
+    @Override
+    public void add(RenderedImage owner, int tileX, int tileY, Raster data) {
+        add(owner, tileX, tileY, data, null);
+    }
+
+    @Override
+    public void add(RenderedImage owner, int tileX, int tileY, Raster data, Object tileCacheMetric) {
+        if (owner == null || data == null || memoryCapacity == 0) {
+            return;
+        }
+        expungeCollectedOwners();
+        long size = getTileSize(data);
+        if (size > memoryCapacity) {
+            return;
+        }
+        Tile tile = new Tile(tileIndex(tileX, tileY), data, size, getCost(tileCacheMetric));
+        tile.touch(inflation);
+
+        while (true) {
+            ImageTiles tiles = getImageTiles(owner);
+            if (tiles == null) {
+                tiles = images.computeIfAbsent(new OwnerKey(owner, collectedOwners), k -> new ImageTiles());
+            }
+            if (tiles.put(tile)) {
+                break;
+            }
+            // The tiles have been removed concurrently, try again with a new entry
+        }
+
+        if (memoryUsed.get() > memoryCapacity) {
+            memoryControl();
+        }
+    }
+
+    @Override
+    public void addTiles(RenderedImage owner, Point[] tileIndices, Raster[] tiles, Object tileCacheMetric) {
+        if (tileIndices == null || tiles == null) {
+            return;
+        }
+        int length = Math.min(tileIndices.length, tiles.length);
+        for (int i = 0; i < length; i++) {
+            add(owner, tileIndices[i].x, tileIndices[i].y, tiles[i], tileCacheMetric);
+        }
+    }
+
+    @Override
+    public void remove(RenderedImage owner, int tileX, int tileY) {
+        ImageTiles tiles = getImageTiles(owner);
+        if (tiles != null) {
+            Tile tile = tiles.tiles.get(tileIndex(tileX, tileY));
+            if (tile != null) {
+                tiles.remove(tile);
+            }
+        }
+    }
+
+    @Override
+    public Raster getTile(RenderedImage owner, int tileX, int tileY) {
+        ImageTiles tiles = getImageTiles(owner);
+        if (tiles != null) {
+            Tile tile = tiles.tiles.get(tileIndex(tileX, tileY));
+            if (tile != null) {
+                tile.touch(inflation);
+                hitCount.incrementAndGet();
+                return tile.data;
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public Raster[] getTiles(RenderedImage owner) {
+        ImageTiles tiles = getImageTiles(owner);
+        if (tiles == null) {
+            return null;
+        }
+        List<Raster> list = new ArrayList<>(tiles.tiles.size());
+        for (Tile tile : tiles.tiles.values()) {
+            list.add(tile.data);
+        }
+        return list.isEmpty() ? null : list.toArray(new Raster[list.size()]);
+    }
+
+    @Override
+    public Raster[] getTiles(RenderedImage owner, Point[] tileIndices) {
+        if (tileIndices == null) {
+            return null;
+        }
+        Raster[] rasters = new Raster[tileIndices.length];
+        ImageTiles tiles = getImageTiles(owner);
+        if (tiles != null) {
+            for (int i = 0; i < tileIndices.length; i++) {
+                rasters[i] = getTile(owner, tileIndices[i].x, tileIndices[i].y);
+            }
+        }
+        return rasters;
+    }
+
+    @Override
+    public void removeTiles(RenderedImage owner) {
+        if (owner != null) {
+            ImageTiles tiles = images.remove(new OwnerKey(owner, null));
+            if (tiles != null) {
+                tiles.clear();
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        for (OwnerKey key : new ArrayList<>(images.keySet())) {
+            ImageTiles tiles = images.remove(key);
+            if (tiles != null) {
+                tiles.clear();
+            }
+        }
+        expungeCollectedOwners();
+    }
+
+    @Override
+    public void memoryControl() {
+        // Only one thread evicts the tiles, the others can continue to render
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            expungeCollectedOwners();
+            long target = (long) (memoryCapacity * (double) memoryThreshold);
+            if (memoryUsed.get() <= target) {
+                return;
+            }
+
+            // Copy the priorities, they can be modified by the other threads while sorting
+            List<Candidate> candidates = new ArrayList<>();
+            for (ImageTiles tiles : images.values()) {
+                for (Tile tile : tiles.tiles.values()) {
+                    candidates.add(new Candidate(tile));
+                }
+            }
+            Collections.sort(candidates);
+
+            for (Candidate candidate : candidates) {
+                if (memoryUsed.get() <= target) {
+                    break;
+                }
+                Tile tile = candidate.tile;
+                if (tile.owner.remove(tile)) {
+                    evictionCount.incrementAndGet();
+                    // The priority of the next tiles starts from the last removed tile
+                    inflation = Math.max(inflation, candidate.priority);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void setTileCapacity(int tileCapacity) {
+        // Not used, the capacity is defined in bytes
+    }
+
+    @Override
+    @Deprecated
+    public int getTileCapacity() {
+        return 0;
+    }
+
+    @Override
+    public void setMemoryCapacity(long memoryCapacity) {
+        if (memoryCapacity < 0) {
+            throw new IllegalArgumentException("Memory capacity cannot be negative"); //$NON-NLS-1$
+        }
+        this.memoryCapacity = memoryCapacity;
+        if (memoryCapacity == 0) {
+            flush();
+        } else if (memoryUsed.get() > memoryCapacity) {
+            memoryControl();
+        }
+    }
+
+    @Override
+    public long getMemoryCapacity() {
+        return memoryCapacity;
+    }
+
+    @Override
+    public void setMemoryThreshold(float memoryThreshold) {
+        if (memoryThreshold < 0.0F || memoryThreshold > 1.0F) {
+            throw new IllegalArgumentException("Memory threshold must be between 0 and 1"); //$NON-NLS-1$
+        }
+        this.memoryThreshold = memoryThreshold;
+        memoryControl();
+    }
+
+    @Override
+    public float getMemoryThreshold() {
+        return memoryThreshold;
+    }
+
+    /**
+     * The comparator is kept for the API but the eviction order is given by the cost of the tiles.
+     */
+    @Override
+    public void setTileComparator(Comparator comparator) {
+        this.tileComparator = comparator;
+    }
+
+    @Override
+    public Comparator getTileComparator() {
+        return tileComparator;
+    }
+
+    public long getMemoryUsed() {
+        return memoryUsed.get();
+    }
+
+    /**
+     * @param owner
+     *            the image
+     * @return the memory used by the tiles of this image
+     */
+    public long getMemoryUsed(RenderedImage owner) {
+        ImageTiles tiles = getImageTiles(owner);
+        return tiles == null ? 0L : tiles.memory;
+    }
+
+    public long getTileCount() {
+        return tileCount.get();
+    }
+
+    /**
+     * @param owner
+     *            the image
+     * @return the number of tiles of this image in the cache
+     */
+    public int getTileCount(RenderedImage owner) {
+        ImageTiles tiles = getImageTiles(owner);
+        return tiles == null ? 0 : tiles.tiles.size();
+    }
+
+    public int getImageCount() {
+        return images.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public void resetStatistics() {
+        hitCount.set(0L);
+        missCount.set(0L);
+        evictionCount.set(0L);
+    }
+
+    public void logStatistics() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        LOGGER.info("Tile cache: {} tiles of {} images, {}/{} MB, hit ratio {}%, {} evictions", //$NON-NLS-1$
+            tileCount.get(), images.size(), memoryUsed.get() / (1024 * 1024), memoryCapacity / (1024 * 1024),
+            total == 0 ? 0 : hits * 100 / total, evictionCount.get());
+    }
+
+    private ImageTiles getImageTiles(RenderedImage owner) {
+        if (owner == null) {
+            return null;
+        }
+        return images.get(new OwnerKey(owner, null));
+    }
+
+    private void expungeCollectedOwners() {
+        Reference<? extends RenderedImage> ref;
+        while ((ref = collectedOwners.poll()) != null) {
+            ImageTiles tiles = images.remove(ref);
+            if (tiles != null) {
+                tiles.clear();
+            }
+        }
+    }
+
+    private static long tileIndex(int tileX, int tileY) {
+        return ((long) tileX << 32) | (tileY & 0xffffffffL);
+    }
+
+    private static double getCost(Object tileCacheMetric) {
+        if (tileCacheMetric instanceof Number) {
+            double cost = ((Number) tileCacheMetric).doubleValue();
+            if (cost > 0.0) {
+                return cost;
+            }
+        }
+        return 1.0;
+    }
+
+    static long getTileSize(Raster data) {
+        DataBuffer db = data.getDataBuffer();
+        return (long) db.getSize() * db.getNumBanks() * DataBuffer.getDataTypeSize(db.getDataType()) / 8L;
+    }
+
+    /**
+     * Key with a weak reference to the image. The identity of the image is used like in SunTileCache.
+     */
+    private static final class OwnerKey extends WeakReference<RenderedImage> {
+        private final int hash;
+
+        OwnerKey(RenderedImage owner, ReferenceQueue<RenderedImage> queue) {
+            super(owner, queue);
+            this.hash = System.identityHashCode(owner);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof OwnerKey)) {
+                return false;
+            }
+            Object owner = get();
+            return owner != null && owner == ((OwnerKey) obj).get();
+        }
+    }
+
+    /**
+     * The tiles of one image. The modifications are synchronized on this object, the reading is lock-free.
+     */
+    private final class ImageTiles {
+        private final Map<Long, Tile> tiles = new ConcurrentHashMap<>();
+        private volatile long memory;
+        private boolean removed;
+
+        synchronized boolean put(Tile tile) {
+            if (removed) {
+                return false;
+            }
+            tile.owner = this;
+            Tile old = tiles.put(tile.index, tile);
+            long delta = tile.size;
+            if (old == null) {
+                tileCount.incrementAndGet();
+            } else {
+                delta -= old.size;
+            }
+            memory += delta;
+            memoryUsed.addAndGet(delta);
+            return true;
+        }
+
+        synchronized boolean remove(Tile tile) {
+            if (tiles.remove(tile.index, tile)) {
+                memory -= tile.size;
+                memoryUsed.addAndGet(-tile.size);
+                tileCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void clear() {
+            removed = true;
+            memoryUsed.addAndGet(-memory);
+            tileCount.addAndGet(-tiles.size());
+            memory = 0L;
+            tiles.clear();
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        private final Tile tile;
+        private final double priority;
+
+        Candidate(Tile tile) {
+            this.tile = tile;
+            this.priority = tile.priority;
+        }
+
+        @Override
+        public int compareTo(Candidate o) {
+            return Double.compare(priority, o.priority);
+        }
+    }
+
+    private static final class Tile {
+        private final long index;
+        private final Raster data;
+        private final long size;
+        private final double cost;
+        private volatile double priority;
+        private ImageTiles owner;
+
+        Tile(long index, Raster data, long size, double cost) {
+            this.index = index;
+            this.data = data;
+            this.size = size;
+            this.cost = cost;
+        }
+
+        void touch(double inflation) {
+            // GreedyDual-Size: H = L + cost / size (size in KB for keeping the values readable)
+            priority = inflation + cost * 1024.0 / Math.max(1L, size);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.core.api.image.util;
+
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import javax.media.jai.LookupTableJAI;
+
+/**
+ * Histogram of integer values of the first band of an image, with one bin per value from the low value (inclusive) to
+ * the high value (exclusive).
+ */
+public class IntHistogram {
+
+    // Minimum number of rows read by one task
+    private static final int MIN_BAND_HEIGHT = 64;
+
+    private final int[] bins;
+    private final int lowValue;
+
+    public IntHistogram(int[] bins, int lowValue) {
+        if (bins == null) {
+            throw new IllegalArgumentException("bins cannot be null"); //$NON-NLS-1$
+        }
+        this.bins = bins;
+        this.lowValue = lowValue;
+    }
+
+    /**
+     * @return the number of values in each bin, the array is shared and must not be modified
+     */
+    public int[] getBins() {
+        return bins;
+    }
+
+    public int getNumBins() {
+        return bins.length;
+    }
+
+    public int getLowValue() {
+        return lowValue;
+    }
+
+    /**
+     * @return the upper bound of the values (exclusive)
+     */
+    public int getHighValue() {
+        return lowValue + bins.length;
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (int c : bins) {
+            total += c;
+        }
+        return total;
+    }
+
+    /**
+     * @return a new histogram covering the range of both histograms and containing the values of both
+     */
+    public static IntHistogram merge(IntHistogram h1, IntHistogram h2) {
+        if (h1 == null) {
+            return h2;
+        }
+        if (h2 == null) {
+            return h1;
+        }
+        int low = Math.min(h1.lowValue, h2.lowValue);
+        int high = Math.max(h1.getHighValue(), h2.getHighValue());
+        int[] bins = new int[high - low];
+        addBins(h1, bins, low);
+        addBins(h2, bins, low);
+        return new IntHistogram(bins, low);
+    }
+
+    private static void addBins(IntHistogram h, int[] bins, int low) {
+        int offset = h.lowValue - low;
+        for (int i = 0; i < h.bins.length; i++) {
+            bins[offset + i] += h.bins[i];
+        }
+    }
+
+    /**
+     * Computes the histogram of the first band of an image. The image is read in parallel by bands of rows and each
+     * task counts the values in its own bins.
+     *
+     * @param img
+     *            the image
+     * @param lookup
+     *            the lookup table applied to the values before counting them (can be null)
+     * @param lowValue
+     *            the lowest value counted
+     * @param numBins
+     *            the number of bins, the values greater or equal to lowValue + numBins are not counted
+     * @return the histogram
+     */
+    public static IntHistogram compute(RenderedImage img, LookupTableJAI lookup, int lowValue, int numBins) {
+        if (img == null) {
+            return null;
+        }
+        int[] lut = null;
+        int lutOffset = 0;
+        if (lookup != null) {
+            // Values of the first band in an int array, faster than calling lookup() for each pixel
+            lutOffset = lookup.getOffset();
+            lut = new int[lookup.getNumEntries()];
+            for (int i = 0; i < lut.length; i++) {
+                lut[i] = lookup.lookup(0, i + lutOffset);
+            }
+        }
+
+        int minY = img.getMinY();
+        int height = img.getHeight();
+        int parallelism = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int bandHeight = Math.max(MIN_BAND_HEIGHT, (height + parallelism - 1) / parallelism);
+        int nbBands = (height + bandHeight - 1) / bandHeight;
+
+        final int[] table = lut;
+        final int offset = lutOffset;
+        IntStream bands = IntStream.range(0, nbBands);
+        if (nbBands > 1) {
+            bands = bands.parallel();
+        }
+        int[] bins = bands.mapToObj(b -> {
+            int y = minY + b * bandHeight;
+            return countValues(img, y, Math.min(bandHeight, minY + height - y), table, offset, lowValue, numBins);
+        }).reduce(IntHistogram::sum).orElseGet(() -> new int[numBins]);
+        return new IntHistogram(bins, lowValue);
+    }
+
+    private static int[] sum(int[] bins1, int[] bins2) {
+        for (int i = 0; i < bins1.length; i++) {
+            bins1[i] += bins2[i];
+        }
+        return bins1;
+    }
+
+    private static int[] countValues(RenderedImage img, int y0, int h, int[] lut, int lutOffset, int lowValue,
+        int numBins) {
+        int[] bins = new int[numBins];
+        Rectangle band = new Rectangle(img.getMinX(), y0, img.getWidth(), h);
+        int tileHeight = img.getTileHeight();
+        int tileGridY = img.getTileGridYOffset();
+        int minTileX = img.getMinTileX();
+        int maxTileX = minTileX + img.getNumXTiles();
+        int minTileY = Math.floorDiv(y0 - tileGridY, tileHeight);
+        int maxTileY = Math.floorDiv(y0 + h - 1 - tileGridY, tileHeight);
+        int lastLut = lut == null ? 0 : lut.length - 1;
+        int[] samples = null;
+
+        for (int ty = minTileY; ty <= maxTileY; ty++) {
+            for (int tx = minTileX; tx < maxTileX; tx++) {
+                Raster tile = img.getTile(tx, ty);
+                Rectangle rect = band.intersection(tile.getBounds());
+                if (rect.isEmpty()) {
+                    continue;
+                }
+                if (samples == null || samples.length < rect.width) {
+                    samples = new int[rect.width];
+                }
+                for (int y = rect.y; y < rect.y + rect.height; y++) {
+                    tile.getSamples(rect.x, y, rect.width, 1, 0, samples);
+                    for (int x = 0; x < rect.width; x++) {
+                        int val = samples[x];
+                        if (lut != null) {
+                            // The values out of the table take the first or the last entry
+                            int index = val - lutOffset;
+                            val = lut[index < 0 ? 0 : index > lastLut ? lastLut : index];
+                        }
+                        int bin = val - lowValue;
+                        if (bin >= 0 && bin < numBins) {
+                            bins[bin]++;
+                        }
+                    }
+                }
+            }
+        }
+        return bins;
+    }
+}
@@ -47,25 +47,44 @@ public class JAIUtil {
         Thread.currentThread().setContextClassLoader(bundleClassLoader);
         JAI jai = JAI.getDefaultInstance();
         Thread.currentThread().setContextClassLoader(originalClassLoader);
+        if (!(jai.getTileCache() instanceof ConcurrentTileCache)) {
+            installTileCache(jai);
+        }
         return jai;
     }
 
+    private static synchronized void installTileCache(JAI jai) {
+        // Replace the default SunTileCache (globally synchronized) for rendering the views in parallel
+        TileCache cache = jai.getTileCache();
+        if (!(cache instanceof ConcurrentTileCache)) {
+            long capacity = cache == null ? ConcurrentTileCache.DEFAULT_MEMORY_CAPACITY : cache.getMemoryCapacity();
+            jai.setTileCache(new ConcurrentTileCache(capacity));
+            if (cache != null) {
+                cache.flush();
+            }
+        }
+    }
+
+    public static ConcurrentTileCache getTileCache() {
+        return (ConcurrentTileCache) getJAI().getTileCache();
+    }
+
     /**
      * Set memory in JAI used by the Tile Cache.
      */
     public static void setJaiCacheMemoryCapacity(long tileCacheMB) {
-        getJAI().getTileCache().setMemoryCapacity(tileCacheMB * 1024L * 1024L);
+        getTileCache().setMemoryCapacity(tileCacheMB * 1024L * 1024L);
     }
 
     public static void removeCacheTiles(PlanarImage img) {
         if (img != null) {
-            getJAI().getTileCache().removeTiles(img);
+            getTileCache().removeTiles(img);
         }
     }
 
     public static void addCacheTiles(RenderedImage img, Rectangle tileBounds) {
         if (img != null && tileBounds != null) {
-            TileCache tileCache = getJAI().getTileCache();
+            TileCache tileCache = getTileCache();
 
             // Loop over tiles within the clipping region
             for (int tj = tileBounds.y; tj <= tileBounds.height; tj++) {
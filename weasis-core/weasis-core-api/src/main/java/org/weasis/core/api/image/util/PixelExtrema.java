@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.core.api.image.util;
+
+import java.awt.Rectangle;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.util.Objects;
+
+import javax.media.jai.PlanarImage;
+
+/**
+ * Minimum and maximum pixel values of all the bands of an image.
+ *
+ * The values are computed by reading directly the data of the tiles (without creating a JAI operation) and can be
+ * published as a property of the image by the reader, so the image does not need to be read again for getting its
+ * extrema.
+ */
+public class PixelExtrema {
+
+    public static final String PROPERTY_NAME = "weasis.pixel.extrema"; //$NON-NLS-1$
+
+    private final double min;
+    private final double max;
+    private final Double excludedMin;
+    private final Double excludedMax;
+
+    /**
+     * @param min
+     *            the minimum value
+     * @param max
+     *            the maximum value
+     * @param excludedMin
+     *            the lower bound of the values which are not considered (can be null)
+     * @param excludedMax
+     *            the upper bound of the values which are not considered (can be null)
+     */
+    public PixelExtrema(double min, double max, Double excludedMin, Double excludedMax) {
+        this.min = min;
+        this.max = max;
+        this.excludedMin = excludedMin;
+        this.excludedMax = excludedMax;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public Double getExcludedMin() {
+        return excludedMin;
+    }
+
+    public Double getExcludedMax() {
+        return excludedMax;
+    }
+
+    public boolean hasSameExclusion(Double excludedMin, Double excludedMax) {
+        return Objects.equals(this.excludedMin, excludedMin) && Objects.equals(this.excludedMax, excludedMax);
+    }
+
+    /**
+     * @param img
+     *            the image
+     * @param excludedMin
+     *            the lower bound of the excluded values
+     * @param excludedMax
+     *            the upper bound of the excluded values
+     * @return the extrema published with the image when they have been computed with the same excluded values, or
+     *         null
+     */
+    public static PixelExtrema getProperty(RenderedImage img, Double excludedMin, Double excludedMax) {
+        if (img != null) {
+            Object val = img.getProperty(PROPERTY_NAME);
+            if (val instanceof PixelExtrema && ((PixelExtrema) val).hasSameExclusion(excludedMin, excludedMax)) {
+                return (PixelExtrema) val;
+            }
+        }
+        return null;
+    }
+
+    public static void setProperty(PlanarImage img, PixelExtrema extrema) {
+        if (img != null && extrema != null) {
+            img.setProperty(PROPERTY_NAME, extrema);
+        }
+    }
+
+    /**
+     * Finds the minimum and the maximum values of all the bands in one pass over the tiles.
+     *
+     * @param img
+     *            the image
+     * @param excludedMin
+     *            the lower bound of the values which are not considered, null to consider all the values
+     * @param excludedMax
+     *            the upper bound of the values which are not considered, null to consider all the values
+     * @return the extrema or null if there is no value to consider
+     */
+    public static PixelExtrema find(RenderedImage img, Double excludedMin, Double excludedMax) {
+        if (img == null) {
+            return null;
+        }
+        boolean exclude = excludedMin != null && excludedMax != null;
+        double[] minMax = { Double.MAX_VALUE, -Double.MAX_VALUE };
+        Range range =
+            exclude ? new Range(excludedMin, excludedMax) : new Range(Double.MAX_VALUE, -Double.MAX_VALUE);
+        Rectangle bounds = new Rectangle(img.getMinX(), img.getMinY(), img.getWidth(), img.getHeight());
+
+        int minTileX = img.getMinTileX();
+        int minTileY = img.getMinTileY();
+        int maxTileX = minTileX + img.getNumXTiles();
+        int maxTileY = minTileY + img.getNumYTiles();
+        for (int ty = minTileY; ty < maxTileY; ty++) {
+            for (int tx = minTileX; tx < maxTileX; tx++) {
+                Raster tile = img.getTile(tx, ty);
+                Rectangle rect = bounds.intersection(tile.getBounds());
+                if (!rect.isEmpty()) {
+                    findMinMax(tile, rect, range, minMax);
+                }
+            }
+        }
+
+        if (minMax[0] > minMax[1]) {
+            return null;
+        }
+        return new PixelExtrema(minMax[0], minMax[1], exclude ? excludedMin : null, exclude ? excludedMax : null);
+    }
+
+    private static void findMinMax(Raster tile, Rectangle rect, Range range, double[] minMax) {
+        SampleModel sm = tile.getSampleModel();
+        DataBuffer db = tile.getDataBuffer();
+        if (!(sm instanceof ComponentSampleModel)) {
+            findMinMaxFromSamples(tile, rect, range, minMax);
+            return;
+        }
+
+        ComponentSampleModel csm = (ComponentSampleModel) sm;
+        int pixelStride = csm.getPixelStride();
+        int scanlineStride = csm.getScanlineStride();
+        int[] bandOffsets = csm.getBandOffsets();
+        int[] bankIndices = csm.getBankIndices();
+        int x0 = rect.x - tile.getSampleModelTranslateX();
+        int y0 = rect.y - tile.getSampleModelTranslateY();
+
+        for (int b = 0; b < bandOffsets.length; b++) {
+            int bank = bankIndices[b];
+            int start = db.getOffsets()[bank] + y0 * scanlineStride + x0 * pixelStride + bandOffsets[b];
+            // Other DataBuffer implementations (e.g. from JAI) are read as samples
+            if (db instanceof DataBufferByte) {
+                findMinMax(((DataBufferByte) db).getData(bank), start, rect, pixelStride, scanlineStride, range,
+                    minMax);
+            } else if (db instanceof DataBufferUShort) {
+                findMinMax(((DataBufferUShort) db).getData(bank), start, rect, pixelStride, scanlineStride, range,
+                    minMax, false);
+            } else if (db instanceof DataBufferShort) {
+                findMinMax(((DataBufferShort) db).getData(bank), start, rect, pixelStride, scanlineStride, range,
+                    minMax, true);
+            } else if (db instanceof DataBufferInt) {
+                findMinMax(((DataBufferInt) db).getData(bank), start, rect, pixelStride, scanlineStride, range,
+                    minMax);
+            } else if (db instanceof DataBufferFloat) {
+                findMinMax(((DataBufferFloat) db).getData(bank), start, rect, pixelStride, scanlineStride, range,
+                    minMax);
+            } else if (db instanceof DataBufferDouble) {
+                findMinMax(((DataBufferDouble) db).getData(bank), start, rect, pixelStride, scanlineStride, range,
+                    minMax);
+            } else {
+                findMinMaxFromSamples(tile, rect, range, minMax);
+                return;
+            }
+        }
+    }
+
+    private static void findMinMaxFromSamples(Raster tile, Rectangle rect, Range range, double[] minMax) {
+        double[] samples = new double[rect.width];
+        for (int b = 0; b < tile.getNumBands(); b++) {
+            for (int y = rect.y; y < rect.y + rect.height; y++) {
+                tile.getSamples(rect.x, y, rect.width, 1, b, samples);
+                for (double val : samples) {
+                    range.accept(val, minMax);
+                }
+            }
+        }
+    }
+
+    private static void findMinMax(byte[] data, int start, Rectangle rect, int pixelStride, int scanlineStride,
+        Range range, double[] minMax) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int y = 0; y < rect.height; y++) {
+            int index = start + y * scanlineStride;
+            for (int x = 0; x < rect.width; x++, index += pixelStride) {
+                int val = data[index] & 0xff;
+                if (!range.excludes(val)) {
+                    if (val < min) {
+                        min = val;
+                    }
+                    if (val > max) {
+                        max = val;
+                    }
+                }
+            }
+        }
+        range.merge(min, max, minMax);
+    }
+
+    private static void findMinMax(short[] data, int start, Rectangle rect, int pixelStride, int scanlineStride,
+        Range range, double[] minMax, boolean signed) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        int mask = signed ? -1 : 0xffff;
+        for (int y = 0; y < rect.height; y++) {
+            int index = start + y * scanlineStride;
+            for (int x = 0; x < rect.width; x++, index += pixelStride) {
+                int val = data[index] & mask;
+                if (!range.excludes(val)) {
+                    if (val < min) {
+                        min = val;
+                    }
+                    if (val > max) {
+                        max = val;
+                    }
+                }
+            }
+        }
+        range.merge(min, max, minMax);
+    }
+
+    private static void findMinMax(int[] data, int start, Rectangle rect, int pixelStride, int scanlineStride,
+        Range range, double[] minMax) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int y = 0; y < rect.height; y++) {
+            int index = start + y * scanlineStride;
+            for (int x = 0; x < rect.width; x++, index += pixelStride) {
+                int val = data[index];
+                if (!range.excludes(val)) {
+                    if (val < min) {
+                        min = val;
+                    }
+                    if (val > max) {
+                        max = val;
+                    }
+                }
+            }
+        }
+        range.merge(min, max, minMax);
+    }
+
+    private static void findMinMax(float[] data, int start, Rectangle rect, int pixelStride, int scanlineStride,
+        Range range, double[] minMax) {
+        for (int y = 0; y < rect.height; y++) {
+            int index = start + y * scanlineStride;
+            for (int x = 0; x < rect.width; x++, index += pixelStride) {
+                range.accept(data[index], minMax);
+            }
+        }
+    }
+
+    private static void findMinMax(double[] data, int start, Rectangle rect, int pixelStride, int scanlineStride,
+        Range range, double[] minMax) {
+        for (int y = 0; y < rect.height; y++) {
+            int index = start + y * scanlineStride;
+            for (int x = 0; x < rect.width; x++, index += pixelStride) {
+                range.accept(data[index], minMax);
+            }
+        }
+    }
+
+    /**
+     * Excluded values, the range is empty when lower > upper.
+     */
+    private static final class Range {
+        private final double lower;
+        private final double upper;
+
+        Range(double lower, double upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        boolean excludes(double val) {
+            return val >= lower && val <= upper;
+        }
+
+        void accept(double val, double[] minMax) {
+            // NaN values are ignored
+            if (!excludes(val) && !Double.isNaN(val)) {
+                if (val < minMax[0]) {
+                    minMax[0] = val;
+                }
+                if (val > minMax[1]) {
+                    minMax[1] = val;
+                }
+            }
+        }
+
+        void merge(int min, int max, double[] minMax) {
+            if (min <= max) {
+                minMax[0] = Math.min(minMax[0], min);
+                minMax[1] = Math.max(minMax[1], max);
+            }
+        }
+    }
+}
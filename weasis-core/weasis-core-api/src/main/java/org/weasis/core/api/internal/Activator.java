@@ -83,7 +83,7 @@ public class Activator implements BundleActivator, ServiceListener {
         JAIUtil.registerOp(or, new RectifyUShortToShortDataDescriptor());
 
         // TODO manage memory setting ?
-        jai.getTileCache().setMemoryCapacity(128 * 1024L * 1024L);
+        JAIUtil.setJaiCacheMemoryCapacity(128);
 
         RecyclingTileFactory recyclingTileFactory = new RecyclingTileFactory();
         RenderingHints rh = jai.getRenderingHints();
@@ -107,6 +107,7 @@ public class Activator implements BundleActivator, ServiceListener {
 
     @Override
     public void stop(BundleContext bundleContext) throws Exception {
+        JAIUtil.getTileCache().logStatistics();
         // TODO should be stop in after all bundles implementing preferences
     }
 
@@ -13,7 +13,6 @@ package org.weasis.core.api.media.data;
 import java.awt.image.DataBuffer;
 import java.awt.image.IndexColorModel;
 import java.awt.image.RenderedImage;
-import java.awt.image.renderable.ParameterBlock;
 import java.io.IOException;
 import java.lang.ref.Reference;
 import java.util.Map;
@@ -22,9 +21,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
-import javax.media.jai.JAI;
 import javax.media.jai.PlanarImage;
-import javax.media.jai.RenderedOp;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +31,7 @@ import org.weasis.core.api.image.LutShape;
 import org.weasis.core.api.image.OpManager;
 import org.weasis.core.api.image.measure.MeasurementsAdapter;
 import org.weasis.core.api.image.util.ImageToolkit;
+import org.weasis.core.api.image.util.PixelExtrema;
 import org.weasis.core.api.image.util.Unit;
 import org.weasis.core.api.util.ThreadUtil;
 
@@ -68,7 +66,7 @@ public class ImageElement extends MediaElement<PlanarImage> {
             if (key != null) {
                 hash.remove(key);
                 MediaReader<PlanarImage> reader = key.getMediaReader();
-                key.setTag(TagW.ImageCache, false);
+                key.setImageCacheState(false);
                 if (reader != null) {
                     // Close the image stream
                     reader.close();
@@ -76,7 +74,16 @@ public class ImageElement extends MediaElement<PlanarImage> {
             }
         }
     };
+    /**
+     * Listener notified when the image enters or leaves the image cache.
+     */
+    @FunctionalInterface
+    public interface CacheListener {
+        void imageCacheChanged(ImageElement image, boolean inCache);
+    }
+
     protected boolean readable = true;
+    private volatile CacheListener cacheListener;
 
     protected double pixelSizeX = 1.0;
     protected double pixelSizeY = 1.0;
@@ -102,32 +109,27 @@ public class ImageElement extends MediaElement<PlanarImage> {
                 this.minPixelValue = 0.0;
                 this.maxPixelValue = 255.0;
             } else {
-
-                ParameterBlock pb = new ParameterBlock();
-                pb.addSource(img);
-                // ImageToolkit.NOCACHE_HINT to ensure this image won't be stored in tile cache
-                RenderedOp dst = JAI.create("extrema", pb, ImageToolkit.NOCACHE_HINT); //$NON-NLS-1$
-
-                double[][] extrema = (double[][]) dst.getProperty("extrema"); //$NON-NLS-1$
-                double min = Double.MAX_VALUE;
-                double max = -Double.MAX_VALUE;
-                int numBands = dst.getSampleModel().getNumBands();
-
-                for (int i = 0; i < numBands; i++) {
-                    min = Math.min(min, extrema[0][i]);
-                    max = Math.max(max, extrema[1][i]);
-                }
-                this.minPixelValue = min;
-                this.maxPixelValue = max;
-                // Handle special case when min and max are equal, ex. black image
-                // + 1 to max enables to display the correct value
-                if (this.minPixelValue.equals(this.maxPixelValue)) {
-                    this.maxPixelValue += 1.0;
+                // Get the values computed by the reader or read the tiles directly (faster than the JAI extrema)
+                PixelExtrema extrema = PixelExtrema.getProperty(img, null, null);
+                if (extrema == null) {
+                    extrema = PixelExtrema.find(img, null, null);
                 }
+                setMinMaxValues(extrema);
             }
         }
     }
 
+    protected void setMinMaxValues(PixelExtrema extrema) {
+        // Image without pixel values is considered as a black image
+        this.minPixelValue = extrema == null ? 0.0 : extrema.getMin();
+        this.maxPixelValue = extrema == null ? 0.0 : extrema.getMax();
+        // Handle special case when min and max are equal, ex. black image
+        // + 1 to max enables to display the correct value
+        if (this.minPixelValue.equals(this.maxPixelValue)) {
+            this.maxPixelValue += 1.0;
+        }
+    }
+
     public boolean isImageAvailable() {
         return maxPixelValue != null && minPixelValue != null;
     }
@@ -246,13 +248,44 @@ public class ImageElement extends MediaElement<PlanarImage> {
     public void removeImageFromCache() {
         mCache.remove(this);
         MediaReader<PlanarImage> reader = this.getMediaReader();
-        this.setTag(TagW.ImageCache, false);
+        setImageCacheState(false);
         if (reader != null) {
             // Close the image stream
             reader.close();
         }
     }
 
+    public CacheListener getCacheListener() {
+        return cacheListener;
+    }
+
+    /**
+     * Set the listener receiving the load and eviction events of this image. Only one listener is kept, usually the
+     * series containing the image.
+     */
+    public void setCacheListener(CacheListener cacheListener) {
+        this.cacheListener = cacheListener;
+    }
+
+    private void setImageCacheState(boolean inCache) {
+        this.setTag(TagW.ImageCache, inCache);
+        if (!inCache) {
+            releaseImageData();
+        }
+        CacheListener listener = cacheListener;
+        if (listener != null) {
+            listener.imageCacheChanged(this, inCache);
+        }
+    }
+
+    /**
+     * Called when the image has been removed from the cache, the subclasses can release the data computed from the
+     * pixels.
+     */
+    protected void releaseImageData() {
+        // Do nothing by default
+    }
+
     public boolean hasSameSize(ImageElement image) {
         if (image != null) {
             PlanarImage img = getImage();
@@ -273,6 +306,13 @@ public class ImageElement extends MediaElement<PlanarImage> {
      * @throws IOException
      */
 
+    /**
+     * @return the executor reading the pixels of this image, {@link #IMAGE_LOADER} by default
+     */
+    protected ExecutorService getImageLoader() {
+        return IMAGE_LOADER;
+    }
+
     protected PlanarImage loadImage() throws Exception {
         return mediaIO.getMediaFragment(this);
     }
@@ -371,7 +411,7 @@ public class ImageElement extends MediaElement<PlanarImage> {
         if ((cacheImage = mCache.get(this)) == null && readable && setAsLoading()) {
             LOGGER.debug("Asking for reading image: {}", this); //$NON-NLS-1$
             Load ref = new Load();
-            Future<PlanarImage> future = IMAGE_LOADER.submit(ref);
+            Future<PlanarImage> future = getImageLoader().submit(ref);
             PlanarImage img = null;
             try {
                 img = future.get();
@@ -394,7 +434,7 @@ public class ImageElement extends MediaElement<PlanarImage> {
                 readable = true;
                 mCache.put(this, img);
                 cacheImage = img;
-                this.setTag(TagW.ImageCache, true);
+                setImageCacheState(true);
             }
             setAsLoaded();
         }
@@ -405,6 +445,14 @@ public class ImageElement extends MediaElement<PlanarImage> {
         return readable;
     }
 
+    /**
+     * @return true when the pixels are a low resolution rendering displayed until the original image is loaded. The
+     *         pixel values and the spatial calibration of a preview cannot be used for measurements.
+     */
+    public boolean isPreview() {
+        return false;
+    }
+
     @Override
     public void dispose() {
         // TODO find a clue to not dispose the display image
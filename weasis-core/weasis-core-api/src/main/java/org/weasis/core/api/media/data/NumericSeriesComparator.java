@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import java.util.Comparator;
+
+/**
+ * Comparator defined by a numeric value of each media. The series read the value only once for each media and keep it
+ * with the sorted list, so the tags are not read again at each comparison. The media without value are placed at the
+ * end, also in the reverse order.
+ */
+public abstract class NumericSeriesComparator<T> extends SeriesComparator<T> {
+
+    /**
+     * @param media
+     *            the media
+     * @return the value defining the order of the media or NaN when the media has no value
+     */
+    public abstract double getSortKey(T media);
+
+    @Override
+    public int compare(T m1, T m2) {
+        return Double.compare(getSortKey(m1), getSortKey(m2));
+    }
+
+    @Override
+    protected Comparator<T> buildReverseOrderComparator() {
+        NumericSeriesComparator<T> order = this;
+        return new NumericSeriesComparator<T>() {
+
+            @Override
+            public double getSortKey(T media) {
+                return -order.getSortKey(media);
+            }
+
+            @Override
+            public String toString() {
+                return order.toString();
+            }
+        };
+    }
+}
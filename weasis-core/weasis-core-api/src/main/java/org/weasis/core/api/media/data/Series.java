@@ -46,10 +46,13 @@ public abstract class Series<E extends MediaElement<?>> extends MediaSeriesGroup
 
     private static final Random RANDOM = new Random();
     private static final DataFlavor[] flavors = { sequenceDataFlavor };
+    // Maximum number of media added at once which are inserted into the sorted lists instead of sorting them again
+    private static final int MAX_INSERTIONS = 16;
 
     private PropertyChangeSupport propertyChange = null;
     protected final List<E> medias;
-    protected final Map<Comparator<E>, List<E>> sortedMedias = new HashMap<>(6);
+    // Lists sorted by the comparators other than the media order, guarded by itself
+    private final Map<Comparator<E>, SortedMedias<E>> sortedMedias = new HashMap<>(6);
     protected final Comparator<E> mediaOrder;
     protected SeriesImporter seriesLoader;
     private double fileSize;
@@ -89,51 +92,106 @@ public abstract class Series<E extends MediaElement<?>> extends MediaSeriesGroup
     }
 
     protected void resetSortedMediasMap() {
-        if (!sortedMedias.isEmpty()) {
+        synchronized (sortedMedias) {
             sortedMedias.clear();
         }
     }
 
+    /**
+     * Inserts a new media into the sorted lists (must be called with the lock of sortedMedias).
+     */
+    private void insertSortedMedia(E media) {
+        sortedMedias.forEach((comparator, sorted) -> sorted.insert(media, comparator));
+    }
+
     @Override
     public List<E> getSortedMedias(Comparator<E> comparator) {
         // Do not sort when it is the default order.
         if (comparator != null && !comparator.equals(mediaOrder)) {
-            List<E> sorted = sortedMedias.get(comparator);
-            if (sorted == null) {
-                sorted = new ArrayList<>(medias);
-                Collections.sort(sorted, comparator);
-                // synchronized (this) {
-                // sorted = medias.stream().sorted(comparator).collect(Collectors.toList());
-                // }
-                sortedMedias.put(comparator, sorted);
+            synchronized (sortedMedias) {
+                SortedMedias<E> sorted = sortedMedias.get(comparator);
+                if (sorted == null) {
+                    sorted = SortedMedias.sort(medias, comparator);
+                    sortedMedias.put(comparator, sorted);
+                }
+                return sorted.getMedias();
             }
-            return sorted;
         }
         return medias;
     }
 
     @Override
     public void add(E media) {
-        medias.add(media);
-        resetSortedMediasMap();
+        synchronized (sortedMedias) {
+            medias.add(media);
+            insertSortedMedia(media);
+        }
     }
 
     @Override
     public void add(int index, E media) {
-        medias.add(index, media);
-        resetSortedMediasMap();
+        synchronized (sortedMedias) {
+            medias.add(index, media);
+            insertSortedMedia(media);
+        }
     }
 
     @Override
     public void addAll(Collection<? extends E> c) {
-        medias.addAll(c);
-        resetSortedMediasMap();
+        addAll(medias.size(), c);
     }
 
     @Override
     public void addAll(int index, Collection<? extends E> c) {
-        medias.addAll(index, c);
-        resetSortedMediasMap();
+        synchronized (sortedMedias) {
+            medias.addAll(index, c);
+            if (c.size() > MAX_INSERTIONS) {
+                // Sort again when the lists are requested
+                sortedMedias.clear();
+            } else {
+                c.forEach(this::insertSortedMedia);
+            }
+        }
+    }
+
+    /**
+     * Replaces a media at the same position in the series.
+     *
+     * @param oldMedia
+     *            the media to replace
+     * @param newMedia
+     *            the new media
+     * @return true if the old media was in the series
+     */
+    public boolean replace(E oldMedia, E newMedia) {
+        synchronized (sortedMedias) {
+            int index = medias.indexOf(oldMedia);
+            if (index < 0) {
+                return false;
+            }
+            medias.set(index, newMedia);
+            // The new media can have another rank in the sorted lists
+            sortedMedias.forEach((comparator, sorted) -> {
+                sorted.remove(oldMedia);
+                sorted.insert(newMedia, comparator);
+            });
+            return true;
+        }
+    }
+
+    /**
+     * @param media
+     *            the media to remove
+     * @return true if the media was in the series
+     */
+    public boolean remove(E media) {
+        synchronized (sortedMedias) {
+            boolean removed = medias.remove(media);
+            if (removed) {
+                sortedMedias.values().forEach(sorted -> sorted.remove(media));
+            }
+            return removed;
+        }
     }
 
     @Override
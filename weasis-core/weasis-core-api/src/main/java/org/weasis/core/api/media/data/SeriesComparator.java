@@ -8,8 +8,12 @@ public abstract class SeriesComparator<T> implements Comparator<T> {
 
     public final Comparator<T> getReversOrderComparator() {
         if (inverse == null) {
-            inverse = Collections.reverseOrder(this);
+            inverse = buildReverseOrderComparator();
         }
         return inverse;
     }
+
+    protected Comparator<T> buildReverseOrderComparator() {
+        return Collections.reverseOrder(this);
+    }
 }
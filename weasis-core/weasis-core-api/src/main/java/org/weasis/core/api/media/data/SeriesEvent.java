@@ -13,7 +13,7 @@ package org.weasis.core.api.media.data;
 public class SeriesEvent {
 
     public enum Action {
-        Add, Remove, Update, AddImage, RemoveImage, UpdateImage, loadImageInMemory
+        Add, Remove, Update, AddImage, RemoveImage, UpdateImage, ReplaceImage, loadImageInMemory
     };
 
     private final Action actionCommand;
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.core.api.media.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Media of a series sorted by a comparator, with the sort keys of the media when the comparator is a
+ * {@link NumericSeriesComparator}.
+ *
+ * A new media is inserted in place with a binary search instead of sorting again the list. Like the list of the
+ * series in the default order, the list given by {@link #getMedias()} is synchronized and follows the insertions and
+ * the removals.
+ */
+final class SortedMedias<E> {
+
+    private final List<E> medias;
+    private final List<E> view;
+    // Sort keys of the media (null when the comparator is not numeric), only the first medias.size() are used
+    private double[] keys;
+
+    private SortedMedias(List<E> medias, double[] keys) {
+        this.medias = medias;
+        this.view = Collections.synchronizedList(medias);
+        this.keys = keys;
+    }
+
+    List<E> getMedias() {
+        return view;
+    }
+
+    /**
+     * Sorts the media, the sort is stable and runs in parallel for large lists (see {@link Arrays#parallelSort}).
+     */
+    @SuppressWarnings("unchecked")
+    static <E> SortedMedias<E> sort(List<E> list, Comparator<E> comparator) {
+        Object[] array = list.toArray();
+        if (comparator instanceof NumericSeriesComparator) {
+            NumericSeriesComparator<E> order = (NumericSeriesComparator<E>) comparator;
+            KeyedMedia[] entries = new KeyedMedia[array.length];
+            for (int i = 0; i < array.length; i++) {
+                entries[i] = new KeyedMedia(order.getSortKey((E) array[i]), array[i]);
+            }
+            Arrays.parallelSort(entries, (e1, e2) -> Double.compare(e1.key, e2.key));
+            List<E> sorted = new ArrayList<>(entries.length);
+            double[] keys = new double[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                sorted.add((E) entries[i].media);
+                keys[i] = entries[i].key;
+            }
+            return new SortedMedias<>(sorted, keys);
+        }
+        Arrays.parallelSort((E[]) array, comparator);
+        return new SortedMedias<>(new ArrayList<>(Arrays.asList((E[]) array)), null);
+    }
+
+    /**
+     * Inserts the media after the media of the same rank.
+     */
+    void insert(E media, Comparator<E> comparator) {
+        synchronized (view) {
+            int size = medias.size();
+            if (keys == null) {
+                medias.add(upperBound(media, comparator, size), media);
+            } else {
+                double key = ((NumericSeriesComparator<E>) comparator).getSortKey(media);
+                int index = upperBound(key, size);
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(8, size + (size >> 1)));
+                }
+                System.arraycopy(keys, index, keys, index + 1, size - index);
+                keys[index] = key;
+                medias.add(index, media);
+            }
+        }
+    }
+
+    /**
+     * @return true if the media was in the list
+     */
+    boolean remove(E media) {
+        synchronized (view) {
+            int index = medias.indexOf(media);
+            if (index < 0) {
+                return false;
+            }
+            medias.remove(index);
+            if (keys != null) {
+                System.arraycopy(keys, index + 1, keys, index, medias.size() - index);
+            }
+            return true;
+        }
+    }
+
+    private int upperBound(double key, int size) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(keys[mid], key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(E media, Comparator<E> comparator, int size) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(medias.get(mid), media) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class KeyedMedia {
+        private final double key;
+        private final Object media;
+
+        KeyedMedia(double key, Object media) {
+            this.key = key;
+            this.media = media;
+        }
+    }
+}
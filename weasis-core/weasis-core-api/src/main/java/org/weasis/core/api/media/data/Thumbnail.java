@@ -74,6 +74,9 @@ public class Thumbnail extends JLabel {
     protected volatile AtomicBoolean loading = new AtomicBoolean(false);
     protected File thumbnailPath = null;
     protected int thumbnailSize;
+    // False when the thumbnail is out of the visible area of the explorer
+    protected volatile boolean displayed = true;
+    private volatile Runnable imageLoader;
 
     public Thumbnail(File thumbnailPath, int thumbnailSize) {
         super(null, null, SwingConstants.CENTER);
@@ -154,6 +157,7 @@ public class Thumbnail extends JLabel {
     private void setIcon(final MediaElement<?> media, final Icon mime, final String type,
         final boolean keepMediaCache, OpManager opManager) {
         this.setSize(thumbnailSize, thumbnailSize);
+        this.imageLoader = () -> getImage(media, keepMediaCache, opManager);
 
         ImageIcon icon = new ImageIcon() {
 
@@ -213,6 +217,11 @@ public class Thumbnail extends JLabel {
 
                         @Override
                         protected Boolean doInBackground() throws Exception {
+                            if (!displayed) {
+                                // Has been scrolled out of the view while waiting in the queue
+                                loading.set(false);
+                                return Boolean.FALSE;
+                            }
                             loadThumbnail(media, keepMediaCache,opManager);
                             return Boolean.TRUE;
                         }
@@ -333,6 +342,40 @@ public class Thumbnail extends JLabel {
         }
     }
 
+    public boolean isDisplayed() {
+        return displayed;
+    }
+
+    /**
+     * Allows to load the image only for the thumbnails in the visible area (and a small margin around). The image of a
+     * thumbnail which is not displayed anymore is released when it can be read again from the thumbnail file.
+     *
+     * @param displayed
+     *            true to load the image in background, false to release it
+     */
+    public void setDisplayed(boolean displayed) {
+        this.displayed = displayed;
+        if (displayed) {
+            Runnable loader = imageLoader;
+            if (loader != null) {
+                loader.run();
+            }
+        } else {
+            releaseImage();
+        }
+    }
+
+    protected synchronized void releaseImage() {
+        File file = thumbnailPath;
+        if (imageSoftRef != null && file != null && file.canRead()) {
+            BufferedImage temp = imageSoftRef.get();
+            imageSoftRef = null;
+            if (temp != null) {
+                temp.flush();
+            }
+        }
+    }
+
     public void dispose() {
         // Unload image from memory
         if (imageSoftRef != null) {
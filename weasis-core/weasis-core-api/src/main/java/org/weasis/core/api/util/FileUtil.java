@@ -18,6 +18,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
@@ -52,6 +53,8 @@ public final class FileUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileUtil.class);
 
     public static final int FILE_BUFFER = 4096;
+    /** Buffer size for copying large streams (e.g. downloads), reduces the number of system calls */
+    public static final int STREAM_BUFFER = 65536;
     private static final double BASE = 1024;
     private static final double KB = BASE;
     private static final double MB = KB * BASE;
@@ -261,6 +264,29 @@ public final class FileUtil {
         }
     }
 
+    /**
+     * Reads and closes the error stream of a HTTP connection, otherwise the connection cannot be reused.
+     *
+     * @param urlConnection
+     */
+    public static void discardErrorStream(URLConnection urlConnection) {
+        if (urlConnection instanceof HttpURLConnection) {
+            InputStream err = ((HttpURLConnection) urlConnection).getErrorStream();
+            if (err != null) {
+                try {
+                    byte[] buf = new byte[FILE_BUFFER];
+                    while (err.read(buf) > 0) {
+                        // Read until the end of the response
+                    }
+                } catch (IOException e) {
+                    LOGGER.debug("Cannot read the error stream: {}", e.getMessage()); //$NON-NLS-1$
+                } finally {
+                    safeClose(err);
+                }
+            }
+        }
+    }
+
     /**
      * @param inputStream
      * @param out
@@ -287,7 +313,7 @@ public final class FileUtil {
             return 0;
         }
         try {
-            byte[] buf = new byte[FILE_BUFFER];
+            byte[] buf = new byte[STREAM_BUFFER];
             int offset;
             while ((offset = inputStream.read(buf)) > 0) {
                 out.write(buf, 0, offset);
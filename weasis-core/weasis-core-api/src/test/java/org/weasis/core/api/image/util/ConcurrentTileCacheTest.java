@@ -0,0 +1,125 @@
+package org.weasis.core.api.image.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+
+import org.junit.Test;
+
+public class ConcurrentTileCacheTest {
+
+    private static final int TILE_SIZE = 64;
+    // 64 x 64 bytes
+    private static final long TILE_BYTES = TILE_SIZE * TILE_SIZE;
+
+    private static BufferedImage newImage() {
+        return new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+    }
+
+    private static Raster newTile() {
+        return newImage().getRaster();
+    }
+
+    @Test
+    public void testAddAndGetTile() {
+        ConcurrentTileCache cache = new ConcurrentTileCache(10 * TILE_BYTES);
+        BufferedImage image = newImage();
+        Raster tile = newTile();
+
+        assertThat(cache.getTile(image, 0, 0)).isNull();
+        cache.add(image, 0, 0, tile);
+
+        assertThat(cache.getTile(image, 0, 0)).isSameAs(tile);
+        assertThat(cache.getTile(image, 1, 0)).isNull();
+        assertThat(cache.getTile(newImage(), 0, 0)).isNull();
+        assertThat(cache.getMemoryUsed()).isEqualTo(TILE_BYTES);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testReplaceTile() {
+        ConcurrentTileCache cache = new ConcurrentTileCache(10 * TILE_BYTES);
+        BufferedImage image = newImage();
+        Raster tile = newTile();
+
+        cache.add(image, 0, 0, newTile());
+        cache.add(image, 0, 0, tile);
+
+        assertThat(cache.getTile(image, 0, 0)).isSameAs(tile);
+        assertThat(cache.getTileCount()).isEqualTo(1);
+        assertThat(cache.getMemoryUsed()).isEqualTo(TILE_BYTES);
+    }
+
+    @Test
+    public void testRemoveTilesOfImage() {
+        ConcurrentTileCache cache = new ConcurrentTileCache(10 * TILE_BYTES);
+        BufferedImage image1 = newImage();
+        BufferedImage image2 = newImage();
+        cache.add(image1, 0, 0, newTile());
+        cache.add(image1, 1, 0, newTile());
+        cache.add(image2, 0, 0, newTile());
+
+        assertThat(cache.getTileCount(image1)).isEqualTo(2);
+        assertThat(cache.getMemoryUsed(image1)).isEqualTo(2 * TILE_BYTES);
+        assertThat(cache.getTiles(image1)).hasSize(2);
+
+        cache.removeTiles(image1);
+
+        assertThat(cache.getTiles(image1)).isNull();
+        assertThat(cache.getTileCount(image1)).isEqualTo(0);
+        assertThat(cache.getTileCount()).isEqualTo(1);
+        assertThat(cache.getMemoryUsed()).isEqualTo(TILE_BYTES);
+        assertThat(cache.getTile(image2, 0, 0)).isNotNull();
+    }
+
+    @Test
+    public void testEvictionBelowThreshold() {
+        ConcurrentTileCache cache = new ConcurrentTileCache(4 * TILE_BYTES);
+        cache.setMemoryThreshold(0.5F);
+        BufferedImage image = newImage();
+        for (int i = 0; i < 5; i++) {
+            cache.add(image, i, 0, newTile());
+        }
+
+        assertThat(cache.getMemoryUsed()).isLessThanOrEqualTo(2 * TILE_BYTES);
+        assertThat(cache.getTileCount()).isEqualTo(cache.getTileCount(image));
+        assertThat(cache.getEvictionCount()).isEqualTo(5 - cache.getTileCount());
+        // The last tile has the highest priority
+        assertThat(cache.getTile(image, 4, 0)).isNotNull();
+    }
+
+    @Test
+    public void testEvictLargeTileFirst() {
+        ConcurrentTileCache cache = new ConcurrentTileCache(6 * TILE_BYTES);
+        cache.setMemoryThreshold(1.0F);
+        BufferedImage image = newImage();
+        Raster large = new BufferedImage(2 * TILE_SIZE, 2 * TILE_SIZE, BufferedImage.TYPE_BYTE_GRAY).getRaster();
+        cache.add(image, 0, 0, large);
+        cache.add(image, 1, 0, newTile());
+        cache.add(image, 2, 0, newTile());
+
+        // Exceeds the capacity of one tile
+        cache.add(image, 3, 0, newTile());
+
+        assertThat(cache.getTile(image, 0, 0)).isNull();
+        assertThat(cache.getTileCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFlushAndCapacity() {
+        ConcurrentTileCache cache = new ConcurrentTileCache(10 * TILE_BYTES);
+        BufferedImage image = newImage();
+        cache.add(image, 0, 0, newTile());
+        cache.add(image, 1, 0, newTile());
+
+        cache.setMemoryCapacity(0);
+        assertThat(cache.getMemoryUsed()).isEqualTo(0);
+        assertThat(cache.getImageCount()).isEqualTo(0);
+
+        // Not cached when the capacity is 0
+        cache.add(image, 0, 0, newTile());
+        assertThat(cache.getTile(image, 0, 0)).isNull();
+    }
+}
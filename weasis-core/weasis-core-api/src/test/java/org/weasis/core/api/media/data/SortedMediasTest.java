@@ -0,0 +1,72 @@
+package org.weasis.core.api.media.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SortedMediasTest {
+
+    // Order by the number before the dot, "x" has no value
+    private static final NumericSeriesComparator<String> BY_NUMBER = new NumericSeriesComparator<String>() {
+
+        @Override
+        public double getSortKey(String media) {
+            int index = media.indexOf('.');
+            String val = index < 0 ? media : media.substring(0, index);
+            return "x".equals(val) ? Double.NaN : Double.parseDouble(val);
+        }
+    };
+
+    private static final Comparator<String> BY_LENGTH = Comparator.comparingInt(String::length);
+
+    @Test
+    public void testSortByKey() {
+        List<String> list = Arrays.asList("3", "1.a", "x", "2", "1.b", "-4");
+        SortedMedias<String> sorted = SortedMedias.sort(list, BY_NUMBER);
+        // Stable sort and the media without value at the end
+        assertThat(sorted.getMedias()).containsExactly("-4", "1.a", "1.b", "2", "3", "x");
+
+        List<String> reverse = new ArrayList<>(list);
+        Collections.sort(reverse, BY_NUMBER.getReversOrderComparator());
+        assertThat(reverse).containsExactly("3", "2", "1.a", "1.b", "-4", "x");
+    }
+
+    @Test
+    public void testInsertLikeSort() {
+        Random random = new Random(11);
+        List<String> list = new ArrayList<>();
+        SortedMedias<String> byNumber = SortedMedias.sort(list, BY_NUMBER);
+        SortedMedias<String> byLength = SortedMedias.sort(list, BY_LENGTH);
+        for (int i = 0; i < 200; i++) {
+            String media = random.nextInt(10) == 0 ? "x" : random.nextInt(50) + "." + i;
+            list.add(media);
+            byNumber.insert(media, BY_NUMBER);
+            byLength.insert(media, BY_LENGTH);
+        }
+        assertThat(byNumber.getMedias()).isEqualTo(SortedMedias.sort(list, BY_NUMBER).getMedias());
+        assertThat(byLength.getMedias()).isEqualTo(SortedMedias.sort(list, BY_LENGTH).getMedias());
+    }
+
+    @Test
+    public void testInsertAndRemoveInPlace() {
+        SortedMedias<String> sorted = SortedMedias.sort(Arrays.asList("1", "3"), BY_NUMBER);
+        List<String> medias = sorted.getMedias();
+        sorted.insert("2", BY_NUMBER);
+        assertThat(medias).containsExactly("1", "2", "3");
+
+        assertThat(sorted.remove("1")).isTrue();
+        assertThat(sorted.remove("4")).isFalse();
+        assertThat(medias).containsExactly("2", "3");
+        // The keys follow the removal
+        sorted.insert("0", BY_NUMBER);
+        sorted.insert("2.b", BY_NUMBER);
+        assertThat(medias).containsExactly("0", "2", "2.b", "3");
+    }
+}
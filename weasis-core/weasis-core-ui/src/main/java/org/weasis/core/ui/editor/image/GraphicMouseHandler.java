@@ -48,6 +48,12 @@ public class GraphicMouseHandler<E extends ImageElement> extends MouseActionAdap
             return;
         }
 
+        // No measurement and drawing until the original pixels are loaded
+        E image = vImg.getImage();
+        if (image != null && image.isPreview()) {
+            return;
+        }
+
         // Convert mouse event point to real image coordinate point (without geometric transformation)
         MouseEventDouble mouseEvt = new MouseEventDouble(e);
         mouseEvt.setImageCoordinates(vImg.getImageCoordinatesFromMouse(e.getX(), e.getY()));
@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -28,7 +29,9 @@ import javax.xml.bind.annotation.XmlType;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.weasis.core.api.gui.Image2DViewer;
 import org.weasis.core.api.gui.util.ActionW;
+import org.weasis.core.api.gui.util.GeomUtil;
 import org.weasis.core.api.image.util.MeasurableLayer;
 import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.ui.Messages;
@@ -79,6 +82,7 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
     private final ArrayList<GraphicModelChangeListener> listeners = new ArrayList<>();
     private Boolean changeFireingSuspended = Boolean.FALSE;
     private Graphic createGraphic;
+    private transient volatile GraphicSpatialIndex spatialIndex;
 
     private Function<Graphic, GraphicLayer> getLayer = g -> g.getLayer();
     private Function<Graphic, DragGraphic> castToDragGraphic = DragGraphic.class::cast;
@@ -160,7 +164,11 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
             if (!layers.contains(layer)) {
                 layers.add(layer);
             }
-            models.add(graphic);
+            synchronized (models) {
+                GraphicSpatialIndex index = getSpatialIndex();
+                models.add(graphic);
+                index.add(graphic);
+            }
             LOGGER.trace("add graphic {})", graphic);
         }
     }
@@ -169,7 +177,11 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
     public void removeGraphic(Graphic graphic) {
         if (graphic != null) {
             LOGGER.trace("romoving graphic({})", graphic);
-            models.remove(graphic);
+            synchronized (models) {
+                GraphicSpatialIndex index = getSpatialIndex();
+                models.remove(graphic);
+                index.remove(graphic);
+            }
             graphic.removeAllPropertyChangeListener();
 
             GraphicLayer layer = graphic.getLayer();
@@ -249,9 +261,11 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         Objects.requireNonNull(layer);
 
         synchronized (models) {
+            GraphicSpatialIndex index = getSpatialIndex();
             models.removeIf(g -> {
                 boolean delete = layer.equals(g.getLayer());
                 if (delete) {
+                    index.remove(g);
                     g.removeAllPropertyChangeListener();
                 }
                 return delete;
@@ -267,8 +281,10 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         Objects.requireNonNull(type);
 
         synchronized (models) {
+            GraphicSpatialIndex index = getSpatialIndex();
             for (Graphic g : models) {
                 if (g.getLayer().getType().equals(type)) {
+                    index.remove(g);
                     g.removeAllPropertyChangeListener();
                 }
             }
@@ -290,8 +306,15 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         ArrayList<Graphic> selectedGraphicList = new ArrayList<>();
         if (rectangle != null) {
             synchronized (models) {
-                for (int i = models.size() - 1; i >= 0; i--) {
+                Set<Graphic> candidates =
+                    getSpatialIndex().query(rectangle, GeomUtil.extractScalingFactor(transform));
+                int remaining = candidates.size();
+                for (int i = models.size() - 1; i >= 0 && remaining > 0; i--) {
                     Graphic graphic = models.get(i);
+                    if (!candidates.contains(graphic)) {
+                        continue;
+                    }
+                    remaining--;
                     GraphicLayer layer = graphic.getLayer();
                     if (layer.getVisible() && !layer.getLocked()) {
 
@@ -327,8 +350,15 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         ArrayList<Graphic> selectedGraphicList = new ArrayList<>();
         if (rectangle != null) {
             synchronized (models) {
-                for (int i = models.size() - 1; i >= 0; i--) {
+                Set<Graphic> candidates =
+                    getSpatialIndex().query(rectangle, GeomUtil.extractScalingFactor(transform));
+                int remaining = candidates.size();
+                for (int i = models.size() - 1; i >= 0 && remaining > 0; i--) {
                     Graphic graphic = models.get(i);
+                    if (!candidates.contains(graphic)) {
+                        continue;
+                    }
+                    remaining--;
                     GraphicLayer layer = graphic.getLayer();
                     if (layer.getVisible() && !layer.getLocked()) {
 
@@ -382,8 +412,17 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
         final Point2D mousePt = mouseEvent.getImageCoordinates();
         Graphic firstSelectedGraph = null;
         synchronized (models) {
-            for (int i = models.size() - 1; i >= 0; i--) {
+            AffineTransform transform = mouseEvent.getSource() instanceof Image2DViewer
+                ? ((Image2DViewer<?>) mouseEvent.getSource()).getAffineTransform() : null;
+            Set<Graphic> candidates = getSpatialIndex().query(
+                new Rectangle2D.Double(mousePt.getX(), mousePt.getY(), 0, 0), GeomUtil.extractScalingFactor(transform));
+            int remaining = candidates.size();
+            for (int i = models.size() - 1; i >= 0 && remaining > 0; i--) {
                 Graphic g = models.get(i);
+                if (!candidates.contains(g)) {
+                    continue;
+                }
+                remaining--;
                 GraphicLayer l = g.getLayer();
                 if (l.getVisible() && !l.getLocked()) {
                     if (g.isOnGraphicLabel(mouseEvent)) {
@@ -511,7 +550,28 @@ public abstract class AbstractGraphicModel extends DefaultUUID implements Graphi
 
     @Override
     public void clear() {
-        models.clear();
+        synchronized (models) {
+            models.clear();
+            getSpatialIndex().clear();
+        }
+    }
+
+    /**
+     * @return the spatial index of the graphics, built again when the list of graphics has been replaced or modified
+     *         directly (e.g. after unmarshalling)
+     */
+    private GraphicSpatialIndex getSpatialIndex() {
+        synchronized (models) {
+            GraphicSpatialIndex index = spatialIndex;
+            if (index == null) {
+                index = new GraphicSpatialIndex();
+                spatialIndex = index;
+            }
+            if (!index.isIndexing(models)) {
+                index.rebuild(models);
+            }
+            return index;
+        }
     }
 
     private String managerStatus() {
@@ -0,0 +1,269 @@
+package org.weasis.core.ui.model;
+
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.graphic.GraphicLabel;
+import org.weasis.core.ui.model.utils.bean.AdvancedShape;
+
+/**
+ * Uniform grid over the bounds of the graphics in real coordinates (image space).
+ *
+ * The parts of a graphic whose size depends on the view (handles, line thickness, labels and invariant shapes) are
+ * not indexed, their maximum extent in view pixels is kept instead and added to the query area after being divided by
+ * the scaling factor of the view. The index returns candidates only, the caller still applies the exact intersection
+ * tests.
+ *
+ * The entries are updated from the "bounds", "graphicLabel" and "move" events fired by the graphics.
+ */
+final class GraphicSpatialIndex implements PropertyChangeListener {
+
+    static final double CELL_SIZE = 64.0;
+    // Beyond this number of cells, the graphic is always a candidate
+    static final int MAX_CELLS_BY_GRAPHIC = 1024;
+
+    private final Map<Long, List<Graphic>> cells = new HashMap<>();
+    private final Map<Graphic, int[]> entries = new IdentityHashMap<>();
+    private final Set<Graphic> unbounded = Collections.newSetFromMap(new IdentityHashMap<>());
+    private List<Graphic> source;
+    private double maxMargin = 0.0;
+
+    /**
+     * @return true when the index has been built from this list and has the same number of graphics
+     */
+    synchronized boolean isIndexing(List<Graphic> models) {
+        return source == models && entries.size() == models.size();
+    }
+
+    /**
+     * Indexes again all the graphics of the list. The caller must hold the lock of the list.
+     */
+    synchronized void rebuild(List<Graphic> models) {
+        clear();
+        this.source = models;
+        for (Graphic graphic : models) {
+            add(graphic);
+        }
+    }
+
+    synchronized void clear() {
+        for (Graphic graphic : entries.keySet()) {
+            graphic.removePropertyChangeListener(this);
+        }
+        cells.clear();
+        entries.clear();
+        unbounded.clear();
+        maxMargin = 0.0;
+    }
+
+    synchronized void add(Graphic graphic) {
+        if (graphic != null && !entries.containsKey(graphic)) {
+            insert(graphic);
+            graphic.addPropertyChangeListener(this);
+        }
+    }
+
+    synchronized void remove(Graphic graphic) {
+        if (graphic != null && entries.containsKey(graphic)) {
+            delete(graphic);
+            graphic.removePropertyChangeListener(this);
+        }
+    }
+
+    synchronized void update(Graphic graphic) {
+        if (graphic != null && entries.containsKey(graphic)) {
+            delete(graphic);
+            insert(graphic);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param area
+     *            the query area in real coordinates
+     * @param scale
+     *            the scaling factor of the view
+     * @return the graphics which can intersect the area
+     */
+    synchronized Set<Graphic> query(Rectangle2D area, double scale) {
+        Set<Graphic> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (area == null) {
+            return candidates;
+        }
+        double margin = maxMargin / (scale > 0.0 ? scale : 1.0);
+        int[] range = getCellRange(area.getMinX() - margin, area.getMinY() - margin, area.getMaxX() + margin,
+            area.getMaxY() + margin);
+        long nbCells = (long) (range[2] - range[0] + 1) * (range[3] - range[1] + 1);
+        if (nbCells > entries.size()) {
+            // Visiting the cells costs more than returning everything
+            candidates.addAll(entries.keySet());
+            return candidates;
+        }
+
+        candidates.addAll(unbounded);
+        for (int x = range[0]; x <= range[2]; x++) {
+            for (int y = range[1]; y <= range[3]; y++) {
+                List<Graphic> list = cells.get(getCellKey(x, y));
+                if (list != null) {
+                    candidates.addAll(list);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        Object obj = evt.getSource();
+        String name = evt.getPropertyName();
+        if (obj instanceof Graphic && ("bounds".equals(name) || "graphicLabel".equals(name) //$NON-NLS-1$ //$NON-NLS-2$
+            || "move".equals(name))) { //$NON-NLS-1$
+            update((Graphic) obj);
+        }
+    }
+
+    private void insert(Graphic graphic) {
+        maxMargin = Math.max(maxMargin, getViewMargin(graphic));
+        Rectangle2D bounds = getRealBounds(graphic);
+        if (bounds == null) {
+            unbounded.add(graphic);
+            entries.put(graphic, null);
+            return;
+        }
+        int[] range = getCellRange(bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY());
+        long nbCells = (long) (range[2] - range[0] + 1) * (range[3] - range[1] + 1);
+        if (nbCells > MAX_CELLS_BY_GRAPHIC) {
+            unbounded.add(graphic);
+            entries.put(graphic, null);
+            return;
+        }
+        for (int x = range[0]; x <= range[2]; x++) {
+            for (int y = range[1]; y <= range[3]; y++) {
+                cells.computeIfAbsent(getCellKey(x, y), k -> new ArrayList<>(4)).add(graphic);
+            }
+        }
+        entries.put(graphic, range);
+    }
+
+    private void delete(Graphic graphic) {
+        int[] range = entries.remove(graphic);
+        if (range == null) {
+            unbounded.remove(graphic);
+            return;
+        }
+        for (int x = range[0]; x <= range[2]; x++) {
+            for (int y = range[1]; y <= range[3]; y++) {
+                Long key = getCellKey(x, y);
+                List<Graphic> list = cells.get(key);
+                if (list != null) {
+                    for (int i = list.size() - 1; i >= 0; i--) {
+                        if (list.get(i) == graphic) {
+                            list.remove(i);
+                            break;
+                        }
+                    }
+                    if (list.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int[] getCellRange(double minX, double minY, double maxX, double maxY) {
+        return new int[] { toCell(minX), toCell(minY), toCell(maxX), toCell(maxY) };
+    }
+
+    private static int toCell(double val) {
+        double cell = Math.floor(val / CELL_SIZE);
+        if (cell > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return cell < Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) cell;
+    }
+
+    private static Long getCellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    /**
+     * @return the bounds in real coordinates of the shape, the handle points and the label anchor, or null if the
+     *         graphic cannot be located
+     */
+    static Rectangle2D getRealBounds(Graphic graphic) {
+        Rectangle2D bounds = null;
+        Shape shape = graphic.getShape();
+        if (shape instanceof AdvancedShape) {
+            bounds = ((AdvancedShape) shape).getTransformIndependentBounds();
+        } else if (shape != null) {
+            bounds = shape.getBounds2D();
+        }
+
+        List<Point2D.Double> pts = graphic.getPts();
+        if (pts != null) {
+            for (Point2D.Double p : pts) {
+                if (p != null) {
+                    if (bounds == null) {
+                        bounds = new Rectangle2D.Double(p.getX(), p.getY(), 0, 0);
+                    } else {
+                        bounds.add(p);
+                    }
+                }
+            }
+        }
+
+        GraphicLabel label = graphic.getGraphicLabel();
+        if (label != null && label.getLabelBounds() != null) {
+            Rectangle2D labelBounds = label.getTransformedBounds(null);
+            Point2D anchor = new Point2D.Double(labelBounds.getX(), labelBounds.getY());
+            if (bounds == null) {
+                bounds = new Rectangle2D.Double(anchor.getX(), anchor.getY(), 0, 0);
+            } else {
+                bounds.add(anchor);
+            }
+        }
+
+        if (bounds != null && (Double.isNaN(bounds.getX()) || Double.isNaN(bounds.getY())
+            || Double.isInfinite(bounds.getWidth()) || Double.isInfinite(bounds.getHeight()))) {
+            return null;
+        }
+        return bounds;
+    }
+
+    /**
+     * @return the maximum extent in view pixels of the parts of the graphic depending on the view
+     */
+    static double getViewMargin(Graphic graphic) {
+        Float thickness = graphic.getLineThickness();
+        Integer handleSize = graphic.getHandleSize();
+        double margin = (handleSize == null ? Graphic.HANDLE_SIZE : handleSize) * 2.0
+            + (thickness == null ? 1.0 : thickness) / 2.0 + 2.0;
+
+        Shape shape = graphic.getShape();
+        if (shape instanceof AdvancedShape) {
+            margin += ((AdvancedShape) shape).getInvariantExtent();
+        }
+
+        GraphicLabel label = graphic.getGraphicLabel();
+        if (label != null && label.getLabelBounds() != null) {
+            Rectangle2D labelBounds = label.getLabelBounds();
+            // Label can be rotated around its anchor and shifted by its height when flipped
+            margin = Math.max(margin, labelBounds.getWidth() + 2.0 * labelBounds.getHeight() + 2.0);
+        }
+        return margin;
+    }
+}
@@ -282,6 +282,63 @@ public class AdvancedShape implements Shape {
         return pathShape;
     }
 
+    /**
+     * Returns the bounds in real coordinates of the shapes which do not depend on the view transform. The invariant
+     * shapes are only represented by their anchor point, see {@link #getInvariantExtent()}.
+     */
+    public Rectangle2D getTransformIndependentBounds() {
+        Rectangle2D rectangle = null;
+
+        for (BasicShape item : shapeList) {
+            Rectangle2D bounds;
+            if (item instanceof ScaleInvariantShape) {
+                Point2D p = ((ScaleInvariantShape) item).anchorPoint;
+                bounds = new Rectangle2D.Double(p.getX(), p.getY(), 0, 0);
+            } else if (item instanceof InvariantShape) {
+                Point2D p = ((InvariantShape) item).anchorPoint;
+                bounds = new Rectangle2D.Double(p.getX(), p.getY(), 0, 0);
+            } else {
+                bounds = item.shape.getBounds2D();
+            }
+
+            if (rectangle == null) {
+                rectangle = bounds;
+            } else {
+                rectangle.add(bounds);
+            }
+        }
+        return rectangle;
+    }
+
+    /**
+     * @return the maximum distance in view pixels between an anchor point and its invariant shape. In real coordinates
+     *         this distance must be divided by the scaling factor of the view.
+     */
+    public double getInvariantExtent() {
+        double extent = 0.0;
+        for (BasicShape item : shapeList) {
+            if (item instanceof ScaleInvariantShape) {
+                extent = Math.max(extent,
+                    getMaxDistance(((ScaleInvariantShape) item).anchorPoint, item.shape.getBounds2D()));
+            } else if (item instanceof InvariantShape) {
+                extent =
+                    Math.max(extent, getMaxDistance(((InvariantShape) item).anchorPoint, item.shape.getBounds2D()));
+            } else if (item instanceof LinkSegmentToInvariantShape) {
+                LinkSegmentToInvariantShape link = (LinkSegmentToInvariantShape) item;
+                if (link.invShape != null) {
+                    extent = Math.max(extent, getMaxDistance(link.anchorPoint, link.invShape.getBounds2D()));
+                }
+            }
+        }
+        return extent;
+    }
+
+    private static double getMaxDistance(Point2D p, Rectangle2D r) {
+        double dx = Math.max(Math.abs(r.getMinX() - p.getX()), Math.abs(r.getMaxX() - p.getX()));
+        double dy = Math.max(Math.abs(r.getMinY() - p.getY()), Math.abs(r.getMaxY() - p.getY()));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
     public Area getArea(AffineTransform transform) {
         setAffineTransform(transform);
         double scalingFactor = GeomUtil.extractScalingFactor(transform);
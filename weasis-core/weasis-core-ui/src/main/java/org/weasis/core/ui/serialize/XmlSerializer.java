@@ -1,36 +1,105 @@
 package org.weasis.core.ui.serialize;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.util.FileUtil;
 import org.weasis.core.ui.model.GraphicModel;
 import org.weasis.core.ui.model.imp.XmlGraphicModel;
 
 public class XmlSerializer {
     private static final Logger LOGGER = LoggerFactory.getLogger(XmlSerializer.class);
 
+    /** Root element of a file containing the presentation models of several images */
+    public static final String PRESENTATIONS = "presentations"; //$NON-NLS-1$
+    private static final String PRESENTATION = "presentation"; //$NON-NLS-1$
+
+    // JAXBContext is thread-safe and expensive to build, Marshaller and Unmarshaller are not thread-safe
+    private static final Map<Class<?>, JaxbPool> POOLS = new ConcurrentHashMap<>();
+
+    private static final class JaxbPool {
+        private final JAXBContext context;
+        private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+        private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+
+        JaxbPool(Class<?> clazz) throws JAXBException {
+            this.context = JAXBContext.newInstance(clazz);
+        }
+
+        Marshaller getMarshaller(boolean formatted, boolean fragment) throws JAXBException {
+            Marshaller m = marshallers.poll();
+            if (m == null) {
+                m = context.createMarshaller();
+            }
+            m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formatted);
+            m.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+            return m;
+        }
+
+        void release(Marshaller marshaller) {
+            marshallers.offer(marshaller);
+        }
+
+        Unmarshaller getUnmarshaller() throws JAXBException {
+            Unmarshaller u = unmarshallers.poll();
+            return u == null ? context.createUnmarshaller() : u;
+        }
+
+        void release(Unmarshaller unmarshaller) {
+            unmarshallers.offer(unmarshaller);
+        }
+    }
+
+    private static JaxbPool getPool(Class<?> clazz) throws JAXBException {
+        JaxbPool pool = POOLS.get(clazz);
+        if (pool == null) {
+            // Concurrent first calls may build the context twice, only one is kept
+            JaxbPool newPool = new JaxbPool(clazz);
+            pool = POOLS.putIfAbsent(clazz, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
     public static GraphicModel readPresentationModel(File gpxFile) {
         if (gpxFile.canRead()) {
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(XmlGraphicModel.class);
-                Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-                GraphicModel model = (GraphicModel) jaxbUnmarshaller.unmarshal(gpxFile);
-                int length = model.getModels().size();
-                model.getModels().removeIf(g -> g.getLayer() == null);
-                if (length > model.getModels().size()) {
-                    LOGGER.error("Removing {} graphics wihout a attached layer", model.getModels().size() - length);
+                JaxbPool pool = getPool(XmlGraphicModel.class);
+                Unmarshaller jaxbUnmarshaller = pool.getUnmarshaller();
+                try {
+                    return removeGraphicsWithoutLayer((GraphicModel) jaxbUnmarshaller.unmarshal(gpxFile));
+                } finally {
+                    pool.release(jaxbUnmarshaller);
                 }
-                return model;
             } catch (Exception e) {
                 LOGGER.error("Cannot load xml: ", e);
             }
@@ -44,36 +113,146 @@ public class XmlSerializer {
             File gpxFile = new File(destinationFile.getParent(), destinationFile.getName() + ".xml"); //$NON-NLS-1$
 
             try {
-                JAXBContext jaxbContext = JAXBContext.newInstance(model.getClass());
-                Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
+                JaxbPool pool = getPool(model.getClass());
+                Marshaller jaxbMarshaller = pool.getMarshaller(true, false);
+                try {
+                    jaxbMarshaller.marshal(model, gpxFile);
+                } finally {
+                    pool.release(jaxbMarshaller);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Cannot save xml: ", e);
+            }
+        }
+    }
 
-                // output pretty printed
-                jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+    /**
+     * Writes the presentation models of the images into a single file. Each model is marshalled directly into the
+     * stream, so the whole document is never held in memory. No file is kept when no image has a graphic.
+     * <p>
+     * Unlike {@link #writePresentation(ImageElement, File)}, the models are wrapped in a root element, so the file must
+     * be read with {@link #readPresentationModels(File, Consumer)}.
+     *
+     * @param images
+     *            the medias of a series
+     * @param destinationFile
+     *            the xml file
+     * @return the number of written models
+     */
+    public static int writePresentations(Iterable<? extends ImageElement> images, File destinationFile) {
+        int count = 0;
+        XMLStreamWriter writer = null;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(destinationFile))) {
+            writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8"); //$NON-NLS-1$
+            writer.writeStartDocument("UTF-8", "1.0"); //$NON-NLS-1$ //$NON-NLS-2$
+            writer.writeStartElement(PRESENTATIONS);
+            for (ImageElement img : images) {
+                GraphicModel model = (GraphicModel) img.getTagValue(TagW.PresentationModel);
+                if (model != null && !model.getModels().isEmpty()) {
+                    JaxbPool pool = getPool(model.getClass());
+                    Marshaller jaxbMarshaller = pool.getMarshaller(false, true);
+                    try {
+                        jaxbMarshaller.marshal(model, writer);
+                    } finally {
+                        pool.release(jaxbMarshaller);
+                    }
+                    count++;
+                }
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } catch (Exception e) {
+            LOGGER.error("Cannot save xml: ", e);
+        } finally {
+            FileUtil.safeClose(writer);
+        }
+        if (count == 0) {
+            FileUtil.delete(destinationFile);
+        }
+        return count;
+    }
+
+    /**
+     * Reads incrementally a file written by {@link #writePresentations(Iterable, File)}. A file containing a single
+     * presentation model is also accepted.
+     *
+     * @param gpxFile
+     *            the xml file
+     * @param consumer
+     *            receives each model as soon as it is read
+     * @return the number of read models
+     */
+    public static int readPresentationModels(File gpxFile, Consumer<GraphicModel> consumer) {
+        int count = 0;
+        if (gpxFile.canRead()) {
+            XMLStreamReader xmler = null;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(gpxFile))) {
+                XMLInputFactory factory = XMLInputFactory.newInstance();
+                // disable external entities for security
+                factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+                factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+                xmler = factory.createXMLStreamReader(in);
 
-                jaxbMarshaller.marshal(model, System.out);
-                jaxbMarshaller.marshal(model, gpxFile);
+                JaxbPool pool = getPool(XmlGraphicModel.class);
+                Unmarshaller jaxbUnmarshaller = pool.getUnmarshaller();
+                try {
+                    while (xmler.hasNext()) {
+                        if (xmler.getEventType() == XMLStreamConstants.START_ELEMENT
+                            && PRESENTATION.equals(xmler.getLocalName())) {
+                            // Unmarshalling moves the cursor after the end of the element
+                            GraphicModel model =
+                                jaxbUnmarshaller.unmarshal(xmler, XmlGraphicModel.class).getValue();
+                            consumer.accept(removeGraphicsWithoutLayer(model));
+                            count++;
+                        } else {
+                            xmler.next();
+                        }
+                    }
+                } finally {
+                    pool.release(jaxbUnmarshaller);
+                }
             } catch (Exception e) {
-                LOGGER.error("Cannot save xml: ", e);
+                LOGGER.error("Cannot load xml: ", e);
+            } finally {
+                FileUtil.safeClose(xmler);
             }
         }
+        return count;
+    }
+
+    private static GraphicModel removeGraphicsWithoutLayer(GraphicModel model) {
+        int length = model.getModels().size();
+        model.getModels().removeIf(g -> g.getLayer() == null);
+        if (length > model.getModels().size()) {
+            LOGGER.error("Removing {} graphics wihout a attached layer", length - model.getModels().size());
+        }
+        return model;
     }
 
     @SuppressWarnings("unchecked")
     protected <T> T deserialize(String input, Class<T> clazz) throws JAXBException {
         StringReader sr = new StringReader(input);
-        JAXBContext context = JAXBContext.newInstance(clazz);
-        Unmarshaller unmarshaller = context.createUnmarshaller();
-
-        return (T) unmarshaller.unmarshal(sr);
+        JaxbPool pool = getPool(clazz);
+        Unmarshaller unmarshaller = pool.getUnmarshaller();
+        try {
+            return (T) unmarshaller.unmarshal(sr);
+        } finally {
+            pool.release(unmarshaller);
+        }
     }
 
     public static String serialize(GraphicModel model) {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(model.getClass());
-            Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-            StringWriter sw = new StringWriter();
-            jaxbMarshaller.marshal(model, sw);
-            return sw.toString();
+            JaxbPool pool = getPool(model.getClass());
+            Marshaller jaxbMarshaller = pool.getMarshaller(false, false);
+            try {
+                StringWriter sw = new StringWriter();
+                jaxbMarshaller.marshal(model, sw);
+                return sw.toString();
+            } finally {
+                pool.release(jaxbMarshaller);
+            }
         } catch (Exception e) {
             LOGGER.error("Cannot serialize xml: ", e);
         }
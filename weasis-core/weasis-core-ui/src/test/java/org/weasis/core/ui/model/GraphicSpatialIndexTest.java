@@ -0,0 +1,139 @@
+package org.weasis.core.ui.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.ui.model.graphic.Graphic;
+import org.weasis.core.ui.model.graphic.imp.area.RectangleGraphic;
+import org.weasis.core.ui.model.imp.XmlGraphicModel;
+import org.weasis.core.ui.model.layer.LayerType;
+import org.weasis.core.ui.model.layer.imp.DefaultLayer;
+
+public class GraphicSpatialIndexTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GraphicSpatialIndexTest.class);
+
+    private static final int GRAPHIC_NUMBER = 2000;
+    private static final int IMAGE_SIZE = 4096;
+    private static final int QUERY_NUMBER = 500;
+
+    private XmlGraphicModel model;
+    private Random random;
+
+    @Before
+    public void setUp() throws Exception {
+        random = new Random(42);
+        model = new XmlGraphicModel();
+        for (int i = 0; i < GRAPHIC_NUMBER; i++) {
+            model.addGraphic(new RectangleGraphic().buildGraphic(randomRectangle(5, 40)));
+        }
+    }
+
+    @Test
+    public void testSelectionLikeLinearScan() throws Exception {
+        for (double scale : new double[] { 0.1, 1.0, 4.0 }) {
+            AffineTransform transform = AffineTransform.getScaleInstance(scale, scale);
+            for (int i = 0; i < QUERY_NUMBER; i++) {
+                Rectangle rect = randomRectangle(1, 300).getBounds();
+                assertThat(model.getSelectedAllGraphicsIntersecting(rect, transform))
+                    .containsExactlyElementsOf(linearScan(rect, transform));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexFollowsGraphicChanges() throws Exception {
+        AffineTransform transform = new AffineTransform();
+        List<Graphic> graphics = new ArrayList<>(model.getModels());
+        for (int i = 0; i < 200; i++) {
+            RectangleGraphic graphic = (RectangleGraphic) graphics.get(random.nextInt(graphics.size()));
+            graphic.buildGraphic(randomRectangle(5, 40));
+            if (i % 10 == 0) {
+                graphic.setLineThickness(1.0f + random.nextInt(20));
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            model.removeGraphic(graphics.get(i));
+        }
+
+        for (int i = 0; i < QUERY_NUMBER; i++) {
+            Rectangle rect = randomRectangle(1, 300).getBounds();
+            assertThat(model.getSelectedAllGraphicsIntersecting(rect, transform))
+                .containsExactlyElementsOf(linearScan(rect, transform));
+        }
+    }
+
+    @Test
+    public void testIndexRebuiltWhenModelsReplaced() throws Exception {
+        DefaultLayer layer = new DefaultLayer(LayerType.DRAW);
+        List<Graphic> graphics = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Graphic graphic = new RectangleGraphic().buildGraphic(randomRectangle(5, 40));
+            graphic.setLayer(layer);
+            graphics.add(graphic);
+        }
+        model.setModels(graphics);
+
+        Rectangle all = new Rectangle(-100, -100, IMAGE_SIZE + 200, IMAGE_SIZE + 200);
+        assertThat(model.getSelectedAllGraphicsIntersecting(all, null)).hasSize(100);
+
+        model.clear();
+        assertThat(model.getSelectedAllGraphicsIntersecting(all, null)).isEmpty();
+    }
+
+    @Test
+    public void benchmarkSelection() throws Exception {
+        AffineTransform transform = new AffineTransform();
+        List<Rectangle> queries = new ArrayList<>();
+        for (int i = 0; i < QUERY_NUMBER; i++) {
+            queries.add(randomRectangle(1, 50).getBounds());
+        }
+
+        // Warm up
+        queries.forEach(r -> model.getSelectedAllGraphicsIntersecting(r, transform));
+        queries.forEach(r -> linearScan(r, transform));
+
+        long start = System.nanoTime();
+        queries.forEach(r -> model.getSelectedAllGraphicsIntersecting(r, transform));
+        long indexed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        queries.forEach(r -> linearScan(r, transform));
+        long linear = System.nanoTime() - start;
+
+        LOGGER.info("{} selections among {} graphics: index {} ms, linear scan {} ms", QUERY_NUMBER, GRAPHIC_NUMBER, //$NON-NLS-1$
+            indexed / 1000000.0, linear / 1000000.0);
+    }
+
+    private List<Graphic> linearScan(Rectangle rect, AffineTransform transform) {
+        List<Graphic> list = new ArrayList<>();
+        List<Graphic> graphics = model.getModels();
+        for (int i = graphics.size() - 1; i >= 0; i--) {
+            Graphic graphic = graphics.get(i);
+            Rectangle bounds = graphic.getBounds(transform);
+            if (bounds != null && bounds.intersects(rect)) {
+                Area area = graphic.getArea(transform);
+                if (area != null && area.intersects(rect)) {
+                    list.add(graphic);
+                }
+            }
+        }
+        return list;
+    }
+
+    private Rectangle2D randomRectangle(int minSize, int maxSize) {
+        double w = minSize + random.nextDouble() * (maxSize - minSize);
+        double h = minSize + random.nextDouble() * (maxSize - minSize);
+        return new Rectangle2D.Double(random.nextDouble() * IMAGE_SIZE, random.nextDouble() * IMAGE_SIZE, w, h);
+    }
+}
@@ -0,0 +1,114 @@
+package org.weasis.core.ui.serialize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.mockito.PowerMockito;
+import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.util.FileUtil;
+import org.weasis.core.ui.model.GraphicModel;
+import org.weasis.core.ui.model.graphic.imp.PointGraphic;
+import org.weasis.core.ui.model.imp.XmlGraphicModel;
+import org.weasis.core.ui.model.imp.suite.DeserializationSuite;
+import org.weasis.core.ui.test.utils.ModelListHelper;
+
+public class XmlSerializerTest extends ModelListHelper {
+
+    private File dir;
+
+    @Before
+    public void createDirectory() throws Exception {
+        dir = Files.createTempDirectory("presentations").toFile();
+    }
+
+    @After
+    public void deleteDirectory() {
+        FileUtil.recursiveDelete(dir);
+    }
+
+    private XmlGraphicModel readResource(String path) throws Exception {
+        try (InputStream xml = getClass().getResourceAsStream(path)) {
+            return deserialize(xml, XmlGraphicModel.class);
+        }
+    }
+
+    private static ImageElement mockImage(GraphicModel model) {
+        ImageElement img = PowerMockito.mock(ImageElement.class);
+        PowerMockito.when(img.getTagValue(TagW.PresentationModel)).thenReturn(model);
+        return img;
+    }
+
+    @Test
+    public void testSingleImageRoundTrip() throws Exception {
+        XmlGraphicModel model = readResource(DeserializationSuite.XML_5);
+        File image = new File(dir, "image.jpg");
+        XmlSerializer.writePresentation(mockImage(model), image);
+
+        File file = new File(dir, "image.jpg.xml");
+        GraphicModel result = XmlSerializer.readPresentationModel(file);
+        assertThat(result).isNotNull();
+        assertThat(result.getUuid()).isEqualTo(PRESENTATION_UUID_0);
+        assertThat(result.getModels()).hasSize(1);
+        assertThat(result.getModels().get(0)).isInstanceOf(PointGraphic.class);
+
+        // The single model format is also accepted by the streaming reader
+        List<GraphicModel> models = new ArrayList<>();
+        assertThat(XmlSerializer.readPresentationModels(file, models::add)).isEqualTo(1);
+        assertThat(models.get(0).getUuid()).isEqualTo(PRESENTATION_UUID_0);
+    }
+
+    @Test
+    public void testMultiImageRoundTrip() throws Exception {
+        XmlGraphicModel model1 = readResource(DeserializationSuite.XML_5);
+        XmlGraphicModel model2 = readResource(DeserializationSuite.XML_5);
+        model2.setUuid(UUID_1);
+        List<ImageElement> images = Arrays.asList(mockImage(model1), mockImage(null), mockImage(model2));
+
+        File file = new File(dir, "series.xml");
+        assertThat(XmlSerializer.writePresentations(images, file)).isEqualTo(2);
+
+        List<GraphicModel> models = new ArrayList<>();
+        assertThat(XmlSerializer.readPresentationModels(file, models::add)).isEqualTo(2);
+        assertThat(models).extracting(GraphicModel::getUuid).containsExactly(PRESENTATION_UUID_0, UUID_1);
+        for (GraphicModel model : models) {
+            assertThat(model.getModels()).hasSize(1);
+            assertThat(model.getModels().get(0)).isInstanceOf(PointGraphic.class);
+            assertThat(model.getModels().get(0).getLayer()).isNotNull();
+        }
+    }
+
+    @Test
+    public void testSingleImageLegacyFile() throws Exception {
+        File file = new File(dir, "image.xml");
+        try (InputStream xml = getClass().getResourceAsStream(DeserializationSuite.XML_5)) {
+            Files.copy(xml, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        List<GraphicModel> models = new ArrayList<>();
+        assertThat(XmlSerializer.readPresentationModels(file, models::add)).isEqualTo(1);
+        assertThat(models).hasSize(1);
+        assertThat(models.get(0).getUuid()).isEqualTo(PRESENTATION_UUID_0);
+        assertThat(models.get(0).getModels()).hasSize(1);
+    }
+
+    @Test
+    public void testNoFileWithoutGraphic() throws Exception {
+        File file = new File(dir, "empty.xml");
+        assertThat(XmlSerializer.writePresentations(Collections.singletonList(mockImage(null)), file)).isEqualTo(0);
+        assertThat(file).doesNotExist();
+        assertThat(XmlSerializer.readPresentationModels(file, m -> {
+        })).isEqualTo(0);
+    }
+}
@@ -16,16 +16,17 @@ import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
 import java.awt.image.renderable.ParameterBlock;
 import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
-import javax.media.jai.Histogram;
 import javax.media.jai.JAI;
 import javax.media.jai.LookupTableJAI;
-import javax.media.jai.OpImage;
-import javax.media.jai.ROI;
+import javax.media.jai.PlanarImage;
 import javax.media.jai.RenderedOp;
 import javax.media.jai.operator.LookupDescriptor;
 
@@ -38,11 +39,12 @@ import org.weasis.core.api.gui.util.MathUtil;
 import org.weasis.core.api.image.LutShape;
 import org.weasis.core.api.image.PseudoColorOp;
 import org.weasis.core.api.image.WindowOp;
-import org.weasis.core.api.image.op.ImageStatisticsDescriptor;
-import org.weasis.core.api.image.util.ImageToolkit;
+import org.weasis.core.api.image.util.IntHistogram;
 import org.weasis.core.api.image.util.LayoutUtil;
+import org.weasis.core.api.image.util.PixelExtrema;
 import org.weasis.core.api.image.util.Unit;
 import org.weasis.core.api.media.data.ImageElement;
+import org.weasis.core.api.media.data.MediaReader;
 import org.weasis.core.api.media.data.SoftHashMap;
 import org.weasis.core.api.media.data.TagReadable;
 import org.weasis.core.api.media.data.TagW;
@@ -74,6 +76,8 @@ public class DicomImageElement extends ImageElement {
 
     private volatile List<PresetWindowLevel> windowingPresetCollection = null;
     private volatile Collection<LutShape> lutShapeCollection = null;
+    private volatile HistogramCache histogramCache = null;
+    private volatile DispGeometry dispSliceGeometry = null;
 
     public DicomImageElement(DcmMediaReader mediaIO, Object key) {
         super(mediaIO, key);
@@ -171,6 +175,11 @@ public class DicomImageElement extends ImageElement {
             pixel2mLUT(super.getMaxValue(tagable, pixelPadding), tagable, pixelPadding));
     }
 
+    @Override
+    public boolean isPreview() {
+        return mediaIO instanceof DicomPreviewMediaIO;
+    }
+
     @Override
     protected boolean isGrayImage(RenderedImage source) {
         Boolean val = (Boolean) getTagValue(TagW.MonoChrome);
@@ -528,37 +537,44 @@ public class DicomImageElement extends ImageElement {
     }
 
     /**
+     * The histogram is computed only once for the same source image, modality lookup and pixel padding. It is released
+     * when the image is removed from the cache.
      *
      * @param imageSource
      * @param pixelPadding
      * @return Histogram of the image source after modality lookup rescaled
      */
-
-    public Histogram getHistogram(RenderedImage imageSource, TagReadable tagable, boolean pixelPadding) {
+    public IntHistogram getHistogram(RenderedImage imageSource, TagReadable tagable, boolean pixelPadding) {
         LookupTableJAI lookup = getModalityLookup(tagable, pixelPadding);
         if (imageSource == null || lookup == null) {
             return null;
         }
         // TODO instead of computing histo from image get Dicom attribute if present. Handle pixel padding!
 
-        ParameterBlock pb = new ParameterBlock();
-        pb.addSource(imageSource);
-        pb.add(lookup);
-        final RenderedImage imageModalityTransformed = JAI.create("lookup", pb, null); //$NON-NLS-1$
-
-        pb.removeSources();
-        pb.removeParameters();
+        HistogramCache cache = histogramCache;
+        if (cache == null || cache.source.get() != imageSource) {
+            cache = new HistogramCache(imageSource);
+            histogramCache = cache;
+        }
+        int low = getMinAllocatedValue(tagable, pixelPadding);
+        int numBins = getAllocatedOutRangeSize();
+        return cache.histograms.computeIfAbsent(new HistogramKey(lookup, low, numBins),
+            k -> IntHistogram.compute(imageSource, lookup, low, numBins));
+    }
 
-        pb.addSource(imageModalityTransformed);
-        pb.add(null); // No ROI
-        pb.add(1); // Sampling
-        pb.add(1); // periods
-        pb.add(new int[] { getAllocatedOutRangeSize() }); // Num. bins.
-        pb.add(new double[] { getMinAllocatedValue(tagable, pixelPadding) }); // Min value to be considered.
-        pb.add(new double[] { getMaxAllocatedValue(tagable, pixelPadding) }); // Max value to be considered.
+    @Override
+    protected ExecutorService getImageLoader() {
+        // The frames of a compressed multiframe can be decoded concurrently
+        MediaReader<PlanarImage> reader = getMediaReader();
+        if (reader instanceof DicomMediaIO && ((DicomMediaIO) reader).isFrameParallel()) {
+            return DicomMediaIO.FRAME_LOADER;
+        }
+        return super.getImageLoader();
+    }
 
-        RenderedOp op = JAI.create("histogram", pb, ImageToolkit.NOCACHE_HINT); //$NON-NLS-1$
-        return (Histogram) op.getProperty("histogram"); //$NON-NLS-1$
+    @Override
+    protected void releaseImageData() {
+        histogramCache = null;
     }
 
     @Override
@@ -568,7 +584,10 @@ public class DicomImageElement extends ImageElement {
          */
 
         if (img != null && !isImageAvailable()) {
-            // Cannot trust SmallestImagePixelValue and LargestImagePixelValue values! So search min and max values
+            /*
+             * SmallestImagePixelValue and LargestImagePixelValue are only used by the reader when they can be trusted
+             * (see DicomMediaIO), otherwise search min and max values
+             */
             int bitsStored = getBitsStored();
             int bitsAllocated = getBitsAllocated();
 
@@ -630,26 +649,14 @@ public class DicomImageElement extends ImageElement {
                 this.minPixelValue = 0.0;
                 this.maxPixelValue = 255.0;
             } else {
-                RenderedOp dst = ImageStatisticsDescriptor.create(img, (ROI) null, 1, 1, new Double(paddingValueMin),
-                    new Double(paddingValueMax), null);
-                // To ensure this image won't be stored in tile cache
-                ((OpImage) dst.getRendering()).setTileCache(null);
-
-                double[][] extrema = (double[][]) dst.getProperty("statistics"); //$NON-NLS-1$
-                double min = Double.MAX_VALUE;
-                double max = -Double.MAX_VALUE;
-                int numBands = dst.getSampleModel().getNumBands();
-
-                for (int i = 0; i < numBands; i++) {
-                    min = Math.min(min, extrema[0][i]);
-                    max = Math.max(max, extrema[1][i]);
+                // Get the values computed by the reader or read the tiles directly
+                PixelExtrema extrema = PixelExtrema.getProperty(img, paddingValueMin, paddingValueMax);
+                if (extrema == null) {
+                    extrema = PixelExtrema.find(img, paddingValueMin, paddingValueMax);
                 }
-                this.minPixelValue = min;
-                this.maxPixelValue = max;
-                // Handle special case when min and max are equal, ex. black image
-                // + 1 to max enables to display the correct value
-                if (this.minPixelValue.equals(this.maxPixelValue)) {
-                    this.maxPixelValue += 1.0;
+                // When all the values are padding values, find min and max without excluding values
+                if (extrema != null) {
+                    setMinMaxValues(extrema);
                 }
             }
         }
@@ -824,6 +831,16 @@ public class DicomImageElement extends ImageElement {
     }
 
     public GeometryOfSlice getDispSliceGeometry() {
+        // The geometry is only built again when the pixel size has been changed (e.g. by a calibration)
+        DispGeometry geometry = dispSliceGeometry;
+        if (geometry == null || geometry.pixelSizeX != pixelSizeX || geometry.pixelSizeY != pixelSizeY) {
+            geometry = new DispGeometry(pixelSizeX, pixelSizeY, buildDispSliceGeometry());
+            dispSliceGeometry = geometry;
+        }
+        return geometry.geometry;
+    }
+
+    private GeometryOfSlice buildDispSliceGeometry() {
         // The geometry is adapted to get square pixel as all the images are displayed with square pixel.
         double[] imgOr = TagD.getTagValue(this, Tag.ImageOrientationPatient, double[].class);
         if (imgOr != null && imgOr.length == 6) {
@@ -871,4 +888,61 @@ public class DicomImageElement extends ImageElement {
         return null;
     }
 
+
+    /**
+     * Display geometry of the slice and the pixel size used to build it
+     */
+    private static final class DispGeometry {
+        private final double pixelSizeX;
+        private final double pixelSizeY;
+        private final GeometryOfSlice geometry;
+
+        DispGeometry(double pixelSizeX, double pixelSizeY, GeometryOfSlice geometry) {
+            this.pixelSizeX = pixelSizeX;
+            this.pixelSizeY = pixelSizeY;
+            this.geometry = geometry;
+        }
+    }
+
+    /**
+     * Histograms of one source image
+     */
+    private static final class HistogramCache {
+        private final WeakReference<RenderedImage> source;
+        private final Map<HistogramKey, IntHistogram> histograms = new ConcurrentHashMap<>();
+
+        HistogramCache(RenderedImage source) {
+            this.source = new WeakReference<>(source);
+        }
+    }
+
+    private static final class HistogramKey {
+        // The lookup tables are shared by LUT_Cache, the instance identifies the modality LUT parameters
+        private final LookupTableJAI lookup;
+        private final int low;
+        private final int numBins;
+
+        HistogramKey(LookupTableJAI lookup, int low, int numBins) {
+            this.lookup = lookup;
+            this.low = low;
+            this.numBins = numBins;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HistogramKey)) {
+                return false;
+            }
+            HistogramKey other = (HistogramKey) obj;
+            return lookup == other.lookup && low == other.low && numBins == other.numBins;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(lookup) + low) + numBins;
+        }
+    }
 }
@@ -25,15 +25,16 @@ import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
 import java.awt.image.renderable.ParameterBlock;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
 import java.lang.ref.Reference;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -43,6 +44,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.imageio.ImageIO;
@@ -84,8 +87,10 @@ import org.weasis.core.api.image.op.RectifySignedShortDataDescriptor;
 import org.weasis.core.api.image.op.RectifyUShortToShortDataDescriptor;
 import org.weasis.core.api.image.util.ImageFiler;
 import org.weasis.core.api.image.util.LayoutUtil;
+import org.weasis.core.api.image.util.PixelExtrema;
 import org.weasis.core.api.media.data.Codec;
 import org.weasis.core.api.media.data.FileCache;
+import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.MediaElement;
 import org.weasis.core.api.media.data.MediaSeries;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
@@ -95,12 +100,16 @@ import org.weasis.core.api.media.data.SoftHashMap;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.service.BundleTools;
 import org.weasis.core.api.util.FileUtil;
+import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.api.util.StringUtil;
 import org.weasis.dicom.codec.TagD.Level;
 import org.weasis.dicom.codec.geometry.ImageOrientation;
 import org.weasis.dicom.codec.utils.DicomImageUtils;
 import org.weasis.dicom.codec.utils.DicomMediaUtils;
+import org.weasis.dicom.codec.utils.OverlayCache;
 import org.weasis.dicom.codec.utils.OverlayUtils;
+import org.weasis.dicom.codec.utils.RleDecoder;
+import org.weasis.dicom.codec.utils.YbrToRgbConverter;
 
 import com.sun.media.imageio.stream.RawImageInputStream;
 import com.sun.media.imageioimpl.common.SignedDataImageParam;
@@ -124,6 +133,28 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
     public static final String SERIES_XDSI = "xds-i/dicom"; //$NON-NLS-1$
 
     private static final AtomicInteger instanceID = new AtomicInteger(1);
+
+    /**
+     * Number of threads decoding the compressed frames of multiframe files, 1 for decoding the frames one by one with
+     * the image loader of the application.
+     */
+    public static final String FRAME_THREADS = "weasis.dicom.frame.threads"; //$NON-NLS-1$
+    private static final int FRAME_PARALLELISM = BundleTools.SYSTEM_PREFERENCES.getIntProperty(FRAME_THREADS,
+        Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() / 2)));
+    public static final ExecutorService FRAME_LOADER =
+        ThreadUtil.buildNewFixedThreadExecutor(Math.max(1, FRAME_PARALLELISM), "Frame Loader"); //$NON-NLS-1$
+    /**
+     * Maps in memory the uncompressed pixel data of the local files, the tiles are copied from the mapped data instead
+     * of being read from the stream.
+     */
+    public static final String RAW_MAPPED = "weasis.dicom.raw.mapped"; //$NON-NLS-1$
+    private static final boolean MAP_RAW_DATA = BundleTools.SYSTEM_PREFERENCES.getBooleanProperty(RAW_MAPPED, true);
+    /**
+     * Maximum size (in MB) of the overlay and shutter masks kept in memory by each instance.
+     */
+    public static final String OVERLAY_CACHE_SIZE = "weasis.dicom.overlay.cache.size"; //$NON-NLS-1$
+    private static final long OVERLAY_CACHE_CAPACITY =
+        BundleTools.SYSTEM_PREFERENCES.getIntProperty(OVERLAY_CACHE_SIZE, 8) * 1024L * 1024L;
     public static final TagManager tagManager = new TagManager();
 
     static {
@@ -294,6 +325,12 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
     private volatile MediaElement[] image = null;
     private volatile String mimeType;
     private final ArrayList<Integer> fragmentsPositions = new ArrayList<>();
+    // Readers of the frames decoded concurrently, each one has its own stream
+    private final ConcurrentLinkedQueue<FrameDecoder> frameDecoders = new ConcurrentLinkedQueue<>();
+    private volatile boolean encapsulated = false;
+    // Uncompressed pixel data of all the frames mapped in memory
+    private volatile MappedPixelData mappedPixelData;
+    private final OverlayCache overlayCache = new OverlayCache(OVERLAY_CACHE_CAPACITY);
 
     private volatile ImageInputStream iis;
     private DicomInputStream dis;
@@ -304,6 +341,8 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
     private int bitsStored;
     private int bitsAllocated;
     private int highBit;
+    private Integer smallestPixelValue;
+    private Integer largestPixelValue;
     /**
      * Store the transfer syntax locally in case it gets modified to re-write the image
      */
@@ -345,6 +384,32 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
         }
     }
 
+    /**
+     * Sets the header which has been parsed while writing the file (for instance during a download), so the file is not
+     * parsed again for reading the header or the images. The dataset must have been read like in
+     * {@link #readMetaData(boolean)}: up to the end of the stream, with the bulk data (including the pixel data) as
+     * references to the file positions.
+     *
+     * @param fmi
+     *            the file meta information or null
+     * @param dataset
+     *            the whole dataset with the bulk data as {@link BulkData} or {@link Fragments}
+     * @param transferSyntax
+     *            the transfer syntax of the dataset
+     * @return true if the header has been set
+     */
+    public synchronized boolean setParsedHeader(Attributes fmi, Attributes dataset, String transferSyntax) {
+        if (dataset == null || transferSyntax == null || dcmMetadata != null || !tags.isEmpty()
+            || HEADER_CACHE.get(this) != null) {
+            return false;
+        }
+        Attributes meta = fmi == null ? dataset.createFileMetaInformation(transferSyntax) : fmi;
+        DicomMetaData metadata = new DicomMetaData(meta, dataset);
+        initPixelData(metadata, false);
+        HEADER_CACHE.put(this, metadata);
+        return true;
+    }
+
     /**
      * 
      * @return true when the DICOM Object has no source file (only in memory)
@@ -491,9 +556,31 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
         // throw new UnsupportedOperationException("No RAW Reader available");
         // }
         reader.setInput(riis);
+        ((RawImageReader) reader).setMappedData(getMappedPixelData());
         return reader;
     }
 
+    private MappedPixelData getMappedPixelData() {
+        MappedPixelData data = mappedPixelData;
+        if (data == null && MAP_RAW_DATA && pixeldata != null && iis != null) {
+            Optional<File> file = fileCache.getOriginalFile();
+            long length = (long) frameLength * numberOfFrame;
+            if (file.isPresent() && length > 0 && length <= Integer.MAX_VALUE) {
+                // The mapping remains valid when the channel is closed, it is released by reset()
+                try (FileChannel channel = FileChannel.open(file.get().toPath(), StandardOpenOption.READ)) {
+                    if (pixeldata.offset() + length <= channel.size()) {
+                        ByteBuffer buf = channel.map(MapMode.READ_ONLY, pixeldata.offset(), length);
+                        data = new MappedPixelData(buf.order(iis.getByteOrder()), pixeldata.offset());
+                        mappedPixelData = data;
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot map the pixel data of {}", uri, e); //$NON-NLS-1$
+                }
+            }
+        }
+        return data;
+    }
+
     private boolean setDicomSpecialType(Attributes header) {
         String modality = header.getString(Tag.Modality);
         if (modality != null) {
@@ -687,6 +774,11 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
                 DicomMediaUtils.getIntPixelValue(header, Tag.PixelPaddingValue, pixelRepresentation != 0, bitsStored));
             setTagNoNull(TagD.get(Tag.PixelPaddingRangeLimit), DicomMediaUtils.getIntPixelValue(header,
                 Tag.PixelPaddingRangeLimit, pixelRepresentation != 0, bitsStored));
+            // Not limited to bits stored for checking the consistency of the values (see getHeaderExtrema())
+            smallestPixelValue = DicomMediaUtils.getIntPixelValue(header, Tag.SmallestImagePixelValue,
+                pixelRepresentation != 0, bitsAllocated);
+            largestPixelValue = DicomMediaUtils.getIntPixelValue(header, Tag.LargestImagePixelValue,
+                pixelRepresentation != 0, bitsAllocated);
 
             /*
              * * @see <a href=
@@ -829,42 +921,149 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
              */
             Integer overlayBitMask = (Integer) getTagValue(TagW.OverlayBitMask);
             if (overlayBitMask != null) {
-                if (media.getTagValue(TagW.OverlayBurninDataPath) == null) {
-                    // Serialize overlay (from pixel data)
-                    Attributes ds = getDicomObject();
-                    int[] embeddedOverlayGroupOffsets = Overlays.getEmbeddedOverlayGroupOffsets(ds);
-
-                    if (embeddedOverlayGroupOffsets.length > 0) {
-                        FileOutputStream fileOut = null;
-                        ObjectOutput objOut = null;
-                        try {
-                            byte[][] overlayData = new byte[embeddedOverlayGroupOffsets.length][];
-                            Raster raster = buffer.getData();
-                            for (int i = 0; i < embeddedOverlayGroupOffsets.length; i++) {
-                                overlayData[i] =
-                                    OverlayUtils.extractOverlay(embeddedOverlayGroupOffsets[i], raster, ds);
-                            }
-                            File file = File.createTempFile("ovly_", "", AppProperties.FILE_CACHE_DIR); //$NON-NLS-1$ //$NON-NLS-2$
-                            fileOut = new FileOutputStream(file);
-                            objOut = new ObjectOutputStream(fileOut);
-                            objOut.writeObject(overlayData);
-                            media.setTag(TagW.OverlayBurninDataPath, file.getPath());
-                        } catch (Exception e) {
-                            LOGGER.error("Cannot serialize overlay: {}", e.getMessage()); //$NON-NLS-1$
-                        } finally {
-                            FileUtil.safeClose(objOut);
-                            FileUtil.safeClose(fileOut);
-                        }
-                    }
+                int frame = media.getKey() instanceof Integer ? (Integer) media.getKey() : 0;
+                if (overlayCache.getEmbeddedOverlays(frame) == null) {
+                    extractEmbeddedOverlays(frame, buffer);
                 }
                 // Set to 0 all bits outside bitStored
                 img = AndConstDescriptor.create(img, new int[] { overlayBitMask }, null);
             }
             img = DicomImageUtils.getRGBImageFromPaletteColorModel(img, getDicomObject());
+            if (!(media instanceof ImageElement) || !((ImageElement) media).isImageAvailable()) {
+                // Only at the first loading, the image element keeps the values when the image is reloaded
+                setPixelExtrema(buffer, img);
+            }
         }
         return img;
     }
 
+    private byte[][] extractEmbeddedOverlays(int frame, RenderedImage buffer) {
+        // Keep the bit-packed overlays (from pixel data) in memory
+        Attributes ds = getDicomObject();
+        int[] embeddedOverlayGroupOffsets = Overlays.getEmbeddedOverlayGroupOffsets(ds);
+
+        if (embeddedOverlayGroupOffsets.length > 0) {
+            try {
+                byte[][] overlayData = new byte[embeddedOverlayGroupOffsets.length][];
+                Raster raster = buffer.getData();
+                for (int i = 0; i < embeddedOverlayGroupOffsets.length; i++) {
+                    overlayData[i] = OverlayUtils.extractOverlay(embeddedOverlayGroupOffsets[i], raster, ds);
+                }
+                overlayCache.setEmbeddedOverlays(frame, overlayData);
+                return overlayData;
+            } catch (Exception e) {
+                LOGGER.error("Cannot extract overlay: {}", e.getMessage()); //$NON-NLS-1$
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param frame
+     *            the frame index
+     * @return the overlays extracted from the pixel data of the frame or null when there are none. The frame is decoded
+     *         again when they have been evicted from the cache.
+     */
+    public byte[][] getEmbeddedOverlays(int frame) {
+        byte[][] overlays = overlayCache.getEmbeddedOverlays(frame);
+        if (overlays == null && getTagValue(TagW.OverlayBitMask) != null) {
+            try {
+                RenderedImage buffer = readAsRenderedImage(frame, null);
+                if (buffer != null) {
+                    overlays = extractEmbeddedOverlays(frame, buffer);
+                }
+            } catch (IOException e) {
+                LOGGER.error("Cannot read the overlays of frame {}", frame, e); //$NON-NLS-1$
+            }
+        }
+        return overlays;
+    }
+
+    /**
+     * Publishes the min and max values with the image. They are taken from the header when they can be trusted or
+     * computed from the decoded data still in memory, so the image is not read again by the image element. A deferred
+     * image (tiles decoded on demand or JAI operations) is never read here: its tiles would be computed only for the
+     * values, so the image element computes them once on its first loading.
+     *
+     * @see org.weasis.dicom.codec.DicomImageElement#findMinMaxValues(RenderedImage, boolean)
+     */
+    private void setPixelExtrema(RenderedImage buffer, PlanarImage img) {
+        if (pmi == null || !pmi.isMonochrome() || img.getSampleModel().getNumBands() != 1) {
+            // Computed by the image element (no computation for 8-bit color images)
+            return;
+        }
+        Double excludedMin = null;
+        Double excludedMax = null;
+        Integer paddingValue = TagD.getTagValue(this, Tag.PixelPaddingValue, Integer.class);
+        if (paddingValue != null) {
+            if (img.getSampleModel().getDataType() == DataBuffer.TYPE_BYTE) {
+                // 0 and 255 are used for 8-bit images with padding values
+                return;
+            }
+            Integer paddingLimit = TagD.getTagValue(this, Tag.PixelPaddingRangeLimit, Integer.class);
+            excludedMin = (double) (paddingLimit == null ? paddingValue : Math.min(paddingValue, paddingLimit));
+            excludedMax = (double) (paddingLimit == null ? paddingValue : Math.max(paddingValue, paddingLimit));
+        }
+
+        PixelExtrema extrema = paddingValue == null ? getHeaderExtrema() : null;
+        if (extrema == null) {
+            // Read the decoded image only when the next operations do not change the values
+            boolean sameValues = buffer instanceof BufferedImage && getTagValue(TagW.OverlayBitMask) == null
+                && buffer.getSampleModel().getDataType() == img.getSampleModel().getDataType();
+            if (!sameValues) {
+                return;
+            }
+            extrema = PixelExtrema.find(buffer, excludedMin, excludedMax);
+        }
+        PixelExtrema.setProperty(img, extrema);
+    }
+
+    /**
+     * SmallestImagePixelValue and LargestImagePixelValue are often missing or wrong (e.g. the values are not updated
+     * when the image is modified or they are the full range of the bits stored). They are only used when they are
+     * consistent with the pixel data description and when the values cannot be changed by the compression.
+     *
+     * @return the extrema from the header or null if they cannot be trusted
+     */
+    private PixelExtrema getHeaderExtrema() {
+        if (smallestPixelValue == null || largestPixelValue == null || smallestPixelValue >= largestPixelValue) {
+            return null;
+        }
+        // The values apply to all the frames, not to each frame
+        if (numberOfFrame != 1 || dataType == DataBuffer.TYPE_FLOAT || getTagValue(TagW.OverlayBitMask) != null
+            || !isLosslessTransferSyntax(tsuid)) {
+            return null;
+        }
+        boolean signed = dataType == DataBuffer.TYPE_SHORT;
+        int minInValue = signed ? -(1 << (bitsStored - 1)) : 0;
+        int maxInValue = signed ? (1 << (bitsStored - 1)) - 1 : (1 << bitsStored) - 1;
+        if (smallestPixelValue < minInValue || largestPixelValue > maxInValue
+            || (smallestPixelValue == minInValue && largestPixelValue == maxInValue)) {
+            return null;
+        }
+        return new PixelExtrema(smallestPixelValue, largestPixelValue, null, null);
+    }
+
+    private static boolean isLosslessTransferSyntax(String uid) {
+        if (uid == null) {
+            return false;
+        }
+        switch (uid) {
+            case UID.ImplicitVRLittleEndian:
+            case UID.ExplicitVRLittleEndian:
+            case UID.ExplicitVRBigEndianRetired:
+            case UID.DeflatedExplicitVRLittleEndian:
+            case UID.RLELossless:
+            case UID.JPEGLossless:
+            case UID.JPEGLosslessNonHierarchical14:
+            case UID.JPEGLSLossless:
+            case UID.JPEG2000LosslessOnly:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private MediaElement getSingleImage() {
         MediaElement[] elements = getMediaElement();
         if (elements != null && elements.length > 0) {
@@ -1077,18 +1276,25 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
     }
 
     private boolean isRLELossless() {
-        return dis == null ? false : dis.getTransferSyntax().equals(UID.RLELossless);
+        return UID.RLELossless.equals(tsuid);
     }
 
     private ImageInputStreamImpl iisOfFrame(int frameIndex) throws IOException {
+        return iisOfFrame(iis, decompressor, frameIndex);
+    }
+
+    private ImageInputStreamImpl iisOfFrame(ImageInputStream stream, ImageReader reader, int frameIndex)
+        throws IOException {
         // Extract compressed file
         // FileUtil.writeFile(new SegmentedInputImageStream(iis, pixeldataFragments, frameIndex), new FileOutputStream(
         // new File(AppProperties.FILE_CACHE_DIR, new File(uri).getName() + frameIndex + ".jpg")));
-        org.dcm4che3.imageio.stream.SegmentedInputImageStream siis = buildSegmentedImageInputStream(frameIndex);
+        org.dcm4che3.imageio.stream.SegmentedInputImageStream siis =
+            buildSegmentedImageInputStream(stream, reader, frameIndex);
         return patchJpegLS != null ? new PatchJPEGLSImageInputStream(siis, patchJpegLS) : siis;
     }
 
-    private SegmentedInputImageStream buildSegmentedImageInputStream(int frameIndex) throws IOException {
+    private SegmentedInputImageStream buildSegmentedImageInputStream(ImageInputStream stream, ImageReader reader,
+        int frameIndex) throws IOException {
         int nbFragments = pixeldataFragments.size();
         long[] offsets;
         int[] length;
@@ -1111,40 +1317,44 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
                 }
             } else {
                 // Multi-frames where each frames can have multiple fragments.
-                if (fragmentsPositions.isEmpty()) {
-                    if (decompressor == null) {
-                        throw new IOException("no decompressor!");
-                    }
+                int start;
+                int end;
+                // The positions are computed once, the frames can be read concurrently
+                synchronized (fragmentsPositions) {
+                    if (fragmentsPositions.isEmpty()) {
+                        if (reader == null) {
+                            throw new IOException("no decompressor!");
+                        }
 
-                    for (int i = 1; i < nbFragments; i++) {
-                        BulkData bulkData = (BulkData) pixeldataFragments.get(i);
-                        ImageReaderSpi provider = decompressor.getOriginatingProvider();
-                        if (provider.canDecodeInput(new org.dcm4che3.imageio.stream.SegmentedInputImageStream(iis,
-                            new long[] { bulkData.offset() }, new int[] { bulkData.length() }))) {
-                            fragmentsPositions.add(i);
+                        for (int i = 1; i < nbFragments; i++) {
+                            BulkData bulkData = (BulkData) pixeldataFragments.get(i);
+                            ImageReaderSpi provider = reader.getOriginatingProvider();
+                            if (provider.canDecodeInput(new org.dcm4che3.imageio.stream.SegmentedInputImageStream(
+                                stream, new long[] { bulkData.offset() }, new int[] { bulkData.length() }))) {
+                                fragmentsPositions.add(i);
+                            }
                         }
                     }
-                }
 
-                if (fragmentsPositions.size() == numberOfFrame) {
-                    int start = fragmentsPositions.get(frameIndex);
-                    int end = (frameIndex + 1) >= fragmentsPositions.size() ? nbFragments
+                    if (fragmentsPositions.size() != numberOfFrame) {
+                        throw new IOException("Cannot match all the fragments to all the frames!");
+                    }
+                    start = fragmentsPositions.get(frameIndex);
+                    end = (frameIndex + 1) >= fragmentsPositions.size() ? nbFragments
                         : fragmentsPositions.get(frameIndex + 1);
+                }
 
-                    offsets = new long[end - start];
-                    length = new int[offsets.length];
-                    for (int i = 0; i < offsets.length; i++) {
-                        BulkData bulkData = (BulkData) pixeldataFragments.get(start + i);
-                        offsets[i] = bulkData.offset();
-                        length[i] = bulkData.length();
-                    }
-                } else {
-                    throw new IOException("Cannot match all the fragments to all the frames!");
+                offsets = new long[end - start];
+                length = new int[offsets.length];
+                for (int i = 0; i < offsets.length; i++) {
+                    BulkData bulkData = (BulkData) pixeldataFragments.get(start + i);
+                    offsets[i] = bulkData.offset();
+                    length[i] = bulkData.length();
                 }
             }
         }
 
-        return new org.dcm4che3.imageio.stream.SegmentedInputImageStream(iis, offsets, length);
+        return new org.dcm4che3.imageio.stream.SegmentedInputImageStream(stream, offsets, length);
     }
 
     @Override
@@ -1160,6 +1370,9 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
             checkIndex(frameIndex);
 
             if (decompressor != null) {
+                if (useRleDecoder(param)) {
+                    return readRleFrame(iis, decompressor, frameIndex).getRaster();
+                }
                 decompressor.setInput(iisOfFrame(frameIndex));
 
                 if (LOGGER.isDebugEnabled()) {
@@ -1192,7 +1405,29 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
     }
 
     private ImageReadParam decompressParam(ImageReadParam param) {
-        ImageReadParam decompressParam = decompressor.getDefaultReadParam();
+        return decompressParam(decompressor, param);
+    }
+
+    /**
+     * @return true when the RLE frame can be decoded by {@link RleDecoder} instead of the image reader
+     */
+    private boolean useRleDecoder(ImageReadParam param) {
+        boolean defaultDestination =
+            param == null || param.getDestinationType() == null && param.getDestination() == null;
+        return isRLELossless() && defaultDestination && !pmi.isSubSambled()
+            && RleDecoder.isSupported(createSampleModel(dataType, true));
+    }
+
+    private BufferedImage readRleFrame(ImageInputStream stream, ImageReader reader, int frameIndex)
+        throws IOException {
+        BufferedImage bi = createImageType(bitsStored, dataType, true).createBufferedImage(
+            TagD.getTagValue(this, Tag.Columns, Integer.class), TagD.getTagValue(this, Tag.Rows, Integer.class));
+        RleDecoder.decode(buildSegmentedImageInputStream(stream, reader, frameIndex), bi.getRaster());
+        return bi;
+    }
+
+    private ImageReadParam decompressParam(ImageReader reader, ImageReadParam param) {
+        ImageReadParam decompressParam = reader.getDefaultReadParam();
         ImageTypeSpecifier imageType = param.getDestinationType();
         BufferedImage dest = param.getDestination();
         if (isRLELossless() && imageType == null && dest == null) {
@@ -1217,6 +1452,9 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
 
             WritableRaster raster;
             if (decompressor != null) {
+                if (useRleDecoder(param)) {
+                    return readRleFrame(iis, decompressor, frameIndex);
+                }
                 decompressor.setInput(iisOfFrame(frameIndex));
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug("Start decompressing frame #" + (frameIndex + 1)); //$NON-NLS-1$
@@ -1267,13 +1505,18 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
 
             RenderedImage bi = null;
             if (decompressor != null) {
-                decompressor.setInput(iisOfFrame(frameIndex));
-                bi = decompressor.readAsRenderedImage(0, decompressParam(param));
+                if (isFrameParallel()) {
+                    bi = readFrame(frameIndex, param);
+                } else if (useRleDecoder(param)) {
+                    bi = readRleFrame(iis, decompressor, frameIndex);
+                } else {
+                    decompressor.setInput(iisOfFrame(frameIndex));
+                    bi = decompressor.readAsRenderedImage(0, decompressParam(param));
+                }
             } else {
                 // Rewrite image with subsampled model (otherwise cannot not be displayed as RenderedImage)
                 // Convert YBR_FULL into RBG as the ybr model is not well supported.
                 if (pmi.isSubSambled() || pmi.name().startsWith("YBR")) { //$NON-NLS-1$
-                    // TODO improve this
                     WritableRaster raster = (WritableRaster) readRaster(frameIndex, param);
                     ColorModel cm = createColorModel(bitsStored, dataType);
                     ColorModel cmodel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB),
@@ -1287,16 +1530,20 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
                     WritableRaster rasterDst = Raster.createWritableRaster(sampleModel, dataBuffer, null);
 
                     ColorSpace cs = cm.getColorSpace();
-                    for (int i = 0; i < height; i++) {
-                        for (int j = 0; j < width; j++) {
-                            byte[] ba = (byte[]) raster.getDataElements(j, i, null);
-                            float[] fba =
-                                new float[] { (ba[0] & 0xFF) / 255f, (ba[1] & 0xFF) / 255f, (ba[2] & 0xFF) / 255f };
-                            float[] rgb = cs.toRGB(fba);
-                            ba[0] = (byte) (rgb[0] * 255);
-                            ba[1] = (byte) (rgb[1] * 255);
-                            ba[2] = (byte) (rgb[2] * 255);
-                            rasterDst.setDataElements(j, i, ba);
+                    YbrToRgbConverter converter = YbrToRgbConverter.getInstance(cs);
+                    if (converter == null || !converter.convert(raster, pmi.isSubSambled(), rasterDst)) {
+                        // Generic conversion for the layouts not handled by the converter
+                        for (int i = 0; i < height; i++) {
+                            for (int j = 0; j < width; j++) {
+                                byte[] ba = (byte[]) raster.getDataElements(j, i, null);
+                                float[] fba = new float[] { (ba[0] & 0xFF) / 255f, (ba[1] & 0xFF) / 255f,
+                                    (ba[2] & 0xFF) / 255f };
+                                float[] rgb = cs.toRGB(fba);
+                                ba[0] = (byte) (rgb[0] * 255);
+                                ba[1] = (byte) (rgb[1] * 255);
+                                ba[2] = (byte) (rgb[2] * 255);
+                                rasterDst.setDataElements(j, i, ba);
+                            }
                         }
                     }
                     bi = new BufferedImage(cmodel, rasterDst, false, null);
@@ -1315,6 +1562,57 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
         }
     }
 
+    /**
+     * @return true when the frames of this multiframe instance can be decoded concurrently (see {@link #FRAME_LOADER})
+     */
+    public boolean isFrameParallel() {
+        return FRAME_PARALLELISM > 1 && encapsulated && numberOfFrame > 1 && fileCache.getOriginalFile().isPresent();
+    }
+
+    /**
+     * Decodes a frame with its own reader and stream, so several frames of the same file can be decoded at the same
+     * time. The frame is decoded immediately because the reader is given to another frame afterwards.
+     */
+    private BufferedImage readFrame(int frameIndex, ImageReadParam param) throws IOException {
+        FrameDecoder frameDecoder = frameDecoders.poll();
+        if (frameDecoder == null) {
+            frameDecoder = buildFrameDecoder();
+        }
+        try {
+            ImageReader reader = frameDecoder.reader;
+            if (useRleDecoder(param)) {
+                return readRleFrame(frameDecoder.stream, reader, frameIndex);
+            }
+            reader.setInput(iisOfFrame(frameDecoder.stream, reader, frameIndex));
+            LOGGER.debug("Start decompressing frame #{} with a frame reader", frameIndex + 1); //$NON-NLS-1$
+            return reader.read(0, decompressParam(reader, param));
+        } finally {
+            if (pixeldataFragments == null) {
+                // The reader has been reset while decoding
+                frameDecoder.dispose();
+            } else {
+                frameDecoders.offer(frameDecoder);
+            }
+        }
+    }
+
+    private FrameDecoder buildFrameDecoder() throws IOException {
+        ImageReaderFactory.ImageReaderItem readerItem = ImageReaderFactory.getImageReader(tsuid);
+        Optional<File> file = fileCache.getOriginalFile();
+        if (readerItem == null || !file.isPresent()) {
+            throw new IOException("Cannot decode the frames of " + uri); //$NON-NLS-1$
+        }
+        ImageInputStream stream = ImageIO.createImageInputStream(file.get());
+        if (stream == null) {
+            throw new IOException("Cannot open " + file.get()); //$NON-NLS-1$
+        }
+        ImageInputStream sharedStream = iis;
+        if (sharedStream != null) {
+            stream.setByteOrder(sharedStream.getByteOrder());
+        }
+        return new FrameDecoder(stream, readerItem.getImageReader());
+    }
+
     public RenderedImage validateSignedShortDataBuffer(RenderedImage source) {
         /*
          * Issue in ComponentColorModel when signed short DataBuffer, only 16 bits is supported see
@@ -1379,9 +1677,17 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
         }
     }
 
+    /**
+     * @return the overlay and shutter masks of this instance
+     */
+    public OverlayCache getOverlayCache() {
+        return overlayCache;
+    }
+
     @Override
     public void dispose() {
         HEADER_CACHE.remove(this);
+        overlayCache.clear();
         readingHeader = false;
         readingImage = false;
         reset();
@@ -1411,11 +1717,21 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
 
         pixeldata = null;
         pixeldataFragments = null;
+        MappedPixelData mapped = mappedPixelData;
+        mappedPixelData = null;
+        if (mapped != null) {
+            // The tiles of the images not released yet are read from the stream after the unmapping
+            mapped.unmap();
+        }
         if (decompressor != null) {
             decompressor.dispose();
             decompressor = null;
         }
         patchJpegLS = null;
+        FrameDecoder frameDecoder;
+        while ((frameDecoder = frameDecoders.poll()) != null) {
+            frameDecoder.dispose();
+        }
     }
 
     private void checkIndex(int frameIndex) {
@@ -1487,10 +1803,13 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
             }
 
             /*
-             * When readImageAfter is true, do not read again the header if it is in cache and the variables has been
-             * initialized
+             * When readImageAfter is true, do not read again the header if it is in cache: the bulk data of the dataset
+             * are the positions of the pixel data in the file.
              */
-            if (header != null && tsuid != null) {
+            if (header != null) {
+                if (pixeldata == null && pixeldataFragments == null) {
+                    initPixelData(header, true);
+                }
                 return header;
             }
             iis.seek(0L);
@@ -1505,53 +1824,7 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
                 fmi = ds.createFileMetaInformation(dis.getTransferSyntax());
             }
             DicomMetaData metadata = new DicomMetaData(fmi, ds);
-            Object pixdata = ds.getValue(Tag.PixelData, pixeldataVR);
-            if(pixdata == null){
-                pixdata = ds.getValue(Tag.FloatPixelData, pixeldataVR);
-            }
-            if(pixdata == null){
-                pixdata = ds.getValue(Tag.DoubleFloatPixelData, pixeldataVR);
-            }
-
-            if (pixdata != null) {
-                tsuid = dis.getTransferSyntax();
-                numberOfFrame = ds.getInt(Tag.NumberOfFrames, 1);
-                hasPixel = ds.getInt(Tag.BitsStored, ds.getInt(Tag.BitsAllocated, 0)) > 0;
-
-                if (readImageAfter && !tsuid.startsWith("1.2.840.10008.1.2.4.10") && hasPixel) { //$NON-NLS-1$
-
-                    if (pixdata instanceof BulkData) {
-                        int width = TagD.getTagValue(this, Tag.Columns, Integer.class);
-                        int height = TagD.getTagValue(this, Tag.Rows, Integer.class);
-                        int samples = TagD.getTagValue(this, Tag.SamplesPerPixel, Integer.class);
-                        iis.setByteOrder(ds.bigEndian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
-                        this.frameLength = pmi.frameLength(width, height, samples, bitsAllocated);
-                        this.pixeldata = (BulkData) pixdata;
-                        // Handle JPIP
-                    } else if (ds.getString(Tag.PixelDataProviderURL) != null) {
-                        if (numberOfFrame == 0) {
-                            numberOfFrame = 1;
-                            // compressed = true;
-                        }
-                    } else if (pixdata instanceof Fragments) {
-                        ImageReaderFactory.ImageReaderItem readerItem = ImageReaderFactory.getImageReader(tsuid);
-                        if (readerItem == null) {
-                            throw new IOException("Unsupported Transfer Syntax: " + tsuid); //$NON-NLS-1$
-                        }
-                        this.decompressor = readerItem.getImageReader();
-
-                        // ImageReaderParam param =
-                        // ImageReaderFactory.getImageReaderParam(tsuid);
-                        // if (param == null)
-                        // throw new UnsupportedOperationException("Unsupported Transfer Syntax: " + tsuid);
-                        // this.decompressor =
-                        // ImageReaderFactory.getImageReader(param);
-
-                        // this.patchJpegLS = param.patchJPEGLS;
-                        this.pixeldataFragments = (Fragments) pixdata;
-                    }
-                }
-            }
+            initPixelData(metadata, readImageAfter);
 
             HEADER_CACHE.put(this, metadata);
             return metadata;
@@ -1568,6 +1841,61 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
         }
     }
 
+    /**
+     * Initializes the frame information and, when the image is read after, the location of the pixel data in the file.
+     */
+    private void initPixelData(DicomMetaData metadata, boolean readImageAfter) throws IOException {
+        Attributes ds = metadata.getAttributes();
+        Object pixdata = ds.getValue(Tag.PixelData, pixeldataVR);
+        if(pixdata == null){
+            pixdata = ds.getValue(Tag.FloatPixelData, pixeldataVR);
+        }
+        if(pixdata == null){
+            pixdata = ds.getValue(Tag.DoubleFloatPixelData, pixeldataVR);
+        }
+
+        if (pixdata != null) {
+            tsuid = metadata.getFileMetaInformation().getString(Tag.TransferSyntaxUID);
+            numberOfFrame = ds.getInt(Tag.NumberOfFrames, 1);
+            encapsulated = pixdata instanceof Fragments;
+            hasPixel = ds.getInt(Tag.BitsStored, ds.getInt(Tag.BitsAllocated, 0)) > 0;
+
+            if (readImageAfter && !tsuid.startsWith("1.2.840.10008.1.2.4.10") && hasPixel) { //$NON-NLS-1$
+
+                if (pixdata instanceof BulkData) {
+                    int width = TagD.getTagValue(this, Tag.Columns, Integer.class);
+                    int height = TagD.getTagValue(this, Tag.Rows, Integer.class);
+                    int samples = TagD.getTagValue(this, Tag.SamplesPerPixel, Integer.class);
+                    iis.setByteOrder(ds.bigEndian() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                    this.frameLength = pmi.frameLength(width, height, samples, bitsAllocated);
+                    this.pixeldata = (BulkData) pixdata;
+                    // Handle JPIP
+                } else if (ds.getString(Tag.PixelDataProviderURL) != null) {
+                    if (numberOfFrame == 0) {
+                        numberOfFrame = 1;
+                        // compressed = true;
+                    }
+                } else if (pixdata instanceof Fragments) {
+                    ImageReaderFactory.ImageReaderItem readerItem = ImageReaderFactory.getImageReader(tsuid);
+                    if (readerItem == null) {
+                        throw new IOException("Unsupported Transfer Syntax: " + tsuid); //$NON-NLS-1$
+                    }
+                    this.decompressor = readerItem.getImageReader();
+
+                    // ImageReaderParam param =
+                    // ImageReaderFactory.getImageReaderParam(tsuid);
+                    // if (param == null)
+                    // throw new UnsupportedOperationException("Unsupported Transfer Syntax: " + tsuid);
+                    // this.decompressor =
+                    // ImageReaderFactory.getImageReader(param);
+
+                    // this.patchJpegLS = param.patchJPEGLS;
+                    this.pixeldataFragments = (Fragments) pixdata;
+                }
+            }
+        }
+    }
+
     private SampleModel createSampleModel(int dataType, boolean banded) {
         return pmi.createSampleModel(dataType, TagD.getTagValue(this, Tag.Columns, Integer.class),
             TagD.getTagValue(this, Tag.Rows, Integer.class), TagD.getTagValue(this, Tag.SamplesPerPixel, Integer.class),
@@ -1582,4 +1910,19 @@ public class DicomMediaIO extends ImageReader implements DcmMediaReader<PlanarIm
         return pmi.createColorModel(bits, dataType, getDicomObject());
     }
 
+
+    private static final class FrameDecoder {
+        private final ImageInputStream stream;
+        private final ImageReader reader;
+
+        FrameDecoder(ImageInputStream stream, ImageReader reader) {
+            this.stream = stream;
+            this.reader = reader;
+        }
+
+        void dispose() {
+            reader.dispose();
+            FileUtil.safeClose(stream);
+        }
+    }
 }
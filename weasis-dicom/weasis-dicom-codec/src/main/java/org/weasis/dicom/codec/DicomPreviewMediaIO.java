@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.codec;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import javax.media.jai.PlanarImage;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.explorer.model.DataExplorerModel;
+import org.weasis.core.api.image.util.ImageFiler;
+import org.weasis.core.api.media.data.Codec;
+import org.weasis.core.api.media.data.FileCache;
+import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.core.api.media.data.MediaSeries;
+import org.weasis.core.api.media.data.MediaSeriesGroup;
+import org.weasis.core.api.media.data.TagW;
+import org.weasis.core.api.service.BundleTools;
+import org.weasis.core.api.util.FileUtil;
+import org.weasis.dicom.codec.utils.DicomMediaUtils;
+import org.weasis.dicom.codec.wado.WadoParameters;
+import org.weasis.dicom.codec.wado.WadoParameters.HttpTag;
+
+/**
+ * Reader of a low resolution rendering (JPEG from a WADO request) of a DICOM instance. The image is displayed until
+ * the DICOM instance is downloaded.
+ *
+ * The pixels are already rendered (modality LUT and VOI LUT applied) and are not calibrated, so the image has no
+ * pixel spacing and no modality LUT.
+ */
+public class DicomPreviewMediaIO implements DcmMediaReader<PlanarImage> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DicomPreviewMediaIO.class);
+
+    private static final TagW[] SERIES_TAGS =
+        TagD.getTagFromIDs(Tag.StudyInstanceUID, Tag.SeriesInstanceUID, Tag.Modality, Tag.FrameOfReferenceUID);
+
+    private final URI uri;
+    private final FileCache fileCache;
+    private final HashMap<TagW, Object> tags;
+    private volatile MediaElement[] image;
+
+    /**
+     * @param jpegFile
+     *            the rendered image
+     * @param series
+     *            the series of the instance
+     * @param sopInstanceUID
+     *            the SOP Instance UID of the DICOM instance
+     * @param instanceNumber
+     *            the instance number or null if unknown
+     * @throws IOException
+     *             if the file is not a readable image
+     */
+    public DicomPreviewMediaIO(File jpegFile, MediaSeriesGroup series, String sopInstanceUID, Integer instanceNumber)
+        throws IOException {
+        this.uri = Objects.requireNonNull(jpegFile).toURI();
+        this.fileCache = new FileCache(this);
+        this.tags = new HashMap<>();
+
+        if (series != null) {
+            for (TagW tag : SERIES_TAGS) {
+                setTagNoNull(tag, series.getTagValue(tag));
+            }
+        }
+        setTag(TagD.get(Tag.SOPInstanceUID), Objects.requireNonNull(sopInstanceUID));
+        setTagNoNull(TagD.get(Tag.InstanceNumber), instanceNumber);
+        readImageHeader(jpegFile);
+    }
+
+    /**
+     * Downloads a JPEG rendering of a DICOM instance from a WADO-URI server.
+     *
+     * @param wadoParameters
+     *            the parameters of the WADO server
+     * @param size
+     *            the maximum number of rows and columns of the rendering
+     * @param dir
+     *            the directory of the file
+     * @param prefix
+     *            the prefix of the file name
+     * @return the JPEG file or null if the server has not returned an image
+     * @throws IOException
+     *             if the connection fails
+     */
+    public static File getJPEGRendering(WadoParameters wadoParameters, String studyUID, String seriesUID,
+        String sopInstanceUID, int size, File dir, String prefix) throws IOException {
+        // TODO set quality as a preference
+        URL url =
+            new URL(wadoParameters.getWadoURL() + "?requestType=WADO&studyUID=" + studyUID + "&seriesUID=" + seriesUID //$NON-NLS-1$ //$NON-NLS-2$
+                + "&objectUID=" + sopInstanceUID + "&contentType=image/jpeg&imageQuality=70" + "&rows=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                + size + "&columns=" + size + wadoParameters.getAdditionnalParameters()); //$NON-NLS-1$
+
+        HttpURLConnection httpCon = (HttpURLConnection) url.openConnection();
+        httpCon.setDoInput(true);
+        httpCon.setRequestMethod("GET"); //$NON-NLS-1$
+        // Set http login (no protection, only convert in base64)
+        if (wadoParameters.getWebLogin() != null) {
+            httpCon.setRequestProperty("Authorization", "Basic " + wadoParameters.getWebLogin()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        for (HttpTag tag : wadoParameters.getHttpTaglist()) {
+            httpCon.setRequestProperty(tag.getKey(), tag.getValue());
+        }
+        // Connect to server.
+        httpCon.connect();
+
+        // Make sure response code is in the 200 range.
+        if (httpCon.getResponseCode() / 100 != 2) {
+            FileUtil.discardErrorStream(httpCon);
+            return null;
+        }
+
+        File outFile = File.createTempFile(prefix, ".jpg", dir); //$NON-NLS-1$
+        LOGGER.debug("Start to download JPEG rendering {} to {}.", url, outFile.getName()); //$NON-NLS-1$
+        if (FileUtil.writeFile(httpCon, outFile) == 0) {
+            FileUtil.delete(outFile);
+            return null;
+        }
+        return outFile;
+    }
+
+    private void readImageHeader(File file) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No reader for the preview " + file); //$NON-NLS-1$
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                ImageTypeSpecifier type = reader.getRawImageType(0);
+                int bands = type == null ? 1 : type.getSampleModel().getNumBands();
+                boolean monochrome = bands == 1;
+                setTag(TagD.get(Tag.Rows), reader.getHeight(0));
+                setTag(TagD.get(Tag.Columns), reader.getWidth(0));
+                setTag(TagD.get(Tag.SamplesPerPixel), bands);
+                setTag(TagD.get(Tag.PhotometricInterpretation), monochrome ? "MONOCHROME2" : "RGB"); //$NON-NLS-1$ //$NON-NLS-2$
+                setTag(TagD.get(Tag.BitsAllocated), 8);
+                setTag(TagD.get(Tag.BitsStored), 8);
+                setTag(TagD.get(Tag.HighBit), 7);
+                setTag(TagD.get(Tag.PixelRepresentation), 0);
+                setTag(TagW.MonoChrome, monochrome);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    @Override
+    public void writeMetaData(MediaSeriesGroup group) {
+        // Do not override the information of the group with an incomplete header
+    }
+
+    @Override
+    public PlanarImage getMediaFragment(MediaElement<PlanarImage> media) throws Exception {
+        if (media != null && media.getFile() != null) {
+            BufferedImage buffer = ImageIO.read(media.getFile());
+            if (buffer != null) {
+                return ImageFiler.tileImage(buffer);
+            }
+            LOGGER.error("Cannot read the preview {}", media.getFile()); //$NON-NLS-1$
+        }
+        return null;
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public void reset() {
+        // Nothing to close, the image is read in one call
+    }
+
+    @Override
+    public MediaElement getPreview() {
+        MediaElement[] elements = getMediaElement();
+        return elements.length > 0 ? elements[0] : null;
+    }
+
+    @Override
+    public boolean delegate(DataExplorerModel explorerModel) {
+        return false;
+    }
+
+    @Override
+    public MediaElement[] getMediaElement() {
+        if (image == null) {
+            synchronized (this) {
+                if (image == null) {
+                    image = new MediaElement[] { new DicomImageElement(this, 0) };
+                }
+            }
+        }
+        return image;
+    }
+
+    @Override
+    public MediaSeries<DicomImageElement> getMediaSeries() {
+        return null;
+    }
+
+    @Override
+    public int getMediaElementNumber() {
+        return 1;
+    }
+
+    @Override
+    public String getMediaFragmentMimeType() {
+        return DicomMediaIO.IMAGE_MIMETYPE;
+    }
+
+    @Override
+    public Map<TagW, Object> getMediaFragmentTags(Object key) {
+        return tags;
+    }
+
+    @Override
+    public void close() {
+        reset();
+    }
+
+    @Override
+    public Codec getCodec() {
+        return BundleTools.getCodec(DicomMediaIO.MIMETYPE, DicomCodec.NAME);
+    }
+
+    @Override
+    public String[] getReaderDescription() {
+        return new String[] { "Preview Image Decoder" }; //$NON-NLS-1$
+    }
+
+    @Override
+    public Object getTagValue(TagW tag) {
+        return tag == null ? null : tags.get(tag);
+    }
+
+    @Override
+    public void setTag(TagW tag, Object value) {
+        DicomMediaUtils.setTag(tags, tag, value);
+    }
+
+    @Override
+    public void setTagNoNull(TagW tag, Object value) {
+        if (value != null) {
+            setTag(tag, value);
+        }
+    }
+
+    @Override
+    public boolean containTagKey(TagW tag) {
+        return tags.containsKey(tag);
+    }
+
+    @Override
+    public Iterator<Entry<TagW, Object>> getTagEntrySetIterator() {
+        return tags.entrySet().iterator();
+    }
+
+    @Override
+    public void replaceURI(URI uri) {
+    }
+
+    @Override
+    public Attributes getDicomObject() {
+        Attributes dcm = new Attributes();
+        DicomMediaUtils.fillAttributes(tags, dcm);
+        return dcm;
+    }
+
+    @Override
+    public FileCache getFileCache() {
+        return fileCache;
+    }
+
+    @Override
+    public boolean buildFile(File ouptut) {
+        return false;
+    }
+}
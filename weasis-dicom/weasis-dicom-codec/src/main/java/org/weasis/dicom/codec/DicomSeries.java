@@ -10,11 +10,19 @@
  ******************************************************************************/
 package org.weasis.dicom.codec;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.media.jai.PlanarImage;
 
@@ -24,7 +32,12 @@ import org.slf4j.LoggerFactory;
 import org.weasis.core.api.explorer.ObservableEvent;
 import org.weasis.core.api.explorer.model.DataExplorerModel;
 import org.weasis.core.api.gui.util.Filter;
+import org.weasis.core.api.gui.util.GuiExecutor;
+import org.weasis.core.api.gui.util.JMVUtils;
+import org.weasis.core.api.image.util.IntHistogram;
+import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.MediaElement;
+import org.weasis.core.api.media.data.MediaReader;
 import org.weasis.core.api.media.data.Series;
 import org.weasis.core.api.media.data.SeriesEvent;
 import org.weasis.core.api.media.data.TagW;
@@ -34,7 +47,7 @@ import org.weasis.core.api.util.FileUtil;
 import org.weasis.core.api.util.StringUtil;
 import org.weasis.dicom.codec.TagD.Level;
 
-public class DicomSeries extends Series<DicomImageElement> {
+public class DicomSeries extends Series<DicomImageElement> implements ImageElement.CacheListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(DicomSeries.class);
 
     static final TagView defaultTagView =
@@ -42,25 +55,251 @@ public class DicomSeries extends Series<DicomImageElement> {
 
     private static volatile PreloadingTask preloadingTask;
 
+    /*
+     * Cache state of the images in the default order, guarded by itself. The methods modifying the series take the
+     * series lock before this one (never the opposite order), the cache events take only this lock.
+     */
+    private final BitSet inMemory = new BitSet();
+    // Position of the images in the default order, guarded by inMemory
+    private final Map<ImageElement, Integer> positions = new IdentityHashMap<>();
+    private int inMemorySize = 0;
+
+    // Histograms of all the images by pixel padding, cleared when the images of the series change
+    private final Map<Boolean, IntHistogram> histograms = new ConcurrentHashMap<>();
+    private final AtomicInteger histogramVersion = new AtomicInteger();
+
     public DicomSeries(String subseriesInstanceUID) {
         this(subseriesInstanceUID, null, defaultTagView);
     }
 
     public DicomSeries(String subseriesInstanceUID, List<DicomImageElement> c, TagView displayTag) {
         super(TagD.getUID(Level.SERIES), subseriesInstanceUID, displayTag, c, SortSeriesStack.instanceNumber);
+        synchronized (inMemory) {
+            for (DicomImageElement media : medias) {
+                trackInsertion(inMemorySize, media);
+            }
+        }
     }
 
     public boolean[] getImageInMemoryList() {
-        boolean[] list;
-        synchronized (this) {
-            list = new boolean[medias.size()];
-            for (int i = 0; i < medias.size(); i++) {
-                if (medias.get(i).isImageInCache()) {
-                    list[i] = true;
+        return getImageInMemoryList(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the cache state of the images, reduced to a maximum number of elements. An element is true only when all
+     * the images it represents are in the cache.
+     *
+     * The state is read from a bitmap updated on load and eviction events, so this method does not depend on the
+     * series length and does not take the series lock.
+     *
+     * @param maxLength
+     *            the maximum size of the returned array
+     */
+    public boolean[] getImageInMemoryList(int maxLength) {
+        synchronized (inMemory) {
+            int length = Math.min(inMemorySize, Math.max(0, maxLength));
+            boolean[] list = new boolean[length];
+            for (int i = 0; i < length; i++) {
+                int from = (int) ((long) i * inMemorySize / length);
+                int to = (int) ((long) (i + 1) * inMemorySize / length);
+                list[i] = inMemory.nextClearBit(from) >= to;
+            }
+            return list;
+        }
+    }
+
+    @Override
+    public void imageCacheChanged(ImageElement image, boolean inCache) {
+        synchronized (inMemory) {
+            Integer index = positions.get(image);
+            if (index != null) {
+                inMemory.set(index, inCache);
+            }
+        }
+    }
+
+    private void trackInsertion(int index, DicomImageElement media) {
+        // Shift the state of the following images
+        if (index < inMemorySize) {
+            for (int k = inMemory.previousSetBit(inMemorySize - 1); k >= index; k = inMemory.previousSetBit(k - 1)) {
+                inMemory.clear(k);
+                inMemory.set(k + 1);
+            }
+            positions.replaceAll((m, pos) -> pos >= index ? pos + 1 : pos);
+        }
+        positions.put(media, index);
+        inMemory.set(index, JMVUtils.getNULLtoFalse(media.getTagValue(TagW.ImageCache)));
+        inMemorySize++;
+        media.setCacheListener(this);
+        clearHistograms();
+    }
+
+    private void clearHistograms() {
+        histogramVersion.incrementAndGet();
+        histograms.clear();
+    }
+
+    /**
+     * Returns the histogram of all the images of the series after the modality lookup. Unlike the histogram of one
+     * image, it gives the same distribution of values whatever the displayed image, for instance for computing a
+     * consistent automatic window/level.
+     *
+     * The images are loaded if necessary, so this method should not be called from the EDT. The result is kept until
+     * the images of the series change.
+     *
+     * @param pixelPadding
+     *            apply the pixel padding to the modality lookup
+     * @return the histogram or null if no image has a histogram
+     */
+    public IntHistogram getHistogram(boolean pixelPadding) {
+        IntHistogram histogram = histograms.get(pixelPadding);
+        if (histogram == null) {
+            int version = histogramVersion.get();
+            for (DicomImageElement media : copyOfMedias(null, null)) {
+                if (!media.isPreview()) {
+                    histogram =
+                        IntHistogram.merge(histogram, media.getHistogram(media.getImage(), null, pixelPadding));
+                }
+            }
+            // Do not keep a histogram computed while the series was modified
+            if (histogram != null && version == histogramVersion.get()) {
+                histograms.put(pixelPadding, histogram);
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public synchronized void add(DicomImageElement media) {
+        synchronized (inMemory) {
+            super.add(media);
+            trackInsertion(inMemorySize, media);
+        }
+    }
+
+    @Override
+    public synchronized void add(int index, DicomImageElement media) {
+        synchronized (inMemory) {
+            super.add(index, media);
+            trackInsertion(index, media);
+        }
+    }
+
+    @Override
+    public synchronized void addAll(Collection<? extends DicomImageElement> c) {
+        addAll(inMemorySize, c);
+    }
+
+    @Override
+    public synchronized void addAll(int index, Collection<? extends DicomImageElement> c) {
+        synchronized (inMemory) {
+            super.addAll(index, c);
+            int k = index;
+            for (DicomImageElement media : c) {
+                trackInsertion(k++, media);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean replace(DicomImageElement oldMedia, DicomImageElement newMedia) {
+        synchronized (inMemory) {
+            Integer index = positions.get(oldMedia);
+            if (index == null || !super.replace(oldMedia, newMedia)) {
+                return false;
+            }
+            oldMedia.setCacheListener(null);
+            positions.remove(oldMedia);
+            positions.put(newMedia, index);
+            inMemory.set(index, JMVUtils.getNULLtoFalse(newMedia.getTagValue(TagW.ImageCache)));
+            newMedia.setCacheListener(this);
+            clearHistograms();
+            return true;
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(DicomImageElement media) {
+        synchronized (inMemory) {
+            Integer index = positions.get(media);
+            if (index == null || !super.remove(media)) {
+                return false;
+            }
+            media.setCacheListener(null);
+            positions.remove(media);
+            positions.replaceAll((m, pos) -> pos > index ? pos - 1 : pos);
+            // Shift the state of the following images
+            for (int k = index; k < inMemorySize - 1; k++) {
+                inMemory.set(k, inMemory.get(k + 1));
+            }
+            inMemorySize--;
+            inMemory.clear(inMemorySize);
+            clearHistograms();
+            return true;
+        }
+    }
+
+    /**
+     * @param sopInstanceUID
+     *            the SOP Instance UID
+     * @return the preview of the instance or null (see {@link DicomImageElement#isPreview()})
+     */
+    public DicomImageElement getPreview(String sopInstanceUID) {
+        if (sopInstanceUID != null) {
+            TagW sopTag = TagD.getUID(Level.INSTANCE);
+            synchronized (this) {
+                for (DicomImageElement media : medias) {
+                    if (media.isPreview() && sopInstanceUID.equals(media.getTagValue(sopTag))) {
+                        return media;
+                    }
                 }
             }
         }
-        return list;
+        return null;
+    }
+
+    /**
+     * Removes the preview of an instance and notifies the views which display it.
+     *
+     * @param sopInstanceUID
+     *            the SOP Instance UID
+     * @return true if a preview has been removed
+     */
+    public boolean removePreview(String sopInstanceUID) {
+        DicomImageElement preview;
+        synchronized (this) {
+            preview = getPreview(sopInstanceUID);
+            if (preview == null || !remove(preview)) {
+                return false;
+            }
+        }
+        fireReplaceImage(preview, null);
+        return true;
+    }
+
+    private static void deletePreviewFile(DicomImageElement preview) {
+        // The rendering is a temporary file downloaded for this preview only
+        FileUtil.delete(new File(preview.getMediaReader().getUri()));
+    }
+
+    private void fireReplaceImage(final DicomImageElement oldMedia, DicomImageElement newMedia) {
+        DataExplorerModel model = (DataExplorerModel) getTagValue(TagW.ExplorerModel);
+        if (model != null) {
+            model.firePropertyChange(new ObservableEvent(ObservableEvent.BasicAction.Replace, model, null,
+                new SeriesEvent(SeriesEvent.Action.ReplaceImage, oldMedia, newMedia)));
+        }
+        // Dispose after the views have received the event (fired in the EDT)
+        GuiExecutor.instance().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                oldMedia.removeImageFromCache();
+                oldMedia.dispose();
+                if (oldMedia.isPreview()) {
+                    deletePreviewFile(oldMedia);
+                }
+            }
+        });
     }
 
     @Override
@@ -68,20 +307,33 @@ public class DicomSeries extends Series<DicomImageElement> {
         if (media != null && media.getMediaReader() instanceof DcmMediaReader) {
             if (media instanceof DicomImageElement) {
                 DicomImageElement dcm = (DicomImageElement) media;
-                int insertIndex;
+                DicomImageElement preview = null;
+                boolean replaced;
                 synchronized (this) {
-                    // add image or multi-frame sorted by Instance Number (0020,0013) order
-                    int index = Collections.binarySearch(medias, dcm, SortSeriesStack.instanceNumber);
-                    if (index < 0) {
-                        insertIndex = -(index + 1);
-                    } else {
-                        // Should not happen because the instance number must be unique
-                        insertIndex = index + 1;
+                    // The first frame of an instance takes the place of its preview
+                    if (!dcm.isPreview() && (!(dcm.getKey() instanceof Integer) || (Integer) dcm.getKey() == 0)) {
+                        preview = getPreview(TagD.getTagValue(dcm, Tag.SOPInstanceUID, String.class));
                     }
-                    if (insertIndex < 0 || insertIndex > medias.size()) {
-                        insertIndex = medias.size();
+                    replaced = preview != null && replace(preview, dcm);
+                    if (!replaced) {
+                        // add image or multi-frame sorted by Instance Number (0020,0013) order
+                        int index = Collections.binarySearch(medias, dcm, SortSeriesStack.instanceNumber);
+                        int insertIndex;
+                        if (index < 0) {
+                            insertIndex = -(index + 1);
+                        } else {
+                            // Should not happen because the instance number must be unique
+                            insertIndex = index + 1;
+                        }
+                        if (insertIndex < 0 || insertIndex > medias.size()) {
+                            insertIndex = medias.size();
+                        }
+                        add(insertIndex, dcm);
                     }
-                    add(insertIndex, dcm);
+                }
+                if (replaced) {
+                    fireReplaceImage(preview, dcm);
+                    return;
                 }
                 DataExplorerModel model = (DataExplorerModel) getTagValue(TagW.ExplorerModel);
                 if (model != null) {
@@ -134,7 +386,23 @@ public class DicomSeries extends Series<DicomImageElement> {
     @Override
     public void dispose() {
         stopPreloading(this);
-        super.dispose();
+        synchronized (this) {
+            synchronized (inMemory) {
+                List<DicomImageElement> previews = new ArrayList<>();
+                medias.forEach(m -> {
+                    m.setCacheListener(null);
+                    if (m.isPreview()) {
+                        previews.add(m);
+                    }
+                });
+                super.dispose();
+                previews.forEach(DicomSeries::deletePreviewFile);
+                positions.clear();
+                inMemory.clear();
+                inMemorySize = 0;
+                clearHistograms();
+            }
+        }
     }
 
     @Override
@@ -303,6 +571,22 @@ public class DicomSeries extends Series<DicomImageElement> {
             }
         }
 
+        private void loadArrays(List<DicomImageElement> images, DataExplorerModel model) {
+            if (images.stream().anyMatch(PreloadingTask::isFrameParallel)) {
+                // The frames are decoded concurrently by DicomMediaIO.FRAME_LOADER
+                images.parallelStream().forEach(img -> loadArrays(img, model));
+            } else {
+                for (DicomImageElement img : images) {
+                    loadArrays(img, model);
+                }
+            }
+        }
+
+        private static boolean isFrameParallel(DicomImageElement img) {
+            MediaReader<PlanarImage> reader = img.getMediaReader();
+            return reader instanceof DicomMediaIO && ((DicomMediaIO) reader).isFrameParallel();
+        }
+
         @Override
         public void run() {
             if (imageList != null) {
@@ -328,16 +612,14 @@ public class DicomSeries extends Series<DicomImageElement> {
                     if (ajustSize > size) {
                         ajustSize = size;
                     }
-                    for (int i = start; i < ajustSize; i++) {
-                        loadArrays(imageList.get(i), model);
+                    if (start < ajustSize) {
+                        loadArrays(imageList.subList(start, ajustSize), model);
                     }
                 } else {
                     if (imgSize > heapFreeSize) {
                         freeMemory();
                     }
-                    for (DicomImageElement img : imageList) {
-                        loadArrays(img, model);
-                    }
+                    loadArrays(imageList, model);
                 }
             }
         }
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.codec;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pixel data of a file mapped in memory. The mapping is released explicitly by {@link #unmap()} instead of waiting for
+ * the garbage collection of the buffer, which keeps the file open and the address space reserved.
+ *
+ * Reading the buffer after the unmapping would crash the JVM, so each read must be surrounded by {@link #acquire()}
+ * and {@link #release()}. The unmapping waits for the reads in progress.
+ */
+public final class MappedPixelData {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedPixelData.class);
+
+    private final ByteBuffer data;
+    private final long offset;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean unmapped = false;
+
+    /**
+     * @param data
+     *            the buffer returned by the mapping of the file (not a view of it) with the byte order of the stream
+     * @param offset
+     *            the position in the stream of the first byte of the buffer
+     */
+    public MappedPixelData(ByteBuffer data, long offset) {
+        this.data = data;
+        this.offset = offset;
+    }
+
+    public ByteBuffer getData() {
+        return data;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return true when the buffer can be read until {@link #release()} is called, false when it has been unmapped
+     */
+    public boolean acquire() {
+        lock.readLock().lock();
+        if (unmapped) {
+            lock.readLock().unlock();
+            return false;
+        }
+        return true;
+    }
+
+    public void release() {
+        lock.readLock().unlock();
+    }
+
+    public void unmap() {
+        lock.writeLock().lock();
+        try {
+            if (!unmapped) {
+                unmapped = true;
+                invokeCleaner(data);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void invokeCleaner(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            return;
+        }
+        try {
+            try {
+                // Java 9 and later
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+                Method clean = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+                Field field = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+                field.setAccessible(true);
+                clean.invoke(field.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                Method getCleaner = buffer.getClass().getMethod("cleaner"); //$NON-NLS-1$
+                getCleaner.setAccessible(true);
+                Object cleaner = getCleaner.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner); //$NON-NLS-1$
+                }
+            }
+        } catch (Exception e) {
+            // The mapping is released when the buffer is garbage collected
+            LOGGER.debug("Cannot unmap the pixel data", e); //$NON-NLS-1$
+        }
+    }
+}
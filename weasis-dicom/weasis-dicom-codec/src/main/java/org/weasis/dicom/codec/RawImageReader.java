@@ -74,6 +74,9 @@ public class RawImageReader extends ImageReader {
     /** The input stream where reads from */
     private RawImageInputStream iis = null;
 
+    /** The data of the images mapped in memory (can be null). */
+    private MappedPixelData mappedData = null;
+
     /**
      * Wrapper for the protected method <code>computeRegions</code>. So it can be access from the classes which are not
      * in <code>ImageReader</code> hierachy.
@@ -250,6 +253,22 @@ public class RawImageReader extends ImageReader {
     public void reset() {
         super.reset();
         iis = null;
+        mappedData = null;
+    }
+
+    /**
+     * Sets the data of the images mapped in memory. The tiles of the images read as <code>RenderedImage</code> are
+     * copied from this buffer instead of being read from the stream, so they can be read concurrently.
+     *
+     * @param mappedData
+     *            the data mapped in memory (null to read from the stream)
+     */
+    public void setMappedData(MappedPixelData mappedData) {
+        this.mappedData = mappedData;
+    }
+
+    public MappedPixelData getMappedData() {
+        return mappedData;
     }
 
     /**
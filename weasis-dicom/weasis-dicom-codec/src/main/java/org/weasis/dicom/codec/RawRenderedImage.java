@@ -64,6 +64,11 @@ import java.awt.image.SampleModel;
 import java.awt.image.SinglePixelPackedSampleModel;
 import java.awt.image.WritableRaster;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageTypeSpecifier;
@@ -127,6 +132,13 @@ public class RawRenderedImage extends SimpleRenderedImage {
     /** The orginal number tiles in X direction. */
     private int originalNumXTiles;
 
+    /**
+     * The data of this image mapped in memory, the tiles are copied from it instead of being read from the stream. Null
+     * when the tiles are read from the stream.
+     */
+    private final ByteBuffer mappedData;
+    private final MappedPixelData mapping;
+
     public RawRenderedImage(RawImageInputStream iis, RawImageReader reader, ImageReadParam param, int imageIndex)
         throws IOException {
         this.iis = iis;
@@ -213,10 +225,125 @@ public class RawRenderedImage extends SimpleRenderedImage {
 
         maxXTile = originalDimension.width / tileWidth;
         maxYTile = originalDimension.height / tileHeight;
+
+        this.mapping = reader.getMappedData();
+        this.mappedData = getMappedImageData(mapping, param);
+    }
+
+    private ByteBuffer getMappedImageData(MappedPixelData mapping, ImageReadParam param) {
+        if (mapping == null) {
+            return null;
+        }
+        ByteBuffer data = mapping.getData();
+        // Only the component sample models without transformation can be copied line by line
+        if (!noTransform || (param != null && param.getSourceBands() != null)
+            || !(originalSampleModel instanceof PixelInterleavedSampleModel
+                || originalSampleModel instanceof BandedSampleModel)) {
+            return null;
+        }
+        int sampleSize = (DataBuffer.getDataTypeSize(originalSampleModel.getDataType()) + 7) / 8;
+        long size = (long) originalDimension.width * originalDimension.height * originalSampleModel.getNumBands()
+            * sampleSize;
+        long start = position - mapping.getOffset();
+        if (start < 0 || start + size > data.capacity()) {
+            return null;
+        }
+        ByteBuffer buf = data.duplicate();
+        buf.position((int) start);
+        buf.limit((int) (start + size));
+        return buf.slice().order(data.order());
     }
 
     @Override
-    public synchronized Raster getTile(int tileX, int tileY) {
+    public Raster getTile(int tileX, int tileY) {
+        // Read from the stream when the data have been unmapped
+        if (mappedData != null && mapping.acquire()) {
+            try {
+                return getMappedTile(tileX, tileY);
+            } finally {
+                mapping.release();
+            }
+        }
+        return readTile(tileX, tileY);
+    }
+
+    /**
+     * Copies the tile from the mapped data. Each call has its own view of the data, so the tiles can be read
+     * concurrently. The bytes are swapped by the view only when the byte order of the data is not the native one.
+     */
+    private Raster getMappedTile(int tileX, int tileY) {
+        if (tileX >= originalNumXTiles || tileY >= getNumYTiles()) {
+            throw new IllegalArgumentException();
+        }
+        int x = tileXToX(tileX);
+        int y = tileYToY(tileY);
+        WritableRaster tile = Raster.createWritableRaster(sampleModel, new Point(x, y));
+
+        // Number of elements of one pixel in a bank
+        int pps = originalSampleModel instanceof BandedSampleModel ? 1 : originalSampleModel.getNumBands();
+        int lineLength = Math.min(tileWidth, minX + width - x) * pps;
+        int nbLine = Math.min(tileHeight, minY + height - y);
+        int srcStride = width * pps;
+        int dstStride = tileWidth * pps;
+        ByteBuffer buf = mappedData.duplicate().order(mappedData.order());
+        DataBuffer db = tile.getDataBuffer();
+        for (int i = 0; i < db.getNumBanks(); i++) {
+            int srcStart = i * srcStride * height + (y - minY) * srcStride + (x - minX) * pps;
+            copyLines(buf, db, i, srcStart, srcStride, dstStride, lineLength, nbLine);
+        }
+        return tile;
+    }
+
+    private static void copyLines(ByteBuffer buf, DataBuffer db, int bank, int srcStart, int srcStride, int dstStride,
+        int length, int nbLine) {
+        switch (db.getDataType()) {
+            case DataBuffer.TYPE_BYTE:
+                byte[] buffer = ((DataBufferByte) db).getData(bank);
+                for (int j = 0; j < nbLine; j++) {
+                    buf.position(srcStart + j * srcStride);
+                    buf.get(buffer, j * dstStride, length);
+                }
+                break;
+            case DataBuffer.TYPE_SHORT:
+            case DataBuffer.TYPE_USHORT:
+                short[] sbuffer = db instanceof DataBufferShort ? ((DataBufferShort) db).getData(bank)
+                    : ((DataBufferUShort) db).getData(bank);
+                ShortBuffer sview = buf.asShortBuffer();
+                for (int j = 0; j < nbLine; j++) {
+                    sview.position(srcStart + j * srcStride);
+                    sview.get(sbuffer, j * dstStride, length);
+                }
+                break;
+            case DataBuffer.TYPE_INT:
+                int[] ibuffer = ((DataBufferInt) db).getData(bank);
+                IntBuffer iview = buf.asIntBuffer();
+                for (int j = 0; j < nbLine; j++) {
+                    iview.position(srcStart + j * srcStride);
+                    iview.get(ibuffer, j * dstStride, length);
+                }
+                break;
+            case DataBuffer.TYPE_FLOAT:
+                float[] fbuffer = ((DataBufferFloat) db).getData(bank);
+                FloatBuffer fview = buf.asFloatBuffer();
+                for (int j = 0; j < nbLine; j++) {
+                    fview.position(srcStart + j * srcStride);
+                    fview.get(fbuffer, j * dstStride, length);
+                }
+                break;
+            case DataBuffer.TYPE_DOUBLE:
+                double[] dbuffer = ((DataBufferDouble) db).getData(bank);
+                DoubleBuffer dview = buf.asDoubleBuffer();
+                for (int j = 0; j < nbLine; j++) {
+                    dview.position(srcStart + j * srcStride);
+                    dview.get(dbuffer, j * dstStride, length);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported data type: " + db.getDataType()); //$NON-NLS-1$
+        }
+    }
+
+    private synchronized Raster readTile(int tileX, int tileY) {
         if (currentTile != null && currentTileGrid.x == tileX && currentTileGrid.y == tileY) {
             return currentTile;
         }
@@ -13,76 +13,64 @@ package org.weasis.dicom.codec;
 import java.time.LocalTime;
 
 import org.dcm4che3.data.Tag;
+import org.weasis.core.api.media.data.NumericSeriesComparator;
 import org.weasis.core.api.media.data.SeriesComparator;
 import org.weasis.core.api.media.data.TagW;
 
 public final class SortSeriesStack {
 
     // Comparator cannot be a generic list of DicomOpImage because the Collection to sort has an AbstractImage type
-    public static final SeriesComparator<DicomImageElement> instanceNumber = new SeriesComparator<DicomImageElement>() {
-
-        @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            Integer val1 = TagD.getTagValue(m1, Tag.InstanceNumber, Integer.class);
-            Integer val2 = TagD.getTagValue(m2, Tag.InstanceNumber, Integer.class);
-            if (val1 == null || val2 == null) {
-                return 0;
+    // The comparators are defined by a numeric key, so the series can cache the values for sorting
+    public static final SeriesComparator<DicomImageElement> instanceNumber =
+        new NumericSeriesComparator<DicomImageElement>() {
+
+            @Override
+            public double getSortKey(DicomImageElement media) {
+                Integer val = TagD.getTagValue(media, Tag.InstanceNumber, Integer.class);
+                return val == null ? Double.NaN : val;
             }
-            return val1 < val2 ? -1 : (val1 == val2 ? 0 : 1);
-        }
-
-        @Override
-        public String toString() {
-            return Messages.getString("SortSeriesStack.inst"); //$NON-NLS-1$
-        }
-    };
-    public static final SeriesComparator<DicomImageElement> slicePosition = new SeriesComparator<DicomImageElement>() {
-
-        @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            double[] val1 = (double[]) m1.getTagValue(TagW.SlicePosition);
-            double[] val2 = (double[]) m2.getTagValue(TagW.SlicePosition);
-            if (val1 == null || val2 == null) {
-                return 0;
+
+            @Override
+            public String toString() {
+                return Messages.getString("SortSeriesStack.inst"); //$NON-NLS-1$
             }
-            return Double.compare(val1[0] + val1[1] + val1[2], val2[0] + val2[1] + val2[2]);
-        }
-
-        @Override
-        public String toString() {
-            return Messages.getString("SortSeriesStack.pos_orient"); //$NON-NLS-1$
-        }
-    };
-
-    public static final SeriesComparator<DicomImageElement> sliceLocation = new SeriesComparator<DicomImageElement>() {
-
-        @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            Double val1 = TagD.getTagValue(m1, Tag.SliceLocation, Double.class);
-            Double val2 = TagD.getTagValue(m2, Tag.SliceLocation, Double.class);
-            if (val1 == null || val2 == null) {
-                return 0;
+        };
+    public static final SeriesComparator<DicomImageElement> slicePosition =
+        new NumericSeriesComparator<DicomImageElement>() {
+
+            @Override
+            public double getSortKey(DicomImageElement media) {
+                double[] val = (double[]) media.getTagValue(TagW.SlicePosition);
+                return val == null ? Double.NaN : val[0] + val[1] + val[2];
             }
-            return val1.compareTo(val2);
-        }
 
-        @Override
-        public String toString() {
-            return Messages.getString("SortSeriesStack.location"); //$NON-NLS-1$
-        }
-    };
+            @Override
+            public String toString() {
+                return Messages.getString("SortSeriesStack.pos_orient"); //$NON-NLS-1$
+            }
+        };
+
+    public static final SeriesComparator<DicomImageElement> sliceLocation =
+        new NumericSeriesComparator<DicomImageElement>() {
+
+            @Override
+            public double getSortKey(DicomImageElement media) {
+                Double val = TagD.getTagValue(media, Tag.SliceLocation, Double.class);
+                return val == null ? Double.NaN : val;
+            }
+
+            @Override
+            public String toString() {
+                return Messages.getString("SortSeriesStack.location"); //$NON-NLS-1$
+            }
+        };
 
     public static final SeriesComparator<DicomImageElement> acquisitionTime =
-        new SeriesComparator<DicomImageElement>() {
+        new NumericSeriesComparator<DicomImageElement>() {
 
             @Override
-            public int compare(DicomImageElement m1, DicomImageElement m2) {
-                LocalTime val1 = TagD.getTagValue(m1, Tag.AcquisitionTime, LocalTime.class);
-                LocalTime val2 = TagD.getTagValue(m2, Tag.AcquisitionTime, LocalTime.class);
-                if (val1 == null || val2 == null) {
-                    return 0;
-                }
-                return val1.compareTo(val2);
+            public double getSortKey(DicomImageElement media) {
+                return getTimeKey(media, Tag.AcquisitionTime);
             }
 
             @Override
@@ -90,35 +78,27 @@ public final class SortSeriesStack {
                 return Messages.getString("SortSeriesStack.time"); //$NON-NLS-1$
             }
         };
-    public static final SeriesComparator<DicomImageElement> contentTime = new SeriesComparator<DicomImageElement>() {
-
-        @Override
-        public int compare(DicomImageElement m1, DicomImageElement m2) {
-            LocalTime val1 = TagD.getTagValue(m1, Tag.ContentTime, LocalTime.class);
-            LocalTime val2 = TagD.getTagValue(m2, Tag.ContentTime, LocalTime.class);
-            if (val1 == null || val2 == null) {
-                return 0;
+    public static final SeriesComparator<DicomImageElement> contentTime =
+        new NumericSeriesComparator<DicomImageElement>() {
+
+            @Override
+            public double getSortKey(DicomImageElement media) {
+                return getTimeKey(media, Tag.ContentTime);
             }
-            return val1.compareTo(val2);
-        }
 
-        @Override
-        public String toString() {
-            return Messages.getString("SortSeriesStack.content_time"); //$NON-NLS-1$
-        }
-    };
+            @Override
+            public String toString() {
+                return Messages.getString("SortSeriesStack.content_time"); //$NON-NLS-1$
+            }
+        };
 
     public static final SeriesComparator<DicomImageElement> diffusionBValue =
-        new SeriesComparator<DicomImageElement>() {
+        new NumericSeriesComparator<DicomImageElement>() {
 
             @Override
-            public int compare(DicomImageElement m1, DicomImageElement m2) {
-                Double val1 = TagD.getTagValue(m1, Tag.DiffusionBValue, Double.class);
-                Double val2 = TagD.getTagValue(m2, Tag.DiffusionBValue, Double.class);
-                if (val1 == null || val2 == null) {
-                    return 0;
-                }
-                return val1.compareTo(val2);
+            public double getSortKey(DicomImageElement media) {
+                Double val = TagD.getTagValue(media, Tag.DiffusionBValue, Double.class);
+                return val == null ? Double.NaN : val;
             }
 
             @Override
@@ -127,6 +107,11 @@ public final class SortSeriesStack {
             }
         };
 
+    private static double getTimeKey(DicomImageElement media, int tag) {
+        LocalTime val = TagD.getTagValue(media, tag, LocalTime.class);
+        return val == null ? Double.NaN : val.toNanoOfDay();
+    }
+
     public static SeriesComparator<DicomImageElement>[] getValues() {
         return new SeriesComparator[] { instanceNumber, slicePosition, sliceLocation, contentTime, acquisitionTime,
             diffusionBValue };
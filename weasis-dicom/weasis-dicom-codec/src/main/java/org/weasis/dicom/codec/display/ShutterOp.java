@@ -154,8 +154,8 @@ public class ShutterOp extends AbstractOp {
                     Integer shuttOverlayGroup =
                         DicomMediaUtils.getIntegerFromDicomElement(attributes, Tag.ShutterOverlayGroup, null);
                     if (shuttOverlayGroup != null) {
-                        PlanarImage alpha = PlanarImage.wrapRenderedImage(
-                            OverlayUtils.getShutterOverlay(attributes, frame, width, height, shuttOverlayGroup));
+                        PlanarImage alpha = PlanarImage.wrapRenderedImage(OverlayUtils.getShutterOverlay(
+                            prReader.getOverlayCache(), attributes, frame, width, height, shuttOverlayGroup));
                         if (color.length == 1) {
                             transperency = color[0];
                             imgOverlay = MergeImgOp.combineTwoImages(result, alpha, transperency);
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.codec.geometry;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.vecmath.Tuple3d;
+
+/**
+ * Outlines of the intersection of a slice with a localizer, cached by the geometry (orientation, position, spacing and
+ * dimensions) of both images.
+ *
+ * With linked views, each scroll step draws the same few reference lines in every view, so the intersections are
+ * computed only once for a pair of geometries.
+ */
+public final class IntersectionCache {
+
+    private static final int CACHE_SIZE = 1024;
+
+    private static final Map<IntersectionKey, List<Point2D.Double>> CACHE = Collections
+        .synchronizedMap(new LinkedHashMap<IntersectionKey, List<Point2D.Double>>(CACHE_SIZE, 0.75f, true) {
+
+            private static final long serialVersionUID = -2580218290743166538L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IntersectionKey, List<Point2D.Double>> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        });
+
+    private IntersectionCache() {
+    }
+
+    /**
+     * @param localizer
+     *            the geometry of the image where the outline is drawn
+     * @param geometry
+     *            the geometry of the slice to post on the localizer
+     * @param volume
+     *            true to get the outline of the slice thickness (see {@link IntersectVolume}), false to get the center
+     *            of the slice (see {@link IntersectSlice})
+     * @return the points of the outline in the localizer image coordinates or null when the slice does not intersect
+     *         the localizer
+     */
+    public static List<Point2D.Double> getOutline(GeometryOfSlice localizer, GeometryOfSlice geometry,
+        boolean volume) {
+        if (localizer == null || geometry == null) {
+            return null;
+        }
+        IntersectionKey key = new IntersectionKey(localizer, geometry, volume);
+        List<Point2D.Double> pts = CACHE.get(key);
+        if (pts == null) {
+            LocalizerPoster poster = volume ? new IntersectVolume(localizer) : new IntersectSlice(localizer);
+            pts = poster.getOutlineOnLocalizerForThisGeometry(geometry);
+            // Keep also the geometries without intersection
+            pts = pts == null ? Collections.emptyList() : pts;
+            CACHE.put(key, pts);
+        }
+        if (pts.isEmpty()) {
+            return null;
+        }
+        // The points can be modified by the graphics
+        List<Point2D.Double> list = new ArrayList<>(pts.size());
+        for (Point2D.Double p : pts) {
+            list.add(new Point2D.Double(p.x, p.y));
+        }
+        return list;
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static final class IntersectionKey {
+        // row, column, TLHC, voxel spacing, slice thickness and dimensions of the two geometries
+        private static final int GEOMETRY_SIZE = 16;
+
+        private final double[] values;
+        private final boolean volume;
+        private final int hash;
+
+        IntersectionKey(GeometryOfSlice localizer, GeometryOfSlice geometry, boolean volume) {
+            this.values = new double[2 * GEOMETRY_SIZE];
+            this.volume = volume;
+            copy(localizer, values, 0);
+            copy(geometry, values, GEOMETRY_SIZE);
+            this.hash = 31 * Arrays.hashCode(values) + (volume ? 1 : 0);
+        }
+
+        private static void copy(GeometryOfSlice geometry, double[] values, int offset) {
+            System.arraycopy(geometry.getRowArray(), 0, values, offset, 3);
+            System.arraycopy(geometry.getColumnArray(), 0, values, offset + 3, 3);
+            System.arraycopy(geometry.getTLHCArray(), 0, values, offset + 6, 3);
+            System.arraycopy(geometry.getVoxelSpacingArray(), 0, values, offset + 9, 3);
+            values[offset + 12] = geometry.getSliceThickness();
+            Tuple3d dim = geometry.getDimensions();
+            values[offset + 13] = dim.x;
+            values[offset + 14] = dim.y;
+            values[offset + 15] = dim.z;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof IntersectionKey)) {
+                return false;
+            }
+            IntersectionKey other = (IntersectionKey) obj;
+            return hash == other.hash && volume == other.volume && Arrays.equals(values, other.values);
+        }
+    }
+}
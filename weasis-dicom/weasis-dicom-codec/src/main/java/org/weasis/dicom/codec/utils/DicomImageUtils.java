@@ -4,7 +4,10 @@ import java.awt.image.DataBuffer;
 import java.awt.image.RenderedImage;
 import java.lang.reflect.Array;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.imageio.ImageIO;
 import javax.media.jai.JAI;
@@ -27,6 +30,24 @@ import org.weasis.dicom.codec.TagD;
  */
 public class DicomImageUtils {
 
+    // Number of VOI LUTs kept for the last window/level values, the presets and the images sharing the same range
+    private static final int VOI_LUT_CACHE_SIZE = 32;
+
+    /*
+     * The tables are shared and must not be modified. They cannot be reused as output buffers because the lookup
+     * operations created with a previous window/level can still compute tiles.
+     */
+    private static final Map<WindowLevelKey, LookupTableJAI> VOI_LUT_CACHE = Collections
+        .synchronizedMap(new LinkedHashMap<WindowLevelKey, LookupTableJAI>(VOI_LUT_CACHE_SIZE, 0.75f, true) {
+
+            private static final long serialVersionUID = 4226354405591834498L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<WindowLevelKey, LookupTableJAI> eldest) {
+                return size() > VOI_LUT_CACHE_SIZE;
+            }
+        });
+
     public static PlanarImage getRGBImageFromPaletteColorModel(RenderedImage source, Attributes ds) {
         if (source == null) {
             return null;
@@ -95,8 +116,23 @@ public class DicomImageUtils {
         int minInValue = Math.min(maxValue, minValue);
         int maxInValue = Math.max(maxValue, minValue);
 
+        WindowLevelKey key =
+            new WindowLevelKey(lutShape, win, level, minInValue, maxInValue, bitsAllocated, isSigned, inverse);
+        LookupTableJAI lookup = VOI_LUT_CACHE.get(key);
+        if (lookup == null) {
+            lookup = buildWindowLevelLut(lutShape, win, level, minInValue, maxInValue, bitsAllocated, isSigned,
+                minOutValue, maxOutValue, inverse);
+            if (lookup != null) {
+                VOI_LUT_CACHE.put(key, lookup);
+            }
+        }
+        return lookup;
+    }
+
+    private static LookupTableJAI buildWindowLevelLut(LutShape lutShape, double win, double level, int minInValue,
+        int maxInValue, int bitsAllocated, boolean isSigned, int minOutValue, int maxOutValue, boolean inverse) {
         int numEntries = maxInValue - minInValue + 1;
-        Object outLut = bStored <= 8 ? new byte[numEntries] : new short[numEntries];
+        Object outLut = bitsAllocated == 8 ? new byte[numEntries] : new short[numEntries];
 
         if (lutShape.getFunctionType() != null) {
 
@@ -184,11 +220,7 @@ public class DicomImageUtils {
             value = ((value >= maxOutValue) ? maxOutValue : ((value <= minOutValue) ? minOutValue : value));
             value = (inverse ? (maxOutValue + minOutValue - value) : value);
 
-            if (outLut instanceof byte[]) {
-                Array.set(outLut, i, (byte) value);
-            } else if (outLut instanceof short[]) {
-                Array.set(outLut, i, (short) value);
-            }
+            setLutValue(outLut, i, value);
         }
 
         return (outLut instanceof byte[]) ? new LookupTableJAI((byte[]) outLut, minInValue) : //
@@ -283,7 +315,8 @@ public class DicomImageUtils {
         double lowLevel = (level - 0.5) - (window - 1.0) / 2.0;
         double highLevel = (level - 0.5) + (window - 1.0) / 2.0;
 
-        for (int i = 0; i < Array.getLength(outLut); i++) {
+        int size = Array.getLength(outLut);
+        for (int i = 0; i < size; i++) {
             int value;
 
             if ((i + minInValue) <= lowLevel) {
@@ -298,11 +331,7 @@ public class DicomImageUtils {
             value = (int) ((value >= maxOutValue) ? maxOutValue : ((value <= minOutValue) ? minOutValue : value));
             value = (int) (inverse ? (maxOutValue + minOutValue - value) : value);
 
-            if (outLut instanceof byte[]) {
-                Array.set(outLut, i, (byte) value);
-            } else if (outLut instanceof short[]) {
-                Array.set(outLut, i, (short) value);
-            }
+            setLutValue(outLut, i, value);
         }
     }
 
@@ -314,17 +343,14 @@ public class DicomImageUtils {
         double slope = (maxOutValue - minOutValue) / window;
         double intercept = maxOutValue - slope * (level + (window / 2.0));
 
-        for (int i = 0; i < Array.getLength(outLut); i++) {
+        int size = Array.getLength(outLut);
+        for (int i = 0; i < size; i++) {
             int value = (int) ((i + minInValue) * slope + intercept);
 
             value = (int) ((value >= maxOutValue) ? maxOutValue : ((value <= minOutValue) ? minOutValue : value));
             value = (int) (inverse ? (maxOutValue + minOutValue - value) : value);
 
-            if (outLut instanceof byte[]) {
-                Array.set(outLut, i, (byte) value);
-            } else if (outLut instanceof short[]) {
-                Array.set(outLut, i, (short) value);
-            }
+            setLutValue(outLut, i, value);
         }
     }
 
@@ -353,7 +379,8 @@ public class DicomImageUtils {
             outRescaleRatio = (maxOutValue - minOutValue) / Math.abs(maxValue - minValue);
         }
 
-        for (int i = 0; i < Array.getLength(outLut); i++) {
+        int size = Array.getLength(outLut);
+        for (int i = 0; i < size; i++) {
             double value = outRange / (1d + Math.exp((2d * nFactor / 10d) * (i + minInValue - center) / width));
 
             if (normalize) {
@@ -364,11 +391,7 @@ public class DicomImageUtils {
             value = (int) ((value > maxOutValue) ? maxOutValue : ((value < minOutValue) ? minOutValue : value));
             value = (int) (inverse ? (maxOutValue + minOutValue - value) : value);
 
-            if (outLut instanceof byte[]) {
-                Array.set(outLut, i, (byte) value);
-            } else if (outLut instanceof short[]) {
-                Array.set(outLut, i, (short) value);
-            }
+            setLutValue(outLut, i, (int) value);
         }
     }
 
@@ -398,7 +421,8 @@ public class DicomImageUtils {
             outRescaleRatio = (maxOutValue - minOutValue) / Math.abs(maxValue - minValue);
         }
 
-        for (int i = 0; i < Array.getLength(outLut); i++) {
+        int size = Array.getLength(outLut);
+        for (int i = 0; i < size; i++) {
             double value = outRange * Math.exp((nFactor / 10d) * (i + minInValue - center) / width);
 
             if (normalize) {
@@ -409,11 +433,7 @@ public class DicomImageUtils {
             value = (int) ((value > maxOutValue) ? maxOutValue : ((value < minOutValue) ? minOutValue : value));
             value = (int) (inverse ? (maxOutValue + minOutValue - value) : value);
 
-            if (outLut instanceof byte[]) {
-                Array.set(outLut, i, (byte) value);
-            } else if (outLut instanceof short[]) {
-                Array.set(outLut, i, (short) value);
-            }
+            setLutValue(outLut, i, (int) value);
         }
 
     }
@@ -446,7 +466,8 @@ public class DicomImageUtils {
             outRescaleRatio = (maxOutValue - minOutValue) / Math.abs(maxValue - minValue);
         }
 
-        for (int i = 0; i < Array.getLength(outLut); i++) {
+        int size = Array.getLength(outLut);
+        for (int i = 0; i < size; i++) {
             double value = outRange * Math.log((nFactor / 10d) * (1 + (i + minInValue - center) / width));
 
             if (normalize) {
@@ -457,12 +478,23 @@ public class DicomImageUtils {
             value = (int) ((value > maxOutValue) ? maxOutValue : ((value < minOutValue) ? minOutValue : value));
             value = (int) (inverse ? (maxOutValue + minOutValue - value) : value);
 
-            if (outLut instanceof byte[]) {
-                Array.set(outLut, i, (byte) value);
-            } else if (outLut instanceof short[]) {
-                Array.set(outLut, i, (short) value);
-            }
+            setLutValue(outLut, i, (int) value);
+        }
+    }
+
+    private static void setLutValue(Object outLut, int index, int value) {
+        if (outLut instanceof byte[]) {
+            ((byte[]) outLut)[index] = (byte) value;
+        } else if (outLut instanceof short[]) {
+            ((short[]) outLut)[index] = (short) value;
+        }
+    }
+
+    private static int getLutValue(Object lutDataArray, int index) {
+        if (lutDataArray instanceof byte[]) {
+            return ((byte[]) lutDataArray)[index];
         }
+        return ((short[]) lutDataArray)[index];
     }
 
     // //////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -512,8 +544,8 @@ public class DicomImageUtils {
         int maxInLutIndex = Array.getLength(inLutDataArray) - 1;
         int minLookupValue = Integer.MAX_VALUE;
         int maxLookupValue = Integer.MIN_VALUE;
-        for (int i = 0; i < Array.getLength(inLutDataArray); i++) {
-            int val = lutDataValueMask & Array.getInt(inLutDataArray, i);
+        for (int i = 0; i <= maxInLutIndex; i++) {
+            int val = lutDataValueMask & getLutValue(inLutDataArray, i);
             if (val < minLookupValue) {
                 minLookupValue = val;
             }
@@ -526,7 +558,8 @@ public class DicomImageUtils {
         double widthRescaleRatio = maxInLutIndex / width;
         double outRescaleRatio = (maxOutValue - minOutValue) / (double) lookupValueRange;
 
-        for (int i = 0; i < Array.getLength(outLut); i++) {
+        int size = Array.getLength(outLut);
+        for (int i = 0; i < size; i++) {
             int value;
             double inValueRescaled;
 
@@ -541,8 +574,8 @@ public class DicomImageUtils {
             int inValueRoundDown = Math.max(0, (int) Math.floor(inValueRescaled));
             int inValueRoundUp = Math.min(maxInLutIndex, (int) Math.ceil(inValueRescaled));
 
-            int valueDown = lutDataValueMask & Array.getInt(inLutDataArray, inValueRoundDown);
-            int valueUp = lutDataValueMask & Array.getInt(inLutDataArray, inValueRoundUp);
+            int valueDown = lutDataValueMask & getLutValue(inLutDataArray, inValueRoundDown);
+            int valueUp = lutDataValueMask & getLutValue(inLutDataArray, inValueRoundUp);
 
             // Linear Interpolation of the output value with respect to the rescaled ratio
             value = (int) ((inValueRoundUp == inValueRoundDown) ? valueDown : //
@@ -555,11 +588,7 @@ public class DicomImageUtils {
             value = (int) ((value >= maxOutValue) ? maxOutValue : ((value <= minOutValue) ? minOutValue : value));
             value = (int) (inverse ? (maxOutValue + minOutValue - value) : value);
 
-            if (outLut instanceof byte[]) {
-                Array.set(outLut, i, (byte) value);
-            } else if (outLut instanceof short[]) {
-                Array.set(outLut, i, (short) value);
-            }
+            setLutValue(outLut, i, value);
         }
     }
 
@@ -838,4 +867,54 @@ public class DicomImageUtils {
     private static void illegalOpcode(int op, int i) {
         throw new IllegalArgumentException("illegal op code:" + op + ", index:" + i); //$NON-NLS-1$ //$NON-NLS-2$
     }
+
+    private static final class WindowLevelKey {
+        private final LutShape lutShape;
+        private final double window;
+        private final double level;
+        private final int minInValue;
+        private final int maxInValue;
+        private final int bitsAllocated;
+        private final boolean signed;
+        private final boolean inverse;
+
+        WindowLevelKey(LutShape lutShape, double window, double level, int minInValue, int maxInValue,
+            int bitsAllocated, boolean signed, boolean inverse) {
+            this.lutShape = lutShape;
+            this.window = window;
+            this.level = level;
+            this.minInValue = minInValue;
+            this.maxInValue = maxInValue;
+            this.bitsAllocated = bitsAllocated;
+            this.signed = signed;
+            this.inverse = inverse;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof WindowLevelKey)) {
+                return false;
+            }
+            WindowLevelKey other = (WindowLevelKey) obj;
+            return Double.compare(window, other.window) == 0 && Double.compare(level, other.level) == 0
+                && minInValue == other.minInValue && maxInValue == other.maxInValue
+                && bitsAllocated == other.bitsAllocated && signed == other.signed && inverse == other.inverse
+                && lutShape.equals(other.lutShape);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = lutShape.hashCode();
+            result = 31 * result + Double.hashCode(window);
+            result = 31 * result + Double.hashCode(level);
+            result = 31 * result + minInValue;
+            result = 31 * result + maxInValue;
+            result = 31 * result + bitsAllocated;
+            result = 31 * result + (signed ? 1 : 0);
+            return 31 * result + (inverse ? 1 : 0);
+        }
+    }
 }
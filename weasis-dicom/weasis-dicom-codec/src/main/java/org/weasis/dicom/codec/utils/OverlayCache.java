@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+/**
+ * Overlay and shutter masks of a DICOM instance, kept in memory as bit-packed binary images.
+ *
+ * The masks and the overlays extracted from the pixel data are evicted in least recently used order when their size
+ * exceeds the capacity. Identical masks (e.g. the same overlay displayed on all the frames) are stored only once and
+ * shared by their keys. An evicted overlay of the pixel data is extracted again by decoding its frame.
+ */
+public class OverlayCache {
+
+    private final long capacity;
+    private long memoryUsed;
+
+    // Values are a Mask or the embedded overlays of a frame
+    private final LinkedHashMap<Object, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final HashMap<Mask, Mask> contents = new HashMap<>();
+
+    /**
+     * @param capacity
+     *            the maximum size in bytes of the masks and of the overlays extracted from the pixel data
+     */
+    public OverlayCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the cached mask or null
+     */
+    public synchronized BufferedImage get(Object key) {
+        Object mask = entries.get(key);
+        return mask instanceof Mask ? ((Mask) mask).image : null;
+    }
+
+    /**
+     * Adds a mask. When an identical mask is already cached, it is shared instead of the new one.
+     *
+     * @param key
+     *            the key of the mask
+     * @param image
+     *            a binary image which must not be modified afterwards
+     * @return the image to use
+     */
+    public synchronized BufferedImage put(Object key, BufferedImage image) {
+        Mask mask = new Mask(image);
+        if (mask.data.length > capacity) {
+            return image;
+        }
+        Mask shared = contents.get(mask);
+        if (shared == null) {
+            shared = mask;
+            contents.put(shared, shared);
+            memoryUsed += shared.data.length;
+        }
+        shared.refs++;
+        release(entries.put(key, shared));
+        evict();
+        return shared.image;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        contents.clear();
+        memoryUsed = 0;
+    }
+
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * @return the number of masks and embedded overlays
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param frame
+     *            the frame index
+     * @param overlays
+     *            the bit-packed overlays extracted from the pixel data of the frame (one per embedded overlay group)
+     */
+    public synchronized void setEmbeddedOverlays(int frame, byte[][] overlays) {
+        if (getSize(Objects.requireNonNull(overlays)) > capacity) {
+            return;
+        }
+        Object old = entries.put(new EmbeddedKey(frame), overlays);
+        memoryUsed += getSize(overlays);
+        release(old);
+        evict();
+    }
+
+    /**
+     * @return the overlays extracted from the pixel data of the frame or null when they are not cached
+     */
+    public synchronized byte[][] getEmbeddedOverlays(int frame) {
+        return (byte[][]) entries.get(new EmbeddedKey(frame));
+    }
+
+    private void evict() {
+        Iterator<Object> it = entries.values().iterator();
+        while (memoryUsed > capacity && it.hasNext()) {
+            Object entry = it.next();
+            it.remove();
+            release(entry);
+        }
+    }
+
+    private void release(Object entry) {
+        if (entry instanceof Mask) {
+            Mask mask = (Mask) entry;
+            if (--mask.refs == 0) {
+                contents.remove(mask);
+                memoryUsed -= mask.data.length;
+            }
+        } else if (entry instanceof byte[][]) {
+            memoryUsed -= getSize((byte[][]) entry);
+        }
+    }
+
+    private static long getSize(byte[][] overlays) {
+        long size = 0;
+        for (byte[] b : overlays) {
+            if (b != null) {
+                size += b.length;
+            }
+        }
+        return size;
+    }
+
+    private static final class EmbeddedKey {
+        private final int frame;
+
+        EmbeddedKey(int frame) {
+            this.frame = frame;
+        }
+
+        @Override
+        public int hashCode() {
+            return frame;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof EmbeddedKey && ((EmbeddedKey) obj).frame == frame;
+        }
+    }
+
+    /**
+     * Compares the masks by their content.
+     */
+    private static final class Mask {
+        private final BufferedImage image;
+        private final byte[] data;
+        private final int hash;
+        private int refs;
+
+        Mask(BufferedImage image) {
+            this.image = image;
+            this.data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            this.hash = 31 * (31 * image.getWidth() + image.getHeight()) + Arrays.hashCode(data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Mask)) {
+                return false;
+            }
+            Mask other = (Mask) obj;
+            return hash == other.hash && image.getWidth() == other.image.getWidth()
+                && image.getHeight() == other.image.getHeight() && Arrays.equals(data, other.data);
+        }
+    }
+}
@@ -37,35 +37,46 @@ import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.WritableRaster;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.HashMap;
+import java.util.Objects;
 
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.image.Overlays;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.weasis.core.api.media.data.ImageElement;
-import org.weasis.core.api.media.data.TagW;
-import org.weasis.core.api.util.FileUtil;
+import org.weasis.dicom.codec.DicomMediaIO;
 import org.weasis.dicom.codec.PRSpecialElement;
+import org.weasis.dicom.codec.TagD;
 import org.weasis.dicom.codec.display.OverlayOp;
 
 public class OverlayUtils {
-    private static final Logger LOGGER = LoggerFactory.getLogger(OverlayUtils.class);
 
     private static final byte[] icmColorValues = new byte[] { (byte) 0xFF, (byte) 0x00 };
 
     /**
-     * Merge the overlays into the buffered image. This method apply only white pixel overlays.
+     * Merge the overlays into the buffered image. This method apply only white pixel overlays. The overlays are kept
+     * in the cache of the DICOM reader of the image.
      *
      * @param params
      *
      */
     public static RenderedImage getBinaryOverlays(ImageElement image, Attributes attributes, int frameIndex, int width,
         int height, HashMap<String, Object> params) throws IOException {
+        DicomMediaIO reader =
+            image.getMediaReader() instanceof DicomMediaIO ? (DicomMediaIO) image.getMediaReader() : null;
+        OverlayCache cache = reader == null ? null : reader.getOverlayCache();
+        Object pr = params.get(OverlayOp.P_PR_ELEMENT);
+        String prUID =
+            pr instanceof PRSpecialElement ? TagD.getTagValue((PRSpecialElement) pr, Tag.SOPInstanceUID, String.class)
+                : null;
+        MaskKey key = new MaskKey(0, frameIndex, prUID, width, height);
+        if (cache != null) {
+            BufferedImage mask = cache.get(key);
+            if (mask != null) {
+                return mask;
+            }
+        }
 
         // Default grayscale value for overlay
         int grayscaleValue = 0xFFFF;
@@ -75,34 +86,19 @@ public class OverlayUtils {
         BufferedImage overBi = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, icm);
         WritableRaster raster = overBi.getRaster();
 
-        // Get serialized overlay (from pixel data)
+        // Get the overlays extracted from the pixel data
         byte[][] data = null;
-        String filePath = (String) image.getTagValue(TagW.OverlayBurninDataPath);
-        if (filePath != null) {
-            FileInputStream fileIn = null;
-            ObjectInputStream objIn = null;
-            try {
-                fileIn = new FileInputStream(filePath);
-                objIn = new ObjectInputStream(fileIn);
-                Object o = objIn.readObject();
-                if (o instanceof byte[][]) {
-                    data = (byte[][]) o;
-                }
-            } catch (Exception e) {
-                LOGGER.error("Cannot read serialized overlay: {}", e.getMessage()); //$NON-NLS-1$
-            } finally {
-                FileUtil.safeClose(objIn);
-                FileUtil.safeClose(fileIn);
-            }
-        }
 
         int[] overlayGroupOffsets = Overlays.getActiveOverlayGroupOffsets(attributes, 0xffff);
 
         for (int i = 0; i < overlayGroupOffsets.length; i++) {
             byte[] ovlyData = null;
             // Get bitmap overlay from pixel data
-            if (data != null && attributes.getInt(Tag.OverlayBitsAllocated | overlayGroupOffsets[i], 1) != 1) {
-                if (data.length > i) {
+            if (reader != null && attributes.getInt(Tag.OverlayBitsAllocated | overlayGroupOffsets[i], 1) != 1) {
+                if (data == null) {
+                    data = reader.getEmbeddedOverlays(frameIndex);
+                }
+                if (data != null && data.length > i) {
                     ovlyData = data[i];
                 }
             }
@@ -111,7 +107,6 @@ public class OverlayUtils {
                 grayscaleValue >>> (16 - outBits), ovlyData);
         }
 
-        Object pr = params.get(OverlayOp.P_PR_ELEMENT);
         if (pr instanceof PRSpecialElement) {
             Attributes ovlyAttrs = ((PRSpecialElement) pr).getMediaReader().getDicomObject();
             overlayGroupOffsets = Overlays.getActiveOverlayGroupOffsets(ovlyAttrs, 0xffff);
@@ -127,18 +122,29 @@ public class OverlayUtils {
             }
         }
 
-        return overBi;
+        return cache == null ? overBi : cache.put(key, overBi);
     }
 
-    public static RenderedImage getShutterOverlay(Attributes attributes, int frameIndex, int width, int height,
-        int shuttOverlayGroup) throws IOException {
+    /**
+     * @param cache
+     *            the cache of the DICOM reader containing the shutter overlay (can be null)
+     */
+    public static RenderedImage getShutterOverlay(OverlayCache cache, Attributes attributes, int frameIndex, int width,
+        int height, int shuttOverlayGroup) throws IOException {
+        MaskKey key = new MaskKey(shuttOverlayGroup, frameIndex, null, width, height);
+        if (cache != null) {
+            BufferedImage mask = cache.get(key);
+            if (mask != null) {
+                return mask;
+            }
+        }
         IndexColorModel icm =
             new IndexColorModel(1, icmColorValues.length, icmColorValues, icmColorValues, icmColorValues, 0);
         BufferedImage overBi = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, icm);
 
         Overlays.applyOverlay(frameIndex, overBi.getRaster(), attributes, shuttOverlayGroup - 0x6000, 1, null);
 
-        return overBi;
+        return cache == null ? overBi : cache.put(key, overBi);
     }
 
     public static byte[] extractOverlay(int gg0000, Raster raster, Attributes attrs) {
@@ -205,4 +211,42 @@ public class OverlayUtils {
         }
     }
 
+    /**
+     * Key of a mask: the shutter overlay group (0 for the overlays), the frame, the SOP instance UID of the presentation
+     * state and the size. The key does not reference the presentation state, which can be closed while the mask is
+     * cached.
+     */
+    private static final class MaskKey {
+        private final int group;
+        private final int frame;
+        private final String prUID;
+        private final int width;
+        private final int height;
+
+        MaskKey(int group, int frame, String prUID, int width, int height) {
+            this.group = group;
+            this.frame = frame;
+            this.prUID = prUID;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(group, frame, prUID, width, height);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MaskKey)) {
+                return false;
+            }
+            MaskKey other = (MaskKey) obj;
+            return group == other.group && frame == other.frame && Objects.equals(prUID, other.prUID)
+                && width == other.width && height == other.height;
+        }
+    }
 }
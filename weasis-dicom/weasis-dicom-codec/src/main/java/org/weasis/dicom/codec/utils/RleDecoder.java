@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Decoder of the DICOM RLE Lossless frames (PS 3.5 Annex G).
+ *
+ * A frame is made of independent segments, one per byte of each sample (the most significant byte first). The
+ * segments are decoded directly into the banks of the raster, concurrently for large frames: by segment for 8-bit
+ * samples and by band for 16-bit samples (the two bytes of a sample are written one after the other). The buffer of
+ * the compressed data is kept by each thread and reused for the next frames, unless it is larger than 4 MB.
+ */
+public final class RleDecoder {
+
+    private static final int HEADER_LENGTH = 64;
+    private static final int MAX_SEGMENTS = 15;
+    // Number of pixels from which the segments are decoded in parallel
+    private static final int PARALLEL_MIN_PIXELS = 256 * 256;
+
+    // Maximum size of the buffer of the compressed data kept by a thread
+    private static final int MAX_KEPT_INPUT = 4 * 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> INPUT = ThreadLocal.withInitial(() -> new byte[0]);
+
+    private RleDecoder() {
+    }
+
+    /**
+     * @param sm
+     *            the sample model of the destination
+     * @return true when the sample model has one bank per band without pixel stride and 8 or 16-bit samples
+     */
+    public static boolean isSupported(SampleModel sm) {
+        if (!(sm instanceof ComponentSampleModel)) {
+            return false;
+        }
+        ComponentSampleModel csm = (ComponentSampleModel) sm;
+        int type = sm.getDataType();
+        if (type != DataBuffer.TYPE_BYTE && type != DataBuffer.TYPE_USHORT && type != DataBuffer.TYPE_SHORT) {
+            return false;
+        }
+        if (csm.getPixelStride() != 1 || csm.getScanlineStride() != sm.getWidth()) {
+            return false;
+        }
+        int[] bankIndices = csm.getBankIndices();
+        int[] bandOffsets = csm.getBandOffsets();
+        for (int i = 0; i < bankIndices.length; i++) {
+            if (bankIndices[i] != i || bandOffsets[i] != 0) {
+                return false;
+            }
+        }
+        return bankIndices.length * (DataBuffer.getDataTypeSize(type) / 8) <= MAX_SEGMENTS;
+    }
+
+    /**
+     * Decodes a frame into a raster.
+     *
+     * @param frame
+     *            the stream of the compressed frame, read until its end
+     * @param raster
+     *            the destination with a supported sample model (see {@link #isSupported(SampleModel)}) and a new data
+     *            buffer
+     * @throws IOException
+     *             if the frame cannot be read or the number of segments does not match the destination
+     */
+    public static void decode(ImageInputStream frame, WritableRaster raster) throws IOException {
+        byte[] input = INPUT.get();
+        long size = frame.length();
+        if (size > 0 && size > input.length) {
+            input = new byte[(int) size];
+        }
+        int length = 0;
+        int count;
+        while (true) {
+            if (length == input.length) {
+                input = Arrays.copyOf(input, Math.max(8192, input.length * 2));
+            }
+            count = frame.read(input, length, input.length - length);
+            if (count < 0) {
+                break;
+            }
+            length += count;
+        }
+        if (input.length <= MAX_KEPT_INPUT) {
+            INPUT.set(input);
+        } else {
+            INPUT.remove();
+        }
+        decode(input, length, raster);
+    }
+
+    /**
+     * Decodes a frame into a raster.
+     *
+     * @param data
+     *            the compressed frame with its RLE header
+     * @param length
+     *            the number of bytes of the frame in data
+     * @param raster
+     *            the destination with a supported sample model (see {@link #isSupported(SampleModel)}) and a new data
+     *            buffer
+     * @throws IOException
+     *             if the number of segments does not match the destination
+     */
+    public static void decode(byte[] data, int length, WritableRaster raster) throws IOException {
+        if (length < HEADER_LENGTH) {
+            throw new IOException("RLE header is missing"); //$NON-NLS-1$
+        }
+        DataBuffer db = raster.getDataBuffer();
+        int bands = raster.getNumBands();
+        int bytes = DataBuffer.getDataTypeSize(db.getDataType()) / 8;
+        int nbSegments = readInt(data, 0);
+        if (nbSegments != bands * bytes) {
+            throw new IOException("Unexpected number of RLE segments: " + nbSegments); //$NON-NLS-1$
+        }
+        int[] offsets = new int[nbSegments + 1];
+        for (int i = 0; i < nbSegments; i++) {
+            offsets[i] = readInt(data, 4 * (i + 1));
+            if (offsets[i] < HEADER_LENGTH || offsets[i] > length) {
+                throw new IOException("Invalid offset of RLE segment " + (i + 1)); //$NON-NLS-1$
+            }
+        }
+        offsets[nbSegments] = length;
+
+        int planeLength = raster.getWidth() * raster.getHeight();
+        // One task per bank
+        IntStream banks = IntStream.range(0, bands);
+        if (bands > 1 && planeLength >= PARALLEL_MIN_PIXELS) {
+            banks = banks.parallel();
+        }
+        if (bytes == 1) {
+            banks.forEach(i -> decodeSegment(data, offsets[i], offsets[i + 1], ((DataBufferByte) db).getData(i),
+                planeLength));
+        } else {
+            banks.forEach(b -> {
+                short[] out = db instanceof DataBufferShort ? ((DataBufferShort) db).getData(b)
+                    : ((DataBufferUShort) db).getData(b);
+                decodeSegment(data, offsets[2 * b], offsets[2 * b + 1], out, planeLength, true);
+                decodeSegment(data, offsets[2 * b + 1], offsets[2 * b + 2], out, planeLength, false);
+            });
+        }
+    }
+
+    private static int readInt(byte[] data, int index) {
+        // Little endian
+        return (data[index] & 0xFF) | (data[index + 1] & 0xFF) << 8 | (data[index + 2] & 0xFF) << 16
+            | (data[index + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Decodes a PackBits segment, the output is truncated or padded with zeros to the length of the plane.
+     */
+    static void decodeSegment(byte[] in, int start, int end, byte[] out, int outLength) {
+        int pos = start;
+        int index = 0;
+        while (pos < end && index < outLength) {
+            int n = in[pos++];
+            if (n >= 0) {
+                // Literal run of n + 1 bytes
+                int len = Math.min(n + 1, Math.min(end - pos, outLength - index));
+                System.arraycopy(in, pos, out, index, len);
+                pos += n + 1;
+                index += len;
+            } else if (n != -128 && pos < end) {
+                // Replicate run of 1 - n bytes
+                int len = Math.min(1 - n, outLength - index);
+                Arrays.fill(out, index, index + len, in[pos++]);
+                index += len;
+            }
+        }
+        if (index < outLength) {
+            Arrays.fill(out, index, outLength, (byte) 0);
+        }
+    }
+
+    /**
+     * Decodes a PackBits segment into one byte of the 16-bit samples, the output is truncated or padded with zeros to
+     * the length of the plane. The segment of the most significant byte must be decoded first: it sets the samples and
+     * the segment of the least significant byte is combined with them.
+     */
+    static void decodeSegment(byte[] in, int start, int end, short[] out, int outLength, boolean msb) {
+        int pos = start;
+        int index = 0;
+        while (pos < end && index < outLength) {
+            int n = in[pos++];
+            if (n >= 0) {
+                // Literal run of n + 1 bytes
+                int len = Math.min(n + 1, Math.min(end - pos, outLength - index));
+                if (msb) {
+                    for (int k = 0; k < len; k++) {
+                        out[index + k] = (short) (in[pos + k] << 8);
+                    }
+                } else {
+                    for (int k = 0; k < len; k++) {
+                        out[index + k] |= in[pos + k] & 0xFF;
+                    }
+                }
+                pos += n + 1;
+                index += len;
+            } else if (n != -128 && pos < end) {
+                // Replicate run of 1 - n bytes
+                int len = Math.min(1 - n, outLength - index);
+                byte val = in[pos++];
+                if (msb) {
+                    Arrays.fill(out, index, index + len, (short) (val << 8));
+                } else {
+                    for (int k = 0; k < len; k++) {
+                        out[index + k] |= val & 0xFF;
+                    }
+                }
+                index += len;
+            }
+        }
+        if (msb && index < outLength) {
+            Arrays.fill(out, index, outLength, (short) 0);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.codec.utils;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Converts 8-bit YBR pixels into RGB by reading and writing directly the byte arrays of the rasters.
+ *
+ * The conversion of the color space is decomposed into one table per component and per output channel (in fixed
+ * point), so each pixel needs only additions and shifts. The coefficients are measured on the color space of the
+ * image, the result is the same as {@link ColorSpace#toRGB(float[])} truncated to 8 bits, within rounding.
+ */
+public final class YbrToRgbConverter {
+
+    private static final int SHIFT = 16;
+    // Number of pixels from which the rows are converted in parallel
+    private static final int PARALLEL_MIN_PIXELS = 512 * 512;
+    private static final int MIN_BAND_HEIGHT = 32;
+
+    // Tables of the contribution of Y, Cb and Cr for R, G and B, the offset is added to the table of Y
+    private final int[] rY = new int[256];
+    private final int[] rCb = new int[256];
+    private final int[] rCr = new int[256];
+    private final int[] gY = new int[256];
+    private final int[] gCb = new int[256];
+    private final int[] gCr = new int[256];
+    private final int[] bY = new int[256];
+    private final int[] bCb = new int[256];
+    private final int[] bCr = new int[256];
+
+    private YbrToRgbConverter(double[][] coefficients) {
+        fillTables(coefficients[0], rY, rCb, rCr);
+        fillTables(coefficients[1], gY, gCb, gCr);
+        fillTables(coefficients[2], bY, bCb, bCr);
+    }
+
+    private static void fillTables(double[] k, int[] yTable, int[] cbTable, int[] crTable) {
+        double scale = 1 << SHIFT;
+        for (int i = 0; i < 256; i++) {
+            yTable[i] = (int) Math.round((k[0] * i + k[3] * 255.0) * scale);
+            cbTable[i] = (int) Math.round(k[1] * i * scale);
+            crTable[i] = (int) Math.round(k[2] * i * scale);
+        }
+    }
+
+    /**
+     * @param cs
+     *            the YBR color space of the image
+     * @return the converter or null when the conversion of the color space is not an affine transformation
+     */
+    public static YbrToRgbConverter getInstance(ColorSpace cs) {
+        if (cs == null || cs.getNumComponents() != 3) {
+            return null;
+        }
+        // Measure the coefficients around the middle of the color space where the values are not clamped
+        float[] center = { 0.5f, 0.5f, 0.5f };
+        float[] rgbCenter = cs.toRGB(center);
+        double delta = 0.1;
+        double[][] coefficients = new double[3][4];
+        for (int i = 0; i < 3; i++) {
+            float[] ybr = center.clone();
+            ybr[i] += delta;
+            float[] rgb = cs.toRGB(ybr);
+            for (int c = 0; c < 3; c++) {
+                coefficients[c][i] = (rgb[c] - rgbCenter[c]) / delta;
+            }
+        }
+        for (int c = 0; c < 3; c++) {
+            double[] k = coefficients[c];
+            k[3] = rgbCenter[c] - 0.5 * (k[0] + k[1] + k[2]);
+        }
+
+        // Check on other values that the transformation is affine
+        float[][] samples = { { 0.4f, 0.55f, 0.45f }, { 0.6f, 0.45f, 0.52f } };
+        for (float[] ybr : samples) {
+            float[] rgb = cs.toRGB(ybr);
+            for (int c = 0; c < 3; c++) {
+                double[] k = coefficients[c];
+                double val = k[0] * ybr[0] + k[1] * ybr[1] + k[2] * ybr[2] + k[3];
+                if (Math.abs(val - rgb[c]) > 1e-4) {
+                    return null;
+                }
+            }
+        }
+        return new YbrToRgbConverter(coefficients);
+    }
+
+    /**
+     * @param src
+     *            the YBR raster, either with a component sample model (interleaved or planar) or subsampled 4:2:2
+     * @param subsampled
+     *            true when the chrominance is subsampled horizontally (YBR_FULL_422 or YBR_PARTIAL_422)
+     * @param dst
+     *            the RGB raster with a pixel interleaved sample model of the same size
+     * @return false when the layout of the rasters is not supported, nothing has been written
+     */
+    public boolean convert(Raster src, boolean subsampled, WritableRaster dst) {
+        int width = src.getWidth();
+        int height = src.getHeight();
+        if (!(src.getDataBuffer() instanceof DataBufferByte) || !(dst.getDataBuffer() instanceof DataBufferByte)
+            || !(dst.getSampleModel() instanceof PixelInterleavedSampleModel) || dst.getWidth() != width
+            || dst.getHeight() != height) {
+            return false;
+        }
+        PixelInterleavedSampleModel dsm = (PixelInterleavedSampleModel) dst.getSampleModel();
+        if (dsm.getNumBands() != 3 || dst.getSampleModelTranslateX() != 0 || dst.getSampleModelTranslateY() != 0) {
+            return false;
+        }
+        DataBufferByte srcBuffer = (DataBufferByte) src.getDataBuffer();
+        byte[] out = ((DataBufferByte) dst.getDataBuffer()).getData();
+        RowConverter rows;
+
+        if (subsampled) {
+            // Y1 Y2 Cb Cr for each pair of pixels, like the sample model of dcm4che
+            byte[] in = srcBuffer.getData();
+            int inOffset = srcBuffer.getOffset();
+            if (width % 2 != 0 || srcBuffer.getNumBanks() != 1 || in.length - inOffset < width * height * 2) {
+                return false;
+            }
+            rows = (y0, y1) -> convert422(in, inOffset, width, out, dsm, y0, y1);
+        } else {
+            SampleModel sm = src.getSampleModel();
+            if (!(sm instanceof ComponentSampleModel) || sm.getNumBands() != 3 || src.getSampleModelTranslateX() != 0
+                || src.getSampleModelTranslateY() != 0) {
+                return false;
+            }
+            ComponentSampleModel csm = (ComponentSampleModel) sm;
+            rows = (y0, y1) -> convert(srcBuffer, csm, width, out, dsm, y0, y1);
+        }
+
+        if ((long) width * height < PARALLEL_MIN_PIXELS) {
+            rows.convert(0, height);
+        } else {
+            int parallelism = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+            int bandHeight = Math.max(MIN_BAND_HEIGHT, (height + parallelism - 1) / parallelism);
+            int nbBands = (height + bandHeight - 1) / bandHeight;
+            IntStream.range(0, nbBands).parallel()
+                .forEach(b -> rows.convert(b * bandHeight, Math.min(height, (b + 1) * bandHeight)));
+        }
+        return true;
+    }
+
+    private void convert(DataBufferByte srcBuffer, ComponentSampleModel csm, int width, byte[] out,
+        PixelInterleavedSampleModel dsm, int y0, int y1) {
+        int[] bankIndices = csm.getBankIndices();
+        int[] bandOffsets = csm.getBandOffsets();
+        byte[] yData = srcBuffer.getData(bankIndices[0]);
+        byte[] cbData = srcBuffer.getData(bankIndices[1]);
+        byte[] crData = srcBuffer.getData(bankIndices[2]);
+        int[] offsets = srcBuffer.getOffsets();
+        int pixelStride = csm.getPixelStride();
+        int scanlineStride = csm.getScanlineStride();
+        int[] dstOffsets = dsm.getBandOffsets();
+        int dstPixelStride = dsm.getPixelStride();
+        int dstScanlineStride = dsm.getScanlineStride();
+
+        for (int y = y0; y < y1; y++) {
+            int yIndex = offsets[bankIndices[0]] + bandOffsets[0] + y * scanlineStride;
+            int cbIndex = offsets[bankIndices[1]] + bandOffsets[1] + y * scanlineStride;
+            int crIndex = offsets[bankIndices[2]] + bandOffsets[2] + y * scanlineStride;
+            int outIndex = y * dstScanlineStride;
+            for (int x = 0; x < width; x++) {
+                int cb = cbData[cbIndex] & 0xFF;
+                int cr = crData[crIndex] & 0xFF;
+                setRGB(yData[yIndex] & 0xFF, rCb[cb] + rCr[cr], gCb[cb] + gCr[cr], bCb[cb] + bCr[cr], out,
+                    outIndex, dstOffsets);
+                yIndex += pixelStride;
+                cbIndex += pixelStride;
+                crIndex += pixelStride;
+                outIndex += dstPixelStride;
+            }
+        }
+    }
+
+    private void convert422(byte[] in, int inOffset, int width, byte[] out, PixelInterleavedSampleModel dsm, int y0,
+        int y1) {
+        int[] dstOffsets = dsm.getBandOffsets();
+        int dstPixelStride = dsm.getPixelStride();
+        int dstScanlineStride = dsm.getScanlineStride();
+
+        for (int y = y0; y < y1; y++) {
+            int index = inOffset + y * width * 2;
+            int outIndex = y * dstScanlineStride;
+            for (int x = 0; x < width; x += 2) {
+                int cb = in[index + 2] & 0xFF;
+                int cr = in[index + 3] & 0xFF;
+                // Both pixels share the same chrominance
+                int r = rCb[cb] + rCr[cr];
+                int g = gCb[cb] + gCr[cr];
+                int b = bCb[cb] + bCr[cr];
+                setRGB(in[index] & 0xFF, r, g, b, out, outIndex, dstOffsets);
+                setRGB(in[index + 1] & 0xFF, r, g, b, out, outIndex + dstPixelStride, dstOffsets);
+                index += 4;
+                outIndex += 2 * dstPixelStride;
+            }
+        }
+    }
+
+    private void setRGB(int yVal, int rChroma, int gChroma, int bChroma, byte[] out, int outIndex,
+        int[] dstOffsets) {
+        out[outIndex + dstOffsets[0]] = clamp((rY[yVal] + rChroma) >> SHIFT);
+        out[outIndex + dstOffsets[1]] = clamp((gY[yVal] + gChroma) >> SHIFT);
+        out[outIndex + dstOffsets[2]] = clamp((bY[yVal] + bChroma) >> SHIFT);
+    }
+
+    private static byte clamp(int val) {
+        return (byte) (val < 0 ? 0 : val > 255 ? 255 : val);
+    }
+
+    @FunctionalInterface
+    private interface RowConverter {
+        void convert(int y0, int y1);
+    }
+}
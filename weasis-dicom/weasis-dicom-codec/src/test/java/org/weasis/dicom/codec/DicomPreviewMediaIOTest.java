@@ -0,0 +1,141 @@
+package org.weasis.dicom.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.imageio.ImageIO;
+
+import org.dcm4che3.data.Tag;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.weasis.core.api.gui.util.GuiExecutor;
+import org.weasis.core.api.util.FileUtil;
+import org.weasis.dicom.codec.wado.WadoParameters;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class DicomPreviewMediaIOTest {
+
+    private static final String STUDY_UID = "1.2.3";
+    private static final String SERIES_UID = "1.2.3.4";
+    private static final String SOP_UID = "1.2.3.4.5";
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private WadoParameters wado;
+    private File dir;
+
+    @Before
+    public void startServer() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(32, 24, BufferedImage.TYPE_BYTE_GRAY), "jpg", out);
+        byte[] jpeg = out.toByteArray();
+
+        // Stand-in of a WADO server, which returns a rendering only for the known instance
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/wado", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            queries.add(query);
+            boolean found = query.contains("objectUID=" + SOP_UID + "&") && query.contains("contentType=image/jpeg");
+            byte[] body = found ? jpeg : "Not found".getBytes();
+            exchange.sendResponseHeaders(found ? 200 : 404, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+
+        String url = "http://localhost:" + server.getAddress().getPort() + "/wado";
+        wado = new WadoParameters(url, false, null, null, null);
+        dir = Files.createTempDirectory("preview").toFile();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        FileUtil.recursiveDelete(dir);
+    }
+
+    private File downloadPreview(String sopUID) throws IOException {
+        return DicomPreviewMediaIO.getJPEGRendering(wado, STUDY_UID, SERIES_UID, sopUID, 64, dir, "preview_");
+    }
+
+    private static DicomImageElement buildInstance(File file) {
+        // Only the header is required to take the place of the preview
+        DicomMediaIO reader = new DicomMediaIO(file);
+        reader.setTag(TagD.get(Tag.SOPInstanceUID), SOP_UID);
+        reader.setTag(TagD.get(Tag.InstanceNumber), 1);
+        return new DicomImageElement(reader, 0);
+    }
+
+    private static void waitForDisposal() {
+        // The previews are disposed in the EDT after the views have been notified
+        GuiExecutor.instance().invokeAndWait(() -> {
+        });
+    }
+
+    @Test
+    public void testDownloadRendering() throws IOException {
+        File file = downloadPreview(SOP_UID);
+        assertNotNull(file);
+        assertTrue(queries.get(0).contains("rows=64&columns=64"));
+
+        DicomPreviewMediaIO reader = new DicomPreviewMediaIO(file, null, SOP_UID, 1);
+        assertEquals(Integer.valueOf(24), TagD.getTagValue(reader, Tag.Rows, Integer.class));
+        assertEquals(Integer.valueOf(32), TagD.getTagValue(reader, Tag.Columns, Integer.class));
+        assertEquals(SOP_UID, TagD.getTagValue(reader, Tag.SOPInstanceUID, String.class));
+        assertTrue(((DicomImageElement) reader.getPreview()).isPreview());
+
+        // No file is kept when the server has no rendering
+        assertNull(downloadPreview("9.9.9"));
+        assertEquals(1, dir.list().length);
+    }
+
+    @Test
+    public void testPreviewReplacedByInstance() throws IOException {
+        File file = downloadPreview(SOP_UID);
+        DicomImageElement preview = (DicomImageElement) new DicomPreviewMediaIO(file, null, SOP_UID, 1).getPreview();
+        DicomSeries series = new DicomSeries(SERIES_UID);
+        series.addMedia(preview);
+        assertSame(preview, series.getPreview(SOP_UID));
+
+        DicomImageElement instance = buildInstance(new File(dir, "instance.dcm"));
+        series.addMedia(instance);
+        assertEquals(1, series.size(null));
+        assertSame(instance, series.getMedia(0, null, null));
+        assertNull(series.getPreview(SOP_UID));
+
+        waitForDisposal();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testRemovePreview() throws IOException {
+        File file = downloadPreview(SOP_UID);
+        DicomSeries series = new DicomSeries(SERIES_UID);
+        series.addMedia(new DicomPreviewMediaIO(file, null, SOP_UID, 1).getPreview());
+
+        assertTrue(series.removePreview(SOP_UID));
+        assertFalse(series.removePreview(SOP_UID));
+        assertEquals(0, series.size(null));
+
+        waitForDisposal();
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,49 @@
+package org.weasis.dicom.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+public class MappedPixelDataTest {
+
+    @Test
+    public void testUnmap() throws IOException {
+        File file = File.createTempFile("pixels", ".raw");
+        try {
+            Files.write(file.toPath(), new byte[] { 0, 1, 2, 3, 4, 5, 6, 7 });
+            MappedPixelData data;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buf = channel.map(MapMode.READ_ONLY, 2, 4);
+                data = new MappedPixelData(buf, 2);
+            }
+            assertEquals(2, data.getOffset());
+            assertTrue(data.acquire());
+            try {
+                assertEquals(2, data.getData().get(0));
+            } finally {
+                data.release();
+            }
+
+            data.unmap();
+            assertFalse(data.acquire());
+            // Can be called again, the buffer is unmapped only once
+            data.unmap();
+            assertFalse(data.acquire());
+
+            // The file is not locked anymore by the mapping
+            assertTrue(file.delete());
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.weasis.dicom.codec.geometry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import org.junit.Test;
+
+public class IntersectionCacheTest {
+
+    private static GeometryOfSlice axial(double z) {
+        return new GeometryOfSlice(new double[] { 1, 0, 0 }, new double[] { 0, 1, 0 }, new double[] { 0, 0, z },
+            new double[] { 1, 1, 1 }, 1, new double[] { 100, 100, 1 });
+    }
+
+    private static GeometryOfSlice sagittal(double x) {
+        return new GeometryOfSlice(new double[] { 0, 1, 0 }, new double[] { 0, 0, -1 }, new double[] { x, 0, 50 },
+            new double[] { 1, 1, 1 }, 1, new double[] { 100, 100, 1 });
+    }
+
+    @Test
+    public void testOutlineIsCached() {
+        IntersectionCache.clear();
+        GeometryOfSlice localizer = sagittal(40);
+        for (boolean volume : new boolean[] { false, true }) {
+            List<Point2D.Double> expected = (volume ? new IntersectVolume(localizer) : new IntersectSlice(localizer))
+                .getOutlineOnLocalizerForThisGeometry(axial(20));
+            List<Point2D.Double> pts = IntersectionCache.getOutline(localizer, axial(20), volume);
+            assertNotNull(pts);
+            assertEquals(expected, pts);
+
+            // Same values from a new instance of the geometries, but the points are not shared
+            List<Point2D.Double> cached = IntersectionCache.getOutline(sagittal(40), axial(20), volume);
+            assertEquals(pts, cached);
+            assertNotSame(pts.get(0), cached.get(0));
+        }
+    }
+
+    @Test
+    public void testNoIntersection() {
+        assertNull(IntersectionCache.getOutline(axial(0), axial(20), false));
+        assertNull(IntersectionCache.getOutline(axial(0), axial(20), false));
+        assertNull(IntersectionCache.getOutline(null, axial(20), true));
+    }
+}
@@ -0,0 +1,47 @@
+package org.weasis.dicom.codec.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import javax.media.jai.LookupTableJAI;
+
+import org.junit.Test;
+import org.weasis.core.api.image.LutShape;
+
+public class DicomImageUtilsTest {
+
+    @Test
+    public void testWindowLevelLutIsShared() throws Exception {
+        LookupTableJAI lut1 = DicomImageUtils.createWindowLevelLut(LutShape.SIGMOID, 400, 40, -1024, 3071, 8, false,
+            false);
+        LookupTableJAI lut2 = DicomImageUtils.createWindowLevelLut(LutShape.SIGMOID, 400, 40, 3071, -1024, 8, false,
+            false);
+        assertSame(lut1, lut2);
+
+        LookupTableJAI lut3 = DicomImageUtils.createWindowLevelLut(LutShape.SIGMOID, 401, 40, -1024, 3071, 8, false,
+            false);
+        assertNotSame(lut1, lut3);
+        LookupTableJAI lut4 =
+            DicomImageUtils.createWindowLevelLut(LutShape.SIGMOID, 400, 40, -1024, 3071, 8, false, true);
+        assertNotSame(lut1, lut4);
+    }
+
+    @Test
+    public void testLinearWindowLevelLut() throws Exception {
+        LookupTableJAI lut = DicomImageUtils.createWindowLevelLut(LutShape.LINEAR, 100, 50, -100, 200, 8, false, false);
+        assertEquals(-100, lut.getOffset());
+        assertEquals(301, lut.getNumEntries());
+        assertEquals(0, lut.lookup(0, -100));
+        assertEquals(0, lut.lookup(0, 0));
+        assertEquals(127, lut.lookup(0, 50));
+        assertEquals(255, lut.lookup(0, 100));
+        assertEquals(255, lut.lookup(0, 200));
+
+        LookupTableJAI inverse =
+            DicomImageUtils.createWindowLevelLut(LutShape.LINEAR, 100, 50, -100, 200, 8, false, true);
+        for (int i = -100; i <= 200; i++) {
+            assertEquals(255 - lut.lookup(0, i), inverse.lookup(0, i));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.weasis.dicom.codec.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+public class OverlayCacheTest {
+
+    // 64 x 64 bits
+    private static final int MASK_BYTES = 64 * 64 / 8;
+
+    private static BufferedImage newMask(int value) {
+        BufferedImage img = new BufferedImage(64, 64, BufferedImage.TYPE_BYTE_BINARY);
+        img.getRaster().setSample(value, 0, 0, 1);
+        return img;
+    }
+
+    @Test
+    public void testIdenticalMasksAreShared() {
+        OverlayCache cache = new OverlayCache(10 * MASK_BYTES);
+        BufferedImage mask1 = newMask(1);
+        assertSame(mask1, cache.put("frame1", mask1));
+        assertSame(mask1, cache.put("frame2", newMask(1)));
+        assertSame(mask1, cache.get("frame2"));
+        assertEquals(2, cache.size());
+        assertEquals(MASK_BYTES, cache.getMemoryUsed());
+
+        cache.put("frame3", newMask(2));
+        assertEquals(2 * MASK_BYTES, cache.getMemoryUsed());
+    }
+
+    @Test
+    public void testEviction() {
+        OverlayCache cache = new OverlayCache(2 * MASK_BYTES);
+        cache.put("frame1", newMask(1));
+        cache.put("frame2", newMask(2));
+        // Most recently used
+        cache.get("frame1");
+        cache.put("frame3", newMask(3));
+
+        assertNull(cache.get("frame2"));
+        assertEquals(2, cache.size());
+        assertEquals(2 * MASK_BYTES, cache.getMemoryUsed());
+    }
+
+    @Test
+    public void testEmbeddedOverlaysAreBounded() {
+        OverlayCache cache = new OverlayCache(2 * MASK_BYTES);
+        byte[][] overlays = { new byte[MASK_BYTES] };
+        cache.setEmbeddedOverlays(0, overlays);
+        cache.put("frame1", newMask(1));
+        assertSame(overlays, cache.getEmbeddedOverlays(0));
+        assertEquals(2 * MASK_BYTES, cache.getMemoryUsed());
+
+        // Same least recently used order as the masks
+        cache.put("frame2", newMask(2));
+        assertNull(cache.get("frame1"));
+        cache.setEmbeddedOverlays(1, new byte[][] { new byte[MASK_BYTES] });
+        assertNull(cache.getEmbeddedOverlays(0));
+        assertEquals(2, cache.size());
+        assertEquals(2 * MASK_BYTES, cache.getMemoryUsed());
+
+        cache.clear();
+        assertNull(cache.getEmbeddedOverlays(1));
+        assertEquals(0, cache.getMemoryUsed());
+    }
+}
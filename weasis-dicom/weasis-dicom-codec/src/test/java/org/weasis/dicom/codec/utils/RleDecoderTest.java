@@ -0,0 +1,190 @@
+package org.weasis.dicom.codec.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BandedSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RleDecoderTest {
+
+    @Test
+    public void testDecodeSegment() throws Exception {
+        // Literal run of 3 bytes, replicate run of 4 bytes, no-op and literal run of 1 byte
+        byte[] in = { 2, 1, 2, 3, -3, 9, -128, 0, 7 };
+        byte[] out = new byte[10];
+        RleDecoder.decodeSegment(in, 0, in.length, out, out.length);
+        assertArrayEquals(new byte[] { 1, 2, 3, 9, 9, 9, 9, 7, 0, 0 }, out);
+
+        // Truncated to the length of the plane
+        out = new byte[5];
+        RleDecoder.decodeSegment(in, 0, in.length, out, out.length);
+        assertArrayEquals(new byte[] { 1, 2, 3, 9, 9 }, out);
+    }
+
+    @Test
+    public void testDecodeByteBands() throws Exception {
+        int width = 300;
+        int height = 250;
+        byte[][] planes = new byte[3][width * height];
+        Random random = new Random(3);
+        for (byte[] plane : planes) {
+            fillPlane(plane, random);
+        }
+        WritableRaster raster =
+            Raster.createWritableRaster(new BandedSampleModel(DataBuffer.TYPE_BYTE, width, height, 3), null);
+        byte[] frame = encode(planes);
+        RleDecoder.decode(frame, frame.length, raster);
+
+        DataBufferByte db = (DataBufferByte) raster.getDataBuffer();
+        for (int b = 0; b < 3; b++) {
+            assertArrayEquals(planes[b], db.getData(b));
+        }
+    }
+
+    @Test
+    public void testDecodeUShort() throws Exception {
+        int width = 64;
+        int height = 48;
+        short[] expected = new short[width * height];
+        byte[][] planes = new byte[2][expected.length];
+        Random random = new Random(7);
+        fillPlane(planes[0], random);
+        fillPlane(planes[1], random);
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (short) ((planes[0][i] & 0xFF) << 8 | (planes[1][i] & 0xFF));
+        }
+        WritableRaster raster =
+            Raster.createWritableRaster(new BandedSampleModel(DataBuffer.TYPE_USHORT, width, height, 1), null);
+        byte[] frame = encode(planes);
+        RleDecoder.decode(frame, frame.length, raster);
+        assertArrayEquals(expected, ((DataBufferUShort) raster.getDataBuffer()).getData());
+    }
+
+    @Test
+    public void testDecodeUShortBands() throws Exception {
+        // Large enough to decode the bands in parallel
+        int width = 300;
+        int height = 250;
+        int length = width * height;
+        byte[][] planes = new byte[6][length];
+        Random random = new Random(5);
+        for (byte[] plane : planes) {
+            fillPlane(plane, random);
+        }
+        WritableRaster raster =
+            Raster.createWritableRaster(new BandedSampleModel(DataBuffer.TYPE_USHORT, width, height, 3), null);
+        byte[] frame = encode(planes);
+        RleDecoder.decode(frame, frame.length, raster);
+
+        DataBufferUShort db = (DataBufferUShort) raster.getDataBuffer();
+        for (int b = 0; b < 3; b++) {
+            short[] expected = new short[length];
+            for (int i = 0; i < length; i++) {
+                expected[i] = (short) ((planes[2 * b][i] & 0xFF) << 8 | (planes[2 * b + 1][i] & 0xFF));
+            }
+            assertArrayEquals(expected, db.getData(b));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongNumberOfSegments() throws Exception {
+        WritableRaster raster =
+            Raster.createWritableRaster(new BandedSampleModel(DataBuffer.TYPE_USHORT, 8, 8, 1), null);
+        byte[] frame = encode(new byte[1][64]);
+        RleDecoder.decode(frame, frame.length, raster);
+    }
+
+    @Test
+    public void testSupportedSampleModels() {
+        assertTrue(RleDecoder.isSupported(new BandedSampleModel(DataBuffer.TYPE_BYTE, 8, 8, 3)));
+        assertTrue(RleDecoder.isSupported(new BandedSampleModel(DataBuffer.TYPE_SHORT, 8, 8, 1)));
+        assertTrue(RleDecoder
+            .isSupported(new PixelInterleavedSampleModel(DataBuffer.TYPE_USHORT, 8, 8, 1, 8, new int[] { 0 })));
+        assertFalse(RleDecoder
+            .isSupported(new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE, 8, 8, 3, 24, new int[] { 0, 1, 2 })));
+        assertFalse(RleDecoder.isSupported(new BandedSampleModel(DataBuffer.TYPE_INT, 8, 8, 1)));
+        assertFalse(RleDecoder.isSupported(null));
+    }
+
+    private static void fillPlane(byte[] plane, Random random) {
+        // Alternate runs of a repeated value and of random values
+        int i = 0;
+        while (i < plane.length) {
+            int len = Math.min(plane.length - i, 1 + random.nextInt(200));
+            if (random.nextBoolean()) {
+                byte val = (byte) random.nextInt(256);
+                for (int k = 0; k < len; k++) {
+                    plane[i + k] = val;
+                }
+            } else {
+                for (int k = 0; k < len; k++) {
+                    plane[i + k] = (byte) random.nextInt(256);
+                }
+            }
+            i += len;
+        }
+    }
+
+    private static byte[] encode(byte[][] planes) {
+        ByteArrayOutputStream segments = new ByteArrayOutputStream();
+        int[] offsets = new int[planes.length];
+        for (int s = 0; s < planes.length; s++) {
+            offsets[s] = 64 + segments.size();
+            byte[] plane = planes[s];
+            int i = 0;
+            while (i < plane.length) {
+                int run = 1;
+                while (i + run < plane.length && run < 128 && plane[i + run] == plane[i]) {
+                    run++;
+                }
+                if (run > 1) {
+                    segments.write(1 - run);
+                    segments.write(plane[i]);
+                    i += run;
+                } else {
+                    int len = 1;
+                    while (i + len < plane.length && len < 128
+                        && (i + len + 1 >= plane.length || plane[i + len] != plane[i + len + 1])) {
+                        len++;
+                    }
+                    segments.write(len - 1);
+                    segments.write(plane, i, len);
+                    i += len;
+                }
+            }
+            if (segments.size() % 2 != 0) {
+                // Segments have an even length
+                segments.write(-128);
+            }
+        }
+        byte[] header = new byte[64];
+        writeInt(header, 0, planes.length);
+        for (int s = 0; s < planes.length; s++) {
+            writeInt(header, 4 * (s + 1), offsets[s]);
+        }
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(header, 0, header.length);
+        byte[] data = segments.toByteArray();
+        frame.write(data, 0, data.length);
+        return frame.toByteArray();
+    }
+
+    private static void writeInt(byte[] data, int index, int val) {
+        data[index] = (byte) val;
+        data[index + 1] = (byte) (val >> 8);
+        data[index + 2] = (byte) (val >> 16);
+        data[index + 3] = (byte) (val >> 24);
+    }
+}
@@ -36,10 +36,13 @@ import java.awt.event.MouseEvent;
 import java.awt.font.FontRenderContext;
 import java.beans.PropertyChangeEvent;
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -116,7 +119,6 @@ import org.weasis.core.ui.editor.image.ViewerPlugin;
 import org.weasis.core.ui.util.ArrayListComboBoxModel;
 import org.weasis.core.ui.util.ColorLayerUI;
 import org.weasis.core.ui.util.TitleMenuItem;
-import org.weasis.core.ui.util.WrapLayout;
 import org.weasis.dicom.codec.DicomSeries;
 import org.weasis.dicom.codec.DicomSpecialElement;
 import org.weasis.dicom.codec.KOSpecialElement;
@@ -145,8 +147,12 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
 
     private final List<PatientPane> patientPaneList = new ArrayList<>();
     private final HashMap<MediaSeriesGroup, List<StudyPane>> patient2study = new HashMap<>();
-    private final HashMap<MediaSeriesGroup, List<SeriesPane>> study2series = new HashMap<>();
+    private final HashMap<MediaSeriesGroup, List<MediaSeriesGroup>> study2series = new HashMap<>();
     private final JScrollPane thumnailView = new JScrollPane();
+    private final Deque<SeriesPane> seriesPanePool = new ArrayDeque<>();
+    private Set<Thumbnail> displayedThumbnails = new HashSet<>();
+    private Dimension cellSize = null;
+    private boolean displayUpdatePending = false;
     private final LoadingPanel loadingPanel = new LoadingPanel();
     private final SeriesSelectionModel selectionList;
 
@@ -257,6 +263,8 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         this.selectionList = new SeriesSelectionModel(patientContainer);
         thumnailView.getVerticalScrollBar().setUnitIncrement(16);
         thumnailView.setViewportView(patientContainer);
+        // Called when scrolling and when the size of the thumbnail panel changes
+        thumnailView.getViewport().addChangeListener(e -> scheduleDisplayUpdate());
         changeToolWindowAnchor(getDockable().getBaseLocation());
 
     }
@@ -273,10 +281,12 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
                 List<StudyPane> studies = patient2study.remove(patient);
                 if (studies != null) {
                     for (StudyPane studyPane : studies) {
+                        studyPane.releaseSeriesPanes();
                         study2series.remove(studyPane.dicomStudy);
                     }
                 }
                 patientContainer.remove(p);
+                resetDisplayedThumbnails();
                 modelPatient.removeElement(patient);
                 if (modelPatient.getSize() == 0) {
                     modelStudy.removeAllElements();
@@ -297,6 +307,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
                 StudyPane st = studies.get(i);
                 if (st.isStudy(study)) {
                     studies.remove(i);
+                    st.releaseSeriesPanes();
                     if (studies.isEmpty()) {
                         patient2study.remove(patient);
                         // throw a new event for removing the patient
@@ -320,27 +331,17 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
 
     private void removeSeries(MediaSeriesGroup series) {
         MediaSeriesGroup study = model.getParent(series, DicomModel.study);
-        List<SeriesPane> seriesList = study2series.get(study);
+        List<MediaSeriesGroup> seriesList = study2series.get(study);
         if (seriesList != null) {
-            for (int j = 0; j < seriesList.size(); j++) {
-                SeriesPane se = seriesList.get(j);
-                if (se.isSeries(series)) {
-                    seriesList.remove(j);
-                    if (seriesList.isEmpty()) {
-                        study2series.remove(study);
-                        // throw a new event for removing the patient
-                        model.removeStudy(study);
-                        break;
-                    }
-                    se.removeAll();
-
-                    StudyPane studyPane = getStudyPane(study);
-                    if (studyPane != null && studyPane.isSeriesVisible(series)) {
-                        studyPane.remove(se);
-                        studyPane.revalidate();
-                        studyPane.repaint();
-                    }
-                    break;
+            StudyPane studyPane = getStudyPane(study);
+            boolean visible = studyPane != null && studyPane.isSeriesVisible(series);
+            if (seriesList.remove(series)) {
+                if (seriesList.isEmpty()) {
+                    study2series.remove(study);
+                    // throw a new event for removing the patient
+                    model.removeStudy(study);
+                } else if (visible) {
+                    studyPane.showAllSeries();
                 }
             }
         }
@@ -401,54 +402,133 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
     }
 
     private void updateThumbnailSize() {
-        int thumbnailSize = slider.getValue();
+        // The cell size is measured again when the panes are bound with the new thumbnail size
+        cellSize = null;
+        resetDisplayedThumbnails();
+        revalidateStudyPanes();
+        patientContainer.repaint();
+    }
+
+    private void revalidateStudyPanes() {
         for (PatientPane p : patientContainer.getPatientPaneList()) {
             for (StudyPane studyPane : p.getStudyPaneList()) {
-                for (SeriesPane series : studyPane.getSeriesPaneList()) {
-                    series.updateSize(thumbnailSize);
-                }
-                studyPane.doLayout();
+                studyPane.revalidate();
             }
         }
-        patientContainer.revalidate();
-        patientContainer.repaint();
+    }
 
+    private void scheduleDisplayUpdate() {
+        // Coalesce the events of a scroll into a single update
+        if (!displayUpdatePending) {
+            displayUpdatePending = true;
+            SwingUtilities.invokeLater(this::updateDisplayedThumbnails);
+        }
     }
 
-    private SeriesPane getSeriesPane(MediaSeriesGroup series) {
-        List<SeriesPane> seriesList = study2series.get(model.getParent(series, DicomModel.study));
-        if (seriesList != null) {
-            for (int j = 0; j < seriesList.size(); j++) {
-                SeriesPane se = seriesList.get(j);
-                if (se.isSeries(series)) {
-                    return se;
+    /**
+     * Binds the series panes of the visible area of the explorer and a small margin around, and loads the images of
+     * their thumbnails. The panes which have left the area are unbound and go back to the pool, so only the series of
+     * the viewport have a Swing component and an image in memory.
+     * <p>
+     * The studies out of the area are skipped and the visible series of a study are computed from the cell grid. The
+     * cost depends on the number of visible thumbnails, not on the number of series of the patient.
+     */
+    private void updateDisplayedThumbnails() {
+        displayUpdatePending = false;
+        Rectangle area = thumnailView.getViewport().getViewRect();
+        int overscan = 2 * slider.getValue();
+        area.grow(overscan, overscan);
+
+        Set<Thumbnail> displayed = new HashSet<>();
+        for (PatientPane p : patientContainer.getPatientPaneList()) {
+            boolean patientVisible = area.intersects(p.getBounds());
+            for (StudyPane studyPane : p.getStudyPaneList()) {
+                Rectangle studyArea = SwingUtilities.convertRectangle(patientContainer, area, studyPane);
+                if (patientVisible && studyArea.intersects(0, 0, studyPane.getWidth(), studyPane.getHeight())) {
+                    studyPane.bindSeriesPanes(studyArea, displayed);
+                } else {
+                    studyPane.releaseSeriesPanes();
                 }
             }
         }
-        return null;
+        // Release only the thumbnails which have left the area. The thumbnails which have never been in the area have
+        // not been painted, so their images have not been loaded.
+        for (Thumbnail thumb : displayedThumbnails) {
+            if (!displayed.contains(thumb)) {
+                thumb.setDisplayed(false);
+            }
+        }
+        for (Thumbnail thumb : displayed) {
+            if (!displayedThumbnails.contains(thumb)) {
+                thumb.setDisplayed(true);
+            }
+        }
+        displayedThumbnails = displayed;
     }
 
-    private synchronized SeriesPane createSeriesPaneInstance(MediaSeriesGroup series, int[] position) {
-        SeriesPane seriesPane = getSeriesPane(series);
-        if (seriesPane == null) {
-            seriesPane = new SeriesPane(series);
-            List<SeriesPane> seriesList = study2series.get(model.getParent(series, DicomModel.study));
-            if (seriesList != null) {
-                int index = Collections.binarySearch(seriesList, seriesPane, DicomModel.SERIES_COMPARATOR);
-                if (index < 0) {
-                    index = -(index + 1);
-                } else {
-                    index = seriesList.size();
-                }
-                if (position != null) {
-                    position[0] = index;
-                }
-                seriesList.add(index, seriesPane);
+    /**
+     * Unbinds the series panes of all the studies and releases the images of their thumbnails. Called when the patients
+     * or the layout are rebuilt, the visible panes are bound again by the next update of the visible area.
+     */
+    private void resetDisplayedThumbnails() {
+        for (List<StudyPane> studies : patient2study.values()) {
+            for (StudyPane studyPane : studies) {
+                studyPane.releaseSeriesPanes();
             }
+        }
+        for (Thumbnail thumb : displayedThumbnails) {
+            thumb.setDisplayed(false);
+        }
+        displayedThumbnails = new HashSet<>();
+        scheduleDisplayUpdate();
+    }
+
+    /**
+     * Returns the size of the cell of a series. It is measured on the first bound pane because it depends on the
+     * border of the thumbnail and on the font of the label.
+     */
+    private Dimension getCellSize() {
+        if (cellSize == null) {
+            int thumbnailSize = slider.getValue();
+            return new Dimension(thumbnailSize, thumbnailSize);
+        }
+        return cellSize;
+    }
+
+    private SeriesPane acquireSeriesPane(MediaSeriesGroup series, int index) {
+        SeriesPane pane = seriesPanePool.poll();
+        if (pane == null) {
+            pane = new SeriesPane();
+        }
+        pane.bind(series, index);
+        if (cellSize == null && pane.getThumbnail() != null) {
+            cellSize = pane.getPreferredSize();
+            revalidateStudyPanes();
+        }
+        return pane;
+    }
+
+    private SeriesPane getSeriesPane(MediaSeriesGroup series) {
+        StudyPane studyPane = getStudyPane(model.getParent(series, DicomModel.study));
+        return studyPane == null ? null : studyPane.getSeriesPane(series);
+    }
+
+    private synchronized void createSeriesInstance(MediaSeriesGroup series, int[] position) {
+        List<MediaSeriesGroup> seriesList = study2series.get(model.getParent(series, DicomModel.study));
+        if (seriesList != null && !seriesList.contains(series)) {
+            int index = Collections.binarySearch(seriesList, series, DicomModel.SERIES_COMPARATOR);
+            if (index < 0) {
+                index = -(index + 1);
+            } else {
+                index = seriesList.size();
+            }
+            if (position != null) {
+                position[0] = index;
+            }
+            seriesList.add(index, series);
         } else if (position != null) {
             position[0] = -1;
         }
-        return seriesPane;
     }
 
     private boolean isSelectedPatient(MediaSeriesGroup patient) {
@@ -507,6 +587,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         private void refreshLayout() {
             List<PatientPane> list = getPatientPaneList();
             super.removeAll();
+            resetDisplayedThumbnails();
             for (PatientPane p : list) {
                 p.refreshLayout();
                 if (p.getComponentCount() > 0) {
@@ -517,6 +598,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
 
         private void showAllPatients() {
             super.removeAll();
+            resetDisplayedThumbnails();
             for (PatientPane patientPane : patientPaneList) {
                 patientPane.showTitle(true);
                 patientPane.showAllstudies();
@@ -582,6 +664,34 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
             }
             return false;
         }
+
+        /**
+         * Returns the bounds of the cell of a visible series in the coordinates of this pane, or null if the series is
+         * not visible. The cell exists even when no pane is bound to the series.
+         */
+        public Rectangle getSeriesBounds(MediaSeriesGroup series) {
+            if (isSeriesVisible(series)) {
+                StudyPane studyPane = getStudyPane(model.getParent(series, DicomModel.study));
+                if (studyPane != null) {
+                    Rectangle bounds = studyPane.getSeriesBounds(series);
+                    if (bounds != null) {
+                        return SwingUtilities.convertRectangle(studyPane, bounds, this);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Scrolls to a visible series and binds its pane, so its thumbnail can get the focus.
+         */
+        public void scrollToSeries(MediaSeriesGroup series) {
+            Rectangle bounds = getSeriesBounds(series);
+            if (bounds != null) {
+                scrollRectToVisible(bounds);
+                updateDisplayedThumbnails();
+            }
+        }
     }
 
     class PatientPane extends JPanel {
@@ -655,7 +765,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
             super.removeAll();
             for (StudyPane studyPane : studies) {
                 studyPane.refreshLayout();
-                if (studyPane.getComponentCount() > 0) {
+                if (studyPane.hasSeries()) {
                     addPane(studyPane);
                 }
                 studyPane.doLayout();
@@ -670,7 +780,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
                 for (StudyPane studyPane : studies) {
                     studyPane.showAllSeries();
                     studyPane.refreshLayout();
-                    if (studyPane.getComponentCount() > 0) {
+                    if (studyPane.hasSeries()) {
                         addPane(studyPane);
                     }
                     studyPane.doLayout();
@@ -700,10 +810,22 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         }
     }
 
+    /**
+     * Displays the series of a study in a grid of cells of the same size (in rows for the vertical layout, otherwise
+     * in a single line). The size of the pane is computed from the number of series, so it does not depend on its
+     * components: only the cells of the visible area have a {@link SeriesPane}, taken from a pool and bound to the
+     * series of the cell.
+     */
     class StudyPane extends JPanel {
 
+        private static final int GAP = 5;
+
         final MediaSeriesGroup dicomStudy;
         private final TitleBorder title;
+        private final Map<MediaSeriesGroup, SeriesPane> seriesPanes = new HashMap<>();
+        private List<MediaSeriesGroup> seriesList = Collections.emptyList();
+        private int columns = 1;
+        private int preferredColumns = 1;
 
         public StudyPane(MediaSeriesGroup dicomStudy) {
             if (dicomStudy == null) {
@@ -717,54 +839,166 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
             title.setTitleJustification(TitledBorder.LEFT);
             this.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5), title));
             this.setFocusable(false);
-            refreshLayout();
+            this.setLayout(null);
         }
 
         public boolean isSeriesVisible(MediaSeriesGroup series) {
-            for (Component c : this.getComponents()) {
-                if (c instanceof SeriesPane) {
-                    if (((SeriesPane) c).isSeries(series)) {
-                        return true;
-                    }
-                }
-            }
-            return false;
+            return seriesList.contains(series);
         }
 
-        List<SeriesPane> getSeriesPaneList() {
-            ArrayList<SeriesPane> seriesPaneList = new ArrayList<>();
-            for (Component c : this.getComponents()) {
-                if (c instanceof SeriesPane) {
-                    seriesPaneList.add((SeriesPane) c);
-                }
-            }
-            return seriesPaneList;
+        public boolean hasSeries() {
+            return !seriesList.isEmpty();
+        }
+
+        List<MediaSeriesGroup> getSeriesList() {
+            return seriesList;
+        }
+
+        SeriesPane getSeriesPane(MediaSeriesGroup series) {
+            return seriesPanes.get(series);
+        }
+
+        Rectangle getSeriesBounds(MediaSeriesGroup series) {
+            int index = seriesList.indexOf(series);
+            return index < 0 ? null : getCellBounds(index);
         }
 
         private void refreshLayout() {
-            // boolean verticalLayout = ToolWindowAnchor.RIGHT.equals(getAnchor()) ||
-            // ToolWindowAnchor.LEFT.equals(getAnchor());
-            this.setLayout(verticalLayout ? new WrapLayout(FlowLayout.LEFT) : new BoxLayout(this, BoxLayout.X_AXIS));
+            releaseSeriesPanes();
+            revalidate();
         }
 
         private void showAllSeries() {
-            super.removeAll();
-            List<SeriesPane> seriesList = study2series.get(dicomStudy);
-            if (seriesList != null) {
-                int thumbnailSize = slider.getValue();
-                for (int i = 0; i < seriesList.size(); i++) {
-                    SeriesPane series = seriesList.get(i);
-                    series.updateSize(thumbnailSize);
-                    addPane(series, i);
+            releaseSeriesPanes();
+            List<MediaSeriesGroup> list = study2series.get(dicomStudy);
+            seriesList = list == null ? Collections.emptyList() : list;
+            updateText();
+            revalidate();
+            repaint();
+            scheduleDisplayUpdate();
+        }
+
+        private int getColumns(int width) {
+            if (!verticalLayout) {
+                return Math.max(1, seriesList.size());
+            }
+            Insets insets = getInsets();
+            int available = width - insets.left - insets.right - GAP;
+            return Math.max(1, available / (getCellSize().width + GAP));
+        }
+
+        private Rectangle getCellBounds(int index) {
+            Insets insets = getInsets();
+            Dimension cell = getCellSize();
+            if (verticalLayout) {
+                return new Rectangle(insets.left + GAP + (index % columns) * (cell.width + GAP),
+                    insets.top + GAP + (index / columns) * (cell.height + GAP), cell.width, cell.height);
+            }
+            return new Rectangle(insets.left + index * cell.width, insets.top, cell.width, cell.height);
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            Insets insets = getInsets();
+            Dimension cell = getCellSize();
+            int nbSeries = seriesList.size();
+            if (verticalLayout) {
+                // Before the first layout, the width is given by the viewport
+                int width = getWidth() > 0 ? getWidth() : thumnailView.getViewport().getExtentSize().width;
+                preferredColumns = getColumns(width);
+                int rows = (nbSeries + preferredColumns - 1) / preferredColumns;
+                return new Dimension(insets.left + insets.right + cell.width + 2 * GAP,
+                    insets.top + insets.bottom + GAP + rows * (cell.height + GAP));
+            }
+            return new Dimension(insets.left + insets.right + nbSeries * cell.width,
+                insets.top + insets.bottom + cell.height);
+        }
+
+        @Override
+        public Dimension getMinimumSize() {
+            return getPreferredSize();
+        }
+
+        @Override
+        public void doLayout() {
+            columns = getColumns(getWidth());
+            if (verticalLayout && columns != preferredColumns) {
+                // The number of rows depends on the width allocated by the parent
+                SwingUtilities.invokeLater(this::revalidate);
+            }
+            for (SeriesPane pane : seriesPanes.values()) {
+                pane.setBounds(getCellBounds(pane.index));
+            }
+        }
+
+        /**
+         * Binds a pane to each series whose cell intersects the area and unbinds the others.
+         *
+         * @param area
+         *            the visible area in the coordinates of this pane
+         * @param displayed
+         *            the set receiving the thumbnails of the bound panes
+         */
+        void bindSeriesPanes(Rectangle area, Set<Thumbnail> displayed) {
+            Insets insets = getInsets();
+            Dimension cell = getCellSize();
+            int first;
+            int last;
+            if (verticalLayout) {
+                int top = insets.top + GAP;
+                first = Math.max(0, (area.y - top) / (cell.height + GAP)) * columns;
+                last = ((area.y + area.height - top) / (cell.height + GAP) + 1) * columns;
+            } else {
+                first = Math.max(0, (area.x - insets.left) / cell.width);
+                last = (area.x + area.width - insets.left) / cell.width + 1;
+            }
+            last = Math.min(last, seriesList.size());
+
+            boolean changed = false;
+            Iterator<SeriesPane> it = seriesPanes.values().iterator();
+            while (it.hasNext()) {
+                SeriesPane pane = it.next();
+                if (pane.index < first || pane.index >= last || !pane.isSeries(seriesList.get(pane.index))) {
+                    it.remove();
+                    releaseSeriesPane(pane);
+                    changed = true;
                 }
-                this.revalidate();
+            }
+            for (int i = first; i < last; i++) {
+                MediaSeriesGroup series = seriesList.get(i);
+                SeriesPane pane = seriesPanes.get(series);
+                if (pane == null) {
+                    pane = acquireSeriesPane(series, i);
+                    seriesPanes.put(series, pane);
+                    add(pane);
+                    changed = true;
+                }
+                Thumbnail thumb = pane.getThumbnail();
+                if (thumb != null) {
+                    displayed.add(thumb);
+                }
+            }
+            if (changed) {
+                // Lay out only this pane, its size does not depend on the bound panes
+                validate();
+                repaint();
             }
         }
 
-        public void addPane(SeriesPane seriesPane, int index) {
-            seriesPane.updateSize(slider.getValue());
-            add(seriesPane, index);
-            updateText();
+        void releaseSeriesPanes() {
+            if (!seriesPanes.isEmpty()) {
+                for (SeriesPane pane : seriesPanes.values()) {
+                    releaseSeriesPane(pane);
+                }
+                seriesPanes.clear();
+                repaint();
+            }
+        }
+
+        private void releaseSeriesPane(SeriesPane pane) {
+            remove(pane);
+            pane.unbind();
+            seriesPanePool.push(pane);
         }
 
         public void updateText() {
@@ -776,22 +1010,37 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         }
     }
 
+    /**
+     * Displays the thumbnail and the description of a series. The panes are recycled: a pane is bound to the series of
+     * a visible cell and unbound when the cell leaves the visible area.
+     */
     class SeriesPane extends JPanel {
 
-        final MediaSeriesGroup sequence;
+        MediaSeriesGroup sequence;
+        int index;
         private final JLabel label;
 
-        public SeriesPane(MediaSeriesGroup sequence) {
-            if (sequence == null) {
-                throw new IllegalArgumentException("Series cannot be null"); //$NON-NLS-1$
-            }
+        public SeriesPane() {
             // To handle selection color with all L&Fs
             this.setUI(new javax.swing.plaf.PanelUI() {
             });
             this.setOpaque(true);
             this.setBackground(JMVUtils.TREE_BACKROUND);
-            this.sequence = sequence;
             this.setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+            this.setAlignmentX(LEFT_ALIGNMENT);
+            this.setAlignmentY(TOP_ALIGNMENT);
+            label = new JLabel("", SwingConstants.CENTER); //$NON-NLS-1$
+            label.setFont(FontTools.getFont10());
+            label.setFocusable(false);
+            this.setFocusable(false);
+        }
+
+        void bind(MediaSeriesGroup sequence, int index) {
+            if (sequence == null) {
+                throw new IllegalArgumentException("Series cannot be null"); //$NON-NLS-1$
+            }
+            this.sequence = sequence;
+            this.index = index;
             int thumbnailSize = slider.getValue();
             if (sequence instanceof Series) {
                 Series series = (Series) sequence;
@@ -800,30 +1049,32 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
                     thumb = createThumbnail(series, model, thumbnailSize);
                     series.setTag(TagW.Thumbnail, thumb);
                 }
-                this.add(thumb);
+                if (thumb != null) {
+                    this.add(thumb);
+                }
             }
-            this.setAlignmentX(LEFT_ALIGNMENT);
-            this.setAlignmentY(TOP_ALIGNMENT);
-            String desc = TagD.getTagValue(sequence, Tag.SeriesDescription, String.class);
-            label = new JLabel(desc == null ? "" : desc, SwingConstants.CENTER); //$NON-NLS-1$
-            label.setFont(FontTools.getFont10());
-            label.setFocusable(false);
-            this.setFocusable(false);
-            updateSize(thumbnailSize);
             this.add(label);
+            updateText();
+            updateSize(thumbnailSize);
+            this.setBackground(
+                selectionList.contains(sequence) ? JMVUtils.TREE_SELECTION_BACKROUND : JMVUtils.TREE_BACKROUND);
+        }
 
+        void unbind() {
+            this.removeAll();
+            this.sequence = null;
         }
 
         public void updateSize(int thumbnailSize) {
+            if (sequence instanceof Series) {
+                Series series = (Series) sequence;
+                SeriesThumbnail thumb = (SeriesThumbnail) series.getTagValue(TagW.Thumbnail);
+                if (thumb != null) {
+                    thumb.setThumbnailSize(thumbnailSize);
+                }
+            }
             Dimension max = label.getMaximumSize();
             if (max == null || max.width != thumbnailSize) {
-                if (sequence instanceof Series) {
-                    Series series = (Series) sequence;
-                    SeriesThumbnail thumb = (SeriesThumbnail) series.getTagValue(TagW.Thumbnail);
-                    if (thumb != null) {
-                        thumb.setThumbnailSize(thumbnailSize);
-                    }
-                }
                 FontRenderContext frc = new FontRenderContext(null, false, false);
                 Dimension dim =
                     new Dimension(thumbnailSize, (int) (label.getFont().getStringBounds("0", frc).getHeight() + 1.0f)); //$NON-NLS-1$
@@ -838,13 +1089,20 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         }
 
         public boolean isSeries(MediaSeriesGroup sequence) {
-            return this.sequence.equals(sequence);
+            return this.sequence != null && this.sequence.equals(sequence);
         }
 
         public MediaSeriesGroup getSequence() {
             return sequence;
         }
 
+        public Thumbnail getThumbnail() {
+            if (sequence instanceof Series) {
+                return (Thumbnail) ((Series) sequence).getTagValue(TagW.Thumbnail);
+            }
+            return null;
+        }
+
     }
 
     /**
@@ -1080,6 +1338,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
             modelStudy.insertElementAt(ALL_STUDIES, 0);
             modelStudy.setSelectedItem(ALL_STUDIES);
             patientContainer.removeAll();
+            resetDisplayedThumbnails();
             if (patient == null) {
                 selectedPatient = null;
                 patientContainer.showAllPatients();
@@ -1135,7 +1394,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         StudyPane studyPane = createStudyPaneInstance(study, null);
         List<Series> list = getSplitSeries(dcmSeries);
 
-        List<SeriesPane> seriesList = study2series.get(study);
+        List<MediaSeriesGroup> seriesList = study2series.get(study);
         if (seriesList == null) {
             seriesList = new ArrayList<>();
             study2series.put(study, seriesList);
@@ -1144,7 +1403,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         boolean repaintStudy = false;
         for (Series dicomSeries : list) {
             int[] positionSeries = new int[1];
-            createSeriesPaneInstance(dicomSeries, positionSeries);
+            createSeriesInstance(dicomSeries, positionSeries);
             if (addSeries && positionSeries[0] != -1) {
                 repaintStudy = true;
             }
@@ -1162,28 +1421,16 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
             model.removeSeries(dcmSeries);
             repaintStudy = true;
         }
-        if (repaintStudy) {
-            studyPane.removeAll();
-            for (int i = 0, k = 1; i < seriesList.size(); i++) {
-                SeriesPane s = seriesList.get(i);
-                studyPane.addPane(s, i);
-                if (list.contains(s.getSequence())) {
-                    s.getSequence().setTag(TagW.SplitSeriesNumber, k);
-                    k++;
-                }
-            }
-
-            studyPane.revalidate();
-            studyPane.repaint();
-        } else {
-            int k = 1;
-            for (SeriesPane s : seriesList) {
-                if (list.contains(s.getSequence())) {
-                    s.getSequence().setTag(TagW.SplitSeriesNumber, k);
-                    k++;
-                }
+        int k = 1;
+        for (MediaSeriesGroup s : seriesList) {
+            if (list.contains(s)) {
+                s.setTag(TagW.SplitSeriesNumber, k);
+                k++;
             }
         }
+        if (repaintStudy) {
+            studyPane.showAllSeries();
+        }
 
     }
 
@@ -1201,6 +1448,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         if (selectedPatient != null) {
             selectionList.clear();
             selectedPatient.removeAll();
+            resetDisplayedThumbnails();
 
             if (selectedStudy == null) {
                 selectedPatient.showAllstudies();
@@ -1261,14 +1509,14 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
         int[] positionStudy = new int[1];
         StudyPane studyPane = createStudyPaneInstance(study, positionStudy);
 
-        List<SeriesPane> seriesList = study2series.get(study);
+        List<MediaSeriesGroup> seriesList = study2series.get(study);
         if (seriesList == null) {
             seriesList = new ArrayList<>();
             study2series.put(study, seriesList);
         }
 
         int[] positionSeries = new int[1];
-        createSeriesPaneInstance(series, positionSeries);
+        createSeriesInstance(series, positionSeries);
         if (addSeries && positionSeries[0] != -1) {
             // If new study
             if (positionStudy[0] != -1) {
@@ -1285,12 +1533,7 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
                 }
             }
             if (patientPane.isStudyVisible(study)) {
-                studyPane.removeAll();
-                for (int i = 0; i < seriesList.size(); i++) {
-                    studyPane.addPane(seriesList.get(i), i);
-                }
-                studyPane.revalidate();
-                studyPane.repaint();
+                studyPane.showAllSeries();
             }
         }
     }
@@ -1304,12 +1547,12 @@ public class DicomExplorer extends PluginTool implements DataExplorerView, Serie
                 MediaSeries s = pane.getSeries();
                 if (s != null) {
                     if (!getSelectionList().isOpenningSeries() && patientContainer.isSeriesVisible(s)) {
-                        SeriesPane p = getSeriesPane(s);
+                        Rectangle p = patientContainer.getSeriesBounds(s);
                         if (p != null) {
                             JViewport vp = thumnailView.getViewport();
                             Rectangle bound = vp.getViewRect();
-                            Point ptmin = SwingUtilities.convertPoint(p, new Point(0, 0), patientContainer);
-                            Point ptmax = SwingUtilities.convertPoint(p, new Point(0, p.getHeight()), patientContainer);
+                            Point ptmin = new Point(p.x, p.y);
+                            Point ptmax = new Point(p.x, p.y + p.height);
                             if (!bound.contains(ptmin.x, ptmin.y) || !bound.contains(ptmax.x, ptmax.y)) {
                                 Point pt = vp.getViewPosition();
                                 pt.y = ptmin.y + (ptmax.y - ptmin.y) / 2;
@@ -49,6 +49,7 @@ import org.weasis.core.api.explorer.model.TreeModelNode;
 import org.weasis.core.api.gui.util.AppProperties;
 import org.weasis.core.api.gui.util.GuiExecutor;
 import org.weasis.core.api.media.data.Codec;
+import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.MediaElement;
 import org.weasis.core.api.media.data.MediaSeries;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
@@ -1059,7 +1060,7 @@ public class DicomModel implements TreeModel, DataExplorerModel {
     }
 
     private static boolean isSimilar(List<Rule> list, Series<?> s, final MediaElement<?> media) {
-        final MediaElement<?> firstMedia = s.getMedia(0, null, null);
+        final MediaElement<?> firstMedia = getFirstNonPreviewMedia(s);
         if (firstMedia == null) {
             // no image
             return true;
@@ -1077,6 +1078,18 @@ public class DicomModel implements TreeModel, DataExplorerModel {
         return true;
     }
 
+    private static MediaElement<?> getFirstNonPreviewMedia(Series<?> s) {
+        // Previews have an incomplete header and must not be compared
+        synchronized (s) {
+            for (MediaElement<?> m : s.getMedias(null, null)) {
+                if (!(m instanceof ImageElement) || !((ImageElement) m).isPreview()) {
+                    return m;
+                }
+            }
+        }
+        return null;
+    }
+
     public void get(String[] argv) throws IOException {
         final String[] usage = { "Load DICOM files remotely or locally", "Usage: dicom:get [Options] SOURCE", //$NON-NLS-1$ //$NON-NLS-2$
             "  -l --local		Open DICOMs from local disk", //$NON-NLS-1$
@@ -1113,7 +1126,7 @@ public class DicomModel implements TreeModel, DataExplorerModel {
         }
         // build WADO series list to download
         else if (opt.isSet("wado")) { //$NON-NLS-1$
-            LOADING_EXECUTOR
+            DownloadManager.MANIFEST_EXECUTOR
                 .execute(new LoadRemoteDicomManifest(args.toArray(new String[args.size()]), DicomModel.this));
         } else if (opt.isSet("iwado")) { //$NON-NLS-1$
             File[] xmlFiles = new File[args.size()];
@@ -1128,7 +1141,7 @@ public class DicomModel implements TreeModel, DataExplorerModel {
                     LOGGER.info("ungzip manifest", e); //$NON-NLS-1$
                 }
             }
-            LOADING_EXECUTOR.execute(new LoadRemoteDicomManifest(xmlFiles, DicomModel.this));
+            DownloadManager.MANIFEST_EXECUTOR.execute(new LoadRemoteDicomManifest(xmlFiles, DicomModel.this));
         }
         // Get DICOM folder (by default DICOM, dicom, IHE_PDI, ihe_pdi) at the same level at the Weasis
         // executable file
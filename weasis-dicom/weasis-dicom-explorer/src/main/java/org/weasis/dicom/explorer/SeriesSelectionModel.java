@@ -21,12 +21,12 @@ import java.util.List;
 import javax.swing.JPanel;
 
 import org.weasis.core.api.gui.util.JMVUtils;
+import org.weasis.core.api.media.data.MediaSeriesGroup;
 import org.weasis.core.api.media.data.Series;
 import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.media.data.Thumbnail;
 import org.weasis.dicom.explorer.DicomExplorer.PatientContainerPane;
 import org.weasis.dicom.explorer.DicomExplorer.PatientPane;
-import org.weasis.dicom.explorer.DicomExplorer.SeriesPane;
 import org.weasis.dicom.explorer.DicomExplorer.StudyPane;
 
 public class SeriesSelectionModel extends ArrayList<Series<?>> {
@@ -150,6 +150,11 @@ public class SeriesSelectionModel extends ArrayList<Series<?>> {
     private void requestFocus(Series<?> series) {
         if (series != null) {
             Thumbnail thumb = (Thumbnail) series.getTagValue(TagW.Thumbnail);
+            if ((thumb == null || thumb.getParent() == null) && patientContainer != null) {
+                // Only the series of the visible area have a pane
+                patientContainer.scrollToSeries(series);
+                thumb = (Thumbnail) series.getTagValue(TagW.Thumbnail);
+            }
             if (thumb != null) {
                 if (!thumb.hasFocus() && thumb.isRequestFocusEnabled()) {
                     thumb.requestFocus();
@@ -241,21 +246,21 @@ public class SeriesSelectionModel extends ArrayList<Series<?>> {
         } else {
             pat: for (PatientPane p : patientContainer.getPatientPaneList()) {
                 for (StudyPane studyPane : p.getStudyPaneList()) {
-                    for (SeriesPane series : studyPane.getSeriesPaneList()) {
-                        if (anchorIndex == series.getSequence()) {
+                    for (MediaSeriesGroup series : studyPane.getSeriesList()) {
+                        if (anchorIndex == series) {
                             add(anchorIndex);
                             if (first) {
                                 break pat;
                             }
                             first = true;
-                        } else if (row == series.getSequence()) {
+                        } else if (row == series) {
                             add(row);
                             if (first) {
                                 break pat;
                             }
                             first = true;
                         } else if (first) {
-                            add((Series) series.getSequence());
+                            add((Series) series);
                         }
                     }
                 }
@@ -270,9 +275,9 @@ public class SeriesSelectionModel extends ArrayList<Series<?>> {
         if (patientContainer != null) {
             for (PatientPane p : patientContainer.getPatientPaneList()) {
                 for (StudyPane studyPane : p.getStudyPaneList()) {
-                    List<SeriesPane> list = studyPane.getSeriesPaneList();
+                    List<MediaSeriesGroup> list = studyPane.getSeriesList();
                     if (list.size() > 0) {
-                        return (Series) list.get(0).getSequence();
+                        return (Series) list.get(0);
                     }
                 }
             }
@@ -286,9 +291,9 @@ public class SeriesSelectionModel extends ArrayList<Series<?>> {
             for (int i = pts.size() - 1; i >= 0; i--) {
                 List<StudyPane> st = pts.get(i).getStudyPaneList();
                 for (int j = st.size() - 1; j >= 0; j--) {
-                    List<SeriesPane> list = st.get(j).getSeriesPaneList();
+                    List<MediaSeriesGroup> list = st.get(j).getSeriesList();
                     if (list.size() > 0) {
-                        return (Series) list.get(list.size() - 1).getSequence();
+                        return (Series) list.get(list.size() - 1);
                     }
                 }
             }
@@ -303,12 +308,12 @@ public class SeriesSelectionModel extends ArrayList<Series<?>> {
             for (int i = pts.size() - 1; i >= 0; i--) {
                 List<StudyPane> st = pts.get(i).getStudyPaneList();
                 for (int j = st.size() - 1; j >= 0; j--) {
-                    List<SeriesPane> list = st.get(j).getSeriesPaneList();
+                    List<MediaSeriesGroup> list = st.get(j).getSeriesList();
                     for (int k = list.size() - 1; k >= 0; k--) {
                         if (next) {
-                            return (Series) list.get(k).getSequence();
+                            return (Series) list.get(k);
                         }
-                        if (element == list.get(k).getSequence()) {
+                        if (element == list.get(k)) {
                             next = true;
                         }
                     }
@@ -324,12 +329,12 @@ public class SeriesSelectionModel extends ArrayList<Series<?>> {
             boolean next = false;
             for (PatientPane p : patientContainer.getPatientPaneList()) {
                 for (StudyPane studyPane : p.getStudyPaneList()) {
-                    List<SeriesPane> list = studyPane.getSeriesPaneList();
-                    for (SeriesPane seriesPane : list) {
+                    List<MediaSeriesGroup> list = studyPane.getSeriesList();
+                    for (MediaSeriesGroup series : list) {
                         if (next) {
-                            return (Series) seriesPane.getSequence();
+                            return (Series) series;
                         }
-                        if (element == seriesPane.getSequence()) {
+                        if (element == series) {
                             next = true;
                         }
                     }
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.explorer.wado;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.util.FileUtil;
+import org.weasis.dicom.codec.DicomCodec;
+import org.weasis.dicom.codec.DicomMediaIO;
+
+/**
+ * Writes a DICOM stream into a file and parses the dataset from the same bytes, so the file does not need to be read
+ * again for building the {@link DicomMediaIO}. Like when the reader parses the file, the bulk data (e.g. the pixel data
+ * or an encapsulated document) are not read in memory, they are referenced by their position in the file.
+ */
+public class DicomStreamWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DicomStreamWriter.class);
+
+    private Attributes fmi;
+    private Attributes dataset;
+    private String transferSyntax;
+
+    /**
+     * @param in
+     *            the DICOM stream, closed at the end
+     * @param file
+     *            the output file
+     * @return bytes transferred. O = error, -1 = all bytes has been transferred, other = bytes transferred before
+     *         interruption (same as {@link FileUtil#writeStream(InputStream, java.io.OutputStream)})
+     */
+    public int write(InputStream in, File file) {
+        return write(in, file, false);
+    }
+
+    /**
+     * @param in
+     *            the DICOM stream or the remaining bytes of the DICOM stream when appending, closed at the end
+     * @param file
+     *            the output file
+     * @param append
+     *            true for writing at the end of the file (the header is not parsed)
+     * @return bytes transferred. O = error, -1 = all bytes has been transferred, other = bytes transferred before
+     *         interruption. When interrupted, all the bytes received are written in the file.
+     */
+    public int write(InputStream in, File file, boolean append) {
+        if (in == null || file == null) {
+            return 0;
+        }
+        dataset = null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            TeeInputStream tee = new TeeInputStream(in, channel);
+            try {
+                if (!append) {
+                    parseHeader(tee, file);
+                }
+                tee.drain();
+            } catch (IOException e) {
+                // Keep the bytes received for resuming the download
+                tee.flushQuietly();
+                throw e;
+            }
+            return -1;
+        } catch (InterruptedIOException e) {
+            LOGGER.error("Interruption when writing file", e); //$NON-NLS-1$
+            dataset = null;
+            return e.bytesTransferred;
+        } catch (IOException e) {
+            LOGGER.error("Error when writing file", e); //$NON-NLS-1$
+            dataset = null;
+            return 0;
+        } finally {
+            FileUtil.safeClose(in);
+        }
+    }
+
+    private void parseHeader(TeeInputStream tee, File file) throws IOException {
+        try {
+            // Do not close: the remaining bytes are written by tee.drain()
+            DicomInputStream dis = new DicomInputStream(tee);
+            // Same options as DicomMediaIO, the bulk data are skipped (and written) and their positions are kept. The
+            // positions are still valid when the file is renamed.
+            dis.setIncludeBulkData(IncludeBulkData.URI);
+            dis.setBulkDataDescriptor(DicomCodec.BULKDATA_DESCRIPTOR);
+            dis.setURI(file.toURI().toString());
+            Attributes meta = dis.readFileMetaInformation();
+            Attributes ds = dis.readDataset(-1, -1);
+            this.fmi = meta;
+            this.transferSyntax = dis.getTransferSyntax();
+            this.dataset = ds;
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            // Not an error, the file is written anyway and the header will be read from the file
+            LOGGER.debug("Cannot parse the DICOM stream: {}", e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    public boolean isHeaderParsed() {
+        return dataset != null;
+    }
+
+    /**
+     * Gives the parsed header to the reader of the written file.
+     *
+     * @param reader
+     *            the reader of the file
+     * @return true if the header has been set
+     */
+    public boolean setHeader(DicomMediaIO reader) {
+        if (reader == null || dataset == null) {
+            return false;
+        }
+        return reader.setParsedHeader(fmi, dataset, transferSyntax);
+    }
+
+    /**
+     * Copies all the bytes read from the source into the file channel. The bytes are written by blocks of
+     * {@link FileUtil#STREAM_BUFFER}.
+     */
+    static class TeeInputStream extends FilterInputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        TeeInputStream(InputStream in, FileChannel channel) {
+            super(in);
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(FileUtil.STREAM_BUFFER);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b) throws IOException {
+            return read(b, 0, b.length);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int nr = in.read(b, off, len);
+            if (nr > 0) {
+                write(b, off, nr);
+            }
+            return nr;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] b = new byte[(int) Math.min(n, FileUtil.STREAM_BUFFER)];
+            int nr = read(b, 0, b.length);
+            return nr < 0 ? 0 : nr;
+        }
+
+        @Override
+        public boolean markSupported() {
+            // Must be false, a reset would write the same bytes twice
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closed by the writer
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, buffer.remaining());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void flushQuietly() {
+            try {
+                flush();
+            } catch (IOException e) {
+                LOGGER.error("Cannot write the bytes received", e); //$NON-NLS-1$
+            }
+        }
+
+        void drain() throws IOException {
+            byte[] b = new byte[FileUtil.STREAM_BUFFER];
+            while (read(b, 0, b.length) > 0) {
+                // Written by read()
+            }
+            flush();
+        }
+    }
+}
@@ -12,9 +12,6 @@ package org.weasis.dicom.explorer.wado;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -29,6 +26,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -42,20 +40,16 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
-import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
-import javax.xml.validation.Validator;
 
 import org.dcm4che3.data.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.api.explorer.DataExplorerView;
 import org.weasis.core.api.explorer.ObservableEvent;
-import org.weasis.core.api.gui.util.AppProperties;
 import org.weasis.core.api.gui.util.GuiExecutor;
-import org.weasis.core.api.media.MimeInspector;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
 import org.weasis.core.api.media.data.MediaSeriesGroupNode;
 import org.weasis.core.api.media.data.Series;
@@ -65,6 +59,7 @@ import org.weasis.core.api.media.data.Thumbnail;
 import org.weasis.core.api.service.BundleTools;
 import org.weasis.core.api.util.FileUtil;
 import org.weasis.core.api.util.StringUtil;
+import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.ui.docking.PluginTool;
 import org.weasis.core.ui.docking.UIManager;
 import org.weasis.core.ui.editor.image.ViewerPlugin;
@@ -94,8 +89,15 @@ public class DownloadManager {
     public static final String TAG_PR = "presentation"; //$NON-NLS-1$
 
     public static final String CONCURRENT_SERIES = "download.concurrent.series"; //$NON-NLS-1$
+    public static final String MANIFEST_VALIDATION = "download.manifest.validation"; //$NON-NLS-1$
     public static final ArrayList<LoadSeries> TASKS = new ArrayList<>();
 
+    // Reads the manifests without blocking the loading of local files
+    public static final ExecutorService MANIFEST_EXECUTOR = ThreadUtil.buildNewSingleThreadExecutor("Manifest Loader"); //$NON-NLS-1$
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+    private static Schema manifestSchema;
+
     // Executor without concurrency (only one task is executed at the same time)
     private static final BlockingQueue<Runnable> UNIQUE_QUEUE =
         new PriorityBlockingQueue<>(10, new PriorityTaskComparator());
@@ -243,17 +245,37 @@ public class DownloadManager {
         }
     }
 
-    private static interface LoadSeriesHandler {
+    public static interface LoadSeriesHandler {
         void handle(LoadSeries loadSeries);
     }
 
     public static ArrayList<LoadSeries> buildDicomSeriesFromXml(URI uri, final DicomModel model) {
-        ArrayList<LoadSeries> seriesList = new ArrayList<>();
+        final ArrayList<LoadSeries> seriesList = new ArrayList<>();
+        buildDicomSeriesFromXml(uri, model, new LoadSeriesHandler() {
+
+            @Override
+            public void handle(LoadSeries loadSeries) {
+                seriesList.add(loadSeries);
+            }
+        });
+        return seriesList;
+    }
+
+    /**
+     * Reads the manifest in one pass from the stream. Each series is given to the handler as soon as its element is
+     * read, so the downloads can start before the end of the manifest.
+     *
+     * @param uri
+     *            the manifest location
+     * @param model
+     *            the DICOM model
+     * @param handler
+     *            receives the series to download
+     */
+    public static void buildDicomSeriesFromXml(URI uri, final DicomModel model, LoadSeriesHandler handler) {
         XMLStreamReader xmler = null;
         InputStream stream = null;
         try {
-            XMLInputFactory xmlif = XMLInputFactory.newInstance();
-
             String path = uri.getPath();
 
             URL url = uri.toURL();
@@ -270,47 +292,23 @@ public class DownloadManager {
             LOGGER.info("Downloading WADO references: {}", url); //$NON-NLS-1$
             logHttpError(urlConnection);
 
-            if (path.endsWith(".gz")) { //$NON-NLS-1$
-                stream = new BufferedInputStream(new GZIPInputStream(urlConnection.getInputStream()));
-            } else if (path.endsWith(".xml")) { //$NON-NLS-1$
-                stream = urlConnection.getInputStream();
-            } else {
-                // In case wado file has no extension
-                File outFile = File.createTempFile("wado_", "", AppProperties.APP_TEMP_DIR); //$NON-NLS-1$ //$NON-NLS-2$
-                if (FileUtil.writeStream(urlConnection.getInputStream(), new FileOutputStream(outFile)) == -1) {
-                    if (MimeInspector.isMatchingMimeTypeFromMagicNumber(outFile, "application/x-gzip")) { //$NON-NLS-1$
-                        stream = new BufferedInputStream(new GZIPInputStream(new FileInputStream(outFile)));
-                    } else {
-                        stream = new FileInputStream(outFile);
-                    }
-                }
+            stream = new BufferedInputStream(urlConnection.getInputStream(), FileUtil.STREAM_BUFFER);
+            // In case wado file has no extension, check the magic number
+            if (path.endsWith(".gz") || (!path.endsWith(".xml") && isGzipStream(stream))) { //$NON-NLS-1$ //$NON-NLS-2$
+                stream = new BufferedInputStream(new GZIPInputStream(stream, FileUtil.STREAM_BUFFER),
+                    FileUtil.STREAM_BUFFER);
             }
 
-            File tempFile = null;
-            if (uri.toString().startsWith("file:") && path.endsWith(".xml")) { //$NON-NLS-1$ //$NON-NLS-2$
-                tempFile = new File(path);
-            } else {
-                tempFile = File.createTempFile("wado_", ".xml", AppProperties.APP_TEMP_DIR); //$NON-NLS-1$ //$NON-NLS-2$
-                FileUtil.writeStream(stream, new FileOutputStream(tempFile));
+            xmler = XML_INPUT_FACTORY.createXMLStreamReader(stream);
+            if (BundleTools.SYSTEM_PREFERENCES.getBooleanProperty(MANIFEST_VALIDATION, true)) {
+                try {
+                    // Validate while reading, the xml is read even it is not valid
+                    xmler = new ValidatingXMLStreamReader(xmler, getManifestSchema());
+                } catch (Exception e) {
+                    LOGGER.error("Error when validate XSD schema. Try to update JRE", e); //$NON-NLS-1$
+                }
             }
-            xmler = xmlif.createXMLStreamReader(new FileInputStream(tempFile));
 
-            Source xmlFile = new StAXSource(xmler);
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            try {
-                Schema schema = schemaFactory.newSchema(new Source[] {
-                    new StreamSource(DownloadManager.class.getResource("/config/wado_query.xsd").toExternalForm()), //$NON-NLS-1$
-                    new StreamSource(DownloadManager.class.getResource("/config/wado_query25.xsd").toExternalForm()) }); //$NON-NLS-1$
-                Validator validator = schema.newValidator();
-                validator.validate(xmlFile);
-                LOGGER.info("[Validate with XSD schema] wado_query is valid"); //$NON-NLS-1$
-            } catch (SAXException e) {
-                LOGGER.error("[Validate with XSD schema] wado_query is NOT valid", e); //$NON-NLS-1$
-            } catch (Exception e) {
-                LOGGER.error("Error when validate XSD schema. Try to update JRE", e); //$NON-NLS-1$
-            }
-            // Try to read the xml even it is not valid.
-            xmler = xmlif.createXMLStreamReader(new FileInputStream(tempFile));
             int eventType;
             if (xmler.hasNext()) {
                 eventType = xmler.next();
@@ -326,7 +324,7 @@ public class DownloadManager {
                                     case XMLStreamConstants.START_ELEMENT:
                                         key = xmler.getName().getLocalPart();
                                         if (TAG_ARC_QUERY.equals(key)) {
-                                            readArcQuery(model, seriesList, xmler);
+                                            readArcQuery(model, handler, xmler);
                                         } else if (TAG_PR_ROOT.equals(key)) {
                                             // TODO implement reader of presentation
                                             // GraphicList list = XmlSerializer.readMeasurementGraphics(gpxFile);
@@ -347,7 +345,7 @@ public class DownloadManager {
                         } else {
                             // Read old manifest: xmlns="http://www.weasis.org/xsd"
                             if (WadoParameters.TAG_DOCUMENT_ROOT.equals(key)) {
-                                readWadoQuery(model, seriesList, xmler);
+                                readWadoQuery(model, handler, xmler);
                             }
                         }
                         break;
@@ -381,10 +379,30 @@ public class DownloadManager {
             FileUtil.safeClose(xmler);
             FileUtil.safeClose(stream);
         }
-        return seriesList;
     }
 
-    private static void readArcQuery(DicomModel model, ArrayList<LoadSeries> seriesList, XMLStreamReader xmler)
+    private static boolean isGzipStream(InputStream stream) throws IOException {
+        stream.mark(2);
+        try {
+            int b1 = stream.read();
+            int b2 = stream.read();
+            return b1 != -1 && b2 != -1 && ((b2 << 8) | b1) == GZIPInputStream.GZIP_MAGIC;
+        } finally {
+            stream.reset();
+        }
+    }
+
+    private static synchronized Schema getManifestSchema() throws SAXException {
+        if (manifestSchema == null) {
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            manifestSchema = schemaFactory.newSchema(new Source[] {
+                new StreamSource(DownloadManager.class.getResource("/config/wado_query.xsd").toExternalForm()), //$NON-NLS-1$
+                new StreamSource(DownloadManager.class.getResource("/config/wado_query25.xsd").toExternalForm()) }); //$NON-NLS-1$
+        }
+        return manifestSchema;
+    }
+
+    private static void readArcQuery(DicomModel model, LoadSeriesHandler handler, XMLStreamReader xmler)
         throws XMLStreamException {
         String wadoURL = TagUtil.getTagAttribute(xmler, TAG_BASE_URL, null);
         boolean onlySopUID =
@@ -395,10 +413,10 @@ public class DownloadManager {
         String webLogin = TagUtil.getTagAttribute(xmler, WadoParameters.TAG_WADO_WEB_LOGIN, null);
         final WadoParameters wadoParameters =
             new WadoParameters(wadoURL, onlySopUID, additionnalParameters, overrideList, webLogin);
-        readQuery(model, seriesList, xmler, wadoParameters, TAG_ARC_QUERY);
+        readQuery(model, handler, xmler, wadoParameters, TAG_ARC_QUERY);
     }
 
-    private static void readWadoQuery(DicomModel model, ArrayList<LoadSeries> seriesList, XMLStreamReader xmler)
+    private static void readWadoQuery(DicomModel model, LoadSeriesHandler handler, XMLStreamReader xmler)
         throws XMLStreamException {
         String wadoURL = TagUtil.getTagAttribute(xmler, WadoParameters.TAG_WADO_URL, null);
         boolean onlySopUID =
@@ -409,10 +427,10 @@ public class DownloadManager {
         String webLogin = TagUtil.getTagAttribute(xmler, WadoParameters.TAG_WADO_WEB_LOGIN, null);
         final WadoParameters wadoParameters =
             new WadoParameters(wadoURL, onlySopUID, additionnalParameters, overrideList, webLogin);
-        readQuery(model, seriesList, xmler, wadoParameters, WadoParameters.TAG_DOCUMENT_ROOT);
+        readQuery(model, handler, xmler, wadoParameters, WadoParameters.TAG_DOCUMENT_ROOT);
     }
 
-    private static void readQuery(DicomModel model, ArrayList<LoadSeries> seriesList, XMLStreamReader xmler,
+    private static void readQuery(DicomModel model, LoadSeriesHandler handler, XMLStreamReader xmler,
         final WadoParameters wadoParameters, String endElement) throws XMLStreamException {
         int pat = 0;
         MediaSeriesGroup patient = null;
@@ -424,7 +442,7 @@ public class DownloadManager {
                     String key = xmler.getName().getLocalPart();
                     // <Patient> Tag
                     if (TagD.Level.PATIENT.getTagName().equals(key)) {
-                        patient = readPatient(model, seriesList, xmler, wadoParameters);
+                        patient = readPatient(model, handler, xmler, wadoParameters);
                         pat++;
                     } else if (WadoParameters.TAG_HTTP_TAG.equals(key)) {
                         String httpkey = TagUtil.getTagAttribute(xmler, "key", null); //$NON-NLS-1$
@@ -491,14 +509,6 @@ public class DownloadManager {
                 }
             });
         }
-        for (LoadSeries loadSeries : seriesList) {
-            String modality = TagD.getTagValue(loadSeries.getDicomSeries(), Tag.Modality, String.class);
-            boolean ps = modality != null && ("PR".equals(modality) || "KO".equals(modality)); //$NON-NLS-1$ //$NON-NLS-2$
-            if (!ps) {
-                loadSeries.startDownloadImageReference(wadoParameters);
-            }
-        }
-
     }
 
     private static void logHttpError(URLConnection urlConnection) {
@@ -534,7 +544,7 @@ public class DownloadManager {
         }
     }
 
-    private static MediaSeriesGroup readPatient(DicomModel model, ArrayList<LoadSeries> seriesList,
+    private static MediaSeriesGroup readPatient(DicomModel model, LoadSeriesHandler handler,
         XMLStreamReader xmler, WadoParameters wadoParameters) throws XMLStreamException {
         // PatientID, PatientBirthDate, StudyInstanceUID, SeriesInstanceUID and SOPInstanceUID override
         // the tags located in DICOM object (because original DICOM can contain different values after merging
@@ -574,7 +584,7 @@ public class DownloadManager {
                 case XMLStreamConstants.START_ELEMENT:
                     // <Study> Tag
                     if (TagD.Level.STUDY.getTagName().equals(xmler.getName().getLocalPart())) {
-                        readStudy(model, seriesList, xmler, patient, wadoParameters);
+                        readStudy(model, handler, xmler, patient, wadoParameters);
                     }
                     break;
                 case XMLStreamConstants.END_ELEMENT:
@@ -589,7 +599,7 @@ public class DownloadManager {
         return patient;
     }
 
-    private static MediaSeriesGroup readStudy(DicomModel model, ArrayList<LoadSeries> seriesList, XMLStreamReader xmler,
+    private static MediaSeriesGroup readStudy(DicomModel model, LoadSeriesHandler handler, XMLStreamReader xmler,
         MediaSeriesGroup patient, WadoParameters wadoParameters) throws XMLStreamException {
         String studyUID = (String) TagD.getUID(Level.STUDY).getValue(xmler);
         MediaSeriesGroup study = model.getHierarchyNode(patient, studyUID);
@@ -612,7 +622,7 @@ public class DownloadManager {
                 case XMLStreamConstants.START_ELEMENT:
                     // <Series> Tag
                     if (TagD.Level.SERIES.getTagName().equals(xmler.getName().getLocalPart())) {
-                        readSeries(model, seriesList, xmler, patient, study, wadoParameters);
+                        readSeries(model, handler, xmler, patient, study, wadoParameters);
                     }
                     break;
                 case XMLStreamConstants.END_ELEMENT:
@@ -627,7 +637,7 @@ public class DownloadManager {
         return study;
     }
 
-    private static Series readSeries(DicomModel model, ArrayList<LoadSeries> seriesList, XMLStreamReader xmler,
+    private static Series readSeries(DicomModel model, LoadSeriesHandler handler, XMLStreamReader xmler,
         MediaSeriesGroup patient, MediaSeriesGroup study, WadoParameters wadoParameters) throws XMLStreamException {
 
         TagW seriesTag = TagD.get(Tag.SeriesInstanceUID);
@@ -714,7 +724,12 @@ public class DownloadManager {
             final LoadSeries loadSeries = new LoadSeries(dicomSeries, model,
                 BundleTools.SYSTEM_PREFERENCES.getIntProperty(LoadSeries.CONCURRENT_DOWNLOADS_IN_SERIES, 4), true);
             loadSeries.setPriority(new DownloadPriority(patient, study, dicomSeries, true));
-            seriesList.add(loadSeries);
+            String modality = TagD.getTagValue(dicomSeries, Tag.Modality, String.class);
+            boolean ps = modality != null && ("PR".equals(modality) || "KO".equals(modality)); //$NON-NLS-1$ //$NON-NLS-2$
+            if (!ps) {
+                loadSeries.startDownloadImageReference(wadoParameters);
+            }
+            handler.handle(loadSeries);
         }
         return dicomSeries;
     }
@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.explorer.wado;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.service.BundleTools;
+import org.weasis.core.api.util.ThreadUtil;
+
+/**
+ * Executes the image downloads of all the series in a single pool of connections.
+ *
+ * The downloads wait in a queue by host, ordered by the priority of their series (see {@link DownloadPriority}), then
+ * by the order given by the series loader. A download is given to a worker thread only when:
+ * <ul>
+ * <li>the number of active downloads is below the current concurrency limit,</li>
+ * <li>the number of active downloads to the same host is below the limit by host,</li>
+ * <li>the number of active downloads of the same series is below the limit of the series loader,</li>
+ * <li>the estimated size of the active downloads is below the maximum bytes in flight.</li>
+ * </ul>
+ * So a download which cannot start never holds a worker thread, and the downloads of other hosts or series are not
+ * delayed by it.
+ *
+ * The concurrency limit moves between 1 and the maximum number of downloads according to the throughput measured on
+ * the HTTP transfers (the limit is raised while the throughput increases and lowered when it decreases).
+ */
+public final class DownloadScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownloadScheduler.class);
+
+    public static final String MAX_DOWNLOADS = "download.concurrent.images"; //$NON-NLS-1$
+    public static final String MAX_DOWNLOADS_BY_HOST = "download.concurrent.images.host"; //$NON-NLS-1$
+    public static final String MAX_BYTES_IN_FLIGHT = "download.max.inflight.size"; // in MB //$NON-NLS-1$
+
+    // Minimum duration of a throughput measurement
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(2);
+    // Relative throughput variation considered as significant
+    private static final double THROUGHPUT_TOLERANCE = 0.05;
+
+    private static final DownloadScheduler INSTANCE = new DownloadScheduler(
+        BundleTools.SYSTEM_PREFERENCES.getIntProperty(MAX_DOWNLOADS, 8),
+        BundleTools.SYSTEM_PREFERENCES.getIntProperty(MAX_DOWNLOADS_BY_HOST, 6),
+        BundleTools.SYSTEM_PREFERENCES.getIntProperty(MAX_BYTES_IN_FLIGHT, 256) * 1024L * 1024L,
+        BundleTools.SYSTEM_PREFERENCES.getIntProperty(LoadSeries.CONCURRENT_DOWNLOADS_IN_SERIES, 4));
+
+    /**
+     * A download which can be executed by the scheduler.
+     */
+    public interface Transfer extends Callable<Boolean> {
+
+        URL getURL();
+
+        /**
+         * @return the number of bytes received by the last call
+         */
+        long getTransferredBytes();
+    }
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final Comparator<ScheduledDownload> DOWNLOAD_ORDER = new Comparator<ScheduledDownload>() {
+
+        @Override
+        public int compare(ScheduledDownload d1, ScheduledDownload d2) {
+            int rep = Integer.compare(d1.seriesPriority, d2.seriesPriority);
+            if (rep != 0) {
+                return rep;
+            }
+            if (d1.owner == d2.owner) {
+                rep = Integer.compare(d1.order, d2.order);
+                if (rep != 0) {
+                    return rep;
+                }
+            }
+            return Long.compare(d1.sequence, d2.sequence);
+        }
+    };
+
+    private static final class HostState {
+        // Downloads waiting for a connection, guarded by the scheduler lock
+        private final TreeSet<ScheduledDownload> pending = new TreeSet<>(DOWNLOAD_ORDER);
+        private int active;
+        private int completed;
+        private long totalBytes;
+
+        long getAverageSize() {
+            return completed == 0 ? 0L : totalBytes / completed;
+        }
+    }
+
+    private final class ScheduledDownload extends FutureTask<Boolean> {
+        private final LoadSeries owner;
+        private final Transfer transfer;
+        private final int order;
+        private final long sequence;
+        private final String host;
+        // Modified only when the download is out of the pending queue
+        private int seriesPriority;
+        private long reservedBytes;
+
+        ScheduledDownload(LoadSeries owner, Transfer transfer, int order) {
+            super(transfer);
+            this.owner = owner;
+            this.transfer = transfer;
+            this.order = order;
+            this.sequence = SEQUENCE.getAndIncrement();
+            this.host = getHostKey(transfer.getURL());
+            refreshPriority();
+        }
+
+        void refreshPriority() {
+            DownloadPriority p = owner.getPriority();
+            Integer val = p == null ? null : p.getPriority();
+            this.seriesPriority = val == null ? Integer.MAX_VALUE : val;
+        }
+
+        @Override
+        public void run() {
+            // The connection has been reserved when the task was given to the executor
+            long start = System.nanoTime();
+            try {
+                super.run();
+            } finally {
+                release(this, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                removePending(this);
+            }
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int maxDownloads;
+    private final int maxDownloadsByHost;
+    private final long maxBytesInFlight;
+
+    private final Object lock = new Object();
+    private final Map<String, HostState> hosts = new HashMap<>();
+    private final Map<LoadSeries, Integer> activeBySeries = new HashMap<>();
+    private int active;
+    private int limit;
+    private long bytesInFlight;
+
+    // Throughput measurement
+    private boolean saturated;
+    private long windowStart;
+    private long windowBytes;
+    private double lastThroughput;
+    private int direction = 1;
+
+    DownloadScheduler(int maxDownloads, int maxDownloadsByHost, long maxBytesInFlight, int initialLimit) {
+        this.maxDownloads = Math.max(1, maxDownloads);
+        this.maxDownloadsByHost = Math.max(1, maxDownloadsByHost);
+        this.maxBytesInFlight = Math.max(1L, maxBytesInFlight);
+        this.limit = Math.max(1, Math.min(initialLimit, this.maxDownloads));
+        // The tasks are submitted only when they can start, so there is always an idle thread
+        this.executor = new ThreadPoolExecutor(this.maxDownloads, this.maxDownloads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), ThreadUtil.getThreadFactory("Image Downloader")); //$NON-NLS-1$
+        this.executor.allowCoreThreadTimeOut(true);
+
+        // The connections are reused only when the keep-alive cache can hold one connection by concurrent download
+        if (System.getProperty("http.maxConnections") == null) { //$NON-NLS-1$
+            System.setProperty("http.maxConnections", String.valueOf(this.maxDownloadsByHost)); //$NON-NLS-1$
+        }
+    }
+
+    public static DownloadScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Executes the downloads of a series and waits until they are all completed. When the current thread is
+     * interrupted, the downloads which are not completed are cancelled.
+     *
+     * @param owner
+     *            the series loader, its priority and its number of concurrent downloads are applied to all the
+     *            downloads
+     * @param transfers
+     *            the downloads in the order of execution
+     * @throws InterruptedException
+     */
+    public void invokeAll(LoadSeries owner, List<? extends Transfer> transfers) throws InterruptedException {
+        List<ScheduledDownload> list = new ArrayList<>(transfers.size());
+        synchronized (lock) {
+            for (int i = 0; i < transfers.size(); i++) {
+                ScheduledDownload d = new ScheduledDownload(owner, transfers.get(i), i);
+                list.add(d);
+                hosts.computeIfAbsent(d.host, k -> new HostState()).pending.add(d);
+            }
+            dispatch();
+        }
+
+        boolean done = false;
+        try {
+            for (ScheduledDownload d : list) {
+                try {
+                    d.get();
+                } catch (CancellationException e) {
+                    // Do nothing
+                } catch (ExecutionException e) {
+                    LOGGER.error("Downloading {}", d.transfer.getURL(), e.getCause()); //$NON-NLS-1$
+                }
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                for (ScheduledDownload d : list) {
+                    d.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the current priority of the series to its downloads which are waiting for a connection.
+     *
+     * @param owner
+     *            the series loader
+     */
+    public void reprioritize(LoadSeries owner) {
+        synchronized (lock) {
+            for (HostState host : hosts.values()) {
+                List<ScheduledDownload> list = new ArrayList<>();
+                for (Iterator<ScheduledDownload> it = host.pending.iterator(); it.hasNext();) {
+                    ScheduledDownload d = it.next();
+                    if (d.owner == owner) {
+                        it.remove();
+                        list.add(d);
+                    }
+                }
+                for (ScheduledDownload d : list) {
+                    d.refreshPriority();
+                    host.pending.add(d);
+                }
+            }
+        }
+    }
+
+    public int getActiveDownloads() {
+        synchronized (lock) {
+            return active;
+        }
+    }
+
+    public int getPendingDownloads() {
+        synchronized (lock) {
+            int pending = 0;
+            for (HostState host : hosts.values()) {
+                pending += host.pending.size();
+            }
+            return pending;
+        }
+    }
+
+    public int getConcurrencyLimit() {
+        synchronized (lock) {
+            return limit;
+        }
+    }
+
+    public long getBytesInFlight() {
+        synchronized (lock) {
+            return bytesInFlight;
+        }
+    }
+
+    /**
+     * @return the last measured throughput in bytes by second
+     */
+    public double getThroughput() {
+        synchronized (lock) {
+            return lastThroughput * 1.0e9;
+        }
+    }
+
+    /**
+     * Gives to the executor the first downloads which can start. The caller must hold the lock.
+     */
+    private void dispatch() {
+        while (active < limit) {
+            ScheduledDownload next = null;
+            for (HostState host : hosts.values()) {
+                if (host.active >= maxDownloadsByHost
+                    || (bytesInFlight > 0 && bytesInFlight + host.getAverageSize() > maxBytesInFlight)) {
+                    continue;
+                }
+                for (ScheduledDownload d : host.pending) {
+                    if (!isSeriesFull(d.owner)) {
+                        if (next == null || DOWNLOAD_ORDER.compare(d, next) < 0) {
+                            next = d;
+                        }
+                        break;
+                    }
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            start(next);
+        }
+    }
+
+    private boolean isSeriesFull(LoadSeries owner) {
+        Integer val = activeBySeries.get(owner);
+        return val != null && val >= Math.max(1, owner.getConcurrentDownloads());
+    }
+
+    private void start(ScheduledDownload d) {
+        HostState host = hosts.get(d.host);
+        host.pending.remove(d);
+        active++;
+        host.active++;
+        activeBySeries.merge(d.owner, 1, Integer::sum);
+        d.reservedBytes = host.getAverageSize();
+        bytesInFlight += d.reservedBytes;
+        if (active >= limit) {
+            saturated = true;
+        }
+        if (windowStart == 0L) {
+            windowStart = System.nanoTime();
+        }
+        executor.execute(d);
+    }
+
+    private void removePending(ScheduledDownload d) {
+        synchronized (lock) {
+            HostState host = hosts.get(d.host);
+            if (host != null) {
+                host.pending.remove(d);
+            }
+        }
+    }
+
+    private void release(ScheduledDownload d, long elapsedNanos) {
+        long bytes = d.transfer.getTransferredBytes();
+        synchronized (lock) {
+            active--;
+            bytesInFlight -= d.reservedBytes;
+            activeBySeries.computeIfPresent(d.owner, (k, v) -> v > 1 ? v - 1 : null);
+            HostState host = hosts.get(d.host);
+            if (host != null) {
+                host.active--;
+                if (bytes > 0) {
+                    host.completed++;
+                    host.totalBytes += bytes;
+                }
+            }
+            if (bytes > 0 && d.transfer.getURL().getProtocol().startsWith("http")) { //$NON-NLS-1$
+                windowBytes += bytes;
+                adaptLimit();
+            }
+            dispatch();
+        }
+        LOGGER.trace("Downloaded {} bytes in {} ms from {}", bytes, elapsedNanos / 1000000, d.host); //$NON-NLS-1$
+    }
+
+    /**
+     * Hill climbing on the concurrency limit: the limit keeps moving in the same direction while the throughput
+     * increases and reverses when it decreases. The caller must hold the lock.
+     */
+    private void adaptLimit() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+        // When the limit has not been reached, the throughput does not depend on the limit
+        if (saturated) {
+            double throughput = (double) windowBytes / elapsed;
+            if (lastThroughput > 0.0 && throughput < lastThroughput * (1.0 - THROUGHPUT_TOLERANCE)) {
+                direction = -direction;
+            }
+            int newLimit = Math.max(1, Math.min(maxDownloads, limit + direction));
+            if (newLimit == limit) {
+                // At a boundary, explore the other direction next time
+                direction = -direction;
+            } else {
+                LOGGER.debug("Concurrent downloads: {} -> {} ({} kB/s)", limit, newLimit, //$NON-NLS-1$
+                    Math.round(throughput * 1.0e6 / 1024.0));
+                limit = newLimit;
+            }
+            lastThroughput = throughput;
+        }
+        saturated = active >= limit;
+        windowStart = now;
+        windowBytes = 0L;
+    }
+
+    private static String getHostKey(URL url) {
+        if (url == null || url.getHost() == null || url.getHost().isEmpty()) {
+            return ""; //$NON-NLS-1$
+        }
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return url.getProtocol() + "://" + url.getHost() + ":" + port; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
@@ -15,7 +15,6 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Collections;
 
 import org.weasis.core.api.explorer.model.DataExplorerModel;
@@ -24,6 +23,7 @@ import org.weasis.dicom.explorer.DicomModel;
 import org.weasis.dicom.explorer.ExplorerTask;
 import org.weasis.dicom.explorer.Messages;
 import org.weasis.dicom.explorer.pref.download.SeriesDownloadPrefView;
+import org.weasis.dicom.explorer.wado.DownloadManager.LoadSeriesHandler;
 import org.weasis.dicom.explorer.wado.DownloadManager.PriorityTaskComparator;
 
 public class LoadRemoteDicomManifest extends ExplorerTask {
@@ -73,18 +73,19 @@ public class LoadRemoteDicomManifest extends ExplorerTask {
                     if (uri == null) {
                         uri = new URL(xmlFiles[i]).toURI();
                     }
-                    ArrayList<LoadSeries> wadoTasks = DownloadManager.buildDicomSeriesFromXml(uri, dicomModel);
+                    final boolean downloadImmediately = BundleTools.SYSTEM_PREFERENCES
+                        .getBooleanProperty(SeriesDownloadPrefView.DOWNLOAD_IMMEDIATELY, true);
+                    // Start the downloads while reading the manifest
+                    DownloadManager.buildDicomSeriesFromXml(uri, dicomModel, new LoadSeriesHandler() {
 
-                    if (wadoTasks != null) {
-                        boolean downloadImmediately = BundleTools.SYSTEM_PREFERENCES
-                            .getBooleanProperty(SeriesDownloadPrefView.DOWNLOAD_IMMEDIATELY, true);
-                        for (final LoadSeries loadSeries : wadoTasks) {
+                        @Override
+                        public void handle(LoadSeries loadSeries) {
                             DownloadManager.addLoadSeries(loadSeries, dicomModel, downloadImmediately);
                         }
-                        // Sort tasks from the download priority order (low number has a higher priority), TASKS
-                        // is sorted from low to high priority).
-                        Collections.sort(DownloadManager.TASKS, Collections.reverseOrder(new PriorityTaskComparator()));
-                    }
+                    });
+                    // Sort tasks from the download priority order (low number has a higher priority), TASKS
+                    // is sorted from low to high priority).
+                    Collections.sort(DownloadManager.TASKS, Collections.reverseOrder(new PriorityTaskComparator()));
                 } catch (URISyntaxException e) {
                     e.printStackTrace();
                 } catch (MalformedURLException e) {
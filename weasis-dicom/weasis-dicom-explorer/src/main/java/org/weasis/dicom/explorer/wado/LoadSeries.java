@@ -15,7 +15,6 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelListener;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
@@ -30,8 +29,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
 
 import javax.swing.JProgressBar;
 
@@ -48,6 +45,7 @@ import org.weasis.core.api.explorer.ObservableEvent;
 import org.weasis.core.api.gui.task.CircularProgressBar;
 import org.weasis.core.api.gui.util.AppProperties;
 import org.weasis.core.api.gui.util.GuiExecutor;
+import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.MediaElement;
 import org.weasis.core.api.media.data.MediaSeries;
 import org.weasis.core.api.media.data.MediaSeriesGroup;
@@ -58,17 +56,20 @@ import org.weasis.core.api.media.data.TagW;
 import org.weasis.core.api.media.data.TagW.TagType;
 import org.weasis.core.api.media.data.Thumbnail;
 import org.weasis.core.api.service.AuditLog;
+import org.weasis.core.api.service.BundleTools;
 import org.weasis.core.api.util.FileUtil;
 import org.weasis.core.api.util.StringUtil;
-import org.weasis.core.api.util.ThreadUtil;
 import org.weasis.core.ui.docking.UIManager;
 import org.weasis.core.ui.editor.SeriesViewerFactory;
 import org.weasis.core.ui.editor.ViewerPluginBuilder;
 import org.weasis.core.ui.editor.image.ImageViewerPlugin;
 import org.weasis.core.ui.editor.image.ViewCanvas;
 import org.weasis.core.ui.editor.image.ViewerPlugin;
+import org.weasis.dicom.codec.DicomImageElement;
 import org.weasis.dicom.codec.DicomInstance;
 import org.weasis.dicom.codec.DicomMediaIO;
+import org.weasis.dicom.codec.DicomPreviewMediaIO;
+import org.weasis.dicom.codec.DicomSeries;
 import org.weasis.dicom.codec.TagD;
 import org.weasis.dicom.codec.TagD.Level;
 import org.weasis.dicom.codec.TransferSyntax;
@@ -86,6 +87,12 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LoadSeries.class);
     public static final String CONCURRENT_DOWNLOADS_IN_SERIES = "download.concurrent.series.images"; //$NON-NLS-1$
+    /**
+     * When true, JPEG renderings of all the WADO instances are downloaded first and displayed as previews until the
+     * DICOM instances are downloaded.
+     */
+    public static final String PROGRESSIVE_LOADING = "download.progressive"; //$NON-NLS-1$
+    public static final String PREVIEW_SIZE = "download.preview.size"; //$NON-NLS-1$
 
     public static final File DICOM_TMP_DIR = AppProperties.buildAccessibleTempDirectory("downloading"); //$NON-NLS-1$
     public static final TagW DOWNLOAD_START_TIME = new TagW("DownloadSartTime", TagType.TIME); //$NON-NLS-1$
@@ -279,7 +286,7 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
 
     private boolean isSOPInstanceUIDExist(MediaSeriesGroup study, Series<?> dicomSeries, String sopUID) {
         TagW sopTag = TagD.getUID(Level.INSTANCE);
-        if (dicomSeries.hasMediaContains(sopTag, sopUID)) {
+        if (dicomSeries.hasMediaContains(sopTag, sopUID) && getPreview(sopUID) == null) {
             return true;
         }
         // Search in split Series, cannot use "has this series a SplitNumber" because splitting can be executed later
@@ -302,6 +309,29 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
         return false;
     }
 
+    private DicomImageElement getPreview(String sopUID) {
+        if (dicomSeries instanceof DicomSeries) {
+            return ((DicomSeries) dicomSeries).getPreview(sopUID);
+        }
+        return null;
+    }
+
+    private boolean hasOnlyPreviews() {
+        synchronized (dicomSeries) {
+            for (MediaElement<?> m : dicomSeries.getMedias(null, null)) {
+                if (!(m instanceof ImageElement) || !((ImageElement) m).isPreview()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isProgressiveLoading() {
+        return writeInCache && dicomSeries instanceof DicomSeries
+            && BundleTools.SYSTEM_PREFERENCES.getBooleanProperty(PROGRESSIVE_LOADING, false);
+    }
+
     private void incrementProgressBarValue() {
         GuiExecutor.instance().execute(() -> progressBar.setValue(progressBar.getValue() + 1));
     }
@@ -318,9 +348,9 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
         if (wado == null) {
             return false;
         }
-        ExecutorService imageDownloader =
-            ThreadUtil.buildNewFixedThreadExecutor(concurrentDownloads, "Image Downloader");
-        ArrayList<Callable<Boolean>> tasks = new ArrayList<>(sopList.size());
+        boolean progressive = isProgressiveLoading();
+        ArrayList<DownloadScheduler.Transfer> previews = new ArrayList<>();
+        ArrayList<DownloadScheduler.Transfer> tasks = new ArrayList<>(sopList.size());
         int[] dindex = generateDownladOrder(sopList.size());
         GuiExecutor.instance().execute(() -> progressBar.setValue(0));
         for (int k = 0; k < sopList.size(); k++) {
@@ -345,6 +375,9 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                 }
                 StringBuilder request = new StringBuilder(wado.getWadoURL());
                 if (instance.getDirectDownloadFile() == null) {
+                    if (progressive && getPreview(instance.getSopInstanceUID()) == null) {
+                        previews.add(new PreviewDownload(instance, wado, studyUID, seriesUID));
+                    }
                     request.append("?requestType=WADO&studyUID="); //$NON-NLS-1$
                     request.append(studyUID);
                     request.append("&seriesUID="); //$NON-NLS-1$
@@ -393,30 +426,17 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
             LOGGER.debug("Download DICOM instance {} index {}.", url, k); //$NON-NLS-1$
             Download ref = new Download(url, wado);
             tasks.add(ref);
-            // Future future = imageDownloader.submit(ref);
-            // try {
-            // Object series = future.get();
-            //
-            // }
-            // catch (InterruptedException e) {
-            // // Re-assert the thread's interrupted status
-            // Thread.currentThread().interrupt();
-            // // We don't need the result, so cancel the task too
-            // future.cancel(true);
-            // }
-            // catch (ExecutionException e) {
-            //
-            // }
-
         }
 
         try {
             dicomSeries.setTag(DOWNLOAD_START_TIME, System.currentTimeMillis());
-            imageDownloader.invokeAll(tasks);
+            // The previews of the whole series are scheduled before the DICOM instances
+            previews.addAll(tasks);
+            // Shared by all the series, the downloads are executed according to the priority of the series
+            DownloadScheduler.getInstance().invokeAll(this, previews);
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-
-        imageDownloader.shutdown();
         return true;
     }
 
@@ -612,38 +632,40 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
 
     public File getJPEGThumnails(WadoParameters wadoParameters, String StudyUID, String SeriesUID,
         String SOPInstanceUID) throws IOException {
-        // TODO set quality as a preference
-        URL url =
-            new URL(wadoParameters.getWadoURL() + "?requestType=WADO&studyUID=" + StudyUID + "&seriesUID=" + SeriesUID //$NON-NLS-1$ //$NON-NLS-2$
-                + "&objectUID=" + SOPInstanceUID + "&contentType=image/jpeg&imageQuality=70" + "&rows=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-                + Thumbnail.MAX_SIZE + "&columns=" + Thumbnail.MAX_SIZE + wadoParameters.getAdditionnalParameters()); //$NON-NLS-1$
-
-        HttpURLConnection httpCon = (HttpURLConnection) url.openConnection();
-        httpCon.setDoInput(true);
-        httpCon.setRequestMethod("GET"); //$NON-NLS-1$
-        // Set http login (no protection, only convert in base64)
-        if (wadoParameters.getWebLogin() != null) {
-            httpCon.setRequestProperty("Authorization", "Basic " + wadoParameters.getWebLogin()); //$NON-NLS-1$ //$NON-NLS-2$
-        }
-        if (!wadoParameters.getHttpTaglist().isEmpty()) {
-            for (HttpTag tag : wadoParameters.getHttpTaglist()) {
-                httpCon.setRequestProperty(tag.getKey(), tag.getValue());
-            }
-        }
-        // Connect to server.
-        httpCon.connect();
+        return DicomPreviewMediaIO.getJPEGRendering(wadoParameters, StudyUID, SeriesUID, SOPInstanceUID,
+            Thumbnail.MAX_SIZE, Thumbnail.THUMBNAIL_CACHE_DIR, "tumb_"); //$NON-NLS-1$
+    }
 
-        // Make sure response code is in the 200 range.
-        if (httpCon.getResponseCode() / 100 != 2) {
-            return null;
+    private void openFirstImage() {
+        boolean openNewTab = true;
+        MediaSeriesGroup entry1 = dicomModel.getParent(dicomSeries, DicomModel.patient);
+        if (entry1 != null) {
+            synchronized (UIManager.VIEWER_PLUGINS) {
+                for (final ViewerPlugin p : UIManager.VIEWER_PLUGINS) {
+                    if (entry1.equals(p.getGroupID())) {
+                        if (p instanceof ImageViewerPlugin) {
+                            ViewCanvas pane = ((ImageViewerPlugin) p).getSelectedImagePane();
+                            if (pane != null && pane.getImageLayer().getSourceImage() == null) {
+                                // When the selected view has no image send, open in it.
+                                break;
+                            }
+                        }
+                        openNewTab = false;
+                        break;
+                    }
+                }
+            }
         }
-
-        File outFile = File.createTempFile("tumb_", ".jpg", Thumbnail.THUMBNAIL_CACHE_DIR); //$NON-NLS-1$ //$NON-NLS-2$
-        LOGGER.debug("Start to download JPEG thbumbnail {} to {}.", url, outFile.getName()); //$NON-NLS-1$
-        if (FileUtil.writeFile(httpCon, outFile) == 0) {
-            return null;
+        if (openNewTab) {
+            SeriesViewerFactory plugin = UIManager.getViewerFactory(dicomSeries.getMimeType());
+            if (plugin != null && !(plugin instanceof MimeSystemAppFactory)) {
+                ViewerPluginBuilder.openSequenceInPlugin(plugin, dicomSeries, dicomModel, true, true);
+            } else if (plugin != null) {
+                // Send event to select the related patient in Dicom Explorer.
+                dicomModel.firePropertyChange(
+                    new ObservableEvent(ObservableEvent.BasicAction.Select, dicomModel, null, dicomSeries));
+            }
         }
-        return outFile;
     }
 
     // public void interruptionRequested() {
@@ -695,13 +717,93 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
         return dindex;
     }
 
-    class Download implements Callable<Boolean> {
+    /**
+     * Downloads a JPEG rendering of a WADO instance and adds it to the series as a preview. The preview is replaced by
+     * the DICOM instance when downloaded (see {@link DicomSeries#addMedia(MediaElement)}).
+     */
+    class PreviewDownload implements DownloadScheduler.Transfer {
+
+        private final DicomInstance instance;
+        private final WadoParameters wadoParameters;
+        private final String studyUID;
+        private final String seriesUID;
+        private volatile long transferred;
+
+        public PreviewDownload(DicomInstance instance, WadoParameters wadoParameters, String studyUID,
+            String seriesUID) {
+            this.instance = instance;
+            this.wadoParameters = wadoParameters;
+            this.studyUID = studyUID;
+            this.seriesUID = seriesUID;
+        }
+
+        @Override
+        public URL getURL() {
+            try {
+                return new URL(wadoParameters.getWadoURL());
+            } catch (MalformedURLException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public long getTransferredBytes() {
+            return transferred;
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            final String sopUID = instance.getSopInstanceUID();
+            if (isCancelled() || isSOPInstanceUIDExist(dicomModel.getParent(dicomSeries, DicomModel.study),
+                dicomSeries, sopUID)) {
+                return false;
+            }
+            int size = BundleTools.SYSTEM_PREFERENCES.getIntProperty(PREVIEW_SIZE, 512);
+            File file = DicomPreviewMediaIO.getJPEGRendering(wadoParameters, studyUID, seriesUID, sopUID, size,
+                DICOM_TMP_DIR, "preview_"); //$NON-NLS-1$
+            if (file == null) {
+                return false;
+            }
+            transferred = file.length();
+            int number = instance.getInstanceNumber();
+            DicomPreviewMediaIO reader =
+                new DicomPreviewMediaIO(file, dicomSeries, sopUID, number == -1 ? null : number);
+            final MediaElement[] medias = reader.getMediaElement();
+
+            GuiExecutor.instance().invokeAndWait(new Runnable() {
+
+                @Override
+                public void run() {
+                    // The DICOM instance can be downloaded before its preview
+                    if (dicomSeries.hasMediaContains(TagD.getUID(Level.INSTANCE), sopUID)) {
+                        FileUtil.delete(file);
+                        return;
+                    }
+                    boolean firstImageToDisplay = dicomSeries.size(null) == 0;
+                    for (MediaElement media : medias) {
+                        dicomSeries.addMedia(media);
+                    }
+                    Thumbnail thumb = (Thumbnail) dicomSeries.getTagValue(TagW.Thumbnail);
+                    if (thumb != null) {
+                        thumb.repaint();
+                    }
+                    if (firstImageToDisplay) {
+                        openFirstImage();
+                    }
+                }
+            });
+            return true;
+        }
+    }
+
+    class Download implements DownloadScheduler.Transfer {
 
         private final URL url; // download URL
         private int size; // size of download in bytes
         private final int downloaded; // number of bytes downloaded
         private Status status; // current status of download
         private File tempFile;
+        private volatile long transferred;
         private final WadoParameters wadoParameters;
 
         // private Thread thread;
@@ -722,6 +824,16 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
             return url.toString();
         }
 
+        @Override
+        public URL getURL() {
+            return url;
+        }
+
+        @Override
+        public long getTransferredBytes() {
+            return transferred;
+        }
+
         // Get this download's size.
         public int getSize() {
             return size;
@@ -771,7 +883,7 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
             return buffer.toString();
         }
 
-        private URLConnection initConnection(URL url) throws IOException {
+        private URLConnection initConnection(URL url, PartialFile part) throws IOException {
             URLConnection httpCon = null;
             try {
                 // If there is a proxy, it should be already configured
@@ -786,7 +898,9 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                     }
                 }
                 // Specify what portion of file to download.
-                httpCon.setRequestProperty("Range", "bytes=" + downloaded + "-"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                if (part != null) {
+                    part.setRangeRequest(httpCon);
+                }
 
                 // Connect to server.
                 httpCon.connect();
@@ -799,6 +913,11 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                 int responseCode = ((HttpURLConnection) httpCon).getResponseCode();
                 // Make sure response code is in the 200 range.
                 if (responseCode / 100 != 2) {
+                    FileUtil.discardErrorStream(httpCon);
+                    if (part != null && responseCode == 416) {
+                        // Range Not Satisfiable: restart from the beginning the next time
+                        part.delete();
+                    }
                     error();
                     LOGGER.error("Http Response error {} for {}", responseCode, url); //$NON-NLS-1$
                     return null;
@@ -812,17 +931,28 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
         public Boolean call() throws Exception {
 
             InputStream stream = null;
-            URLConnection httpCon = initConnection(url);
-            if (httpCon == null) {
-                return false;
-            }
-
             boolean cache = true;
             if (!writeInCache && getUrl().startsWith("file:")) { //$NON-NLS-1$
                 cache = false;
             }
+            // Keep the bytes received when the download is interrupted, for resuming it with a Range request
+            PartialFile part = null;
+            if (cache && !getUrl().startsWith("file:") && wadoParameters.getOverrideDicomTagIDList() == null) { //$NON-NLS-1$
+                part = new PartialFile(url, DICOM_TMP_DIR);
+                part.load();
+            }
+
+            URLConnection httpCon = initConnection(url, part);
+            if (httpCon == null) {
+                return false;
+            }
+            boolean resumed = part != null && part.acceptRangeResponse(httpCon);
+            if (resumed) {
+                LOGGER.info("Resume downloading {} from {} bytes", url, part.getOffset()); //$NON-NLS-1$
+            }
+
             if (cache && tempFile == null) {
-                tempFile = File.createTempFile("image_", ".dcm", DICOM_TMP_DIR); //$NON-NLS-1$ //$NON-NLS-2$
+                tempFile = part == null ? File.createTempFile("image_", ".dcm", DICOM_TMP_DIR) : part.getFile(); //$NON-NLS-1$ //$NON-NLS-2$
             }
 
             stream = httpCon.getInputStream();
@@ -842,6 +972,8 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                 // stateChanged();
             }
             DicomMediaIO dicomReader = null;
+            // Parse the header while writing the file
+            DicomStreamWriter streamWriter = new DicomStreamWriter();
             LOGGER.debug("Start to download DICOM instance {} to {}.", url, cache ? tempFile.getName() : "null"); //$NON-NLS-1$ //$NON-NLS-2$
             if (dicomSeries != null) {
                 final WadoParameters wado = (WadoParameters) dicomSeries.getTagValue(TagW.WadoParameters);
@@ -849,8 +981,9 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                 if (cache) {
                     int bytesTransferred = 0;
                     if (overrideList == null && wado != null) {
-                        bytesTransferred = FileUtil.writeStream(new DicomSeriesProgressMonitor(dicomSeries, stream,
-                            url.toString().contains("?requestType=WADO")), new FileOutputStream(tempFile)); //$NON-NLS-1$
+                        // The first bytes of a resumed download have already been checked
+                        bytesTransferred = streamWriter.write(new DicomSeriesProgressMonitor(dicomSeries, stream,
+                            !resumed && url.toString().contains("?requestType=WADO")), tempFile, resumed); //$NON-NLS-1$
                     } else if (wado != null) {
                         bytesTransferred = writFile(new DicomSeriesProgressMonitor(dicomSeries, stream,
                             url.toString().contains("?requestType=WADO")), tempFile, overrideList); //$NON-NLS-1$
@@ -859,24 +992,32 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                         LOGGER.info("End of downloading {} ", url); //$NON-NLS-1$
                     } else if (bytesTransferred >= 0) {
                         LOGGER.warn("Download interruption {} ", url); //$NON-NLS-1$
-                        try {
-                            tempFile.delete();
-                        } catch (Exception e) {
-                            e.printStackTrace();
+                        if (part != null && part.save()) {
+                            LOGGER.info("Keep {} bytes of {} for resuming the download", part.getOffset(), url); //$NON-NLS-1$
+                        } else {
+                            try {
+                                tempFile.delete();
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                            }
                         }
                         return false;
                     } else if (bytesTransferred == Integer.MIN_VALUE) {
                         LOGGER.warn("Stop downloading unsupported TSUID, retry to download non compressed TSUID"); //$NON-NLS-1$
-                        httpCon = initConnection(new URL(replaceToDefaultTSUID(url)));
+                        if (part != null) {
+                            // Another URL, cannot be resumed
+                            part.delete();
+                            part = null;
+                        }
+                        httpCon = initConnection(new URL(replaceToDefaultTSUID(url)), null);
                         if (httpCon == null) {
                             return false;
                         }
                         stream = httpCon.getInputStream();
                         size = -1;
                         if (overrideList == null && wado != null) {
-                            bytesTransferred =
-                                FileUtil.writeStream(new DicomSeriesProgressMonitor(dicomSeries, stream, false),
-                                    new FileOutputStream(tempFile));
+                            bytesTransferred = streamWriter
+                                .write(new DicomSeriesProgressMonitor(dicomSeries, stream, false), tempFile);
                         } else if (wado != null) {
                             bytesTransferred = writFile(new DicomSeriesProgressMonitor(dicomSeries, stream, false),
                                 tempFile, overrideList);
@@ -893,7 +1034,22 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                             return false;
                         }
                     }
+                    if (part != null) {
+                        if (!part.isComplete()) {
+                            LOGGER.error("Corrupted download of {}: {} bytes instead of {}", //$NON-NLS-1$
+                                new Object[] { url, tempFile.length(), part.getLength() });
+                            part.delete();
+                            return false;
+                        }
+                        part.complete();
+                    }
+                    transferred = tempFile.length();
                     File renameFile = new File(DicomMediaIO.DICOM_EXPORT_DIR, tempFile.getName());
+                    if (part != null) {
+                        // The name of a partial file is not unique
+                        renameFile = File.createTempFile("image_", ".dcm", DicomMediaIO.DICOM_EXPORT_DIR); //$NON-NLS-1$ //$NON-NLS-2$
+                        renameFile.delete();
+                    }
                     if (tempFile.renameTo(renameFile)) {
                         tempFile = renameFile;
                     }
@@ -904,8 +1060,11 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                 FileUtil.safeClose(stream);
 
                 dicomReader = new DicomMediaIO(tempFile);
+                if (cache) {
+                    streamWriter.setHeader(dicomReader);
+                }
                 if (dicomReader.isReadableDicom()) {
-                    if (dicomSeries.size(null) == 0) {
+                    if (hasOnlyPreviews()) {
                         // Override the group (patient, study and series) by the dicom fields except the UID of
                         // the group
                         MediaSeriesGroup patient = dicomModel.getParent(dicomSeries, DicomModel.patient);
@@ -949,6 +1108,13 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                                     for (MediaElement media : medias) {
                                         dicomModel.applySplittingRules(dicomSeries, media);
                                     }
+                                    if (medias.length > 0) {
+                                        // The image has been moved into a split series or was not readable
+                                        String sopUID = TagD.getTagValue(medias[0], Tag.SOPInstanceUID, String.class);
+                                        if (getPreview(sopUID) != null) {
+                                            ((DicomSeries) dicomSeries).removePreview(sopUID);
+                                        }
+                                    }
                                     if (firstImageToDisplay && dicomSeries.size(null) == 0) {
                                         firstImageToDisplay = false;
                                     }
@@ -961,39 +1127,7 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                                 }
 
                                 if (firstImageToDisplay) {
-                                    boolean openNewTab = true;
-                                    MediaSeriesGroup entry1 = dicomModel.getParent(dicomSeries, DicomModel.patient);
-                                    if (entry1 != null) {
-                                        synchronized (UIManager.VIEWER_PLUGINS) {
-                                            for (final ViewerPlugin p : UIManager.VIEWER_PLUGINS) {
-                                                if (entry1.equals(p.getGroupID())) {
-                                                    if (p instanceof ImageViewerPlugin) {
-                                                        ViewCanvas pane =
-                                                            ((ImageViewerPlugin) p).getSelectedImagePane();
-                                                        if (pane != null
-                                                            && pane.getImageLayer().getSourceImage() == null) {
-                                                            // When the selected view has no image send, open in it.
-                                                            break;
-                                                        }
-                                                    }
-                                                    openNewTab = false;
-                                                    break;
-                                                }
-                                            }
-                                        }
-                                    }
-                                    if (openNewTab) {
-                                        SeriesViewerFactory plugin =
-                                            UIManager.getViewerFactory(dicomSeries.getMimeType());
-                                        if (plugin != null && !(plugin instanceof MimeSystemAppFactory)) {
-                                            ViewerPluginBuilder.openSequenceInPlugin(plugin, dicomSeries, dicomModel,
-                                                true, true);
-                                        } else if (plugin != null) {
-                                            // Send event to select the related patient in Dicom Explorer.
-                                            dicomModel.firePropertyChange(new ObservableEvent(
-                                                ObservableEvent.BasicAction.Select, dicomModel, null, dicomSeries));
-                                        }
-                                    }
+                                    openFirstImage();
                                 }
                             }
                         });
@@ -1115,6 +1249,10 @@ public class LoadSeries extends ExplorerTask implements SeriesImporter {
                         }
                     }
                 }
+            } else if (StateValue.STARTED.equals(getState())) {
+                // Give the bandwidth to the images of this series which are not yet downloaded
+                p.setPriority(DownloadPriority.COUNTER.getAndDecrement());
+                DownloadScheduler.getInstance().reprioritize(this);
             }
         }
     }
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.explorer.wado;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.api.util.FileUtil;
+import org.weasis.core.api.util.StringUtil;
+
+/**
+ * A file being downloaded and its sidecar file (".part") which stores the information for resuming the download with
+ * an HTTP Range request.
+ *
+ * The file name is derived from the URL, so a download restarted by another task (e.g. when resuming a series) finds
+ * the bytes already transferred. A download is resumable only when the server accepts byte ranges and gives a
+ * validator (ETag or Last-Modified), otherwise the content could be different (e.g. transcoded on the fly).
+ */
+public class PartialFile {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartialFile.class);
+
+    private static final String SIDECAR_EXTENSION = ".part"; //$NON-NLS-1$
+    private static final String KEY_URL = "url"; //$NON-NLS-1$
+    private static final String KEY_OFFSET = "offset"; //$NON-NLS-1$
+    private static final String KEY_LENGTH = "length"; //$NON-NLS-1$
+    private static final String KEY_VALIDATOR = "validator"; //$NON-NLS-1$
+
+    private final String url;
+    private final File file;
+    private final File sidecar;
+    private String validator;
+    private long length;
+    private long offset;
+
+    public PartialFile(URL url, File directory) {
+        this.url = url.toString();
+        String id = UUID.nameUUIDFromBytes(this.url.getBytes(StandardCharsets.UTF_8)).toString();
+        this.file = new File(directory, "part_" + id + ".dcm"); //$NON-NLS-1$ //$NON-NLS-2$
+        this.sidecar = new File(directory, file.getName() + SIDECAR_EXTENSION);
+        this.length = -1L;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of bytes which have been persisted by a previous download, 0 when the download must start
+     *         from the beginning.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the expected length of the file or -1 if unknown
+     */
+    public long getLength() {
+        return length;
+    }
+
+    public String getValidator() {
+        return validator;
+    }
+
+    public boolean isResumable() {
+        return validator != null;
+    }
+
+    /**
+     * Reads the sidecar file and truncates the file to the last persisted offset.
+     *
+     * @return the offset from which the download can be resumed
+     */
+    public long load() {
+        offset = 0L;
+        if (sidecar.canRead() && file.exists()) {
+            Properties p = new Properties();
+            try (InputStream in = new FileInputStream(sidecar)) {
+                p.load(in);
+                long saved = Long.parseLong(p.getProperty(KEY_OFFSET, "0")); //$NON-NLS-1$
+                if (url.equals(p.getProperty(KEY_URL)) && saved > 0 && saved <= file.length()) {
+                    validator = p.getProperty(KEY_VALIDATOR);
+                    length = Long.parseLong(p.getProperty(KEY_LENGTH, "-1")); //$NON-NLS-1$
+                    if (validator != null) {
+                        truncate(saved);
+                        offset = saved;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                LOGGER.warn("Cannot read the partial download information of {}", url, e); //$NON-NLS-1$
+            }
+        }
+        if (offset == 0L) {
+            delete();
+        }
+        return offset;
+    }
+
+    /**
+     * Keeps the validator and the length from the response of a full download (not a range).
+     *
+     * @param connection
+     *            the connected URL connection
+     */
+    public void setResponse(URLConnection connection) {
+        String etag = connection.getHeaderField("ETag"); //$NON-NLS-1$
+        String lastModified = connection.getHeaderField("Last-Modified"); //$NON-NLS-1$
+        String ranges = connection.getHeaderField("Accept-Ranges"); //$NON-NLS-1$
+        validator = null;
+        if (ranges != null && ranges.contains("bytes")) { //$NON-NLS-1$
+            if (StringUtil.hasText(etag) && !etag.startsWith("W/")) { //$NON-NLS-1$
+                // Weak ETags cannot be used with If-Range
+                validator = etag;
+            } else if (StringUtil.hasText(lastModified)) {
+                validator = lastModified;
+            }
+        }
+        length = connection.getContentLengthLong();
+        offset = 0L;
+    }
+
+    /**
+     * Sets the headers for requesting the remaining bytes.
+     *
+     * @param connection
+     *            the URL connection, not connected
+     */
+    public void setRangeRequest(URLConnection connection) {
+        if (offset > 0 && validator != null) {
+            connection.setRequestProperty("Range", "bytes=" + offset + "-"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            // Get the whole file if it has changed
+            connection.setRequestProperty("If-Range", validator); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * @param connection
+     *            the connected URL connection
+     * @return true if the server sends the remaining bytes from the offset, false if the whole file is sent
+     * @throws IOException
+     */
+    public boolean acceptRangeResponse(URLConnection connection) throws IOException {
+        boolean resumed = offset > 0;
+        if (resumed && connection instanceof HttpURLConnection
+            && ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_PARTIAL) {
+            // Content-Range: bytes 21010-47021/47022
+            String range = connection.getHeaderField("Content-Range"); //$NON-NLS-1$
+            if (range != null && range.startsWith("bytes " + offset + "-")) { //$NON-NLS-1$ //$NON-NLS-2$
+                int index = range.lastIndexOf('/');
+                if (index > 0 && index < range.length() - 1 && range.charAt(index + 1) != '*') {
+                    length = Long.parseLong(range.substring(index + 1).trim());
+                }
+                return true;
+            }
+        }
+        // The server sends the whole file
+        setResponse(connection);
+        if (resumed) {
+            LOGGER.info("Cannot resume {}, download the whole file", url); //$NON-NLS-1$
+        }
+        truncate(0L);
+        return false;
+    }
+
+    /**
+     * Persists the number of bytes written in the file.
+     *
+     * @return true if the download can be resumed later
+     */
+    public boolean save() {
+        long size = file.length();
+        if (validator == null || size == 0) {
+            delete();
+            return false;
+        }
+        Properties p = new Properties();
+        p.setProperty(KEY_URL, url);
+        p.setProperty(KEY_OFFSET, Long.toString(size));
+        p.setProperty(KEY_LENGTH, Long.toString(length));
+        p.setProperty(KEY_VALIDATOR, validator);
+        try (OutputStream out = new FileOutputStream(sidecar)) {
+            p.store(out, null);
+            offset = size;
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Cannot write the partial download information of {}", url, e); //$NON-NLS-1$
+            delete();
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the length of the file matches the length given by the server (or when it is unknown)
+     */
+    public boolean isComplete() {
+        return length <= 0 || file.length() == length;
+    }
+
+    /**
+     * Removes the sidecar file when the download is complete.
+     */
+    public void complete() {
+        FileUtil.delete(sidecar);
+    }
+
+    public void delete() {
+        FileUtil.delete(sidecar);
+        FileUtil.delete(file);
+        offset = 0L;
+    }
+
+    private void truncate(long size) throws IOException {
+        if (file.length() > size) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+                raf.setLength(size);
+            }
+        }
+    }
+}
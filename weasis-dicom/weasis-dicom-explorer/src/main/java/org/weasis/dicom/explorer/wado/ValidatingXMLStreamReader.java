@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.explorer.wado;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Validates the XML events against a schema while they are read, so the document is parsed only once. Like the
+ * previous validation, an invalid document is only logged and can still be read.
+ */
+class ValidatingXMLStreamReader extends StreamReaderDelegate {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValidatingXMLStreamReader.class);
+
+    private final ValidatorHandler handler;
+    private boolean validating;
+    private SAXParseException error;
+
+    ValidatingXMLStreamReader(XMLStreamReader reader, Schema schema) throws SAXException {
+        super(reader);
+        this.handler = schema.newValidatorHandler();
+        this.handler.setErrorHandler(new ErrorHandler() {
+
+            @Override
+            public void warning(SAXParseException exception) throws SAXException {
+                // Ignore
+            }
+
+            @Override
+            public void error(SAXParseException exception) throws SAXException {
+                setError(exception);
+            }
+
+            @Override
+            public void fatalError(SAXParseException exception) throws SAXException {
+                setError(exception);
+            }
+        });
+        this.handler.startDocument();
+        this.validating = true;
+    }
+
+    private void setError(SAXParseException exception) {
+        if (error == null) {
+            error = exception;
+            LOGGER.error("[Validate with XSD schema] wado_query is NOT valid", exception); //$NON-NLS-1$
+        }
+        // Stop validating after the first error, the document is read anyway
+        validating = false;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        int event = super.next();
+        if (validating) {
+            try {
+                forward(event);
+            } catch (SAXException e) {
+                validating = false;
+                LOGGER.error("Error when validate XSD schema", e); //$NON-NLS-1$
+            }
+        }
+        return event;
+    }
+
+    private void forward(int event) throws SAXException {
+        switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                for (int i = 0; i < getNamespaceCount(); i++) {
+                    handler.startPrefixMapping(nullToEmpty(getNamespacePrefix(i)), nullToEmpty(getNamespaceURI(i)));
+                }
+                AttributesImpl attributes = new AttributesImpl();
+                for (int i = 0; i < getAttributeCount(); i++) {
+                    QName name = getAttributeName(i);
+                    attributes.addAttribute(nullToEmpty(name.getNamespaceURI()), name.getLocalPart(), getQName(name),
+                        getAttributeType(i), getAttributeValue(i));
+                }
+                QName element = getName();
+                handler.startElement(nullToEmpty(element.getNamespaceURI()), element.getLocalPart(),
+                    getQName(element), attributes);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                QName end = getName();
+                handler.endElement(nullToEmpty(end.getNamespaceURI()), end.getLocalPart(), getQName(end));
+                for (int i = 0; i < getNamespaceCount(); i++) {
+                    handler.endPrefixMapping(nullToEmpty(getNamespacePrefix(i)));
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                handler.characters(getTextCharacters(), getTextStart(), getTextLength());
+                break;
+            case XMLStreamConstants.END_DOCUMENT:
+                handler.endDocument();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        if (validating && error == null) {
+            LOGGER.info("[Validate with XSD schema] wado_query is valid"); //$NON-NLS-1$
+        }
+        validating = false;
+        super.close();
+    }
+
+    private static String getQName(QName name) {
+        String prefix = name.getPrefix();
+        return prefix == null || prefix.isEmpty() ? name.getLocalPart() : prefix + ":" + name.getLocalPart(); //$NON-NLS-1$
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value; //$NON-NLS-1$
+    }
+}
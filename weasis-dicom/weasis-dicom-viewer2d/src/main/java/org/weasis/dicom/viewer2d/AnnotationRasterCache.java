@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.dicom.viewer2d;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Translucent raster holding the pre-rendered static corner annotations of a view.
+ *
+ * The raster is rebuilt only when the key (image, displayed tags, window/level/zoom, font and view size) changes,
+ * otherwise painting is a single image blit.
+ */
+final class AnnotationRasterCache {
+
+    private Object[] key;
+    private BufferedImage raster;
+    private final Point2D.Float topLeft = new Point2D.Float();
+    private final Point2D.Float topRight = new Point2D.Float();
+    private float bottomY;
+
+    /**
+     * @return true when the graphics can receive the raster without resampling (only a translation is allowed).
+     */
+    static boolean isCompatible(Graphics2D g2) {
+        return (g2.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0;
+    }
+
+    boolean isValid(Object[] newKey) {
+        return raster != null && Arrays.deepEquals(key, newKey);
+    }
+
+    /**
+     * Prepares an empty raster of the given size and returns a graphics configured like the source graphics. The
+     * caller must dispose the returned graphics.
+     */
+    Graphics2D createGraphics(Graphics2D source, Object[] newKey, int width, int height) {
+        int w = Math.max(1, width);
+        int h = Math.max(1, height);
+        if (raster == null || raster.getWidth() != w || raster.getHeight() != h) {
+            if (raster != null) {
+                raster.flush();
+            }
+            GraphicsConfiguration config = source.getDeviceConfiguration();
+            raster = config == null ? new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB)
+                : config.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+        }
+        this.key = newKey;
+
+        Graphics2D g = raster.createGraphics();
+        Composite oldComposite = g.getComposite();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, w, h);
+        g.setComposite(oldComposite);
+        g.setRenderingHints(source.getRenderingHints());
+        g.setFont(source.getFont());
+        return g;
+    }
+
+    void setLayout(Point2D.Float topLeft, Point2D.Float topRight, float bottomY) {
+        this.topLeft.setLocation(topLeft);
+        this.topRight.setLocation(topRight);
+        this.bottomY = bottomY;
+    }
+
+    Point2D.Float getTopLeftPosition() {
+        return new Point2D.Float(topLeft.x, topLeft.y);
+    }
+
+    Point2D.Float getTopRightPosition() {
+        return new Point2D.Float(topRight.x, topRight.y);
+    }
+
+    float getBottomY() {
+        return bottomY;
+    }
+
+    void paint(Graphics2D g2) {
+        if (raster != null) {
+            g2.drawImage(raster, 0, 0, null);
+        }
+    }
+
+    void clear() {
+        if (raster != null) {
+            raster.flush();
+            raster = null;
+        }
+        key = null;
+    }
+}
@@ -26,13 +26,13 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
-import javax.media.jai.Histogram;
 import javax.media.jai.LookupTableJAI;
 import javax.media.jai.PlanarImage;
 import javax.swing.Icon;
@@ -52,6 +52,7 @@ import org.weasis.core.api.image.PseudoColorOp;
 import org.weasis.core.api.image.RotationOp;
 import org.weasis.core.api.image.WindowOp;
 import org.weasis.core.api.image.op.ByteLut;
+import org.weasis.core.api.image.util.IntHistogram;
 import org.weasis.core.api.image.util.Unit;
 import org.weasis.core.api.media.data.ImageElement;
 import org.weasis.core.api.media.data.MediaSeries;
@@ -106,6 +107,7 @@ public class InfoLayer extends DefaultUUID implements LayerAnnotation {
     private int border = BORDER;
     private double thickLength = 15.0;
     private boolean showBottomScale = true;
+    private final transient AnnotationRasterCache annotationCache = new AnnotationRasterCache();
 
     private String name;
 
@@ -303,6 +305,12 @@ public class InfoLayer extends DefaultUUID implements LayerAnnotation {
             }
         }
 
+        if (dcm != null && dcm.isPreview()) {
+            String message = Messages.getString("InfoLayer.preview"); //$NON-NLS-1$
+            DefaultGraphicLabel.paintColorFontOutline(g2, message, midx - g2.getFontMetrics().stringWidth(message) / 2,
+                border + fontHeight, Color.ORANGE);
+        }
+
         if (image.isReadable() && getDisplayPreferences(SCALE)) {
             drawScale(g2, bound, fontHeight);
         }
@@ -450,85 +458,33 @@ public class InfoLayer extends DefaultUUID implements LayerAnnotation {
 
         if (getDisplayPreferences(ANNOTATIONS) && dcm != null) {
             Series series = (Series) view2DPane.getSeries();
-            MediaSeriesGroup study = model.getParent(series, DicomModel.study);
-            MediaSeriesGroup patient = model.getParent(series, DicomModel.patient);
-            CornerInfoData corner = modality.getCornerInfo(CornerDisplay.TOP_LEFT);
             boolean anonymize = getDisplayPreferences(ANONYM_ANNOTATIONS);
-            drawY = fontHeight;
-            TagView[] infos = corner.getInfos();
-            for (int j = 0; j < infos.length; j++) {
-                if (infos[j] != null) {
-                    if (hideMin || infos[j].containsTag(TagD.get(Tag.PatientName))) {
-                        Object value;
-                        for (TagW tag : infos[j].getTag()) {
-                            if (!anonymize || tag.getAnonymizationType() != 1) {
-                                value = getTagValue(tag, patient, study, series, dcm);
-                                if (value != null) {
-                                    String str = tag.getFormattedText(value, infos[j].getFormat());
-                                    if (StringUtil.hasText(str)) {
-                                        DefaultGraphicLabel.paintFontOutline(g2, str, border, drawY);
-                                        drawY += fontHeight;
-                                    }
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-            positions[0] = new Point2D.Float(border, drawY - fontHeight + 5);
-
-            corner = modality.getCornerInfo(CornerDisplay.TOP_RIGHT);
-            drawY = fontHeight;
-            infos = corner.getInfos();
-            for (int j = 0; j < infos.length; j++) {
-                if (infos[j] != null) {
-                    if (hideMin || infos[j].containsTag(TagD.get(Tag.SeriesDate))) {
-                        Object value;
-                        for (TagW tag : infos[j].getTag()) {
-                            if (!anonymize || tag.getAnonymizationType() != 1) {
-                                value = getTagValue(tag, patient, study, series, dcm);
-                                if (value != null) {
-                                    String str = tag.getFormattedText(value, infos[j].getFormat());
-                                    if (StringUtil.hasText(str)) {
-                                        DefaultGraphicLabel.paintFontOutline(g2, str,
-                                            bound.width - g2.getFontMetrics().stringWidth(str) - (float) border, drawY);
-                                        drawY += fontHeight;
-                                    }
-                                    break;
-                                }
-                            }
-                        }
+            if (AnnotationRasterCache.isCompatible(g2)) {
+                Object[] key = getAnnotationKey(g2, modality, series, dcm, bound, disOp, anonymize, hideMin);
+                if (!annotationCache.isValid(key)) {
+                    Graphics2D g = annotationCache.createGraphics(g2, key, bound.width, bound.height);
+                    try {
+                        float y = drawCornerAnnotations(g, modality, series, dcm, bound, fontHeight, anonymize,
+                            hideMin, positions);
+                        annotationCache.setLayout(positions[0], positions[1], y);
+                    } finally {
+                        g.dispose();
                     }
                 }
+                annotationCache.paint(g2);
+                positions[0] = annotationCache.getTopLeftPosition();
+                positions[1] = annotationCache.getTopRightPosition();
+                drawY = annotationCache.getBottomY();
+            } else {
+                // Scaled graphics (print, export): draw directly to keep the text sharp
+                drawY = drawCornerAnnotations(g2, modality, series, dcm, bound, fontHeight, anonymize, hideMin,
+                    positions);
             }
-            positions[1] = new Point2D.Float(bound.width - border, drawY - fontHeight + 5);
 
-            drawY = bound.height - border - 1.5f; // -1.5 for outline
             if (hideMin) {
-                corner = modality.getCornerInfo(CornerDisplay.BOTTOM_RIGHT);
-                infos = corner.getInfos();
-                for (int j = infos.length - 1; j >= 0; j--) {
-                    if (infos[j] != null) {
-                        Object value;
-                        for (TagW tag : infos[j].getTag()) {
-                            if (!anonymize || tag.getAnonymizationType() != 1) {
-                                value = getTagValue(tag, patient, study, series, dcm);
-                                if (value != null) {
-                                    String str = tag.getFormattedText(value, infos[j].getFormat());
-                                    if (StringUtil.hasText(str)) {
-                                        DefaultGraphicLabel.paintFontOutline(g2, str,
-                                            bound.width - g2.getFontMetrics().stringWidth(str) - border, drawY);
-                                        drawY -= fontHeight;
-                                    }
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
                 drawY -= 5;
-                drawSeriesInMemoryState(g2, view2DPane.getSeries(), bound.width - border, (int) (drawY));
+                g2.setPaint(Color.WHITE);
+                drawSeriesInMemoryState(g2, series, bound.width - border, (int) (drawY));
             }
             positions[2] = new Point2D.Float(bound.width - border, drawY - 5);
 
@@ -652,6 +608,108 @@ public class InfoLayer extends DefaultUUID implements LayerAnnotation {
         drawExtendedActions(g2, positions);
     }
 
+    /**
+     * Draws the tag values of the top-left, top-right and bottom-right corners.
+     *
+     * @return the vertical position below the last line of the bottom-right corner
+     */
+    private float drawCornerAnnotations(Graphics2D g2, ModalityInfoData modality, Series series,
+        DicomImageElement dcm, Rectangle bound, float fontHeight, boolean anonymize, boolean hideMin,
+        Point2D.Float[] positions) {
+        MediaSeriesGroup study = model.getParent(series, DicomModel.study);
+        MediaSeriesGroup patient = model.getParent(series, DicomModel.patient);
+        CornerInfoData corner = modality.getCornerInfo(CornerDisplay.TOP_LEFT);
+        float drawY = fontHeight;
+        TagView[] infos = corner.getInfos();
+        for (int j = 0; j < infos.length; j++) {
+            if (infos[j] != null) {
+                if (hideMin || infos[j].containsTag(TagD.get(Tag.PatientName))) {
+                    Object value;
+                    for (TagW tag : infos[j].getTag()) {
+                        if (!anonymize || tag.getAnonymizationType() != 1) {
+                            value = getTagValue(tag, patient, study, series, dcm);
+                            if (value != null) {
+                                String str = tag.getFormattedText(value, infos[j].getFormat());
+                                if (StringUtil.hasText(str)) {
+                                    DefaultGraphicLabel.paintFontOutline(g2, str, border, drawY);
+                                    drawY += fontHeight;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        positions[0] = new Point2D.Float(border, drawY - fontHeight + 5);
+
+        corner = modality.getCornerInfo(CornerDisplay.TOP_RIGHT);
+        drawY = fontHeight;
+        infos = corner.getInfos();
+        for (int j = 0; j < infos.length; j++) {
+            if (infos[j] != null) {
+                if (hideMin || infos[j].containsTag(TagD.get(Tag.SeriesDate))) {
+                    Object value;
+                    for (TagW tag : infos[j].getTag()) {
+                        if (!anonymize || tag.getAnonymizationType() != 1) {
+                            value = getTagValue(tag, patient, study, series, dcm);
+                            if (value != null) {
+                                String str = tag.getFormattedText(value, infos[j].getFormat());
+                                if (StringUtil.hasText(str)) {
+                                    DefaultGraphicLabel.paintFontOutline(g2, str,
+                                        bound.width - g2.getFontMetrics().stringWidth(str) - (float) border, drawY);
+                                    drawY += fontHeight;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        positions[1] = new Point2D.Float(bound.width - border, drawY - fontHeight + 5);
+
+        drawY = bound.height - border - 1.5f; // -1.5 for outline
+        if (hideMin) {
+            corner = modality.getCornerInfo(CornerDisplay.BOTTOM_RIGHT);
+            infos = corner.getInfos();
+            for (int j = infos.length - 1; j >= 0; j--) {
+                if (infos[j] != null) {
+                    Object value;
+                    for (TagW tag : infos[j].getTag()) {
+                        if (!anonymize || tag.getAnonymizationType() != 1) {
+                            value = getTagValue(tag, patient, study, series, dcm);
+                            if (value != null) {
+                                String str = tag.getFormattedText(value, infos[j].getFormat());
+                                if (StringUtil.hasText(str)) {
+                                    DefaultGraphicLabel.paintFontOutline(g2, str,
+                                        bound.width - g2.getFontMetrics().stringWidth(str) - border, drawY);
+                                    drawY -= fontHeight;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return drawY;
+    }
+
+    private Object[] getAnnotationKey(Graphics2D g2, ModalityInfoData modality, Series series,
+        DicomImageElement dcm, Rectangle bound, OpManager disOp, boolean anonymize, boolean hideMin) {
+        // Copy the tag arrays as they can be edited in place from the preferences
+        TagView[] topLeft = modality.getCornerInfo(CornerDisplay.TOP_LEFT).getInfos();
+        TagView[] topRight = modality.getCornerInfo(CornerDisplay.TOP_RIGHT).getInfos();
+        TagView[] bottomRight = modality.getCornerInfo(CornerDisplay.BOTTOM_RIGHT).getInfos();
+        return new Object[] { dcm, series, Arrays.copyOf(topLeft, topLeft.length),
+            Arrays.copyOf(topRight, topRight.length), Arrays.copyOf(bottomRight, bottomRight.length), anonymize,
+            hideMin, bound.width, bound.height, border, g2.getFont(),
+            g2.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING),
+            disOp.getParamValue(WindowOp.OP_NAME, ActionW.WINDOW.cmd()),
+            disOp.getParamValue(WindowOp.OP_NAME, ActionW.LEVEL.cmd()), view2DPane.getViewModel().getViewScale() };
+    }
+
     private void rotate(Vector3d vSrc, Vector3d axis, double angle, Vector3d vDst) {
         axis.normalize();
         vDst.x = axis.x * (axis.x * vSrc.x + axis.y * vSrc.y + axis.z * vSrc.z) * (1 - Math.cos(angle))
@@ -665,17 +723,17 @@ public class InfoLayer extends DefaultUUID implements LayerAnnotation {
     private void drawSeriesInMemoryState(Graphics2D g2d, MediaSeries series, int x, int y) {
         if (getDisplayPreferences(PRELOADING_BAR) && series instanceof DicomSeries) {
             DicomSeries s = (DicomSeries) series;
-            boolean[] list = s.getImageInMemoryList();
-            int length = list.length > 120 ? 120 : list.length;
+            // One element per pixel, at most 120 pixels
+            boolean[] list = s.getImageInMemoryList(120);
+            int length = list.length;
             x -= length;
             preloadingProgressBound.setBounds(x - 1, y - 1, length + 1, 5 + 1);
             g2d.fillRect(x, y, length, 5);
             g2d.setPaint(Color.BLACK);
             g2d.draw(preloadingProgressBound);
-            double factorResize = list.length > 120 ? 120.0 / list.length : 1;
-            for (int i = 0; i < list.length; i++) {
+            for (int i = 0; i < length; i++) {
                 if (!list[i]) {
-                    int val = x + (int) (i * factorResize);
+                    int val = x + i;
                     g2d.drawLine(val, y, val, y + 3);
                 }
             }
@@ -1055,14 +1113,14 @@ public class InfoLayer extends DefaultUUID implements LayerAnnotation {
         // Draw Histogram
 
         boolean showHistogram = true;
-        Histogram histogram =
+        IntHistogram histogram =
             showHistogram ? image.getHistogram(view2DPane.getSourceImage(), null, pixelPadding) : null;
 
         if (histogram != null) {
 
             boolean logarithmRescale = true;
 
-            final int[] histoData = histogram.getBins(0);
+            final int[] histoData = histogram.getBins();
             int histoCount = Integer.MIN_VALUE;
             for (int c : histoData) {
                 histoCount = Math.max(histoCount, c);
@@ -128,9 +128,7 @@ import org.weasis.dicom.codec.display.ShutterOp;
 import org.weasis.dicom.codec.display.WindowAndPresetsOp;
 import org.weasis.dicom.codec.geometry.GeometryOfSlice;
 import org.weasis.dicom.codec.geometry.ImageOrientation;
-import org.weasis.dicom.codec.geometry.IntersectSlice;
-import org.weasis.dicom.codec.geometry.IntersectVolume;
-import org.weasis.dicom.codec.geometry.LocalizerPoster;
+import org.weasis.dicom.codec.geometry.IntersectionCache;
 import org.weasis.dicom.explorer.DicomExplorer;
 import org.weasis.dicom.explorer.DicomModel;
 import org.weasis.dicom.explorer.LoadLocalDicom;
@@ -699,16 +697,15 @@ public class View2d extends DefaultView2d<DicomImageElement> {
 
                     GraphicLayer layer = AbstractGraphicModel.getOrBuildLayer(this, LayerType.CROSSLINES);
                     // IntersectSlice: display a line representing the center of the slice
-                    IntersectSlice slice = new IntersectSlice(sliceGeometry);
                     if (firstImage != null && firstImage != lastImage) {
-                        addCrossline(firstImage, layer, slice, false);
+                        addCrossline(firstImage, layer, sliceGeometry, false);
                     }
                     if (lastImage != null && firstImage != lastImage) {
-                        addCrossline(lastImage, layer, slice, false);
+                        addCrossline(lastImage, layer, sliceGeometry, false);
                     }
                     if (selImage != null) {
                         // IntersectVolume: display a rectangle to show the slice thickness
-                        addCrossline(selImage, layer, new IntersectVolume(sliceGeometry), true);
+                        addCrossline(selImage, layer, sliceGeometry, true);
                     }
                     repaint();
                 }
@@ -717,11 +714,12 @@ public class View2d extends DefaultView2d<DicomImageElement> {
 
     }
 
-    protected void addCrossline(DicomImageElement selImage, GraphicLayer layer, LocalizerPoster localizer,
+    protected void addCrossline(DicomImageElement selImage, GraphicLayer layer, GeometryOfSlice localizer,
         boolean center) {
         GeometryOfSlice sliceGeometry = selImage.getDispSliceGeometry();
         if (sliceGeometry != null) {
-            List<Point2D.Double> pts = localizer.getOutlineOnLocalizerForThisGeometry(sliceGeometry);
+            // The outlines are shared by all the views displaying the same images
+            List<Point2D.Double> pts = IntersectionCache.getOutline(localizer, sliceGeometry, center);
             if (pts != null && !pts.isEmpty()) {
                 Color color = center ? Color.blue : Color.cyan;
                 try {
@@ -422,6 +422,22 @@ public class View2dContainer extends ImageViewerPlugin<DicomImageElement> implem
                             }
                         }
                     }
+                } else if (ObservableEvent.BasicAction.Replace.equals(action)) {
+                    if (SeriesEvent.Action.ReplaceImage.equals(action2) && source instanceof DicomImageElement) {
+                        // A preview has been replaced by the original image (or removed when null)
+                        DicomImageElement oldImg = (DicomImageElement) source;
+                        for (ViewCanvas<DicomImageElement> v : view2ds) {
+                            if (oldImg == v.getImage()) {
+                                MediaSeries<DicomImageElement> s = v.getSeries();
+                                if (param instanceof DicomImageElement && v instanceof View2d) {
+                                    ((View2d) v).setImage((DicomImageElement) param);
+                                } else if (s != null) {
+                                    v.setSeries(null);
+                                    v.setSeries(s, null);
+                                }
+                            }
+                        }
+                    }
                 } else if (ObservableEvent.BasicAction.Update.equals(action)) {
                     if (SeriesEvent.Action.Update.equals(action2)) {
                         if (source instanceof KOSpecialElement) {
@@ -74,6 +74,16 @@ then
 	echo Java Home: $JAVA_HOME/bin/java
 	curPath=$(dirname "`readlink -f "$0"`")
 	echo Weasis launcher directory: $curPath
-	$JAVA_HOME/bin/java -Xms64m -Xmx512m -Dgosh.args="-sc telnetd -p 17179 start" -Dweasis.portable.dir="$curPath" -classpath "$curPath/weasis/weasis-launcher.jar:$curPath/weasis/felix.jar:$curPath/weasis/substance.jar" org.weasis.launcher.WeasisLauncher \$dicom:get --portable ${userParameters[@]}
+	# Use the class data sharing archive written by weasis.cds=record (Java 13 or later) in the cache directory of
+	# the portable version, see config.properties
+	JAVA_VERSION=`$JAVA_HOME/bin/java -version 2>&1 | head -1 | awk -F '"' '{ print $2 }'`
+	CDS_ARCHIVE="$HOME/.weasis/cache-2B70055B-jdk$JAVA_VERSION.jsa"
+	cdsOptions=()
+	if [ -f "$CDS_ARCHIVE" ]
+	then
+		echo CDS archive: $CDS_ARCHIVE
+		cdsOptions+=("-XX:SharedArchiveFile=$CDS_ARCHIVE")
+	fi
+	$JAVA_HOME/bin/java -Xms64m -Xmx512m "${cdsOptions[@]}" -Dgosh.args="-sc telnetd -p 17179 start" -Dweasis.portable.dir="$curPath" -classpath "$curPath/weasis/weasis-launcher.jar:$curPath/weasis/felix.jar:$curPath/weasis/substance.jar" org.weasis.launcher.WeasisLauncher \$dicom:get --portable ${userParameters[@]}
 else echo 'Weasis requires Java Runtime '$REQUIRED_TEXT_VERSION' or higher, please install it'
 fi
@@ -118,6 +118,16 @@ done
 echo user arguments: ${userParameters[@]}
 echo "Launching Weasis with JAVA_HOME set to $JAVA_HOME"
 
+# Use the class data sharing archive written by weasis.cds=record (Java 13 or later) in the cache directory of the
+# portable version, see config.properties
+jversion "$JAVA_HOME"
+cdsArchive="$HOME/.weasis/cache-2B70055B-jdk$jversion.jsa"
+cdsOptions=()
+if [ -f "$cdsArchive" ] ; then
+	echo "CDS archive: $cdsArchive"
+	cdsOptions+=("-XX:SharedArchiveFile=$cdsArchive")
+fi
+
 # launch
 
-$JAVA_HOME/bin/java -Xms64m -Xmx512m -Xdock:name=Weasis -Xdock:icon="$resourcespath/logo-button.icns" -Dapple.laf.useScreenMenuBar=true -Dgosh.args="-sc telnetd -p 17179 start" -Dweasis.portable.dir="$basepath" -classpath "$basepath/weasis/weasis-launcher.jar:$basepath/weasis/felix.jar:$basepath/weasis/substance.jar" org.weasis.launcher.WeasisLauncher \$dicom:get --portable ${userParameters[@]}
+$JAVA_HOME/bin/java -Xms64m -Xmx512m "${cdsOptions[@]}" -Xdock:name=Weasis -Xdock:icon="$resourcespath/logo-button.icns" -Dapple.laf.useScreenMenuBar=true -Dgosh.args="-sc telnetd -p 17179 start" -Dweasis.portable.dir="$basepath" -classpath "$basepath/weasis/weasis-launcher.jar:$basepath/weasis/felix.jar:$basepath/weasis/substance.jar" org.weasis.launcher.WeasisLauncher \$dicom:get --portable ${userParameters[@]}
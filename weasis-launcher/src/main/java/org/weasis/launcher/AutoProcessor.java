@@ -22,6 +22,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -29,6 +30,15 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Pack200;
 import java.util.jar.Pack200.Unpacker;
@@ -39,6 +49,7 @@ import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
+import org.osgi.framework.wiring.FrameworkWiring;
 import org.osgi.service.startlevel.StartLevel;
 
 public class AutoProcessor {
@@ -84,6 +95,11 @@ public class AutoProcessor {
      **/
     public static final String AUTO_START_PROP = "felix.auto.start"; //$NON-NLS-1$
 
+    /**
+     * The property name of the number of threads installing the bundles of a start level in parallel.
+     **/
+    public static final String INSTALL_THREADS_PROP = "weasis.bundle.install.threads"; //$NON-NLS-1$
+
     public static final String PACK200_COMPRESSION = ".pack.gz"; //$NON-NLS-1$
 
     /**
@@ -107,11 +123,12 @@ public class AutoProcessor {
      * Processes bundles in the auto-deploy directory, performing the specified deploy actions.
      * </p>
      */
-    private static void processAutoDeploy(Map configMap, BundleContext context, WeasisLoader weasisLoader) {
+    private static void processAutoDeploy(Map configMap, final BundleContext context,
+        final WeasisLoader weasisLoader) {
         // Determine if auto deploy actions to perform.
         String action = (String) configMap.get(AUTO_DEPLOY_ACTION_PROPERY);
         action = (action == null) ? "" : action; //$NON-NLS-1$
-        List actionList = new ArrayList();
+        final List actionList = new ArrayList();
         StringTokenizer st = new StringTokenizer(action, ","); //$NON-NLS-1$
         while (st.hasMoreTokens()) {
             String s = st.nextToken().trim().toLowerCase();
@@ -125,7 +142,7 @@ public class AutoProcessor {
         if (actionList.size() > 0) {
             // Retrieve the Start Level service, since it will be needed
             // to set the start level of the installed bundles.
-            StartLevel sl = (StartLevel) context
+            final StartLevel sl = (StartLevel) context
                 .getService(context.getServiceReference(org.osgi.service.startlevel.StartLevel.class.getName()));
 
             // Get start level for auto-deploy bundles.
@@ -161,42 +178,66 @@ public class AutoProcessor {
                 }
             }
             weasisLoader.setMax(jarList.size());
-            // Install bundle JAR files and remember the bundle objects.
-            final List startBundleList = new ArrayList();
+            // Install bundle JAR files in parallel and remember the bundle objects in the order of the files.
+            final Bundle[] deployedBundles = new Bundle[jarList.size()];
+            final AtomicInteger bundleIter = new AtomicInteger();
+            final int level = startLevel;
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(jarList.size());
             for (int i = 0; i < jarList.size(); i++) {
                 // Look up the bundle by location, removing it from
                 // the map of installed bundles so the remaining bundles
                 // indicate which bundles may need to be uninstalled.
-                File jar = (File) jarList.get(i);
-                Bundle b = (Bundle) installedBundleMap.remove((jar).toURI().toString());
-                try {
-                    weasisLoader.writeLabel(WeasisLoader.LBL_DOWNLOADING + " " + jar.getName()); //$NON-NLS-1$
+                final int index = i;
+                final File jar = (File) jarList.get(i);
+                final Bundle installed = (Bundle) installedBundleMap.remove((jar).toURI().toString());
+                tasks.add(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        long start = StartupTimeline.begin();
+                        Bundle b = installed;
+                        try {
+                            weasisLoader.writeLabel(WeasisLoader.LBL_DOWNLOADING + " " + jar.getName()); //$NON-NLS-1$
 
-                    // If the bundle is not already installed, then install it
-                    // if the 'install' action is present.
-                    if ((b == null) && actionList.contains(AUTO_DEPLOY_INSTALL_VALUE)) {
-                        b = installBundle(context, ((File) jarList.get(i)).toURI().toString());
-                    }
-                    // If the bundle is already installed, then update it
-                    // if the 'update' action is present.
-                    else if (b != null && actionList.contains(AUTO_DEPLOY_UPDATE_VALUE)) {
-                        b.update();
-                    }
+                            // If the bundle is not already installed, then install it
+                            // if the 'install' action is present.
+                            if ((b == null) && actionList.contains(AUTO_DEPLOY_INSTALL_VALUE)) {
+                                b = installBundle(context, jar.toURI().toString());
+                            }
+                            // If the bundle is already installed, then update it
+                            // if the 'update' action is present.
+                            else if (b != null && actionList.contains(AUTO_DEPLOY_UPDATE_VALUE)) {
+                                b.update();
+                            }
 
-                    // If we have found and/or successfully installed a bundle,
-                    // then add it to the list of bundles to potentially start
-                    // and also set its start level accordingly.
-                    if (b != null) {
-                        weasisLoader.setValue(i + 1);
-                        if (!isFragment(b)) {
-                            startBundleList.add(b);
-                            sl.setBundleStartLevel(b, startLevel);
+                            // If we have found and/or successfully installed a bundle,
+                            // then add it to the list of bundles to potentially start
+                            // and also set its start level accordingly.
+                            if (b != null) {
+                                weasisLoader.setValue(bundleIter.incrementAndGet());
+                                if (!isFragment(b)) {
+                                    deployedBundles[index] = b;
+                                    sl.setBundleStartLevel(b, level);
+                                }
+                            }
+
+                        } catch (Exception ex) {
+                            System.err.println("Auto-deploy install: " + ex //$NON-NLS-1$
+                                + ((ex.getCause() != null) ? " - " + ex.getCause() : "")); //$NON-NLS-1$ //$NON-NLS-2$
+                        } finally {
+                            StartupTimeline.end(jar.getName(), StartupTimeline.CAT_INSTALL, start);
                         }
+                        return null;
                     }
+                });
+            }
+            executeAll(configMap, tasks);
+            resolveBundles(context, Arrays.asList(deployedBundles));
 
-                } catch (Exception ex) {
-                    System.err.println("Auto-deploy install: " + ex //$NON-NLS-1$
-                        + ((ex.getCause() != null) ? " - " + ex.getCause() : "")); //$NON-NLS-1$ //$NON-NLS-2$
+            final List startBundleList = new ArrayList();
+            for (Bundle b : deployedBundles) {
+                if (b != null) {
+                    startBundleList.add(b);
                 }
             }
 
@@ -236,10 +277,11 @@ public class AutoProcessor {
      * Processes the auto-install and auto-start properties from the specified configuration properties.
      * </p>
      */
-    private static void processAutoProperties(Map configMap, BundleContext context, WeasisLoader weasisLoader) {
+    private static void processAutoProperties(Map configMap, final BundleContext context,
+        final WeasisLoader weasisLoader) {
         // Retrieve the Start Level service, since it will be needed
         // to set the start level of the installed bundles.
-        StartLevel sl = (StartLevel) context
+        final StartLevel sl = (StartLevel) context
             .getService(context.getServiceReference(org.osgi.service.startlevel.StartLevel.class.getName()));
 
         // Retrieve all auto-install and auto-start properties and install
@@ -282,7 +324,8 @@ public class AutoProcessor {
         }
         weasisLoader.setMax(bundleList.size());
 
-        final Map<String, Bundle> installedBundleMap = new HashMap<String, Bundle>();
+        // Filled concurrently by the threads installing the bundles
+        final Map<String, Bundle> installedBundleMap = new ConcurrentHashMap<String, Bundle>();
         Bundle[] bundles = context.getBundles();
         for (int i = 0; i < bundles.length; i++) {
             String bundleName = getBundleNameFromLocation(bundles[i].getLocation());
@@ -313,43 +356,41 @@ public class AutoProcessor {
             }
         }
 
-        int bundleIter = 0;
+        final AtomicInteger bundleIter = new AtomicInteger();
 
-        // Parse and install the bundles associated with the key.
+        // Group the bundles by start level: the bundles of the same start level are installed in parallel and the
+        // start levels are installed in ascending order.
+        Map<Integer, List<Callable<Void>>> levels = new TreeMap<Integer, List<Callable<Void>>>();
         for (Iterator<Entry<String, BundleElement>> iter = bundleList.entrySet().iterator(); iter.hasNext();) {
             Entry<String, BundleElement> element = iter.next();
-            String bundleName = element.getKey();
-            BundleElement bundle = element.getValue();
+            final String bundleName = element.getKey();
+            final BundleElement bundle = element.getValue();
             if (bundle == null) {
                 // Should never happen
                 continue;
             }
-            try {
-                weasisLoader.writeLabel(WeasisLoader.LBL_DOWNLOADING + " " + bundleName); //$NON-NLS-1$
-                // Do not download again the same bundle version but with different location or already in installed
-                // in cache from a previous version of Weasis
-                Bundle b = installedBundleMap.get(bundleName);
-                if (b == null) {
-                    b = installBundle(context, bundle.getLocation());
-                    installedBundleMap.put(bundleName, b);
-                }
-                sl.setBundleStartLevel(b, bundle.getStartLevel());
-                loadTranslationBundle(context, b, installedBundleMap);
-            } catch (Exception ex) {
-                if (bundleName.contains(System.getProperty("native.library.spec"))) { //$NON-NLS-1$
-                    System.err.println("Cannot install native bundle: " + bundleName); //$NON-NLS-1$
-                } else {
-                    printError(ex, "Cannot install bundle: " + bundleName); //$NON-NLS-1$
-                    if (ex.getCause() != null) {
-                        ex.printStackTrace();
-                    }
-                }
-            } finally {
-                bundleIter++;
-                weasisLoader.setValue(bundleIter);
+            List<Callable<Void>> tasks = levels.get(bundle.getStartLevel());
+            if (tasks == null) {
+                tasks = new ArrayList<Callable<Void>>();
+                levels.put(bundle.getStartLevel(), tasks);
             }
+            tasks.add(new Callable<Void>() {
+
+                @Override
+                public Void call() throws Exception {
+                    installBundleElement(context, sl, weasisLoader, bundleName, bundle, installedBundleMap);
+                    weasisLoader.setValue(bundleIter.incrementAndGet());
+                    return null;
+                }
+            });
+        }
 
+        // Parse and install the bundles associated with the key.
+        for (List<Callable<Void>> tasks : levels.values()) {
+            executeAll(configMap, tasks);
         }
+        // Resolve all the bundles at once instead of resolving them one by one when starting
+        resolveBundles(context, installedBundleMap.values());
 
         weasisLoader.writeLabel(Messages.getString("AutoProcessor.start")); //$NON-NLS-1$
         // Now loop through the auto-start bundles and start them.
@@ -362,6 +403,7 @@ public class AutoProcessor {
                 continue;
             }
             if (bundle.isCanBeStarted()) {
+                // Only marks the bundle for start, its activation is recorded by the timeline listener
                 try {
                     Bundle b = installedBundleMap.get(bundleName);
                     if (b == null) {
@@ -378,6 +420,112 @@ public class AutoProcessor {
         }
     }
 
+    private static void installBundleElement(BundleContext context, StartLevel sl, WeasisLoader weasisLoader,
+        String bundleName, BundleElement bundle, Map<String, Bundle> installedBundleMap) {
+        long start = StartupTimeline.begin();
+        try {
+            weasisLoader.writeLabel(WeasisLoader.LBL_DOWNLOADING + " " + bundleName); //$NON-NLS-1$
+            // Do not download again the same bundle version but with different location or already in installed
+            // in cache from a previous version of Weasis
+            Bundle b = installedBundleMap.get(bundleName);
+            if (b == null) {
+                b = installBundle(context, bundle.getLocation());
+                installedBundleMap.put(bundleName, b);
+            }
+            sl.setBundleStartLevel(b, bundle.getStartLevel());
+            loadTranslationBundle(context, b, installedBundleMap);
+        } catch (Exception ex) {
+            if (bundleName.contains(System.getProperty("native.library.spec"))) { //$NON-NLS-1$
+                System.err.println("Cannot install native bundle: " + bundleName); //$NON-NLS-1$
+            } else {
+                printError(ex, "Cannot install bundle: " + bundleName); //$NON-NLS-1$
+                if (ex.getCause() != null) {
+                    ex.printStackTrace();
+                }
+            }
+        } finally {
+            StartupTimeline.end(bundleName, StartupTimeline.CAT_INSTALL, start);
+        }
+    }
+
+    /**
+     * Runs the tasks with the number of threads given by {@link #INSTALL_THREADS_PROP} and waits for their completion.
+     */
+    private static void executeAll(Map configMap, List<Callable<Void>> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        int nbThreads = Math.min(tasks.size(), getInstallThreads(configMap));
+        if (nbThreads <= 1) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    printError(e, "Cannot install bundle: "); //$NON-NLS-1$
+                }
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "Bundle Installer " + count.incrementAndGet()); //$NON-NLS-1$
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    printError(e, "Cannot install bundle: "); //$NON-NLS-1$
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int getInstallThreads(Map configMap) {
+        Object val = System.getProperty(INSTALL_THREADS_PROP);
+        if (val == null) {
+            val = configMap.get(INSTALL_THREADS_PROP);
+        }
+        if (val != null) {
+            try {
+                return Integer.parseInt(val.toString().trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid number of threads: " + val); //$NON-NLS-1$
+            }
+        }
+        // Installing is mainly waiting for downloads and the unpacking of Pack200 files
+        return Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static void resolveBundles(BundleContext context, Collection<Bundle> bundles) {
+        List<Bundle> list = new ArrayList<Bundle>(bundles.size());
+        for (Bundle b : bundles) {
+            if (b != null && b.getState() == Bundle.INSTALLED) {
+                list.add(b);
+            }
+        }
+        if (!list.isEmpty()) {
+            long start = StartupTimeline.begin();
+            FrameworkWiring wiring = context.getBundle(0).adapt(FrameworkWiring.class);
+            if (wiring != null) {
+                // Unresolved bundles (e.g. native bundles of another platform) are ignored here
+                wiring.resolveBundles(list);
+            }
+            StartupTimeline.end(list.size() + " bundles", StartupTimeline.CAT_RESOLVE, start); //$NON-NLS-1$
+        }
+    }
+
     private static String getBundleNameFromLocation(String location) {
         if (location != null) {
             int index = location.lastIndexOf("/"); //$NON-NLS-1$
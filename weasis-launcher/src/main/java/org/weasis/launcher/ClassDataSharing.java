@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Class data sharing (CDS) archive of the classes loaded during a session, including the classes of the OSGi bundles.
+ * Mapping the archive at startup avoids parsing and verifying again these classes.
+ *
+ * The archive is written next to the Felix cache and requires a Java 13 or later runtime (dynamic CDS archive). It is
+ * used when the JVM is launched with -XX:SharedArchiveFile, which the portable launchers add when the archive exists:
+ * starting a second JVM for each launch would keep two JVMs in memory. The mode is given by the property "weasis.cds":
+ * <ul>
+ * <li>off (default): the application is launched in the current JVM</li>
+ * <li>record: starts a new JVM recording the classes loaded until the application is closed and writes the archive</li>
+ * <li>measure: reports the startup time (from the launch of a new JVM until the application is ready) without and
+ * with the archive</li>
+ * </ul>
+ */
+public final class ClassDataSharing {
+
+    public static final String P_CDS_MODE = "weasis.cds"; //$NON-NLS-1$
+    // Written by the JVM launched by the measure mode
+    static final String P_MEASURE_FILE = "weasis.cds.measure.file"; //$NON-NLS-1$
+
+    static final String MODE_RECORD = "record"; //$NON-NLS-1$
+    static final String MODE_MEASURE = "measure"; //$NON-NLS-1$
+    static final String MODE_OFF = "off"; //$NON-NLS-1$
+
+    private ClassDataSharing() {
+    }
+
+    /**
+     * Starts a new JVM with the CDS options when required by the mode.
+     *
+     * @param serverProp
+     *            the configuration properties
+     * @param cacheDir
+     *            the directory of the Felix cache
+     * @param argv
+     *            the arguments of the launcher
+     * @return the exit value of the new JVM or -1 when the launch must continue in the current JVM
+     */
+    static int launch(Properties serverProp, String cacheDir, String[] argv) {
+        String mode = System.getProperty(P_CDS_MODE, serverProp.getProperty(P_CDS_MODE, MODE_OFF)).trim();
+        if (MODE_OFF.equals(mode) || System.getProperty(P_MEASURE_FILE) != null) {
+            return -1;
+        }
+        if (getJavaMajorVersion() < 13) {
+            System.err.println("CDS archive requires Java 13 or later"); //$NON-NLS-1$
+            return -1;
+        }
+        if (!canRelaunch()) {
+            return -1;
+        }
+
+        File archive = getArchiveFile(cacheDir);
+        try {
+            if (MODE_RECORD.equals(mode)) {
+                System.out.println("Recording the CDS archive: " + archive); //$NON-NLS-1$
+                int exitValue = execute(argv, "-XX:ArchiveClassesAtExit=" + archive.getPath()); //$NON-NLS-1$
+                // The portable launchers use the archive when it exists
+                System.out.println("JVM option using the archive: -XX:SharedArchiveFile=" + archive.getPath()); //$NON-NLS-1$
+                return exitValue;
+            } else if (MODE_MEASURE.equals(mode)) {
+                measure(argv, archive);
+                return 0;
+            }
+        } catch (Exception e) {
+            System.err.println("Cannot launch with the CDS options: " + e); //$NON-NLS-1$
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the time when the application is ready, when the JVM has been launched by the measure mode.
+     *
+     * @return true when the application must be closed
+     */
+    static boolean reportStartup() {
+        String path = System.getProperty(P_MEASURE_FILE);
+        if (path == null) {
+            return false;
+        }
+        // Wall-clock time, compared by the launching JVM with the time it has started this JVM
+        long readyTime = System.currentTimeMillis();
+        try {
+            Files.write(new File(path).toPath(), Long.toString(readyTime).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Cannot write startup time: " + e); //$NON-NLS-1$
+        }
+        return true;
+    }
+
+    static File getArchiveFile(String cacheDir) {
+        // An archive can only be used by the same runtime version
+        String version = System.getProperty("java.version"); //$NON-NLS-1$
+        return new File(cacheDir + "-jdk" + version + ".jsa"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    static int getJavaMajorVersion() {
+        String version = System.getProperty("java.specification.version", "1.8"); //$NON-NLS-1$ //$NON-NLS-2$
+        if (version.startsWith("1.")) { //$NON-NLS-1$
+            version = version.substring(2);
+        }
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 8;
+        }
+    }
+
+    private static boolean canRelaunch() {
+        // Not with Java Web Start or when the JVM has already the CDS options
+        if (System.getProperty("javawebstart.version") != null) { //$NON-NLS-1$
+            return false;
+        }
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("-XX:SharedArchiveFile") //$NON-NLS-1$
+                || arg.startsWith("-XX:ArchiveClassesAtExit") || arg.startsWith("-Xshare")) { //$NON-NLS-1$ //$NON-NLS-2$
+                return false;
+            }
+        }
+        return new File(getJavaExecutable()).canExecute();
+    }
+
+    private static void measure(String[] argv, File archive) throws IOException, InterruptedException {
+        if (!archive.canRead()) {
+            System.err.println("No CDS archive: " + archive); //$NON-NLS-1$
+            return;
+        }
+        long without = measureStartup(argv, "-Xshare:auto"); //$NON-NLS-1$
+        long with = measureStartup(argv, "-XX:SharedArchiveFile=" + archive.getPath()); //$NON-NLS-1$
+        System.out.println(String.format("Startup time without CDS archive: %d ms, with: %d ms", without, with)); //$NON-NLS-1$
+    }
+
+    private static long measureStartup(String[] argv, String option) throws IOException, InterruptedException {
+        File file = File.createTempFile("startup", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            // Includes the JVM startup, which is not in the uptime of the new JVM
+            long startTime = System.currentTimeMillis();
+            execute(argv, option, "-D" + P_MEASURE_FILE + "=" + file.getPath()); //$NON-NLS-1$ //$NON-NLS-2$
+            String val = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+            return val.isEmpty() ? -1 : Long.parseLong(val) - startTime;
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    private static int execute(String[] argv, String... options) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(getJavaExecutable());
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (isInheritable(arg)) {
+                cmd.add(arg);
+            }
+        }
+        cmd.addAll(Arrays.asList(options));
+        // The new JVM continues the launch
+        cmd.add("-D" + P_CDS_MODE + "=" + MODE_OFF); //$NON-NLS-1$ //$NON-NLS-2$
+        cmd.add("-classpath"); //$NON-NLS-1$
+        cmd.add(System.getProperty("java.class.path")); //$NON-NLS-1$
+        cmd.add(WeasisLauncher.class.getName());
+        cmd.addAll(Arrays.asList(argv));
+        return new ProcessBuilder(cmd).inheritIO().start().waitFor();
+    }
+
+    /**
+     * The agents and the debugger options are not passed to the new JVM: they cannot be shared with the current JVM
+     * (e.g. the same debugger port) and would change the measured startup time.
+     */
+    static boolean isInheritable(String arg) {
+        return !(arg.startsWith("-agentlib:") || arg.startsWith("-agentpath:") //$NON-NLS-1$ //$NON-NLS-2$
+            || arg.startsWith("-javaagent:") || arg.startsWith("-Xdebug") //$NON-NLS-1$ //$NON-NLS-2$
+            || arg.startsWith("-Xrunjdwp")); //$NON-NLS-1$
+    }
+
+    private static String getJavaExecutable() {
+        boolean windows = System.getProperty("os.name", "").startsWith("Windows"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        String exe = windows ? "java.exe" : "java"; //$NON-NLS-1$ //$NON-NLS-2$
+        return System.getProperty("java.home") + File.separator + "bin" + File.separator + exe; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Nicolas Roduit.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Nicolas Roduit - initial API and implementation
+ ******************************************************************************/
+package org.weasis.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.SynchronousBundleListener;
+
+/**
+ * Records the duration of the startup steps (installation, resolution and activation of each bundle) and writes them
+ * in a timeline file.
+ *
+ * The profiler is enabled by the launcher property "weasis.startup.timeline", which is the path of the file. The file is
+ * in the Trace Event Format and can be opened with chrome://tracing or https://ui.perfetto.dev.
+ */
+public final class StartupTimeline {
+
+    public static final String P_STARTUP_TIMELINE = "weasis.startup.timeline"; //$NON-NLS-1$
+
+    public static final String CAT_LAUNCHER = "launcher"; //$NON-NLS-1$
+    public static final String CAT_INSTALL = "install"; //$NON-NLS-1$
+    public static final String CAT_RESOLVE = "resolve"; //$NON-NLS-1$
+    public static final String CAT_START = "start"; //$NON-NLS-1$
+
+    private static volatile StartupTimeline instance = null;
+
+    private final File file;
+    // Time of the JVM start in the clock of System.nanoTime()
+    private final long origin;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Long> startingBundles = new ConcurrentHashMap<>();
+    private final SynchronousBundleListener bundleListener = new SynchronousBundleListener() {
+
+        @Override
+        public void bundleChanged(BundleEvent event) {
+            Bundle bundle = event.getBundle();
+            if (event.getType() == BundleEvent.STARTING) {
+                startingBundles.put(bundle.getBundleId(), System.nanoTime());
+            } else if (event.getType() == BundleEvent.STARTED) {
+                Long start = startingBundles.remove(bundle.getBundleId());
+                if (start != null) {
+                    add(bundle.getSymbolicName(), CAT_START, start);
+                }
+            }
+        }
+    };
+    private BundleContext context;
+
+    private StartupTimeline(File file) {
+        this.file = file;
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        this.origin = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(uptime);
+        add("JVM", CAT_LAUNCHER, origin); //$NON-NLS-1$
+    }
+
+    /**
+     * Enables the profiler when the timeline property is defined in the system properties or in the configuration.
+     */
+    public static void init(Map<?, ?> configMap) {
+        String path = System.getProperty(P_STARTUP_TIMELINE);
+        if (path == null && configMap != null) {
+            Object val = configMap.get(P_STARTUP_TIMELINE);
+            path = val == null ? null : val.toString();
+        }
+        if (path != null && !path.trim().isEmpty()) {
+            instance = new StartupTimeline(new File(path.trim()));
+        }
+    }
+
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    /**
+     * @return the start time of a step to record
+     */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a step from its start time to now.
+     *
+     * @param name
+     *            the name of the step (e.g. the bundle name)
+     * @param category
+     *            the kind of step
+     * @param start
+     *            the value returned by {@link #begin()}
+     */
+    public static void end(String name, String category, long start) {
+        StartupTimeline timeline = instance;
+        if (timeline != null) {
+            timeline.add(name, category, start);
+        }
+    }
+
+    /**
+     * Records the activation of the bundles.
+     */
+    public static void addBundleListener(BundleContext context) {
+        StartupTimeline timeline = instance;
+        if (timeline != null && context != null) {
+            timeline.context = context;
+            context.addBundleListener(timeline.bundleListener);
+        }
+    }
+
+    /**
+     * Writes the timeline file and disables the profiler.
+     */
+    public static void write() {
+        StartupTimeline timeline = instance;
+        instance = null;
+        if (timeline != null) {
+            if (timeline.context != null) {
+                try {
+                    timeline.context.removeBundleListener(timeline.bundleListener);
+                } catch (Exception e) {
+                    // The framework may be stopped
+                }
+            }
+            try {
+                timeline.writeFile();
+                System.out.println("Startup timeline: " + timeline.file.getAbsolutePath()); //$NON-NLS-1$
+            } catch (IOException e) {
+                System.err.println("Cannot write the startup timeline: " + e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    private void add(String name, String category, long start) {
+        Thread thread = Thread.currentThread();
+        events.add(new Event(name, category, start, System.nanoTime(), thread.getId(), thread.getName()));
+    }
+
+    private void writeFile() throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            writer.write("{\"traceEvents\":[\n"); //$NON-NLS-1$
+            Map<Long, String> threads = new HashMap<>();
+            boolean first = true;
+            for (Event e : events) {
+                threads.put(e.threadId, e.threadName);
+                if (!first) {
+                    writer.write(",\n"); //$NON-NLS-1$
+                }
+                first = false;
+                writer.write(String.format(
+                    "{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"X\",\"ts\":%d,\"dur\":%d,\"pid\":1,\"tid\":%d}", //$NON-NLS-1$
+                    escape(e.name), e.category, TimeUnit.NANOSECONDS.toMicros(e.start - origin),
+                    TimeUnit.NANOSECONDS.toMicros(e.end - e.start), e.threadId));
+            }
+            for (Map.Entry<Long, String> t : threads.entrySet()) {
+                writer.write(String.format(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d," //$NON-NLS-1$
+                    + "\"args\":{\"name\":\"%s\"}}", t.getKey(), escape(t.getValue()))); //$NON-NLS-1$
+            }
+            writer.write("\n]}\n"); //$NON-NLS-1$
+        }
+    }
+
+    private static String escape(String val) {
+        if (val == null) {
+            return ""; //$NON-NLS-1$
+        }
+        StringBuilder buf = new StringBuilder(val.length());
+        for (int i = 0; i < val.length(); i++) {
+            char c = val.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.append('\\').append(c);
+            } else if (c >= ' ') {
+                buf.append(c);
+            }
+        }
+        return buf.toString();
+    }
+
+    private static final class Event {
+        private final String name;
+        private final String category;
+        private final long start;
+        private final long end;
+        private final long threadId;
+        private final String threadName;
+
+        Event(String name, String category, long start, long end, long threadId, String threadName) {
+            this.name = name;
+            this.category = category;
+            this.start = start;
+            this.end = end;
+            this.threadId = threadId;
+            this.threadName = threadName;
+        }
+    }
+}
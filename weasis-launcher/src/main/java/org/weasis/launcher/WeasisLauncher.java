@@ -235,6 +235,7 @@ public class WeasisLauncher {
     }
 
     public static void launch(String[] argv) throws Exception {
+        long launchStart = StartupTimeline.begin();
         // Set system property for dynamically loading only native libraries corresponding of the current platform
         setSystemSpecification();
 
@@ -328,10 +329,20 @@ public class WeasisLauncher {
         // that overwrites anything in the config file.
         serverProp.setProperty(Constants.FRAMEWORK_STORAGE, cacheDir);
 
+        // Launch a new JVM for recording the class data sharing archive or measuring the startup time
+        int cdsExitValue = ClassDataSharing.launch(serverProp, cacheDir, argv);
+        if (cdsExitValue >= 0) {
+            System.exit(cdsExitValue);
+        }
+
+        // Record the startup steps when the timeline property is defined
+        StartupTimeline.init(serverProp);
+
         // Load local properties and clean if necessary the previous version
         WeasisLoader loader = loadProperties(serverProp);
         final WeasisFrame mainFrame = loader.getMainFrame();
         final Properties localProp = loader.getLocalProperties();
+        StartupTimeline.end("Configuration", StartupTimeline.CAT_LAUNCHER, launchStart); //$NON-NLS-1$
 
         // If enabled, register a shutdown hook to make sure the framework is
         // cleanly shutdown when the VM exits.
@@ -357,13 +368,18 @@ public class WeasisLauncher {
 
         try {
             // Now create an instance of the framework with our configuration properties.
+            long stepStart = StartupTimeline.begin();
             m_felix = new Felix(serverProp);
             // Initialize the framework, but don't start it yet.
             m_felix.init();
+            StartupTimeline.end("Framework init", StartupTimeline.CAT_LAUNCHER, stepStart); //$NON-NLS-1$
+            StartupTimeline.addBundleListener(m_felix.getBundleContext());
 
             // Use the system bundle context to process the auto-deploy
             // and auto-install/auto-start properties.
+            stepStart = StartupTimeline.begin();
             loader.setFelix(serverProp, m_activator.getBundleContext());
+            StartupTimeline.end("Install bundles", StartupTimeline.CAT_LAUNCHER, stepStart); //$NON-NLS-1$
             loader.writeLabel(
                 String.format(Messages.getString("WeasisLauncher.starting"), System.getProperty(P_WEASIS_NAME))); //$NON-NLS-1$
             m_tracker =
@@ -372,7 +388,9 @@ public class WeasisLauncher {
             m_tracker.open();
 
             // Start the framework.
+            stepStart = StartupTimeline.begin();
             m_felix.start();
+            StartupTimeline.end("Framework start", StartupTimeline.CAT_LAUNCHER, stepStart); //$NON-NLS-1$
 
             // End of splash screen
             loader.close();
@@ -420,8 +438,15 @@ public class WeasisLauncher {
                 }
             }
             frameworkLoaded = true;
+            StartupTimeline.end("Launch", StartupTimeline.CAT_LAUNCHER, launchStart); //$NON-NLS-1$
+            StartupTimeline.write();
 
-            showMessage(mainFrame, serverProp, localProp);
+            if (ClassDataSharing.reportStartup()) {
+                // Launched for measuring the startup time
+                m_felix.stop();
+            } else {
+                showMessage(mainFrame, serverProp, localProp);
+            }
 
             // Wait for framework to stop to exit the VM.
             m_felix.waitForStop(0);
@@ -437,6 +462,7 @@ public class WeasisLauncher {
                     + STATE.valueOf(b.getState()));
             }
             resetBundleCache();
+            StartupTimeline.write();
         } finally {
             Runtime.getRuntime().halt(exitStatus);
         }
@@ -64,8 +64,15 @@ public class WeasisLoader {
         this.localProperties = localProperties;
     }
 
-    public void writeLabel(String text) {
-        loadingLabel.setText(text);
+    public void writeLabel(final String text) {
+        // Called by the threads loading the bundles
+        EventQueue.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                loadingLabel.setText(text);
+            }
+        });
     }
 
     /*